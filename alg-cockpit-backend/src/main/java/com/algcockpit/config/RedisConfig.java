@@ -0,0 +1,33 @@
+package com.algcockpit.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Redis配置类
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Configuration
+public class RedisConfig {
+
+    /**
+     * 配置Redis消息监听容器
+     * 消息在单个线程上按到达顺序分发，保证同一频道内的消息（如流式输出片段与最终结果）不乱序
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "redis-message-listener");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        return container;
+    }
+}
@@ -74,7 +74,10 @@ public class SecurityConfig {
                                 // 静态资源
                                 "/uploads/**",
                                 // 健康检查
-                                "/api/health"
+                                "/api/health",
+                                // 监控指标（Prometheus抓取）
+                                "/actuator/health/**",
+                                "/actuator/prometheus"
                         ).permitAll()
                         // 其他请求需要认证
                         .anyRequest().authenticated()
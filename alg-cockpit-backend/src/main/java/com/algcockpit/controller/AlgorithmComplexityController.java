@@ -1,7 +1,9 @@
 package com.algcockpit.controller;
 
+import com.algcockpit.dto.request.ComplexityProfileRequest;
 import com.algcockpit.dto.response.ApiResponse;
 import com.algcockpit.entity.AlgorithmComplexity;
+import com.algcockpit.exception.BusinessException;
 import com.algcockpit.service.AlgorithmComplexityService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -43,6 +45,31 @@ public class AlgorithmComplexityController {
         }
     }
 
+    /**
+     * 实测算法复杂度
+     */
+    @PostMapping("/algorithm/{algorithmId}/profile")
+    @Operation(summary = "实测算法复杂度", description = "在沙箱中按递增规模运行算法代码并拟合增长曲线，结果异步写入性能测试数据")
+    public ApiResponse<Boolean> profileAlgorithmComplexity(
+            @Parameter(description = "算法ID", required = true)
+            @PathVariable Long algorithmId,
+            @Parameter(description = "实测参数")
+            @Valid @RequestBody(required = false) ComplexityProfileRequest request) {
+        try {
+            boolean submitted = algorithmComplexityService.startComplexityProfiling(algorithmId,
+                    request != null ? request : new ComplexityProfileRequest());
+            if (!submitted) {
+                return ApiResponse.error(409, "该算法的复杂度实测正在进行中");
+            }
+            return ApiResponse.success(true);
+        } catch (BusinessException e) {
+            return ApiResponse.error(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("提交算法复杂度实测失败，算法ID: {}", algorithmId, e);
+            return ApiResponse.error(500, "提交复杂度实测失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 创建算法复杂度
      */
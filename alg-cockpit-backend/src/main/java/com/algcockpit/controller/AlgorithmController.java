@@ -2,6 +2,7 @@ package com.algcockpit.controller;
 
 import com.algcockpit.dto.request.AlgorithmExecuteRequest;
 import com.algcockpit.dto.response.AlgorithmExecutionResponse;
+import com.algcockpit.dto.response.AlgorithmSummary;
 import com.algcockpit.dto.response.ApiResponse;
 import com.algcockpit.entity.Algorithm;
 import com.algcockpit.entity.AlgorithmExecution;
@@ -37,11 +38,11 @@ public class AlgorithmController {
      */
     @GetMapping("/category/{categoryId}")
     @Operation(summary = "根据分类获取算法列表", description = "根据分类ID获取该分类下的算法列表")
-    public ApiResponse<List<Algorithm>> getAlgorithmsByCategory(
+    public ApiResponse<List<AlgorithmSummary>> getAlgorithmsByCategory(
             @Parameter(description = "分类ID", required = true)
             @PathVariable Long categoryId) {
         try {
-            List<Algorithm> algorithms = algorithmService.getAlgorithmsByCategoryId(categoryId);
+            List<AlgorithmSummary> algorithms = algorithmService.getAlgorithmsByCategoryId(categoryId);
             return ApiResponse.success(algorithms);
         } catch (Exception e) {
             log.error("根据分类获取算法列表失败，分类ID: {}", categoryId, e);
@@ -54,7 +55,7 @@ public class AlgorithmController {
      */
     @GetMapping("/")
     @Operation(summary = "分页查询算法列表", description = "分页查询算法列表，支持分类、难度、状态、关键词筛选")
-    public ApiResponse<IPage<Algorithm>> getAlgorithmPage(
+    public ApiResponse<IPage<AlgorithmSummary>> getAlgorithmPage(
             @Parameter(description = "页码", example = "1")
             @RequestParam(defaultValue = "1") Long pageNum,
             @Parameter(description = "页大小", example = "10")
@@ -68,7 +69,7 @@ public class AlgorithmController {
             @Parameter(description = "关键词")
             @RequestParam(required = false) String keyword) {
         try {
-            IPage<Algorithm> page = algorithmService.getAlgorithmPage(pageNum, pageSize, 
+            IPage<AlgorithmSummary> page = algorithmService.getAlgorithmPage(pageNum, pageSize, 
                     categoryId, difficultyLevel, status, keyword);
             return ApiResponse.success(page);
         } catch (Exception e) {
@@ -226,14 +227,14 @@ public class AlgorithmController {
      */
     @GetMapping("/popular")
     @Operation(summary = "获取热门算法", description = "根据热度排序获取热门算法列表")
-    public ApiResponse<IPage<Algorithm>> getPopularAlgorithms(
+    public ApiResponse<IPage<AlgorithmSummary>> getPopularAlgorithms(
             @Parameter(description = "页码", example = "1")
             @RequestParam(defaultValue = "1") Long pageNum,
             @Parameter(description = "页大小", example = "10")
             @RequestParam(defaultValue = "10") Long pageSize) {
         try {
-            Page<Algorithm> page = new Page<>(pageNum, pageSize);
-            IPage<Algorithm> algorithmPage = algorithmService.getPopularAlgorithms(page);
+            Page<AlgorithmSummary> page = new Page<>(pageNum, pageSize);
+            IPage<AlgorithmSummary> algorithmPage = algorithmService.getPopularAlgorithms(page);
             return ApiResponse.success(algorithmPage);
         } catch (Exception e) {
             log.error("获取热门算法失败", e);
@@ -246,7 +247,7 @@ public class AlgorithmController {
      */
     @GetMapping("/type/{type}")
     @Operation(summary = "根据类型获取算法", description = "根据算法类型获取算法列表")
-    public ApiResponse<IPage<Algorithm>> getAlgorithmsByType(
+    public ApiResponse<IPage<AlgorithmSummary>> getAlgorithmsByType(
             @Parameter(description = "算法类型", required = true)
             @PathVariable String type,
             @Parameter(description = "页码", example = "1")
@@ -254,8 +255,8 @@ public class AlgorithmController {
             @Parameter(description = "页大小", example = "10")
             @RequestParam(defaultValue = "10") Long pageSize) {
         try {
-            Page<Algorithm> page = new Page<>(pageNum, pageSize);
-            IPage<Algorithm> algorithmPage = algorithmService.getAlgorithmsByType(type, page);
+            Page<AlgorithmSummary> page = new Page<>(pageNum, pageSize);
+            IPage<AlgorithmSummary> algorithmPage = algorithmService.getAlgorithmsByType(type, page);
             return ApiResponse.success(algorithmPage);
         } catch (Exception e) {
             log.error("根据类型获取算法失败，类型: {}", type, e);
@@ -268,7 +269,7 @@ public class AlgorithmController {
      */
     @GetMapping("/search")
     @Operation(summary = "搜索算法", description = "根据关键词搜索算法")
-    public ApiResponse<IPage<Algorithm>> searchAlgorithms(
+    public ApiResponse<IPage<AlgorithmSummary>> searchAlgorithms(
             @Parameter(description = "搜索关键词", required = true)
             @RequestParam String keyword,
             @Parameter(description = "页码", example = "1")
@@ -276,8 +277,8 @@ public class AlgorithmController {
             @Parameter(description = "页大小", example = "10")
             @RequestParam(defaultValue = "10") Long pageSize) {
         try {
-            Page<Algorithm> page = new Page<>(pageNum, pageSize);
-            IPage<Algorithm> algorithmPage = algorithmService.searchAlgorithms(keyword, page);
+            Page<AlgorithmSummary> page = new Page<>(pageNum, pageSize);
+            IPage<AlgorithmSummary> algorithmPage = algorithmService.searchAlgorithms(keyword, page);
             return ApiResponse.success(algorithmPage);
         } catch (Exception e) {
             log.error("搜索算法失败，关键词: {}", keyword, e);
@@ -1,22 +1,34 @@
 package com.algcockpit.controller;
 
+import com.algcockpit.dto.request.BatchExecuteRequest;
 import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
 import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.dto.response.StageLatency;
+import com.algcockpit.exception.BusinessException;
 import com.algcockpit.service.AlgorithmExecutionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 算法执行控制器
- * 提供算法代码执行、异步执行、安全验证等接口
+ * 提供算法代码执行、流式执行、异步执行、安全验证等接口
  * 
  * @author Algorithm Cockpit Team
  */
@@ -30,6 +42,9 @@ public class AlgorithmExecutionController {
     @Autowired
     private AlgorithmExecutionService algorithmExecutionService;
 
+    @Value("${sandbox.stream.timeout:120000}")
+    private long streamTimeout;
+
     @PostMapping("/execute")
     @Operation(summary = "执行算法代码", description = "同步执行算法代码并返回结果")
     public ResponseEntity<ExecuteResponse> executeAlgorithm(
@@ -41,6 +56,71 @@ public class AlgorithmExecutionController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/execute-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "流式执行算法代码", description = "以SSE增量推送stdout/stderr输出片段，执行结束时推送result事件")
+    public SseEmitter executeAlgorithmStreaming(
+            @Valid @RequestBody ExecuteRequest request) {
+        log.info("收到流式算法执行请求，算法ID: {}, 语言: {}", request.getAlgorithmId(), request.getLanguage());
+        
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        String executionId = UUID.randomUUID().toString();
+        // 客户端断开、推送超时或出错时不再需要结果，取消执行以释放调度槽位与沙箱容器
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable cancel = () -> {
+            if (finished.compareAndSet(false, true)) {
+                algorithmExecutionService.cancelExecution(executionId);
+            }
+        };
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+        emitter.onCompletion(cancel);
+        try {
+            algorithmExecutionService.executeAlgorithmStreaming(executionId, request, (stream, chunk) -> {
+                try {
+                    emitter.send(SseEmitter.event().name(stream).data(chunk));
+                } catch (IOException e) {
+                    cancel.run();
+                    throw new UncheckedIOException(e);
+                }
+            }).whenComplete((response, ex) -> {
+                finished.set(true);
+                try {
+                    if (ex != null) {
+                        emitter.send(SseEmitter.event().name("error").data("执行异常: " + ex.getMessage()));
+                    } else {
+                        emitter.send(SseEmitter.event().name("result").data(response, MediaType.APPLICATION_JSON));
+                    }
+                    emitter.complete();
+                } catch (IOException e) {
+                    log.debug("推送执行结果失败，客户端可能已断开: {}", e.getMessage());
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (BusinessException e) {
+            finished.set(true);
+            try {
+                emitter.send(SseEmitter.event().name("error").data(e.getMessage()));
+            } catch (IOException ignored) {
+                // 客户端已断开
+            }
+            emitter.complete();
+        }
+        
+        return emitter;
+    }
+
+    @PostMapping("/execute-batch")
+    @Operation(summary = "批量执行算法代码", description = "同一份代码只编译一次，在同一沙箱会话中依次执行多组输入，返回各组结果与耗时")
+    public ResponseEntity<BatchExecuteResponse> executeAlgorithmBatch(
+            @Valid @RequestBody BatchExecuteRequest request) {
+        log.info("收到批量算法执行请求，算法ID: {}, 语言: {}, 输入数: {}",
+                request.getAlgorithmId(), request.getLanguage(), request.getInputs().size());
+        
+        BatchExecuteResponse response = algorithmExecutionService.executeAlgorithmBatch(request);
+        
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/execute-async")
     @Operation(summary = "异步执行算法代码", description = "异步执行算法代码，返回执行ID")
     public ResponseEntity<String> executeAlgorithmAsync(
@@ -90,6 +170,16 @@ public class AlgorithmExecutionController {
         return ResponseEntity.ok(isValid);
     }
 
+    @GetMapping("/statistics")
+    @Operation(summary = "获取系统执行统计", description = "获取所有算法的整体执行统计信息")
+    public ResponseEntity<String> getSystemStatistics() {
+        log.info("获取系统执行统计");
+        
+        String statistics = algorithmExecutionService.getSystemStatistics();
+        
+        return ResponseEntity.ok(statistics);
+    }
+
     @GetMapping("/statistics/{algorithmId}")
     @Operation(summary = "获取执行统计", description = "获取指定算法的执行统计信息")
     public ResponseEntity<String> getExecutionStatistics(
@@ -101,6 +191,16 @@ public class AlgorithmExecutionController {
         return ResponseEntity.ok(statistics);
     }
 
+    @GetMapping("/metrics/stages")
+    @Operation(summary = "获取执行阶段耗时", description = "获取存在性检查、安全检查、排队、工作区、启动、编译、运行等阶段的耗时分布（P50/P95/P99/最大值）")
+    public ResponseEntity<List<StageLatency>> getStageLatencies() {
+        log.info("获取执行阶段耗时统计");
+        
+        List<StageLatency> latencies = algorithmExecutionService.getStageLatencies();
+        
+        return ResponseEntity.ok(latencies);
+    }
+
     @GetMapping("/health")
     @Operation(summary = "健康检查", description = "检查算法执行服务是否正常")
     public ResponseEntity<String> healthCheck() {
@@ -0,0 +1,54 @@
+package com.algcockpit.dto.request;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * 批量执行请求DTO
+ * 同一份代码针对多组输入执行，只编译一次
+ * 
+ * @author Algorithm Cockpit Team
+ */
+@Data
+@Accessors(chain = true)
+public class BatchExecuteRequest {
+
+    /**
+     * 算法ID
+     */
+    @NotNull(message = "算法ID不能为空")
+    private Long algorithmId;
+
+    /**
+     * 编程语言
+     */
+    @NotBlank(message = "编程语言不能为空")
+    private String language;
+
+    /**
+     * 代码内容
+     */
+    @NotBlank(message = "代码内容不能为空")
+    private String code;
+
+    /**
+     * 输入数据列表
+     */
+    @NotEmpty(message = "输入数据不能为空")
+    private List<String> inputs;
+
+    /**
+     * 每组输入的执行超时时间（秒），为空时使用语言运行时的默认值
+     */
+    private Integer timeout;
+
+    /**
+     * 内存限制（MB），为空时使用语言运行时的默认值
+     */
+    private Integer memoryLimit;
+}
@@ -0,0 +1,71 @@
+package com.algcockpit.dto.request;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * 复杂度实测请求DTO
+ * 
+ * @author Algorithm Cockpit Team
+ */
+@Data
+@Accessors(chain = true)
+public class ComplexityProfileRequest {
+
+    /**
+     * 编程语言（使用该算法对应语言的AlgorithmCode）
+     */
+    private String language = "java";
+
+    /**
+     * 生成的输入类型：array-首行为n、次行为n个整数；string-长度为n的小写字母串
+     */
+    @Pattern(regexp = "array|string", message = "输入类型只支持array或string")
+    private String inputType = "array";
+
+    /**
+     * 最小输入规模
+     */
+    @Min(value = 1, message = "最小输入规模不能小于1")
+    private Integer minSize = 100;
+
+    /**
+     * 相邻两个输入规模的倍数
+     */
+    @DecimalMin(value = "1.5", message = "规模倍数不能小于1.5")
+    private Double growthFactor = 2.0;
+
+    /**
+     * 输入规模个数
+     */
+    @Min(value = 4, message = "输入规模个数不能少于4")
+    @Max(value = 16, message = "输入规模个数不能超过16")
+    private Integer steps = 7;
+
+    /**
+     * 每个规模的预热次数（结果丢弃）
+     */
+    @Min(value = 0, message = "预热次数不能为负数")
+    private Integer warmups = 1;
+
+    /**
+     * 每个规模的计量次数
+     */
+    @Min(value = 1, message = "计量次数不能小于1")
+    private Integer repetitions = 3;
+
+    /**
+     * 单次运行超时时间（秒）
+     */
+    private Integer timeout = 10;
+
+    /**
+     * 内存限制（MB）
+     */
+    private Integer memoryLimit = 256;
+}
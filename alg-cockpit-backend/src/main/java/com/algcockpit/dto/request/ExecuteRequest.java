@@ -39,12 +39,17 @@ public class ExecuteRequest {
     private String inputData;
 
     /**
-     * 执行超时时间（秒）
+     * 执行超时时间（秒），为空时使用语言运行时的默认值
      */
-    private Integer timeout = 10;
+    private Integer timeout;
 
     /**
-     * 内存限制（MB）
+     * 内存限制（MB），为空时使用语言运行时的默认值
      */
-    private Integer memoryLimit = 128;
+    private Integer memoryLimit;
+
+    /**
+     * 执行结果是否只由代码与输入决定（不依赖时间、随机数等），为true时相同的执行直接返回缓存结果
+     */
+    private Boolean deterministic;
 }
\ No newline at end of file
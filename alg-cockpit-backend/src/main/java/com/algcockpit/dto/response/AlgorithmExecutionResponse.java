@@ -17,7 +17,7 @@ public class AlgorithmExecutionResponse {
     private Long executionId;
 
     /**
-     * 执行状态：0-执行中，1-成功，2-失败，3-超时
+     * 执行状态：0-执行中，1-成功，2-失败，3-超时，4-已取消
      */
     private Integer status;
 
@@ -0,0 +1,65 @@
+package com.algcockpit.dto.response;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 算法摘要DTO
+ * 列表、分页接口使用，只包含列表展示需要的字段；算法思想、应用场景、代码等大字段通过算法详情接口获取
+ * 
+ * @author Algorithm Cockpit Team
+ */
+@Data
+@Accessors(chain = true)
+public class AlgorithmSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 算法ID
+     */
+    private Long id;
+
+    /**
+     * 分类ID
+     */
+    private Long categoryId;
+
+    /**
+     * 算法名称
+     */
+    private String name;
+
+    /**
+     * 算法描述（截取前200个字符）
+     */
+    private String description;
+
+    /**
+     * 难度等级：1-简单，2-中等，3-困难
+     */
+    private Integer difficultyLevel;
+
+    /**
+     * 热度
+     */
+    private Integer popularity;
+
+    /**
+     * 状态：0-禁用，1-启用
+     */
+    private Integer status;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedTime;
+}
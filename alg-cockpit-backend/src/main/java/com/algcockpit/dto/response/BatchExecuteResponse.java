@@ -0,0 +1,66 @@
+package com.algcockpit.dto.response;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * 批量执行响应DTO
+ * 
+ * @author Algorithm Cockpit Team
+ */
+@Data
+@Accessors(chain = true)
+public class BatchExecuteResponse {
+
+    /**
+     * 是否所有输入均执行成功
+     */
+    private Boolean success;
+
+    /**
+     * 批量执行状态：SUCCESS、PARTIAL_FAILED、COMPILE_ERROR、CANCELLED等
+     */
+    private String status;
+
+    /**
+     * 错误信息（编译失败等整体错误）
+     */
+    private String error;
+
+    /**
+     * 容器租用与工作区准备时间（毫秒）
+     */
+    private Long startupTime;
+
+    /**
+     * 编译时间（毫秒），命中编译缓存或解释型语言为null
+     */
+    private Long compileTime;
+
+    /**
+     * 是否命中编译缓存
+     */
+    private Boolean compileCached;
+
+    /**
+     * 成功执行的输入数
+     */
+    private Integer successCount;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private Long executionTime;
+
+    /**
+     * 执行ID
+     */
+    private String executionId;
+
+    /**
+     * 各组输入的执行结果（与请求中的输入顺序一致）
+     */
+    private List<ExecuteResponse> results;
+}
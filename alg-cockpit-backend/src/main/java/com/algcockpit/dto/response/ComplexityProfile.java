@@ -0,0 +1,119 @@
+package com.algcockpit.dto.response;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 复杂度实测结果
+ * 以JSON形式保存在AlgorithmComplexity.performanceData中，供前端绘制性能曲线
+ * 
+ * @author Algorithm Cockpit Team
+ */
+@Data
+@Accessors(chain = true)
+public class ComplexityProfile {
+
+    /**
+     * 编程语言
+     */
+    private String language;
+
+    /**
+     * 输入类型
+     */
+    private String inputType;
+
+    /**
+     * 计时口径：cpu-用户态与内核态CPU时间之和；wall-墙钟时间（镜像中没有GNU time时）
+     */
+    private String timeMetric;
+
+    /**
+     * 拟合度最好的增长曲线，如 O(n log n)
+     */
+    private String bestFit;
+
+    /**
+     * 实测数据（按输入规模升序）
+     */
+    private List<SamplePoint> series;
+
+    /**
+     * 各候选曲线的拟合结果（按残差升序）
+     */
+    private List<CurveFit> fits;
+
+    /**
+     * 实测时间
+     */
+    private LocalDateTime profiledAt;
+
+    /**
+     * 单个输入规模的实测数据
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class SamplePoint {
+
+        /**
+         * 输入规模
+         */
+        private Long n;
+
+        /**
+         * 计量次数的中位耗时（毫秒）
+         */
+        private Double timeMs;
+
+        /**
+         * 最小耗时（毫秒）
+         */
+        private Double minTimeMs;
+
+        /**
+         * 最大耗时（毫秒）
+         */
+        private Double maxTimeMs;
+
+        /**
+         * 峰值内存（KB）
+         */
+        private Long memoryKb;
+    }
+
+    /**
+     * 增长曲线拟合结果：time = intercept + coefficient * f(n)
+     */
+    @Data
+    @Accessors(chain = true)
+    public static class CurveFit {
+
+        /**
+         * 曲线名称，如 O(n²)
+         */
+        private String model;
+
+        /**
+         * 截距（毫秒），对应进程启动等固定开销
+         */
+        private Double intercept;
+
+        /**
+         * 系数
+         */
+        private Double coefficient;
+
+        /**
+         * 决定系数R²
+         */
+        private Double r2;
+
+        /**
+         * 残差平方和
+         */
+        private Double rss;
+    }
+}
@@ -13,7 +13,7 @@ import lombok.experimental.Accessors;
 public class ExecuteResponse {
 
     /**
-     * 执行是否成功
+     * 执行是否成功（异步执行完成前为null）
      */
     private Boolean success;
 
@@ -28,15 +28,50 @@ public class ExecuteResponse {
     private String error;
 
     /**
-     * 执行时间（毫秒）
+     * 执行时间（毫秒），包含排队后的容器准备、编译与运行的总耗时
      */
     private Long executionTime;
 
     /**
-     * 内存使用（KB）
+     * 容器准备耗时（毫秒）：租用容器与交付工作区
+     */
+    private Long startupTime;
+
+    /**
+     * 编译耗时（毫秒），命中编译缓存或解释型语言时为空
+     */
+    private Long compileTime;
+
+    /**
+     * 是否命中编译缓存
+     */
+    private Boolean compileCached;
+
+    /**
+     * 用户代码运行耗时（毫秒，墙钟时间）
+     */
+    private Long runTime;
+
+    /**
+     * 用户态CPU时间（毫秒）
+     */
+    private Long cpuUserTime;
+
+    /**
+     * 内核态CPU时间（毫秒）
+     */
+    private Long cpuSystemTime;
+
+    /**
+     * 内存使用（KB，峰值常驻内存）
      */
     private Long memoryUsed;
 
+    /**
+     * 输出是否因超过上限被截断
+     */
+    private Boolean outputTruncated;
+
     /**
      * 退出码
      */
@@ -53,7 +88,8 @@ public class ExecuteResponse {
     private Boolean memoryExceeded;
 
     /**
-     * 执行状态
+     * 执行状态：异步执行完成前为PENDING（排队中）或RUNNING（运行中），
+     * 完成后为SUCCESS、FAILED、TIMEOUT、CANCELLED等
      */
     private String status;
 
@@ -62,6 +98,11 @@ public class ExecuteResponse {
      */
     private String executionId;
 
+    /**
+     * 是否为缓存的执行结果（确定性执行命中结果缓存时为true）
+     */
+    private Boolean cached;
+
     /**
      * 获取执行是否成功
      */
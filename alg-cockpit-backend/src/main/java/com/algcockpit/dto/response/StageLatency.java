@@ -0,0 +1,54 @@
+package com.algcockpit.dto.response;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 执行阶段耗时统计DTO
+ * 
+ * @author Algorithm Cockpit Team
+ */
+@Data
+@Accessors(chain = true)
+public class StageLatency {
+
+    /**
+     * 阶段：exists-check、security-check、queue、workspace、startup、compile、run、log、total
+     */
+    private String stage;
+
+    /**
+     * 编程语言，all表示所有语言合并
+     */
+    private String language;
+
+    /**
+     * 样本数
+     */
+    private Long count;
+
+    /**
+     * 平均耗时（毫秒）
+     */
+    private Double meanMs;
+
+    /**
+     * P50耗时（毫秒）
+     */
+    private Double p50Ms;
+
+    /**
+     * P95耗时（毫秒）
+     */
+    private Double p95Ms;
+
+    /**
+     * P99耗时（毫秒）
+     */
+    private Double p99Ms;
+
+    /**
+     * 最大耗时（毫秒）
+     */
+    private Double maxMs;
+}
@@ -3,6 +3,7 @@ package com.algcockpit.entity;
 import com.baomidou.mybatisplus.annotation.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
 
 import java.time.LocalDateTime;
 
@@ -14,6 +15,7 @@ import java.time.LocalDateTime;
  */
 @Data
 @EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
 @TableName("alg_execution")
 public class AlgorithmExecution {
 
@@ -23,6 +25,12 @@ public class AlgorithmExecution {
     @TableId(value = "id", type = IdType.AUTO)
     private Long id;
 
+    /**
+     * 沙箱执行编号（用于查询和取消沙箱中的执行）
+     */
+    @TableField("execution_no")
+    private String executionNo;
+
     /**
      * 算法ID
      */
@@ -48,7 +56,7 @@ public class AlgorithmExecution {
     private String outputResult;
 
     /**
-     * 执行状态：0-执行中，1-成功，2-失败，3-超时
+     * 执行状态：0-执行中，1-成功，2-失败，3-超时，4-已取消
      */
     @TableField("status")
     private Integer status;
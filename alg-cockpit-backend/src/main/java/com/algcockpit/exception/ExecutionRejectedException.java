@@ -0,0 +1,25 @@
+package com.algcockpit.exception;
+
+import lombok.Getter;
+
+/**
+ * 执行请求被拒绝异常
+ * 沙箱执行队列已满时抛出，携带建议的重试等待时间
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Getter
+public class ExecutionRejectedException extends BusinessException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 建议重试等待时间（秒）
+     */
+    private final long retryAfterSeconds;
+
+    public ExecutionRejectedException(String message, long retryAfterSeconds) {
+        super(429, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -2,7 +2,9 @@ package com.algcockpit.exception;
 
 import com.algcockpit.dto.response.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
@@ -85,6 +87,17 @@ public class GlobalExceptionHandler {
         return ApiResponse.error(400, ex.getMessage());
     }
 
+    /**
+     * 处理执行请求被拒绝异常（执行队列已满）
+     */
+    @ExceptionHandler(ExecutionRejectedException.class)
+    public ResponseEntity<ApiResponse<String>> handleExecutionRejectedException(ExecutionRejectedException ex) {
+        log.warn("执行请求被拒绝: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getCode(), ex.getMessage()));
+    }
+
     /**
      * 处理业务异常
      */
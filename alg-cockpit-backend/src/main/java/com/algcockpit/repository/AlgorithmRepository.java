@@ -1,14 +1,20 @@
 package com.algcockpit.repository;
 
+import com.algcockpit.dto.response.AlgorithmSummary;
 import com.algcockpit.entity.Algorithm;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 算法信息数据访问层
@@ -19,16 +25,22 @@ import java.util.List;
 public interface AlgorithmRepository extends BaseMapper<Algorithm> {
 
     /**
-     * 根据分类ID查询算法列表
+     * 算法摘要查询的列（不含算法思想、应用场景、代码等大字段，描述只取前200个字符）
      */
-    @Select("SELECT * FROM algorithm WHERE category_id = #{categoryId} AND status = 1 AND deleted = 0 ORDER BY popularity DESC, created_time DESC")
-    List<Algorithm> selectByCategoryId(@Param("categoryId") Long categoryId);
+    String SUMMARY_COLUMNS = "id, category_id, name, LEFT(description, 200) AS description, difficulty_level, "
+            + "popularity, status, created_time, updated_time";
 
     /**
-     * 分页查询算法列表
+     * 根据分类ID查询算法摘要列表
+     */
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM algorithm WHERE category_id = #{categoryId} AND status = 1 AND deleted = 0 ORDER BY popularity DESC, created_time DESC")
+    List<AlgorithmSummary> selectByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * 分页查询算法摘要列表
      */
     @Select("<script>" +
-            "SELECT * FROM algorithm WHERE deleted = 0 " +
+            "SELECT " + SUMMARY_COLUMNS + " FROM algorithm WHERE deleted = 0 " +
             "<if test='categoryId != null'>AND category_id = #{categoryId}</if>" +
             "<if test='difficultyLevel != null'>AND difficulty_level = #{difficultyLevel}</if>" +
             "<if test='status != null'>AND status = #{status}</if>" +
@@ -37,12 +49,28 @@ public interface AlgorithmRepository extends BaseMapper<Algorithm> {
             "</if>" +
             "ORDER BY popularity DESC, created_time DESC" +
             "</script>")
-    IPage<Algorithm> selectAlgorithmPage(Page<Algorithm> page, 
+    IPage<AlgorithmSummary> selectAlgorithmPage(Page<AlgorithmSummary> page, 
                                         @Param("categoryId") Long categoryId,
                                         @Param("difficultyLevel") Integer difficultyLevel,
                                         @Param("status") Integer status,
                                         @Param("keyword") String keyword);
 
+    /**
+     * 按条件分页查询算法摘要（条件中需包含deleted = 0）
+     */
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM algorithm ${ew.customSqlSegment}")
+    Page<AlgorithmSummary> selectSummaryPage(Page<AlgorithmSummary> page,
+                                            @Param(Constants.WRAPPER) Wrapper<Algorithm> wrapper);
+
+    /**
+     * 根据ID批量查询算法摘要（未删除）
+     */
+    @Select("<script>" +
+            "SELECT " + SUMMARY_COLUMNS + " FROM algorithm WHERE deleted = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<AlgorithmSummary> selectSummariesByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 根据算法名称查询算法
      */
@@ -50,8 +78,31 @@ public interface AlgorithmRepository extends BaseMapper<Algorithm> {
     Algorithm selectByName(@Param("name") String name);
 
     /**
-     * 增加算法热度
+     * 查询所有未删除算法的ID
+     */
+    @Select("SELECT id FROM algorithm WHERE deleted = 0")
+    List<Long> selectLiveIds();
+
+    /**
+     * 按主键判断算法是否存在（未删除），不读取大字段
+     */
+    @Select("SELECT COUNT(1) FROM algorithm WHERE id = #{id} AND deleted = 0")
+    int countLiveById(@Param("id") Long id);
+
+    /**
+     * 批量累加算法热度（算法ID -> 增量），一条语句完成
+     */
+    @Update("<script>" +
+            "UPDATE algorithm SET popularity = popularity + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "ELSE 0 END WHERE id IN " +
+            "<foreach collection='deltas' index='id' item='delta' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int addPopularity(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 查询所有未删除算法的ID和热度
      */
-    @Select("UPDATE algorithm SET popularity = popularity + 1 WHERE id = #{id} AND deleted = 0")
-    void increasePopularity(@Param("id") Long id);
+    @Select("SELECT id, popularity FROM algorithm WHERE deleted = 0")
+    List<Algorithm> selectPopularities();
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.algcockpit.service;
 
+import com.algcockpit.dto.request.ComplexityProfileRequest;
 import com.algcockpit.entity.AlgorithmComplexity;
 import com.baomidou.mybatisplus.extension.service.IService;
 
@@ -34,4 +35,11 @@ public interface AlgorithmComplexityService extends IService<AlgorithmComplexity
      * 根据算法ID删除复杂度信息（逻辑删除）
      */
     boolean deleteComplexityByAlgorithmId(Long algorithmId);
+
+    /**
+     * 提交复杂度实测任务，完成后实测数据写入performanceData
+     * 
+     * @return 是否已提交（该算法已有实测任务在运行时返回false）
+     */
+    boolean startComplexityProfiling(Long algorithmId, ComplexityProfileRequest request);
 }
\ No newline at end of file
@@ -1,7 +1,14 @@
 package com.algcockpit.service;
 
+import com.algcockpit.dto.request.BatchExecuteRequest;
 import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
 import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.dto.response.StageLatency;
+import com.algcockpit.service.sandbox.ExecutionOutputListener;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 算法执行服务接口
@@ -18,6 +25,25 @@ public interface AlgorithmExecutionService {
      */
     ExecuteResponse executeAlgorithm(ExecuteRequest request);
 
+    /**
+     * 流式执行算法代码
+     * 
+     * @param executionId 执行ID，客户端断开时据此通过{@link #cancelExecution(String)}取消
+     * @param request 执行请求
+     * @param listener 输出监听器，执行期间增量接收标准输出/标准错误
+     * @return 执行完成时的响应
+     */
+    CompletableFuture<ExecuteResponse> executeAlgorithmStreaming(String executionId, ExecuteRequest request,
+                                                                 ExecutionOutputListener listener);
+
+    /**
+     * 批量执行算法代码：同一份代码针对多组输入执行，只编译一次
+     * 
+     * @param request 批量执行请求
+     * @return 各组输入的执行结果
+     */
+    BatchExecuteResponse executeAlgorithmBatch(BatchExecuteRequest request);
+
     /**
      * 异步执行算法代码
      * 
@@ -42,6 +68,14 @@ public interface AlgorithmExecutionService {
      */
     Boolean cancelAsyncExecution(String executionId);
 
+    /**
+     * 取消同步或流式执行
+     * 
+     * @param executionId 执行ID
+     * @return 是否找到并取消了执行
+     */
+    Boolean cancelExecution(String executionId);
+
     /**
      * 验证代码安全性
      * 
@@ -58,4 +92,18 @@ public interface AlgorithmExecutionService {
      * @return 统计信息
      */
     String getExecutionStatistics(Long algorithmId);
+
+    /**
+     * 获取系统整体执行统计信息
+     * 
+     * @return 统计信息
+     */
+    String getSystemStatistics();
+
+    /**
+     * 获取执行流程各阶段的耗时分布（按阶段和语言）
+     * 
+     * @return 各阶段耗时统计
+     */
+    List<StageLatency> getStageLatencies();
 }
\ No newline at end of file
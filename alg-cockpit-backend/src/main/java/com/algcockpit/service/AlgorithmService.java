@@ -2,6 +2,7 @@ package com.algcockpit.service;
 
 import com.algcockpit.dto.request.AlgorithmExecuteRequest;
 import com.algcockpit.dto.response.AlgorithmExecutionResponse;
+import com.algcockpit.dto.response.AlgorithmSummary;
 import com.algcockpit.entity.Algorithm;
 import com.algcockpit.entity.AlgorithmExecution;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -18,14 +19,14 @@ import java.util.List;
 public interface AlgorithmService extends IService<Algorithm> {
 
     /**
-     * 根据分类ID获取算法列表
+     * 根据分类ID获取算法摘要列表
      */
-    List<Algorithm> getAlgorithmsByCategoryId(Long categoryId);
+    List<AlgorithmSummary> getAlgorithmsByCategoryId(Long categoryId);
 
     /**
-     * 分页查询算法列表
+     * 分页查询算法摘要列表
      */
-    IPage<Algorithm> getAlgorithmPage(Long pageNum, Long pageSize, Long categoryId, 
+    IPage<AlgorithmSummary> getAlgorithmPage(Long pageNum, Long pageSize, Long categoryId, 
                                      Integer difficultyLevel, Integer status, String keyword);
 
     /**
@@ -76,17 +77,17 @@ public interface AlgorithmService extends IService<Algorithm> {
     /**
      * 获取热门算法
      */
-    Page<Algorithm> getPopularAlgorithms(Page<Algorithm> page);
+    Page<AlgorithmSummary> getPopularAlgorithms(Page<AlgorithmSummary> page);
 
     /**
      * 根据类型获取算法
      */
-    Page<Algorithm> getAlgorithmsByType(String type, Page<Algorithm> page);
+    Page<AlgorithmSummary> getAlgorithmsByType(String type, Page<AlgorithmSummary> page);
 
     /**
      * 搜索算法
      */
-    Page<Algorithm> searchAlgorithms(String keyword, Page<Algorithm> page);
+    Page<AlgorithmSummary> searchAlgorithms(String keyword, Page<AlgorithmSummary> page);
 
     /**
      * 检查算法是否存在
@@ -1,7 +1,13 @@
 package com.algcockpit.service;
 
+import com.algcockpit.dto.request.BatchExecuteRequest;
 import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
 import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.service.sandbox.ExecutionOutputListener;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * 安全沙箱执行器接口
@@ -18,13 +24,42 @@ public interface SandboxExecutor {
      */
     ExecuteResponse execute(ExecuteRequest request);
 
+    /**
+     * 以指定的执行ID执行算法代码（执行ID由分发方生成，执行期间可据此取消）
+     * 
+     * @param executionId 执行ID
+     * @param request 执行请求
+     * @return 执行响应
+     */
+    ExecuteResponse execute(String executionId, ExecuteRequest request);
+
+    /**
+     * 流式执行算法代码，执行期间增量回调输出
+     * 
+     * @param executionId 执行ID，可据此通过{@link #cancelExecution(String)}取消
+     * @param request 执行请求
+     * @param listener 输出监听器
+     * @return 执行完成时的响应
+     */
+    CompletableFuture<ExecuteResponse> executeStreaming(String executionId, ExecuteRequest request,
+                                                        ExecutionOutputListener listener);
+
+    /**
+     * 批量执行算法代码：编译一次，在同一沙箱会话中依次运行各组输入
+     * 
+     * @param request 批量执行请求
+     * @return 各组输入的执行结果
+     */
+    BatchExecuteResponse executeBatch(BatchExecuteRequest request);
+
     /**
      * 异步执行算法代码
      * 
      * @param request 执行请求
+     * @param onComplete 执行结束（完成、失败或取消）时以最终结果回调，可为null
      * @return 执行ID
      */
-    String executeAsync(ExecuteRequest request);
+    String executeAsync(ExecuteRequest request, Consumer<ExecuteResponse> onComplete);
 
     /**
      * 获取异步执行结果
@@ -42,6 +77,14 @@ public interface SandboxExecutor {
      */
     Boolean cancelAsyncExecution(String executionId);
 
+    /**
+     * 取消排队中或运行中的同步、流式执行
+     * 
+     * @param executionId 执行ID
+     * @return 是否找到并取消了执行
+     */
+    Boolean cancelExecution(String executionId);
+
     /**
      * 检查支持的编程语言
      * 
@@ -0,0 +1,40 @@
+package com.algcockpit.service.cache;
+
+/**
+ * 算法目录缓存名称
+ * 目录数据（算法、分类、代码、复杂度）读多写少，通过二级缓存读取，写入后按名称和键失效
+ *
+ * @author Algorithm Cockpit Team
+ */
+public final class CatalogCaches {
+
+    /**
+     * 算法详情，键为算法ID
+     */
+    public static final String ALGORITHM_DETAIL = "algorithm:detail";
+
+    /**
+     * 分类下的算法摘要列表，键为分类ID
+     */
+    public static final String ALGORITHMS_BY_CATEGORY = "algorithm:summary-by-category";
+
+    /**
+     * 已启用的分类列表，键固定为{@link #ALL}
+     */
+    public static final String ENABLED_CATEGORIES = "category:enabled";
+
+    /**
+     * 算法的代码列表，键为算法ID
+     */
+    public static final String CODES_BY_ALGORITHM = "code:by-algorithm";
+
+    /**
+     * 算法的复杂度信息，键为算法ID
+     */
+    public static final String COMPLEXITY_BY_ALGORITHM = "complexity:by-algorithm";
+
+    public static final String ALL = "all";
+
+    private CatalogCaches() {
+    }
+}
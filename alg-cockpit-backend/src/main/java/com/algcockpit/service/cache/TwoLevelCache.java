@@ -0,0 +1,210 @@
+package com.algcockpit.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 二级缓存
+ * 一级为进程内Caffeine缓存（容量上限、写入后过期），二级为各节点共享的Redis缓存；
+ * 读取依次查一级、二级，均未命中时加载并写回两级（同一节点对同一键的并发加载只执行一次）。
+ * 写入、删除、清空时同步修改两级并广播失效消息，其他节点收到后删除各自的一级缓存；
+ * 在事务中调用时登记到事务提交之后执行，避免其他请求在提交前把旧数据重新写回两级缓存，回滚时不执行。
+ * Redis不可用时退化为一级缓存加直接加载；不缓存null
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+
+    /**
+     * 一级缓存，键为原键的字符串形式（与Redis键及失效消息一致）
+     */
+    private final Cache<String, Object> local;
+
+    private final org.springframework.cache.Cache remote;
+
+    private final TwoLevelCacheManager manager;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    TwoLevelCache(String name, Cache<String, Object> local, org.springframework.cache.Cache remote,
+                  TwoLevelCacheManager manager, MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.localHits = counter(meterRegistry, name, "local", "hit");
+        this.localMisses = counter(meterRegistry, name, "local", "miss");
+        this.remoteHits = counter(meterRegistry, name, "redis", "hit");
+        this.remoteMisses = counter(meterRegistry, name, "redis", "miss");
+        meterRegistry.gauge("catalog.cache.size", Tags.of("cache", name), local, Cache::estimatedSize);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        localMisses.increment();
+        value = lookupRemote(key);
+        if (value != null) {
+            local.put(localKey, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return (T) value;
+        }
+        localMisses.increment();
+        try {
+            return (T) local.get(localKey, k -> {
+                Object loaded = lookupRemote(key);
+                if (loaded != null) {
+                    return loaded;
+                }
+                try {
+                    loaded = valueLoader.call();
+                } catch (Exception e) {
+                    throw new ValueRetrievalException(key, valueLoader, e);
+                }
+                if (loaded != null) {
+                    putRemote(key, loaded);
+                }
+                return loaded;
+            });
+        } catch (ValueRetrievalException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        afterCommit(() -> {
+            putRemote(key, value);
+            local.put(String.valueOf(key), value);
+            manager.publishEvict(name, String.valueOf(key));
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        afterCommit(() -> {
+            local.invalidate(String.valueOf(key));
+            try {
+                remote.evict(key);
+            } catch (Exception e) {
+                log.warn("删除Redis缓存失败，缓存: {}, 键: {}, 原因: {}", name, key, e.getMessage());
+            }
+            manager.publishEvict(name, String.valueOf(key));
+        });
+    }
+
+    @Override
+    public void clear() {
+        afterCommit(() -> {
+            local.invalidateAll();
+            try {
+                remote.clear();
+            } catch (Exception e) {
+                log.warn("清空Redis缓存失败，缓存: {}, 原因: {}", name, e.getMessage());
+            }
+            manager.publishEvict(name, null);
+        });
+    }
+
+    /**
+     * 收到其他节点的失效消息时删除一级缓存
+     *
+     * @param key 键，null表示清空
+     */
+    void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    /**
+     * 当前线程处于事务中时登记到提交之后执行，否则立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Object lookupRemote(Object key) {
+        try {
+            ValueWrapper wrapper = remote.get(key);
+            Object value = wrapper != null ? wrapper.get() : null;
+            (value != null ? remoteHits : remoteMisses).increment();
+            return value;
+        } catch (Exception e) {
+            log.debug("读取Redis缓存失败，缓存: {}, 键: {}, 原因: {}", name, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putRemote(Object key, Object value) {
+        try {
+            remote.put(key, value);
+        } catch (Exception e) {
+            log.debug("写入Redis缓存失败，缓存: {}, 键: {}, 原因: {}", name, key, e.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String cache, String level, String result) {
+        return Counter.builder("catalog.cache.gets")
+                .description("目录缓存读取次数")
+                .tag("cache", cache)
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
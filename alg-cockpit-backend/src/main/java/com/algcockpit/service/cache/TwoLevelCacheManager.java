@@ -0,0 +1,138 @@
+package com.algcockpit.service.cache;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 二级缓存管理器
+ * 按名称创建二级缓存（Caffeine + Redis），订阅失效频道以删除本节点的一级缓存；
+ * 事务中的写入与删除由{@link TwoLevelCache}登记到事务提交之后执行
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class TwoLevelCacheManager extends AbstractCacheManager {
+
+    /**
+     * 缓存失效广播频道
+     */
+    private static final String INVALIDATION_CHANNEL = "catalog:cache:invalidate";
+
+    private static final String REDIS_KEY_PREFIX = "catalog:";
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${alg.cockpit.cache.local-max-size:1000}")
+    private long localMaxSize;
+
+    @Value("${alg.cockpit.cache.local-ttl:300000}")
+    private long localTtl;
+
+    @Value("${alg.cockpit.cache.redis-ttl:1800000}")
+    private long redisTtl;
+
+    /**
+     * 本节点标识，忽略自己发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+
+    private RedisCacheManager redisCacheManager;
+
+    @Override
+    public void afterPropertiesSet() {
+        redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig(getClass().getClassLoader())
+                        .entryTtl(Duration.ofMillis(redisTtl))
+                        .disableCachingNullValues()
+                        .prefixCacheNameWith(REDIS_KEY_PREFIX))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        listenerContainer.addMessageListener(this::onInvalidation, new ChannelTopic(INVALIDATION_CHANNEL));
+        super.afterPropertiesSet();
+        log.info("二级缓存已启用，一级容量: {}, 一级过期: {}ms, 二级过期: {}ms", localMaxSize, localTtl, redisTtl);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return twoLevelCaches.computeIfAbsent(name, key -> new TwoLevelCache(key,
+                Caffeine.newBuilder()
+                        .maximumSize(localMaxSize)
+                        .expireAfterWrite(Duration.ofMillis(localTtl))
+                        .build(),
+                redisCacheManager.getCache(key), this, meterRegistry));
+    }
+
+    /**
+     * 广播缓存失效
+     *
+     * @param cacheName 缓存名称
+     * @param key 键，null表示清空
+     */
+    void publishEvict(String cacheName, String key) {
+        JSONObject message = new JSONObject();
+        message.put("node", nodeId);
+        message.put("cache", cacheName);
+        message.put("key", key);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, message.toJSONString());
+        } catch (Exception e) {
+            log.warn("广播缓存失效失败，缓存: {}, 键: {}, 原因: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private void onInvalidation(Message message, byte[] pattern) {
+        try {
+            JSONObject body = JSON.parseObject(new String(message.getBody(), StandardCharsets.UTF_8));
+            if (nodeId.equals(body.getString("node"))) {
+                return;
+            }
+            TwoLevelCache cache = twoLevelCaches.get(body.getString("cache"));
+            if (cache != null) {
+                cache.evictLocal(body.getString("key"));
+            }
+        } catch (Exception e) {
+            log.warn("处理缓存失效消息失败: {}", e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,32 @@
 package com.algcockpit.service.execution;
 
+import com.algcockpit.dto.request.BatchExecuteRequest;
 import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
 import com.algcockpit.dto.response.ExecuteResponse;
+import com.alibaba.fastjson.JSON;
+import com.algcockpit.entity.AlgorithmExecution;
+import com.algcockpit.service.statistics.ExecutionStatisticsService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
 /**
  * 执行日志记录器
- * 负责记录算法执行的详细日志
+ * 负责记录算法执行的详细日志，并将执行记录交给执行记录写入器异步持久化到alg_execution，
+ * 同时计入执行统计
  * 
  * @author Algorithm Cockpit Team
  */
@@ -15,6 +34,51 @@ import org.springframework.stereotype.Component;
 @Component
 public class ExecutionLogger {
 
+    /**
+     * 执行中
+     */
+    private static final int STATUS_RUNNING = 0;
+    private static final int STATUS_SUCCESS = 1;
+    private static final int STATUS_FAILED = 2;
+    private static final int STATUS_TIMEOUT = 3;
+    private static final int STATUS_CANCELLED = 4;
+
+    /**
+     * 记录已完成状态的异步执行ID数上限（避免完成回调与取消重复更新）
+     */
+    private static final int MAX_COMPLETED_TRACKED = 10000;
+
+    @Autowired
+    private ExecutionRecordWriter recordWriter;
+
+    @Autowired
+    private ExecutionStatisticsService statisticsService;
+
+    @Value("${sandbox.persistence.max-text-length:16000}")
+    private int maxTextLength;
+
+    /**
+     * 已写入最终状态的异步执行ID
+     */
+    private final Set<String> completedAsync = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_COMPLETED_TRACKED;
+                }
+            }));
+
+    /**
+     * 进行中的异步执行ID -> (算法ID, 语言)，完成时计入执行统计
+     */
+    private final Map<String, Map.Entry<Long, String>> pendingAsync = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map.Entry<Long, String>> eldest) {
+                    return size() > MAX_COMPLETED_TRACKED;
+                }
+            });
+
     /**
      * 记录执行结果
      * 
@@ -22,6 +86,17 @@ public class ExecutionLogger {
      * @param response 执行响应
      */
     public void logExecutionResult(ExecuteRequest request, ExecuteResponse response) {
+        logExecutionResult(request, response, getCurrentUsername());
+    }
+
+    /**
+     * 记录执行结果（用于在请求线程之外完成的执行，用户名须在请求线程上取得）
+     * 
+     * @param request 执行请求
+     * @param response 执行响应
+     * @param username 提交用户名
+     */
+    public void logExecutionResult(ExecuteRequest request, ExecuteResponse response, String username) {
         if (response.isSuccess()) {
             log.info("算法执行成功 - 算法ID: {}, 语言: {}, 执行时间: {}ms", 
                     request.getAlgorithmId(), 
@@ -33,30 +108,112 @@ public class ExecutionLogger {
                     request.getLanguage(), 
                     response.getError());
         }
+        
+        AlgorithmExecution record = toRecord(response.getExecutionId(), request.getAlgorithmId(), request.getInputData())
+                .setStatus(toStatus(response))
+                .setOutputResult(truncate(response.getOutput()))
+                .setErrorMessage(truncate(response.getError()))
+                .setExecutionTime(response.getExecutionTime())
+                .setMemoryUsage(toMegabytes(response.getMemoryUsed()))
+                .setEnvironmentInfo(describeEnvironment(request.getLanguage(), response));
+        recordWriter.insert(record, username);
+        statisticsService.recordExecution(request.getAlgorithmId(), request.getLanguage(), response);
+    }
+
+    /**
+     * 记录批量执行结果
+     * 
+     * @param request 批量执行请求
+     * @param response 批量执行响应
+     */
+    public void logBatchExecutionResult(BatchExecuteRequest request, BatchExecuteResponse response) {
+        if (Boolean.TRUE.equals(response.getSuccess())) {
+            log.info("批量执行成功 - 算法ID: {}, 语言: {}, 输入数: {}, 执行时间: {}ms", 
+                    request.getAlgorithmId(), 
+                    request.getLanguage(), 
+                    request.getInputs().size(), 
+                    response.getExecutionTime());
+        } else {
+            log.warn("批量执行未全部成功 - 算法ID: {}, 语言: {}, 状态: {}, 成功数: {}/{}", 
+                    request.getAlgorithmId(), 
+                    request.getLanguage(), 
+                    response.getStatus(), 
+                    response.getSuccessCount(), 
+                    request.getInputs().size());
+        }
+        
+        String outputs = response.getResults() == null ? null : response.getResults().stream()
+                .map(result -> result.getOutput() == null ? "" : result.getOutput())
+                .collect(Collectors.joining("\n---\n"));
+        AlgorithmExecution record = toRecord(response.getExecutionId(), request.getAlgorithmId(),
+                String.join("\n---\n", request.getInputs()))
+                .setStatus(Boolean.TRUE.equals(response.getSuccess()) ? STATUS_SUCCESS : STATUS_FAILED)
+                .setOutputResult(truncate(outputs))
+                .setErrorMessage(truncate(response.getError()))
+                .setExecutionTime(response.getExecutionTime())
+                .setEnvironmentInfo(JSON.toJSONString(Map.of(
+                        "language", request.getLanguage(),
+                        "mode", "batch",
+                        "inputs", request.getInputs().size(),
+                        "status", String.valueOf(response.getStatus()))));
+        recordWriter.insert(record, getCurrentUsername());
+        if (response.getResults() != null) {
+            response.getResults().forEach(result ->
+                    statisticsService.recordExecution(request.getAlgorithmId(), request.getLanguage(), result));
+        }
     }
 
     /**
-     * 记录异步执行开始
+     * 记录异步执行开始，写入执行中的执行记录
      * 
      * @param executionId 执行ID
-     * @param algorithmId 算法ID
+     * @param request 执行请求
      */
-    public void logAsyncExecutionStart(String executionId, Long algorithmId) {
-        log.info("异步执行开始 - 执行ID: {}, 算法ID: {}", executionId, algorithmId);
+    public void logAsyncExecutionStart(String executionId, ExecuteRequest request) {
+        log.info("异步执行开始 - 执行ID: {}, 算法ID: {}", executionId, request.getAlgorithmId());
+        
+        AlgorithmExecution record = toRecord(executionId, request.getAlgorithmId(), request.getInputData())
+                .setStatus(STATUS_RUNNING)
+                .setEnvironmentInfo(JSON.toJSONString(Map.of("language", request.getLanguage(), "mode", "async")));
+        recordWriter.insert(record, getCurrentUsername());
+        pendingAsync.put(executionId, new AbstractMap.SimpleImmutableEntry<>(request.getAlgorithmId(), request.getLanguage()));
     }
 
     /**
-     * 记录异步执行完成
+     * 记录异步执行完成，更新执行记录的最终状态并计入执行统计；由执行器在执行结束时回调，
+     * 与取消记录一起只生效一次
      * 
      * @param executionId 执行ID
-     * @param success 是否成功
+     * @param response 执行响应
      */
-    public void logAsyncExecutionComplete(String executionId, Boolean success) {
-        if (success) {
+    public void logAsyncExecutionComplete(String executionId, ExecuteResponse response) {
+        if (!completedAsync.add(executionId)) {
+            return;
+        }
+        if (response.isSuccess()) {
             log.info("异步执行完成 - 执行ID: {}", executionId);
         } else {
             log.warn("异步执行失败 - 执行ID: {}", executionId);
         }
+        
+        AlgorithmExecution record = new AlgorithmExecution()
+                .setExecutionNo(executionId)
+                .setStatus(toStatus(response))
+                .setOutputResult(truncate(response.getOutput()))
+                .setErrorMessage(truncate(response.getError()))
+                .setExecutionTime(response.getExecutionTime())
+                .setMemoryUsage(toMegabytes(response.getMemoryUsed()));
+        recordWriter.update(record);
+        
+        Map.Entry<Long, String> pending = pendingAsync.remove(executionId);
+        if (pending == null) {
+            return;
+        }
+        if (toStatus(response) == STATUS_CANCELLED) {
+            statisticsService.recordCancelled(pending.getKey(), pending.getValue());
+        } else {
+            statisticsService.recordExecution(pending.getKey(), pending.getValue(), response);
+        }
     }
 
     /**
@@ -66,5 +223,67 @@ public class ExecutionLogger {
      */
     public void logExecutionCancelled(String executionId) {
         log.info("执行取消 - 执行ID: {}", executionId);
+        
+        if (completedAsync.add(executionId)) {
+            Map.Entry<Long, String> pending = pendingAsync.remove(executionId);
+            if (pending != null) {
+                statisticsService.recordCancelled(pending.getKey(), pending.getValue());
+            }
+        }
+        recordWriter.update(new AlgorithmExecution()
+                .setExecutionNo(executionId)
+                .setStatus(STATUS_CANCELLED)
+                .setErrorMessage("执行已取消"));
+    }
+
+    /**
+     * 获取当前用户名
+     * 
+     * @return 用户名，未登录时为null
+     */
+    public String getCurrentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    private AlgorithmExecution toRecord(String executionId, Long algorithmId, String input) {
+        return new AlgorithmExecution()
+                .setExecutionNo(executionId != null ? executionId : UUID.randomUUID().toString())
+                .setAlgorithmId(algorithmId)
+                .setInputParams(truncate(input))
+                .setCreateTime(LocalDateTime.now());
+    }
+
+    private int toStatus(ExecuteResponse response) {
+        if (Boolean.TRUE.equals(response.getSuccess())) {
+            return STATUS_SUCCESS;
+        }
+        if (Boolean.TRUE.equals(response.getTimeout())) {
+            return STATUS_TIMEOUT;
+        }
+        return "CANCELLED".equals(response.getStatus()) ? STATUS_CANCELLED : STATUS_FAILED;
+    }
+
+    private Long toMegabytes(Long kilobytes) {
+        return kilobytes == null ? null : kilobytes / 1024;
+    }
+
+    private String describeEnvironment(String language, ExecuteResponse response) {
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("language", language);
+        environment.put("status", response.getStatus());
+        environment.put("exitCode", response.getExitCode());
+        environment.put("compileTime", response.getCompileTime());
+        environment.put("compileCached", response.getCompileCached());
+        environment.put("runTime", response.getRunTime());
+        environment.put("cached", response.getCached());
+        return JSON.toJSONString(environment);
+    }
+
+    private String truncate(String text) {
+        if (text == null || text.length() <= maxTextLength) {
+            return text;
+        }
+        return text.substring(0, maxTextLength);
     }
 }
\ No newline at end of file
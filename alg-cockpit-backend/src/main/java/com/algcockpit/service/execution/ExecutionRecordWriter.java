@@ -0,0 +1,514 @@
+package com.algcockpit.service.execution;
+
+import com.alibaba.fastjson.JSON;
+import com.algcockpit.entity.AlgorithmExecution;
+import com.algcockpit.entity.User;
+import com.algcockpit.repository.AlgorithmExecutionRepository;
+import com.algcockpit.repository.UserRepository;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * 执行记录写入器
+ * 执行记录先进入有界内存缓冲区，由后台线程按批量大小或刷新间隔取出，使用MyBatis批量执行器写入alg_execution，
+ * 不占用请求线程。数据库变慢时缓冲区逐渐填满，提交方在短暂等待后改为追加到溢出文件（背压而不阻塞请求）；
+ * 写库失败的批次同样追加到溢出文件，关闭时缓冲区中剩余的记录也写入溢出文件，启动时及数据库恢复后重放。
+ * 新增记录仍在溢出文件中时，其后的更新也追加到溢出文件，保证重放时先新增后更新，最终状态不丢失。
+ * 进程被强制终止时最多丢失缓冲区中尚未写出的记录（约一个刷新间隔）
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class ExecutionRecordWriter {
+
+    /**
+     * 新增执行记录
+     */
+    static final String OP_INSERT = "INSERT";
+
+    /**
+     * 按执行编号更新执行中的记录（异步执行完成或取消）
+     */
+    static final String OP_UPDATE = "UPDATE";
+
+    /**
+     * 无法解析用户时记录的用户ID
+     */
+    private static final long UNKNOWN_USER_ID = 0L;
+
+    private static final String REPLAY_SUFFIX = ".replay-";
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sandbox.persistence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sandbox.persistence.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${sandbox.persistence.batch-size:500}")
+    private int batchSize;
+
+    @Value("${sandbox.persistence.flush-interval:1000}")
+    private long flushInterval;
+
+    @Value("${sandbox.persistence.offer-timeout:20}")
+    private long offerTimeout;
+
+    @Value("${sandbox.persistence.spill-path:/tmp/alg-cockpit/execution-spill.jsonl}")
+    private String spillPath;
+
+    @Value("${sandbox.persistence.replay-interval:60000}")
+    private long replayInterval;
+
+    private BlockingQueue<PendingRecord> buffer;
+    private Path spillFile;
+    private Thread writer;
+    private volatile boolean running;
+    private long lastReplayAttempt;
+
+    /**
+     * 用户名到用户ID的缓存
+     */
+    private final ConcurrentMap<String, Long> userIds = new ConcurrentHashMap<>();
+
+    /**
+     * 新增记录仍在溢出文件中、尚未写库的执行编号
+     */
+    private final Set<String> spilledInserts = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        spillFile = Paths.get(spillPath);
+        try {
+            Files.createDirectories(spillFile.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            log.warn("创建执行记录溢出目录失败: {}", spillFile.getParent(), e);
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "execution-record-writer");
+        writer.setDaemon(true);
+        writer.start();
+        bindMetrics();
+    }
+
+    /**
+     * 注册缓冲占用与写入、溢出、丢弃计数指标
+     */
+    private void bindMetrics() {
+        Gauge.builder("execution.record.buffer", buffer, BlockingQueue::size)
+                .description("执行记录写入缓冲中的记录数")
+                .register(meterRegistry);
+        FunctionCounter.builder("execution.record.written", written, LongAdder::sum)
+                .description("已写入数据库的执行记录数")
+                .register(meterRegistry);
+        FunctionCounter.builder("execution.record.spilled", spilled, LongAdder::sum)
+                .description("写入溢出文件的执行记录数")
+                .register(meterRegistry);
+        FunctionCounter.builder("execution.record.failed", failed, LongAdder::sum)
+                .description("丢弃的执行记录数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 未能在关闭前写库的记录保存到溢出文件，下次启动时重放
+        List<PendingRecord> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+            log.info("关闭时已将{}条执行记录写入溢出文件", remaining.size());
+        }
+    }
+
+    /**
+     * 提交新增的执行记录
+     *
+     * @param record 执行记录
+     * @param username 提交用户名，用于解析用户ID
+     */
+    public void insert(AlgorithmExecution record, String username) {
+        submit(new PendingRecord(OP_INSERT, username, record));
+    }
+
+    /**
+     * 提交执行中记录的最终状态，按执行编号更新，已结束的记录不受影响
+     *
+     * @param record 执行记录（须包含执行编号）
+     */
+    public void update(AlgorithmExecution record) {
+        submit(new PendingRecord(OP_UPDATE, null, record));
+    }
+
+    /**
+     * 获取写入器状态
+     *
+     * @return 写入器状态描述
+     */
+    public String getWriterStatus() {
+        if (!enabled) {
+            return "执行记录写入: 已禁用";
+        }
+        return String.format("执行记录写入: 缓冲=%d/%d, 已写入=%d, 批次=%d, 溢出=%d, 重放=%d, 丢弃=%d",
+                buffer.size(), bufferSize, written.sum(), batches.sum(), spilled.sum(), replayed.sum(), failed.sum());
+    }
+
+    private void submit(PendingRecord pending) {
+        if (!enabled) {
+            return;
+        }
+        if (isBehindSpilledInsert(pending)) {
+            spill(List.of(pending));
+            return;
+        }
+        try {
+            // 缓冲区满说明数据库跟不上，短暂等待后改写溢出文件，不让请求线程长时间阻塞
+            if (buffer.offer(pending, offerTimeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        spill(List.of(pending));
+    }
+
+    private void writeLoop() {
+        replaySpillFile();
+        List<PendingRecord> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingRecord first = buffer.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    // 凑满一批或等到刷新间隔到期再写
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+                    while (batch.size() < batchSize) {
+                        buffer.drainTo(batch, batchSize - batch.size());
+                        if (batch.size() >= batchSize || !running) {
+                            break;
+                        }
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        PendingRecord next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    flush(batch);
+                    batch.clear();
+                }
+                if (System.currentTimeMillis() - lastReplayAttempt >= replayInterval) {
+                    replaySpillFile();
+                }
+            } catch (InterruptedException e) {
+                // 关闭时被中断：写出当前批次，循环继续直到缓冲区清空
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                }
+            } catch (Exception e) {
+                log.error("执行记录写入线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 写入一批记录：批量执行失败时逐条重试，跳过已存在的记录；数据库不可用时剩余记录写入溢出文件
+     *
+     * @return 是否全部处理完毕（未写入溢出文件）
+     */
+    private boolean flush(List<PendingRecord> batch) {
+        // 新增记录已写入溢出文件时，更新跟随其后写入溢出文件，否则更新会因记录尚不存在而不生效
+        List<PendingRecord> deferred = batch.stream().filter(this::isBehindSpilledInsert).toList();
+        if (!deferred.isEmpty()) {
+            spill(deferred);
+            batch = batch.stream().filter(pending -> !isBehindSpilledInsert(pending)).toList();
+            if (batch.isEmpty()) {
+                return false;
+            }
+        }
+        try {
+            batch.forEach(this::resolveUser);
+            writeBatch(batch);
+            written.add(batch.size());
+            batches.increment();
+            return true;
+        } catch (Exception e) {
+            log.warn("批量写入执行记录失败，改为逐条写入，记录数: {}, 原因: {}", batch.size(), e.getMessage());
+            return writeOneByOne(batch);
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            AlgorithmExecutionRepository mapper = session.getMapper(AlgorithmExecutionRepository.class);
+            for (PendingRecord pending : batch) {
+                apply(mapper, pending);
+            }
+            session.flushStatements();
+            session.commit();
+        }
+    }
+
+    private boolean writeOneByOne(List<PendingRecord> batch) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.SIMPLE, true)) {
+            AlgorithmExecutionRepository mapper = session.getMapper(AlgorithmExecutionRepository.class);
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    apply(mapper, batch.get(i));
+                    written.increment();
+                } catch (Exception e) {
+                    if (isConstraintViolation(e)) {
+                        // 重放时已写入过的记录，或数据本身无法写入
+                        failed.increment();
+                        log.debug("跳过无法写入的执行记录，执行编号: {}", batch.get(i).getRecord().getExecutionNo());
+                        continue;
+                    }
+                    log.warn("数据库不可用，{}条执行记录写入溢出文件: {}", batch.size() - i, e.getMessage());
+                    spill(batch.subList(i, batch.size()));
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("数据库不可用，{}条执行记录写入溢出文件: {}", batch.size(), e.getMessage());
+            spill(batch);
+            return false;
+        }
+    }
+
+    private void apply(AlgorithmExecutionRepository mapper, PendingRecord pending) {
+        if (OP_UPDATE.equals(pending.getOp())) {
+            mapper.update(pending.getRecord(), new UpdateWrapper<AlgorithmExecution>()
+                    .eq("execution_no", pending.getRecord().getExecutionNo())
+                    .eq("status", 0));
+        } else {
+            mapper.insert(pending.getRecord());
+        }
+    }
+
+    /**
+     * 重放溢出文件：先改名再读取，重放期间新的溢出记录写入新文件，写库失败的记录重新追加；
+     * 上次重放中途退出遗留的文件一并重放
+     */
+    private void replaySpillFile() {
+        lastReplayAttempt = System.currentTimeMillis();
+        if (spillFile == null) {
+            return;
+        }
+        synchronized (this) {
+            if (Files.exists(spillFile)) {
+                try {
+                    Files.move(spillFile, spillFile.resolveSibling(
+                            spillFile.getFileName() + REPLAY_SUFFIX + System.currentTimeMillis()));
+                } catch (IOException e) {
+                    log.warn("准备重放执行记录溢出文件失败: {}", e.getMessage());
+                    return;
+                }
+            }
+        }
+        String replayPrefix = spillFile.getFileName() + REPLAY_SUFFIX;
+        List<Path> replayFiles;
+        try (Stream<Path> files = Files.list(spillFile.toAbsolutePath().getParent())) {
+            replayFiles = files.filter(file -> file.getFileName().toString().startsWith(replayPrefix))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            log.warn("查找执行记录溢出文件失败: {}", e.getMessage());
+            return;
+        }
+        for (Path replayFile : replayFiles) {
+            replay(replayFile);
+        }
+    }
+
+    private void replay(Path replayFile) {
+        List<PendingRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    records.add(JSON.parseObject(line, PendingRecord.class));
+                }
+            }
+        } catch (Exception e) {
+            log.error("读取执行记录溢出文件失败，文件已保留: {}", replayFile, e);
+            return;
+        }
+        log.info("开始重放执行记录溢出文件，记录数: {}", records.size());
+        for (int from = 0; from < records.size(); from += batchSize) {
+            List<PendingRecord> batch = records.subList(from, Math.min(records.size(), from + batchSize));
+            // 本批写库失败时重新写入溢出文件，执行编号随之重新登记
+            batch.stream().filter(pending -> OP_INSERT.equals(pending.getOp()))
+                    .forEach(pending -> forgetSpilledInsert(pending.getRecord().getExecutionNo()));
+            if (flush(batch)) {
+                replayed.add(batch.size());
+            }
+        }
+        try {
+            Files.deleteIfExists(replayFile);
+        } catch (IOException e) {
+            log.warn("删除已重放的溢出文件失败: {}", replayFile, e);
+        }
+    }
+
+    /**
+     * 追加到溢出文件并落盘
+     */
+    private synchronized void spill(List<PendingRecord> records) {
+        StringBuilder lines = new StringBuilder();
+        for (PendingRecord record : records) {
+            lines.append(JSON.toJSONString(record)).append('\n');
+        }
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+            spilled.add(records.size());
+            for (PendingRecord record : records) {
+                String executionNo = record.getRecord().getExecutionNo();
+                if (OP_INSERT.equals(record.getOp()) && executionNo != null) {
+                    spilledInserts.add(executionNo);
+                }
+            }
+        } catch (IOException e) {
+            failed.add(records.size());
+            log.error("写入执行记录溢出文件失败，{}条记录丢失", records.size(), e);
+        }
+    }
+
+    /**
+     * 是否为新增记录仍在溢出文件中的更新
+     */
+    private boolean isBehindSpilledInsert(PendingRecord pending) {
+        String executionNo = pending.getRecord().getExecutionNo();
+        return OP_UPDATE.equals(pending.getOp()) && executionNo != null && spilledInserts.contains(executionNo);
+    }
+
+    private void forgetSpilledInsert(String executionNo) {
+        if (executionNo != null) {
+            spilledInserts.remove(executionNo);
+        }
+    }
+
+    /**
+     * 按用户名解析用户ID（在写入线程上执行），数据库不可用时抛出异常且不缓存
+     */
+    private void resolveUser(PendingRecord pending) {
+        AlgorithmExecution record = pending.getRecord();
+        if (record.getUserId() != null || !OP_INSERT.equals(pending.getOp())) {
+            return;
+        }
+        if (pending.getUsername() == null) {
+            record.setUserId(UNKNOWN_USER_ID);
+            return;
+        }
+        record.setUserId(userIds.computeIfAbsent(pending.getUsername(), username -> {
+            User user = userRepository.selectOne(new QueryWrapper<User>().eq("username", username));
+            return user != null ? user.getId() : UNKNOWN_USER_ID;
+        }));
+    }
+
+    private boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 待写入的执行记录（溢出文件中每行一条）
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PendingRecord {
+
+        /**
+         * 操作类型：INSERT 或 UPDATE
+         */
+        private String op;
+
+        /**
+         * 提交用户名
+         */
+        private String username;
+
+        /**
+         * 执行记录
+         */
+        private AlgorithmExecution record;
+    }
+}
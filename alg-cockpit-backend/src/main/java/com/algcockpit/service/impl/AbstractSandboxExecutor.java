@@ -0,0 +1,306 @@
+package com.algcockpit.service.impl;
+
+import com.algcockpit.dto.request.BatchExecuteRequest;
+import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
+import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.exception.BusinessException;
+import com.algcockpit.service.SandboxExecutor;
+import com.algcockpit.service.sandbox.ExecutionOutputListener;
+import com.algcockpit.service.sandbox.ExecutionResultCache;
+import com.algcockpit.service.sandbox.ExecutionResultStore;
+import com.algcockpit.service.sandbox.ExecutionScheduler;
+import com.algcockpit.service.sandbox.RunningExecutionRegistry;
+import com.algcockpit.service.sandbox.RunningExecutionRegistry.RunningExecution;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntimeRegistry;
+import com.algcockpit.service.statistics.ExecutionStageMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * 沙箱执行器基类
+ * 负责执行的登记、调度排队、同步等待、异步结果存储与取消，子类只实现单次执行与批量执行本身
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+public abstract class AbstractSandboxExecutor implements SandboxExecutor {
+
+    @Autowired
+    protected ExecutionScheduler executionScheduler;
+
+    @Autowired
+    protected RunningExecutionRegistry runningExecutions;
+
+    @Autowired
+    protected ExecutionResultStore resultStore;
+
+    @Autowired
+    protected LanguageRuntimeRegistry runtimeRegistry;
+
+    @Autowired
+    protected ExecutionResultCache resultCache;
+
+    @Autowired
+    protected ExecutionStageMetrics stageMetrics;
+
+    @Value("${sandbox.output.max-bytes:65536}")
+    protected int maxOutputBytes;
+
+    @Value("${sandbox.batch.max-inputs:100}")
+    private int maxBatchInputs;
+
+    /**
+     * 执行一次用户代码
+     *
+     * @param request 执行请求
+     * @param execution 执行句柄，据此检查取消状态并关联可终止的资源
+     * @param listener 输出监听器，可为null
+     * @return 执行结果
+     */
+    protected abstract ExecuteResponse doExecute(ExecuteRequest request, RunningExecution execution,
+                                                 ExecutionOutputListener listener);
+
+    /**
+     * 编译一次并依次运行多组输入
+     *
+     * @param request 批量执行请求
+     * @param execution 执行句柄
+     * @return 批量执行结果
+     */
+    protected abstract BatchExecuteResponse doExecuteBatch(BatchExecuteRequest request, RunningExecution execution);
+
+    /**
+     * 调度器中使用的语言标识（用于按语言限流），默认即为请求的语言
+     */
+    protected String getSchedulerLanguage(String language) {
+        return language;
+    }
+
+    @Override
+    public ExecuteResponse execute(ExecuteRequest request) {
+        return execute(UUID.randomUUID().toString(), request);
+    }
+
+    @Override
+    public ExecuteResponse execute(String executionId, ExecuteRequest request) {
+        // 同步执行同样经过调度器排队，保证并发上限对所有执行生效
+        CompletableFuture<ExecuteResponse> future = submit(executionId, request, null, null);
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            return createCancelledResponse(executionId);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return new ExecuteResponse()
+                    .setSuccess(false)
+                    .setError("执行被中断")
+                    .setStatus("ERROR");
+        } catch (ExecutionException e) {
+            log.error("调度执行算法代码时发生异常", e.getCause());
+            return new ExecuteResponse()
+                    .setSuccess(false)
+                    .setError("执行异常: " + e.getCause().getMessage())
+                    .setStatus("ERROR");
+        }
+    }
+
+    @Override
+    public CompletableFuture<ExecuteResponse> executeStreaming(String executionId, ExecuteRequest request,
+                                                               ExecutionOutputListener listener) {
+        return submit(executionId, request, listener, null);
+    }
+
+    /**
+     * 登记执行并提交到调度器；确定性执行（流式执行除外）先查结果缓存，命中时不再排队执行
+     *
+     * @param onStart 任务开始运行时的回调，可为null
+     */
+    private CompletableFuture<ExecuteResponse> submit(String executionId, ExecuteRequest request,
+                                                      ExecutionOutputListener listener, Runnable onStart) {
+        runtimeRegistry.applyDefaults(request);
+        boolean cacheable = listener == null && resultCache.isCacheable(request);
+        if (cacheable) {
+            ExecuteResponse cached = resultCache.get(request);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        RunningExecution execution = runningExecutions.register(executionId);
+        CompletableFuture<ExecuteResponse> future;
+        try {
+            future = executionScheduler.submit(getCurrentUserKey(), getSchedulerLanguage(request.getLanguage()), () -> {
+                if (onStart != null) {
+                    onStart.run();
+                }
+                ExecuteResponse response = doExecute(request, execution, listener);
+                recordStages(request.getLanguage(), response);
+                if (cacheable) {
+                    resultCache.put(request, response);
+                }
+                return response;
+            });
+        } catch (RuntimeException e) {
+            runningExecutions.unregister(executionId);
+            throw e;
+        }
+        runningExecutions.attachFuture(execution, future);
+        return future;
+    }
+
+    @Override
+    public BatchExecuteResponse executeBatch(BatchExecuteRequest request) {
+        if (request.getInputs().size() > maxBatchInputs) {
+            throw new BusinessException(400, "批量执行的输入数不能超过" + maxBatchInputs);
+        }
+        runtimeRegistry.applyDefaults(request);
+        
+        // 整批作为一个调度任务，占用一个执行槽位
+        String executionId = UUID.randomUUID().toString();
+        RunningExecution execution = runningExecutions.register(executionId);
+        CompletableFuture<BatchExecuteResponse> future;
+        try {
+            future = executionScheduler.submit(getCurrentUserKey(), getSchedulerLanguage(request.getLanguage()),
+                    () -> doExecuteBatch(request, execution));
+        } catch (RuntimeException e) {
+            runningExecutions.unregister(executionId);
+            throw e;
+        }
+        runningExecutions.attachFuture(execution, future);
+        
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            return new BatchExecuteResponse()
+                    .setSuccess(false)
+                    .setError("执行已取消")
+                    .setStatus("CANCELLED")
+                    .setExecutionId(executionId);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return new BatchExecuteResponse()
+                    .setSuccess(false)
+                    .setError("执行被中断")
+                    .setStatus("ERROR");
+        } catch (ExecutionException e) {
+            log.error("调度批量执行时发生异常", e.getCause());
+            return new BatchExecuteResponse()
+                    .setSuccess(false)
+                    .setError("执行异常: " + e.getCause().getMessage())
+                    .setStatus("ERROR");
+        }
+    }
+
+    @Override
+    public String executeAsync(ExecuteRequest request, Consumer<ExecuteResponse> onComplete) {
+        String executionId = UUID.randomUUID().toString();
+        
+        // 先记录排队状态，再提交，避免覆盖已开始执行的状态；调度器拒绝时删除该条目
+        resultStore.put(executionId, createStateResponse(executionId, ExecutionResultStore.PENDING));
+        CompletableFuture<ExecuteResponse> future;
+        try {
+            future = submit(executionId, request, null,
+                    () -> resultStore.put(executionId, createStateResponse(executionId, ExecutionResultStore.RUNNING)));
+        } catch (RuntimeException e) {
+            resultStore.remove(executionId);
+            throw e;
+        }
+        
+        // 排队中被取消的任务不会运行，结果在任务结束时统一写入并回调
+        future.whenComplete((response, e) -> {
+            ExecuteResponse result;
+            if (e == null) {
+                result = response.setExecutionId(executionId);
+            } else if (e instanceof CancellationException) {
+                result = createCancelledResponse(executionId);
+            } else {
+                result = new ExecuteResponse()
+                        .setSuccess(false)
+                        .setError("执行异常: " + e.getMessage())
+                        .setStatus("ERROR")
+                        .setExecutionId(executionId);
+            }
+            resultStore.put(executionId, result);
+            notifyComplete(onComplete, result);
+        });
+        
+        return executionId;
+    }
+
+    @Override
+    public ExecuteResponse getAsyncResult(String executionId) {
+        return resultStore.get(executionId);
+    }
+
+    @Override
+    public Boolean cancelAsyncExecution(String executionId) {
+        // 排队中的任务直接出队；运行中的任务由登记的进程或取消处理器终止，调度槽位随即释放
+        return runningExecutions.cancel(executionId);
+    }
+
+    @Override
+    public Boolean cancelExecution(String executionId) {
+        return runningExecutions.cancel(executionId);
+    }
+
+    /**
+     * 记录执行器已测得的启动、编译、运行耗时
+     */
+    private void recordStages(String language, ExecuteResponse response) {
+        stageMetrics.recordMillis(ExecutionStageMetrics.STARTUP, language, response.getStartupTime());
+        if (!Boolean.TRUE.equals(response.getCompileCached())) {
+            stageMetrics.recordMillis(ExecutionStageMetrics.COMPILE, language, response.getCompileTime());
+        }
+        stageMetrics.recordMillis(ExecutionStageMetrics.RUN, language, response.getRunTime());
+    }
+
+    /**
+     * 回调异步执行的最终结果，回调方出错不影响结果存储
+     */
+    protected void notifyComplete(Consumer<ExecuteResponse> onComplete, ExecuteResponse response) {
+        if (onComplete == null) {
+            return;
+        }
+        try {
+            onComplete.accept(response);
+        } catch (Exception e) {
+            log.error("处理异步执行结果失败，执行ID: {}", response.getExecutionId(), e);
+        }
+    }
+
+    protected ExecuteResponse createStateResponse(String executionId, String status) {
+        return new ExecuteResponse()
+                .setStatus(status)
+                .setExecutionId(executionId);
+    }
+
+    protected ExecuteResponse createCancelledResponse(String executionId) {
+        return markCancelled(new ExecuteResponse()).setExecutionId(executionId);
+    }
+
+    protected ExecuteResponse markCancelled(ExecuteResponse response) {
+        return response.setSuccess(false)
+                .setTimeout(false)
+                .setError("执行已取消")
+                .setStatus("CANCELLED");
+    }
+
+    /**
+     * 获取当前用户标识，用于调度器按用户公平排队
+     */
+    private String getCurrentUserKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+}
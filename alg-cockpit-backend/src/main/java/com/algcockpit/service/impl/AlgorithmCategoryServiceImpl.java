@@ -4,9 +4,12 @@ import com.algcockpit.entity.AlgorithmCategory;
 import com.algcockpit.exception.BusinessException;
 import com.algcockpit.repository.AlgorithmCategoryRepository;
 import com.algcockpit.service.AlgorithmCategoryService;
+import com.algcockpit.service.cache.CatalogCaches;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -22,9 +25,13 @@ import java.util.List;
 public class AlgorithmCategoryServiceImpl extends ServiceImpl<AlgorithmCategoryRepository, AlgorithmCategory> 
     implements AlgorithmCategoryService {
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
     public List<AlgorithmCategory> getAllEnabledCategories() {
-        return baseMapper.selectAllEnabledCategories();
+        return cacheManager.getCache(CatalogCaches.ENABLED_CATEGORIES)
+                .get(CatalogCaches.ALL, () -> baseMapper.selectAllEnabledCategories());
     }
 
     @Override
@@ -71,6 +78,7 @@ public class AlgorithmCategoryServiceImpl extends ServiceImpl<AlgorithmCategoryR
             throw new BusinessException(50001, "创建算法分类失败");
         }
         
+        evictEnabledCategories();
         log.info("创建算法分类成功: {}", category.getName());
         return category;
     }
@@ -107,6 +115,7 @@ public class AlgorithmCategoryServiceImpl extends ServiceImpl<AlgorithmCategoryR
             throw new BusinessException(50002, "更新算法分类失败");
         }
         
+        evictEnabledCategories();
         log.info("更新算法分类成功: {}", category.getId());
         return category;
     }
@@ -127,6 +136,7 @@ public class AlgorithmCategoryServiceImpl extends ServiceImpl<AlgorithmCategoryR
         boolean success = updateById(category);
         
         if (success) {
+            evictEnabledCategories();
             log.info("删除算法分类成功: {}", id);
         } else {
             log.error("删除算法分类失败: {}", id);
@@ -134,4 +144,8 @@ public class AlgorithmCategoryServiceImpl extends ServiceImpl<AlgorithmCategoryR
         
         return success;
     }
+
+    private void evictEnabledCategories() {
+        cacheManager.getCache(CatalogCaches.ENABLED_CATEGORIES).evict(CatalogCaches.ALL);
+    }
 }
\ No newline at end of file
@@ -4,9 +4,12 @@ import com.algcockpit.entity.AlgorithmCode;
 import com.algcockpit.exception.BusinessException;
 import com.algcockpit.repository.AlgorithmCodeRepository;
 import com.algcockpit.service.AlgorithmCodeService;
+import com.algcockpit.service.cache.CatalogCaches;
+import com.algcockpit.service.security.CodeSecurityValidator;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +28,12 @@ public class AlgorithmCodeServiceImpl extends ServiceImpl<AlgorithmCodeRepositor
     @Autowired
     private AlgorithmCodeRepository algorithmCodeRepository;
 
+    @Autowired
+    private CodeSecurityValidator codeSecurityValidator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
     public List<AlgorithmCode> getCodesByAlgorithmId(Long algorithmId) {
         if (algorithmId == null || algorithmId <= 0) {
@@ -32,7 +41,8 @@ public class AlgorithmCodeServiceImpl extends ServiceImpl<AlgorithmCodeRepositor
         }
         
         try {
-            List<AlgorithmCode> codes = algorithmCodeRepository.selectByAlgorithmId(algorithmId);
+            List<AlgorithmCode> codes = cacheManager.getCache(CatalogCaches.CODES_BY_ALGORITHM)
+                    .get(algorithmId, () -> algorithmCodeRepository.selectByAlgorithmId(algorithmId));
             log.info("根据算法ID查询代码列表成功，算法ID: {}, 数量: {}", algorithmId, codes.size());
             return codes;
         } catch (Exception e) {
@@ -100,7 +110,9 @@ public class AlgorithmCodeServiceImpl extends ServiceImpl<AlgorithmCodeRepositor
                 throw new BusinessException(500, "创建算法代码失败");
             }
             
+            evictCodes(algorithmCode.getAlgorithmId());
             log.info("创建算法代码成功，算法ID: {}, 语言: {}", algorithmCode.getAlgorithmId(), algorithmCode.getLanguage());
+            prevalidate(algorithmCode.getCodeContent(), algorithmCode.getLanguage());
             return algorithmCode;
         } catch (BusinessException e) {
             throw e;
@@ -133,7 +145,10 @@ public class AlgorithmCodeServiceImpl extends ServiceImpl<AlgorithmCodeRepositor
                 throw new BusinessException(500, "更新算法代码失败");
             }
             
+            evictCodes(existingCode.getAlgorithmId());
             log.info("更新算法代码成功，代码ID: {}, 算法ID: {}", algorithmCode.getId(), algorithmCode.getAlgorithmId());
+            prevalidate(algorithmCode.getCodeContent(),
+                    algorithmCode.getLanguage() != null ? algorithmCode.getLanguage() : existingCode.getLanguage());
             return algorithmCode;
         } catch (BusinessException e) {
             throw e;
@@ -162,6 +177,7 @@ public class AlgorithmCodeServiceImpl extends ServiceImpl<AlgorithmCodeRepositor
             int result = algorithmCodeRepository.updateById(code);
             
             if (result > 0) {
+                evictCodes(code.getAlgorithmId());
                 log.info("删除算法代码成功，代码ID: {}", id);
                 return true;
             } else {
@@ -183,6 +199,7 @@ public class AlgorithmCodeServiceImpl extends ServiceImpl<AlgorithmCodeRepositor
         
         try {
             algorithmCodeRepository.deleteByAlgorithmId(algorithmId);
+            evictCodes(algorithmId);
             log.info("根据算法ID删除所有代码成功，算法ID: {}", algorithmId);
             return true;
         } catch (Exception e) {
@@ -190,4 +207,17 @@ public class AlgorithmCodeServiceImpl extends ServiceImpl<AlgorithmCodeRepositor
             throw new BusinessException(500, "删除代码失败");
         }
     }
-}
\ No newline at end of file
+
+    private void evictCodes(Long algorithmId) {
+        cacheManager.getCache(CatalogCaches.CODES_BY_ALGORITHM).evict(algorithmId);
+    }
+
+    /**
+     * 预先校验代码安全性，结论进入校验缓存，执行参考实现时不再重复分析；不安全的代码仍允许保存，仅记录警告
+     */
+    private void prevalidate(String code, String language) {
+        if (!codeSecurityValidator.validateCodeSecurity(code, language)) {
+            log.warn("保存的算法代码未通过安全检查，执行时将被拒绝，语言: {}", language);
+        }
+    }
+}
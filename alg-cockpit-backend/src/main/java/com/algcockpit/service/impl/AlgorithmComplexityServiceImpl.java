@@ -1,12 +1,16 @@
 package com.algcockpit.service.impl;
 
+import com.algcockpit.dto.request.ComplexityProfileRequest;
 import com.algcockpit.entity.AlgorithmComplexity;
 import com.algcockpit.exception.BusinessException;
 import com.algcockpit.repository.AlgorithmComplexityRepository;
 import com.algcockpit.service.AlgorithmComplexityService;
+import com.algcockpit.service.cache.CatalogCaches;
+import com.algcockpit.service.profiling.ComplexityProfiler;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +28,12 @@ public class AlgorithmComplexityServiceImpl extends ServiceImpl<AlgorithmComplex
     @Autowired
     private AlgorithmComplexityRepository algorithmComplexityRepository;
 
+    @Autowired
+    private ComplexityProfiler complexityProfiler;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
     public AlgorithmComplexity getComplexityByAlgorithmId(Long algorithmId) {
         if (algorithmId == null || algorithmId <= 0) {
@@ -31,7 +41,8 @@ public class AlgorithmComplexityServiceImpl extends ServiceImpl<AlgorithmComplex
         }
         
         try {
-            AlgorithmComplexity complexity = algorithmComplexityRepository.selectByAlgorithmId(algorithmId);
+            AlgorithmComplexity complexity = cacheManager.getCache(CatalogCaches.COMPLEXITY_BY_ALGORITHM)
+                    .get(algorithmId, () -> algorithmComplexityRepository.selectByAlgorithmId(algorithmId));
             if (complexity == null) {
                 throw new BusinessException(404, "算法复杂度信息不存在");
             }
@@ -73,6 +84,7 @@ public class AlgorithmComplexityServiceImpl extends ServiceImpl<AlgorithmComplex
                 throw new BusinessException(500, "创建算法复杂度失败");
             }
             
+            evictComplexity(algorithmComplexity.getAlgorithmId());
             log.info("创建算法复杂度成功，算法ID: {}", algorithmComplexity.getAlgorithmId());
             return algorithmComplexity;
         } catch (BusinessException e) {
@@ -103,6 +115,7 @@ public class AlgorithmComplexityServiceImpl extends ServiceImpl<AlgorithmComplex
                 throw new BusinessException(500, "更新算法复杂度失败");
             }
             
+            evictComplexity(existingComplexity.getAlgorithmId());
             log.info("更新算法复杂度成功，复杂度ID: {}, 算法ID: {}", algorithmComplexity.getId(), algorithmComplexity.getAlgorithmId());
             return algorithmComplexity;
         } catch (BusinessException e) {
@@ -132,6 +145,7 @@ public class AlgorithmComplexityServiceImpl extends ServiceImpl<AlgorithmComplex
             int result = algorithmComplexityRepository.updateById(complexity);
             
             if (result > 0) {
+                evictComplexity(complexity.getAlgorithmId());
                 log.info("删除算法复杂度成功，复杂度ID: {}", id);
                 return true;
             } else {
@@ -153,6 +167,7 @@ public class AlgorithmComplexityServiceImpl extends ServiceImpl<AlgorithmComplex
         
         try {
             algorithmComplexityRepository.deleteByAlgorithmId(algorithmId);
+            evictComplexity(algorithmId);
             log.info("根据算法ID删除复杂度信息成功，算法ID: {}", algorithmId);
             return true;
         } catch (Exception e) {
@@ -160,4 +175,21 @@ public class AlgorithmComplexityServiceImpl extends ServiceImpl<AlgorithmComplex
             throw new BusinessException(500, "删除复杂度信息失败");
         }
     }
+
+    @Override
+    public boolean startComplexityProfiling(Long algorithmId, ComplexityProfileRequest request) {
+        if (algorithmId == null || algorithmId <= 0) {
+            throw new BusinessException(400, "算法ID不能为空");
+        }
+        
+        boolean submitted = complexityProfiler.submit(algorithmId, request);
+        if (!submitted) {
+            log.info("算法复杂度实测已在进行中，算法ID: {}", algorithmId);
+        }
+        return submitted;
+    }
+
+    private void evictComplexity(Long algorithmId) {
+        cacheManager.getCache(CatalogCaches.COMPLEXITY_BY_ALGORITHM).evict(algorithmId);
+    }
 }
\ No newline at end of file
@@ -1,17 +1,25 @@
 package com.algcockpit.service.impl;
 
+import com.algcockpit.dto.request.BatchExecuteRequest;
 import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
 import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.dto.response.StageLatency;
 import com.algcockpit.service.AlgorithmExecutionService;
 import com.algcockpit.service.SandboxExecutor;
 import com.algcockpit.service.execution.ExecutionLogger;
+import com.algcockpit.service.sandbox.ExecutionOutputListener;
 import com.algcockpit.service.security.CodeSecurityValidator;
+import com.algcockpit.service.statistics.ExecutionStageMetrics;
 import com.algcockpit.service.statistics.ExecutionStatisticsService;
 import com.algcockpit.service.validation.AlgorithmValidator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 算法执行服务实现
  * 重构后的版本，职责单一，代码简洁
@@ -25,6 +33,9 @@ public class AlgorithmExecutionServiceImpl implements AlgorithmExecutionService
     @Autowired
     private SandboxExecutor sandboxExecutor;
 
+    @Autowired
+    private RemoteSandboxExecutor remoteSandboxExecutor;
+
     @Autowired
     private CodeSecurityValidator codeSecurityValidator;
 
@@ -37,25 +48,92 @@ public class AlgorithmExecutionServiceImpl implements AlgorithmExecutionService
     @Autowired
     private ExecutionStatisticsService executionStatisticsService;
 
+    @Autowired
+    private ExecutionStageMetrics stageMetrics;
+
     @Override
     public ExecuteResponse executeAlgorithm(ExecuteRequest request) {
         log.info("开始执行算法，算法ID: {}, 语言: {}", request.getAlgorithmId(), request.getLanguage());
+        String language = request.getLanguage();
+        long startNanos = System.nanoTime();
         
         // 验证算法存在性
-        if (!algorithmValidator.validateAlgorithmExists(request.getAlgorithmId())) {
+        boolean exists = algorithmValidator.validateAlgorithmExists(request.getAlgorithmId());
+        long checkedNanos = System.nanoTime();
+        stageMetrics.record(ExecutionStageMetrics.EXISTS_CHECK, language, checkedNanos - startNanos);
+        if (!exists) {
             return createErrorResponse("算法不存在，ID: " + request.getAlgorithmId(), "ALGORITHM_NOT_FOUND");
         }
 
         // 验证代码安全性
-        if (!codeSecurityValidator.validateCodeSecurity(request.getCode(), request.getLanguage())) {
+        boolean safe = codeSecurityValidator.validateCodeSecurity(request.getCode(), language);
+        stageMetrics.record(ExecutionStageMetrics.SECURITY_CHECK, language, System.nanoTime() - checkedNanos);
+        if (!safe) {
             return createErrorResponse("代码包含危险操作，拒绝执行", "UNSAFE_CODE");
         }
 
         // 执行代码
-        ExecuteResponse response = sandboxExecutor.execute(request);
+        ExecuteResponse response = getExecutor().execute(request);
         
         // 记录执行日志
+        long logStart = System.nanoTime();
         executionLogger.logExecutionResult(request, response);
+        long endNanos = System.nanoTime();
+        stageMetrics.record(ExecutionStageMetrics.LOG, language, endNanos - logStart);
+        stageMetrics.record(ExecutionStageMetrics.TOTAL, language, endNanos - startNanos);
+        
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<ExecuteResponse> executeAlgorithmStreaming(String executionId, ExecuteRequest request,
+                                                                        ExecutionOutputListener listener) {
+        log.info("开始流式执行算法，算法ID: {}, 语言: {}", request.getAlgorithmId(), request.getLanguage());
+        
+        // 验证算法存在性
+        if (!algorithmValidator.validateAlgorithmExists(request.getAlgorithmId())) {
+            return CompletableFuture.completedFuture(
+                    createErrorResponse("算法不存在，ID: " + request.getAlgorithmId(), "ALGORITHM_NOT_FOUND"));
+        }
+
+        // 验证代码安全性
+        if (!codeSecurityValidator.validateCodeSecurity(request.getCode(), request.getLanguage())) {
+            return CompletableFuture.completedFuture(createErrorResponse("代码包含危险操作，拒绝执行", "UNSAFE_CODE"));
+        }
+
+        // 执行在调度线程上完成，用户名须在请求线程上取得
+        String username = executionLogger.getCurrentUsername();
+        return getExecutor().executeStreaming(executionId, request, listener)
+                .whenComplete((response, ex) -> {
+                    if (response != null) {
+                        executionLogger.logExecutionResult(request, response, username);
+                    }
+                });
+    }
+
+    @Override
+    public BatchExecuteResponse executeAlgorithmBatch(BatchExecuteRequest request) {
+        log.info("开始批量执行算法，算法ID: {}, 语言: {}, 输入数: {}",
+                request.getAlgorithmId(), request.getLanguage(), request.getInputs().size());
+        
+        // 验证算法存在性
+        if (!algorithmValidator.validateAlgorithmExists(request.getAlgorithmId())) {
+            return new BatchExecuteResponse()
+                    .setSuccess(false)
+                    .setError("算法不存在，ID: " + request.getAlgorithmId())
+                    .setStatus("ALGORITHM_NOT_FOUND");
+        }
+
+        // 验证代码安全性
+        if (!codeSecurityValidator.validateCodeSecurity(request.getCode(), request.getLanguage())) {
+            return new BatchExecuteResponse()
+                    .setSuccess(false)
+                    .setError("代码包含危险操作，拒绝执行")
+                    .setStatus("UNSAFE_CODE");
+        }
+
+        BatchExecuteResponse response = getExecutor().executeBatch(request);
+        executionLogger.logBatchExecutionResult(request, response);
         
         return response;
     }
@@ -74,28 +152,26 @@ public class AlgorithmExecutionServiceImpl implements AlgorithmExecutionService
             throw new SecurityException("代码包含危险操作，拒绝执行");
         }
 
-        String executionId = sandboxExecutor.executeAsync(request);
-        executionLogger.logAsyncExecutionStart(executionId, request.getAlgorithmId());
+        // 执行结束时由执行器回调写入最终状态；回调可能先于开始记录发生，须排在其后
+        CompletableFuture<String> started = new CompletableFuture<>();
+        String executionId = getExecutor().executeAsync(request, response ->
+                started.thenAccept(id -> executionLogger.logAsyncExecutionComplete(id, response)));
+        executionLogger.logAsyncExecutionStart(executionId, request);
+        started.complete(executionId);
         
         return executionId;
     }
 
     @Override
     public ExecuteResponse getAsyncExecutionResult(String executionId) {
-        ExecuteResponse response = sandboxExecutor.getAsyncResult(executionId);
-        
-        if (response != null) {
-            executionLogger.logAsyncExecutionComplete(executionId, response.isSuccess());
-        }
-        
-        return response;
+        return getExecutor().getAsyncResult(executionId);
     }
 
     @Override
     public Boolean cancelAsyncExecution(String executionId) {
         log.info("取消异步执行，执行ID: {}", executionId);
         
-        Boolean result = sandboxExecutor.cancelAsyncExecution(executionId);
+        Boolean result = getExecutor().cancelAsyncExecution(executionId);
         
         if (result) {
             executionLogger.logExecutionCancelled(executionId);
@@ -104,6 +180,15 @@ public class AlgorithmExecutionServiceImpl implements AlgorithmExecutionService
         return result;
     }
 
+    @Override
+    public Boolean cancelExecution(String executionId) {
+        Boolean result = getExecutor().cancelExecution(executionId);
+        if (result) {
+            log.info("已取消执行，执行ID: {}", executionId);
+        }
+        return result;
+    }
+
     @Override
     public Boolean validateCodeSecurity(String code, String language) {
         return codeSecurityValidator.validateCodeSecurity(code, language);
@@ -114,6 +199,23 @@ public class AlgorithmExecutionServiceImpl implements AlgorithmExecutionService
         return executionStatisticsService.getExecutionStatistics(algorithmId);
     }
 
+    @Override
+    public String getSystemStatistics() {
+        return executionStatisticsService.getSystemStatistics();
+    }
+
+    @Override
+    public List<StageLatency> getStageLatencies() {
+        return stageMetrics.getStageLatencies();
+    }
+
+    /**
+     * 选择执行器：远程分发模式下分发给沙箱执行节点，否则在本节点执行
+     */
+    private SandboxExecutor getExecutor() {
+        return remoteSandboxExecutor.isEnabled() ? remoteSandboxExecutor : sandboxExecutor;
+    }
+
     /**
      * 创建错误响应
      */
@@ -2,12 +2,17 @@ package com.algcockpit.service.impl;
 
 import com.algcockpit.dto.request.AlgorithmExecuteRequest;
 import com.algcockpit.dto.response.AlgorithmExecutionResponse;
+import com.algcockpit.dto.response.AlgorithmSummary;
 import com.algcockpit.entity.Algorithm;
 import com.algcockpit.entity.AlgorithmExecution;
 import com.algcockpit.exception.BusinessException;
 import com.algcockpit.repository.AlgorithmExecutionRepository;
 import com.algcockpit.repository.AlgorithmRepository;
 import com.algcockpit.service.AlgorithmService;
+import com.algcockpit.service.SandboxExecutor;
+import com.algcockpit.service.cache.CatalogCaches;
+import com.algcockpit.service.statistics.AlgorithmPopularityService;
+import com.algcockpit.service.validation.AlgorithmExistenceIndex;
 import com.algcockpit.util.JwtUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -15,13 +20,19 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -39,6 +50,21 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
     @Autowired
     private AlgorithmExecutionRepository algorithmExecutionRepository;
 
+    @Autowired
+    private SandboxExecutor sandboxExecutor;
+
+    @Autowired
+    private RemoteSandboxExecutor remoteSandboxExecutor;
+
+    @Autowired
+    private AlgorithmExistenceIndex algorithmExistenceIndex;
+
+    @Autowired
+    private AlgorithmPopularityService algorithmPopularityService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -46,13 +72,14 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
     private RedisTemplate<String, Object> redisTemplate;
 
     @Override
-    public List<Algorithm> getAlgorithmsByCategoryId(Long categoryId) {
+    public List<AlgorithmSummary> getAlgorithmsByCategoryId(Long categoryId) {
         if (categoryId == null || categoryId <= 0) {
             throw new BusinessException(400, "分类ID不能为空");
         }
         
         try {
-            List<Algorithm> algorithms = algorithmRepository.selectByCategoryId(categoryId);
+            List<AlgorithmSummary> algorithms = cacheManager.getCache(CatalogCaches.ALGORITHMS_BY_CATEGORY)
+                    .get(categoryId, () -> algorithmRepository.selectByCategoryId(categoryId));
             log.info("根据分类ID查询算法列表成功，分类ID: {}, 数量: {}", categoryId, algorithms.size());
             return algorithms;
         } catch (Exception e) {
@@ -62,7 +89,7 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
     }
 
     @Override
-    public IPage<Algorithm> getAlgorithmPage(Long pageNum, Long pageSize, Long categoryId, 
+    public IPage<AlgorithmSummary> getAlgorithmPage(Long pageNum, Long pageSize, Long categoryId, 
                                            Integer difficultyLevel, Integer status, String keyword) {
         if (pageNum == null || pageNum <= 0) {
             pageNum = 1L;
@@ -72,8 +99,8 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
         }
         
         try {
-            Page<Algorithm> page = new Page<>(pageNum, pageSize);
-            IPage<Algorithm> result = algorithmRepository.selectAlgorithmPage(page, categoryId, 
+            Page<AlgorithmSummary> page = new Page<>(pageNum, pageSize);
+            IPage<AlgorithmSummary> result = algorithmRepository.selectAlgorithmPage(page, categoryId, 
                     difficultyLevel, status, keyword);
             log.info("分页查询算法列表成功，页码: {}, 页大小: {}, 总数: {}", pageNum, pageSize, result.getTotal());
             return result;
@@ -90,7 +117,8 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
         }
         
         try {
-            Algorithm algorithm = algorithmRepository.selectById(id);
+            Algorithm algorithm = cacheManager.getCache(CatalogCaches.ALGORITHM_DETAIL)
+                    .get(id, () -> algorithmRepository.selectById(id));
             if (algorithm == null || algorithm.getDeleted() == 1) {
                 throw new BusinessException(404, "算法不存在");
             }
@@ -141,6 +169,9 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
                 throw new BusinessException(500, "创建算法失败");
             }
             
+            algorithmExistenceIndex.add(algorithm.getId());
+            algorithmPopularityService.onCreated(algorithm.getId());
+            cacheManager.getCache(CatalogCaches.ALGORITHMS_BY_CATEGORY).evict(algorithm.getCategoryId());
             log.info("创建算法成功，算法ID: {}, 名称: {}", algorithm.getId(), algorithm.getName());
             return algorithm;
         } catch (BusinessException e) {
@@ -182,6 +213,7 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
                 throw new BusinessException(500, "更新算法失败");
             }
             
+            evictAlgorithm(algorithm.getId(), existingAlgorithm.getCategoryId(), algorithm.getCategoryId());
             log.info("更新算法成功，算法ID: {}, 名称: {}", algorithm.getId(), algorithm.getName());
             return algorithm;
         } catch (BusinessException e) {
@@ -206,11 +238,13 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
         }
         
         try {
-            algorithm.setDeleted(1);
-            algorithm.setUpdatedTime(LocalDateTime.now());
-            int result = algorithmRepository.updateById(algorithm);
+            // 逻辑删除字段不会出现在updateById的SET子句中，需通过deleteById执行逻辑删除
+            int result = algorithmRepository.deleteById(id);
             
             if (result > 0) {
+                algorithmExistenceIndex.remove(id);
+                algorithmPopularityService.onDeleted(id);
+                evictAlgorithm(id, algorithm.getCategoryId(), null);
                 log.info("删除算法成功，算法ID: {}", id);
                 return true;
             } else {
@@ -224,18 +258,13 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
     }
 
     @Override
-    @Transactional
     public void increasePopularity(Long id) {
         if (id == null || id <= 0) {
             return;
         }
         
-        try {
-            algorithmRepository.increasePopularity(id);
-            log.debug("增加算法热度成功，算法ID: {}", id);
-        } catch (Exception e) {
-            log.error("增加算法热度失败，算法ID: {}", id, e);
-        }
+        // 只累加内存计数器，定时批量写库
+        algorithmPopularityService.increment(id);
     }
 
     @Override
@@ -295,11 +324,30 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
         }
         
         try {
-            // 这里需要实现停止算法执行的逻辑
-            // 包括：中断执行进程、更新执行状态等
+            AlgorithmExecution execution = algorithmExecutionRepository.selectById(executionId);
+            if (execution == null) {
+                throw new BusinessException(404, "执行记录不存在");
+            }
+            if (!Objects.equals(execution.getStatus(), 0)) {
+                log.info("执行已结束，无需停止，执行记录ID: {}, 状态: {}", executionId, execution.getStatus());
+                return false;
+            }
+            
+            // 终止沙箱中的进程与容器，排队中的执行直接出队
+            if (execution.getExecutionNo() != null) {
+                (remoteSandboxExecutor.isEnabled() ? remoteSandboxExecutor : sandboxExecutor).cancelAsyncExecution(execution.getExecutionNo());
+            }
             
-            log.info("停止算法执行，执行记录ID: {}", executionId);
+            AlgorithmExecution update = new AlgorithmExecution();
+            update.setId(executionId);
+            update.setStatus(4);
+            update.setErrorMessage("执行已取消");
+            algorithmExecutionRepository.updateById(update);
+            
+            log.info("停止算法执行，执行记录ID: {}, 执行编号: {}", executionId, execution.getExecutionNo());
             return true;
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("停止算法执行失败，执行记录ID: {}", executionId, e);
             throw new BusinessException(500, "停止算法执行失败");
@@ -307,13 +355,39 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
     }
 
     @Override
-    public Page<Algorithm> getPopularAlgorithms(Page<Algorithm> page) {
+    public Page<AlgorithmSummary> getPopularAlgorithms(Page<AlgorithmSummary> page) {
+        // 优先从热度排行读取，排行不可用时按数据库排序
+        LinkedHashMap<Long, Integer> ranking = algorithmPopularityService.getRanking(
+                (page.getCurrent() - 1) * page.getSize(), page.getSize());
+        if (ranking != null) {
+            try {
+                Map<Long, AlgorithmSummary> algorithms = new HashMap<>();
+                if (!ranking.isEmpty()) {
+                    algorithmRepository.selectSummariesByIds(ranking.keySet())
+                            .forEach(algorithm -> algorithms.put(algorithm.getId(), algorithm));
+                }
+                List<AlgorithmSummary> records = new ArrayList<>(ranking.size());
+                ranking.forEach((id, popularity) -> {
+                    AlgorithmSummary algorithm = algorithms.get(id);
+                    if (algorithm != null) {
+                        records.add(algorithm.setPopularity(popularity));
+                    }
+                });
+                page.setRecords(records);
+                page.setTotal(algorithmPopularityService.getRankingSize());
+                return page;
+            } catch (Exception e) {
+                log.warn("按热度排行获取热门算法失败，改为按数据库排序: {}", e.getMessage());
+            }
+        }
+
         try {
             QueryWrapper<Algorithm> queryWrapper = new QueryWrapper<>();
-            queryWrapper.orderByDesc("popularity")
-                       .orderByDesc("create_time");
+            queryWrapper.eq("deleted", 0)
+                       .orderByDesc("popularity")
+                       .orderByDesc("created_time");
             
-            return algorithmRepository.selectPage(page, queryWrapper);
+            return algorithmRepository.selectSummaryPage(page, queryWrapper);
         } catch (Exception e) {
             log.error("获取热门算法失败", e);
             throw new BusinessException(500, "获取热门算法失败");
@@ -321,17 +395,18 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
     }
 
     @Override
-    public Page<Algorithm> getAlgorithmsByType(String type, Page<Algorithm> page) {
+    public Page<AlgorithmSummary> getAlgorithmsByType(String type, Page<AlgorithmSummary> page) {
         if (type == null || type.trim().isEmpty()) {
             throw new BusinessException(400, "算法类型不能为空");
         }
         
         try {
             QueryWrapper<Algorithm> queryWrapper = new QueryWrapper<>();
-            queryWrapper.eq("type", type)
+            queryWrapper.eq("deleted", 0)
+                       .eq("type", type)
                        .orderByDesc("popularity");
             
-            return algorithmRepository.selectPage(page, queryWrapper);
+            return algorithmRepository.selectSummaryPage(page, queryWrapper);
         } catch (Exception e) {
             log.error("根据类型获取算法失败，类型: {}", type, e);
             throw new BusinessException(500, "根据类型获取算法失败");
@@ -339,19 +414,20 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
     }
 
     @Override
-    public Page<Algorithm> searchAlgorithms(String keyword, Page<Algorithm> page) {
+    public Page<AlgorithmSummary> searchAlgorithms(String keyword, Page<AlgorithmSummary> page) {
         if (keyword == null || keyword.trim().isEmpty()) {
             throw new BusinessException(400, "搜索关键词不能为空");
         }
         
         try {
             QueryWrapper<Algorithm> queryWrapper = new QueryWrapper<>();
-            queryWrapper.like("name", keyword)
-                       .or()
-                       .like("description", keyword)
+            queryWrapper.eq("deleted", 0)
+                       .and(wrapper -> wrapper.like("name", keyword)
+                               .or()
+                               .like("description", keyword))
                        .orderByDesc("popularity");
             
-            return algorithmRepository.selectPage(page, queryWrapper);
+            return algorithmRepository.selectSummaryPage(page, queryWrapper);
         } catch (Exception e) {
             log.error("搜索算法失败，关键词: {}", keyword, e);
             throw new BusinessException(500, "搜索算法失败");
@@ -360,16 +436,20 @@ public class AlgorithmServiceImpl extends ServiceImpl<AlgorithmRepository, Algor
 
     @Override
     public Boolean existsById(Long id) {
-        if (id == null || id <= 0) {
-            return false;
-        }
-        
-        try {
-            Algorithm algorithm = algorithmRepository.selectById(id);
-            return algorithm != null && algorithm.getDeleted() == 0;
-        } catch (Exception e) {
-            log.error("检查算法是否存在失败，算法ID: {}", id, e);
-            return false;
+        return algorithmExistenceIndex.contains(id);
+    }
+
+    /**
+     * 失效算法详情及其所在分类（修改前后）的算法列表缓存
+     */
+    private void evictAlgorithm(Long id, Long oldCategoryId, Long newCategoryId) {
+        cacheManager.getCache(CatalogCaches.ALGORITHM_DETAIL).evict(id);
+        Cache byCategory = cacheManager.getCache(CatalogCaches.ALGORITHMS_BY_CATEGORY);
+        if (oldCategoryId != null) {
+            byCategory.evict(oldCategoryId);
+        }
+        if (newCategoryId != null && !newCategoryId.equals(oldCategoryId)) {
+            byCategory.evict(newCategoryId);
         }
     }
 }
\ No newline at end of file
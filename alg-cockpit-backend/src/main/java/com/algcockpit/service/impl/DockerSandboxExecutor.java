@@ -1,21 +1,36 @@
 package com.algcockpit.service.impl;
 
+import com.algcockpit.dto.request.BatchExecuteRequest;
 import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
 import com.algcockpit.dto.response.ExecuteResponse;
-import com.algcockpit.service.SandboxExecutor;
+import com.algcockpit.service.sandbox.CompilationCache;
+import com.algcockpit.service.sandbox.DockerCli;
+import com.algcockpit.service.sandbox.ExecutionOutputListener;
+import com.algcockpit.service.sandbox.ProcessOutputCollector;
+import com.algcockpit.service.sandbox.ResourceUsage;
+import com.algcockpit.service.sandbox.RunningExecutionRegistry.RunningExecution;
+import com.algcockpit.service.sandbox.SandboxContainer;
+import com.algcockpit.service.sandbox.SandboxContainerPool;
+import com.algcockpit.service.sandbox.WorkspaceManager;
+import com.algcockpit.service.sandbox.WorkspaceManager.Workspace;
+import com.algcockpit.service.sandbox.worker.InterpreterWorkerPool;
+import com.algcockpit.service.sandbox.worker.WorkerJobResult;
+import com.algcockpit.service.statistics.ExecutionStageMetrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 基于Docker的安全沙箱执行器
@@ -24,33 +39,69 @@ import java.util.concurrent.Executors;
  */
 @Slf4j
 @Service
-public class DockerSandboxExecutor implements SandboxExecutor {
+public class DockerSandboxExecutor extends AbstractSandboxExecutor {
 
-    @Value("${sandbox.workspace:/tmp/alg-cockpit}")
-    private String workspacePath;
+    /**
+     * 工作区内的编译产物目录
+     */
+    private static final String BUILD_DIR = "build";
 
-    @Value("${sandbox.docker.image.prefix:alg-cockpit}")
-    private String dockerImagePrefix;
+    /**
+     * 进程退出后等待输出读取完毕的最长时间（毫秒）
+     */
+    private static final long OUTPUT_DRAIN_TIMEOUT = 2000;
 
-    @Value("${sandbox.max.concurrent.executions:10}")
-    private int maxConcurrentExecutions;
+    /**
+     * 容器内资源使用数据文件
+     */
+    private static final String USAGE_FILE = "/tmp/.alg-usage";
 
-    private final ExecutorService executorService;
-    private final ConcurrentMap<String, ExecuteResponse> asyncResults;
+    private static final String POST_RUN_SECTION = "__ALG_COCKPIT_SECTION__";
 
-    public DockerSandboxExecutor() {
-        this.executorService = Executors.newFixedThreadPool(maxConcurrentExecutions);
-        this.asyncResults = new ConcurrentHashMap<>();
-    }
+    /**
+     * 运行结束后读取资源使用数据与cgroup OOM计数（兼容cgroup v2/v1），其后追加执行结果文件
+     */
+    private static final String POST_RUN_COMMAND = "cat " + USAGE_FILE + " 2>/dev/null; echo " + POST_RUN_SECTION
+            + "; grep -h oom_kill /sys/fs/cgroup/memory.events /sys/fs/cgroup/memory/memory.oom_control 2>/dev/null; echo "
+            + POST_RUN_SECTION + "; ";
+
+    /**
+     * 读取运行结果的超时时间（毫秒）
+     */
+    private static final long POST_RUN_TIMEOUT = 10000;
+
+    @Autowired
+    private SandboxContainerPool containerPool;
+
+    @Autowired
+    private DockerCli dockerCli;
+
+    @Autowired
+    private CompilationCache compilationCache;
+
+    @Autowired
+    private WorkspaceManager workspaceManager;
+
+    @Autowired
+    private InterpreterWorkerPool workerPool;
+
+    @Value("${sandbox.compile.timeout:30000}")
+    private long compileTimeout;
 
     @Override
-    public ExecuteResponse execute(ExecuteRequest request) {
+    protected ExecuteResponse doExecute(ExecuteRequest request, RunningExecution execution,
+                                        ExecutionOutputListener listener) {
         log.info("开始执行算法代码，算法ID: {}, 语言: {}", request.getAlgorithmId(), request.getLanguage());
         
         long startTime = System.currentTimeMillis();
         ExecuteResponse response = new ExecuteResponse();
+        Workspace workspace = null;
         
         try {
+            if (execution.isCancelled()) {
+                return markCancelled(response);
+            }
+            
             // 验证语言支持
             if (!isLanguageSupported(request.getLanguage())) {
                 response.setSuccess(false)
@@ -59,9 +110,17 @@ public class DockerSandboxExecutor implements SandboxExecutor {
                 return response;
             }
 
-            // 创建执行目录
-            String executionId = UUID.randomUUID().toString();
-            Path executionDir = createExecutionDirectory(executionId);
+            // 解释型语言优先交给常驻执行进程（流式执行需要实时输出，仍按次启动解释器）
+            if (listener == null && workerPool.supports(request.getLanguage())) {
+                runWithWorker(request.getLanguage(), request.getCode(), request.getInputData(), request.getTimeout(),
+                        request.getMemoryLimit(), execution, response);
+                return response;
+            }
+            
+            // 分配执行工作区
+            long workspaceStart = System.nanoTime();
+            workspace = workspaceManager.allocate();
+            Path executionDir = workspace.getPath();
             
             // 写入代码文件
             String codeFileName = getCodeFileName(request.getLanguage());
@@ -69,58 +128,54 @@ public class DockerSandboxExecutor implements SandboxExecutor {
             writeCodeFile(codeFilePath, request.getCode());
             
             // 写入输入数据（如果有）
+            Path inputFilePath = null;
             if (request.getInputData() != null && !request.getInputData().trim().isEmpty()) {
-                Path inputFilePath = executionDir.resolve("input.txt");
+                inputFilePath = executionDir.resolve("input.txt");
                 writeInputFile(inputFilePath, request.getInputData());
             }
+            stageMetrics.record(ExecutionStageMetrics.WORKSPACE, request.getLanguage(), System.nanoTime() - workspaceStart);
 
-            // 构建Docker命令
-            String dockerCommand = buildDockerCommand(request, executionId);
-            
-            // 执行命令
-            ProcessBuilder processBuilder = new ProcessBuilder("docker", "run", "--rm", 
-                    "--memory=" + request.getMemoryLimit() + "m",
-                    "--cpus=1",
-                    "--network=none",
-                    "--read-only",
-                    "--tmpfs=/tmp:rw,noexec,nosuid,size=64m",
-                    "-v", executionDir.toString() + ":/workspace:ro",
-                    getDockerImageName(request.getLanguage()));
+            // 命中编译缓存时直接把编译产物放入工作区，跳过编译
+            String language = request.getLanguage().toLowerCase();
+            String compileCommand = getCompileCommand(language);
+            String compileCacheKey = null;
+            boolean compiled = compileCommand == null;
+            if (!compiled) {
+                compileCacheKey = compilationCache.buildKey(language, request.getCode(), getCompilerFlags(language));
+                compiled = compilationCache.copyTo(compileCacheKey, language, executionDir.resolve(BUILD_DIR));
+            }
             
-            Process process = processBuilder.start();
+            response.setCompileCached(compileCommand != null && compiled);
             
-            // 设置超时
-            boolean finished = process.waitFor(request.getTimeout(), java.util.concurrent.TimeUnit.SECONDS);
-            
-            if (!finished) {
-                process.destroy();
-                response.setSuccess(false)
-                        .setTimeout(true)
-                        .setError("执行超时（" + request.getTimeout() + "秒）")
-                        .setStatus("TIMEOUT");
-            } else {
-                // 读取输出
-                String output = readProcessOutput(process);
-                String error = readProcessError(process);
+            // 租用沙箱容器并交付工作区
+            long startupStart = System.currentTimeMillis();
+            SandboxContainer container = containerPool.lease(language);
+            boolean tainted = false;
+            try {
+                if (execution.isCancelled()) {
+                    return markCancelled(response);
+                }
+                containerPool.prepareWorkspace(container, executionDir, request.getMemoryLimit());
+                response.setStartupTime(System.currentTimeMillis() - startupStart);
                 
-                response.setSuccess(process.exitValue() == 0)
-                        .setOutput(output)
-                        .setError(error)
-                        .setExitCode(process.exitValue())
-                        .setTimeout(false)
-                        .setMemoryExceeded(false)
-                        .setStatus(process.exitValue() == 0 ? "SUCCESS" : "FAILED");
-            }
-            
-            // 读取执行结果文件
-            Path outputFilePath = executionDir.resolve("output.txt");
-            if (Files.exists(outputFilePath)) {
-                String fileOutput = Files.readString(outputFilePath);
-                if (response.getOutput() == null || response.getOutput().isEmpty()) {
-                    response.setOutput(fileOutput);
-                } else {
-                    response.setOutput(response.getOutput() + "\n" + fileOutput);
+                // 编译
+                if (!compiled) {
+                    StageResult compileResult = compileProgram(container, language, compileCommand, compileCacheKey,
+                            executionDir, execution, response);
+                    if (compileResult != StageResult.OK) {
+                        tainted = compileResult == StageResult.TAINTED;
+                        return response;
+                    }
                 }
+                
+                // 执行
+                tainted = runProgram(container, language, inputFilePath, request.getTimeout(), execution, listener,
+                        response);
+            } catch (IOException e) {
+                tainted = true;
+                throw e;
+            } finally {
+                containerPool.release(container, tainted);
             }
             
         } catch (Exception e) {
@@ -129,6 +184,9 @@ public class DockerSandboxExecutor implements SandboxExecutor {
                     .setError("执行异常: " + e.getMessage())
                     .setStatus("ERROR");
         } finally {
+            if (workspace != null) {
+                workspace.close();
+            }
             long executionTime = System.currentTimeMillis() - startTime;
             response.setExecutionTime(executionTime);
             log.info("算法执行完成，耗时: {}ms, 状态: {}", executionTime, response.getStatus());
@@ -137,58 +195,349 @@ public class DockerSandboxExecutor implements SandboxExecutor {
         return response;
     }
 
+    /**
+     * 批量执行：编译一次，在同一容器内依次运行各组输入；
+     * 某组输入超时或内存溢出导致容器被驱逐时，重新租用容器继续执行后续输入
+     */
     @Override
-    public String executeAsync(ExecuteRequest request) {
-        String executionId = UUID.randomUUID().toString();
+    protected BatchExecuteResponse doExecuteBatch(BatchExecuteRequest request, RunningExecution execution) {
+        List<String> inputs = request.getInputs();
+        log.info("开始批量执行算法代码，算法ID: {}, 语言: {}, 输入数: {}",
+                request.getAlgorithmId(), request.getLanguage(), inputs.size());
         
-        executorService.submit(() -> {
-            ExecuteResponse response = execute(request);
-            asyncResults.put(executionId, response);
-        });
+        long startTime = System.currentTimeMillis();
+        BatchExecuteResponse response = new BatchExecuteResponse()
+                .setExecutionId(execution.getExecutionId());
+        List<ExecuteResponse> results = new ArrayList<>(inputs.size());
+        response.setResults(results);
+        Workspace workspace = null;
         
-        return executionId;
+        try {
+            if (!isLanguageSupported(request.getLanguage())) {
+                return response.setSuccess(false)
+                        .setError("不支持的编程语言: " + request.getLanguage())
+                        .setStatus("UNSUPPORTED_LANGUAGE");
+            }
+            
+            if (workerPool.supports(request.getLanguage())) {
+                runBatchWithWorkers(request, execution, response);
+                return response;
+            }
+            
+            workspace = workspaceManager.allocate();
+            Path executionDir = workspace.getPath();
+            writeCodeFile(executionDir.resolve(getCodeFileName(request.getLanguage())), request.getCode());
+            
+            // 各组输入写入工作区的inputs目录，运行时从宿主机作为标准输入传入
+            Path inputDir = executionDir.resolve("inputs");
+            Files.createDirectories(inputDir);
+            List<Path> inputFiles = new ArrayList<>(inputs.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                String input = inputs.get(i);
+                Path inputFile = null;
+                if (input != null && !input.trim().isEmpty()) {
+                    inputFile = inputDir.resolve("input-" + i + ".txt");
+                    writeInputFile(inputFile, input);
+                }
+                inputFiles.add(inputFile);
+            }
+            
+            String language = request.getLanguage().toLowerCase();
+            String compileCommand = getCompileCommand(language);
+            String compileCacheKey = null;
+            boolean compiled = compileCommand == null;
+            if (!compiled) {
+                compileCacheKey = compilationCache.buildKey(language, request.getCode(), getCompilerFlags(language));
+                compiled = compilationCache.copyTo(compileCacheKey, language, executionDir.resolve(BUILD_DIR));
+            }
+            response.setCompileCached(compileCommand != null && compiled);
+            
+            long startupStart = System.currentTimeMillis();
+            SandboxContainer container = containerPool.lease(language);
+            boolean tainted = false;
+            try {
+                containerPool.prepareWorkspace(container, executionDir, request.getMemoryLimit());
+                response.setStartupTime(System.currentTimeMillis() - startupStart);
+                
+                if (!compiled) {
+                    ExecuteResponse compileResponse = new ExecuteResponse();
+                    StageResult compileResult = compileProgram(container, language, compileCommand, compileCacheKey,
+                            executionDir, execution, compileResponse);
+                    response.setCompileTime(compileResponse.getCompileTime());
+                    if (compileResult != StageResult.OK) {
+                        tainted = compileResult == StageResult.TAINTED;
+                        return response.setSuccess(false)
+                                .setError(compileResponse.getError() != null ? compileResponse.getError()
+                                        : compileResponse.getOutput())
+                                .setStatus(compileResponse.getStatus());
+                    }
+                }
+                
+                for (int i = 0; i < inputFiles.size(); i++) {
+                    if (execution.isCancelled()) {
+                        results.add(markCancelled(new ExecuteResponse()));
+                        continue;
+                    }
+                    if (container == null) {
+                        // 上一组输入驱逐了容器，工作区中已包含编译产物，直接交付给新容器
+                        container = containerPool.lease(language);
+                        tainted = false;
+                        containerPool.prepareWorkspace(container, executionDir, request.getMemoryLimit());
+                    }
+                    
+                    long inputStart = System.currentTimeMillis();
+                    ExecuteResponse result = new ExecuteResponse();
+                    try {
+                        tainted = runProgram(container, language, inputFiles.get(i), request.getTimeout(),
+                                execution, null, result);
+                    } catch (IOException e) {
+                        tainted = true;
+                        result.setSuccess(false)
+                                .setError("执行异常: " + e.getMessage())
+                                .setStatus("ERROR");
+                    }
+                    result.setExecutionTime(System.currentTimeMillis() - inputStart);
+                    results.add(result);
+                    
+                    if (tainted) {
+                        containerPool.release(container, true);
+                        container = null;
+                    }
+                }
+            } catch (IOException e) {
+                tainted = true;
+                throw e;
+            } finally {
+                if (container != null) {
+                    containerPool.release(container, tainted);
+                }
+            }
+            
+            int successCount = (int) results.stream().filter(result -> Boolean.TRUE.equals(result.getSuccess())).count();
+            response.setSuccessCount(successCount)
+                    .setSuccess(successCount == inputs.size())
+                    .setStatus(execution.isCancelled() ? "CANCELLED"
+                            : successCount == inputs.size() ? "SUCCESS" : "PARTIAL_FAILED");
+        } catch (Exception e) {
+            log.error("批量执行算法代码时发生异常", e);
+            response.setSuccess(false)
+                    .setError("执行异常: " + e.getMessage())
+                    .setStatus("ERROR");
+        } finally {
+            if (workspace != null) {
+                workspace.close();
+            }
+            long executionTime = System.currentTimeMillis() - startTime;
+            response.setExecutionTime(executionTime);
+            log.info("批量执行完成，耗时: {}ms, 状态: {}, 已执行输入数: {}", executionTime, response.getStatus(),
+                    results.size());
+        }
+        
+        return response;
     }
 
-    @Override
-    public ExecuteResponse getAsyncResult(String executionId) {
-        return asyncResults.get(executionId);
+    /**
+     * 批量执行解释型语言：各组输入依次交给常驻执行进程，进程被回收时下一组输入自动使用新进程
+     */
+    private void runBatchWithWorkers(BatchExecuteRequest request, RunningExecution execution,
+                                     BatchExecuteResponse response) throws Exception {
+        List<ExecuteResponse> results = response.getResults();
+        long startupTime = 0;
+        for (String input : request.getInputs()) {
+            if (execution.isCancelled()) {
+                results.add(markCancelled(new ExecuteResponse()));
+                continue;
+            }
+            long inputStart = System.currentTimeMillis();
+            ExecuteResponse result = new ExecuteResponse();
+            runWithWorker(request.getLanguage(), request.getCode(), input, request.getTimeout(),
+                    request.getMemoryLimit(), execution, result);
+            result.setExecutionTime(System.currentTimeMillis() - inputStart);
+            startupTime += result.getStartupTime();
+            results.add(result);
+        }
+        
+        int successCount = (int) results.stream().filter(result -> Boolean.TRUE.equals(result.getSuccess())).count();
+        response.setStartupTime(startupTime)
+                .setCompileCached(false)
+                .setSuccessCount(successCount)
+                .setSuccess(successCount == results.size())
+                .setStatus(execution.isCancelled() ? "CANCELLED"
+                        : successCount == results.size() ? "SUCCESS" : "PARTIAL_FAILED");
     }
 
-    @Override
-    public Boolean cancelAsyncExecution(String executionId) {
-        // 在实际实现中，这里需要更复杂的逻辑来真正取消Docker容器的执行
-        // 这里简化实现，只是从结果中移除
-        return asyncResults.remove(executionId) != null;
+    /**
+     * 在常驻执行进程中运行一次，并将结果写入响应
+     */
+    private void runWithWorker(String language, String code, String input, int timeoutSeconds, int memoryLimit,
+                               RunningExecution execution, ExecuteResponse response) throws Exception {
+        WorkerJobResult result = workerPool.run(language, code, input, timeoutSeconds, memoryLimit, maxOutputBytes,
+                execution);
+        response.setStartupTime(result.getStartupMillis())
+                .setCompileCached(false)
+                .setRunTime(result.getWallMs())
+                .setCpuUserTime(result.getCpuUserMs())
+                .setCpuSystemTime(result.getCpuSystemMs())
+                .setMemoryUsed(result.getMaxRssKb())
+                .setOutput(withTruncationMarker(result.getStdout(), result.getStdoutTruncated()))
+                .setError(withTruncationMarker(result.getStderr(), result.getStderrTruncated()))
+                .setOutputTruncated(Boolean.TRUE.equals(result.getStdoutTruncated())
+                        || Boolean.TRUE.equals(result.getStderrTruncated()))
+                .setExitCode(result.getExitCode())
+                .setTimeout(false)
+                .setMemoryExceeded(false);
+        
+        if (execution.isCancelled()) {
+            markCancelled(response);
+        } else if ("TIMEOUT".equals(result.getStatus())) {
+            response.setSuccess(false)
+                    .setTimeout(true)
+                    .setError("执行超时（" + timeoutSeconds + "秒）")
+                    .setStatus("TIMEOUT");
+        } else if ("MEMORY_EXCEEDED".equals(result.getStatus())) {
+            response.setSuccess(false)
+                    .setMemoryExceeded(true)
+                    .setStatus("MEMORY_EXCEEDED");
+        } else {
+            boolean success = result.getExitCode() != null && result.getExitCode() == 0;
+            response.setSuccess(success)
+                    .setStatus(success ? "SUCCESS" : "FAILED");
+        }
+    }
+
+    /**
+     * 与ProcessOutputCollector一致：截断的输出追加截断标记
+     */
+    private String withTruncationMarker(String text, Boolean truncated) {
+        String content = text != null ? text : "";
+        if (Boolean.TRUE.equals(truncated)) {
+            content += "\n...[输出超过" + maxOutputBytes + "字节，已截断]";
+        }
+        return content.trim();
+    }
+
+    /**
+     * 在容器内编译，编译成功时将编译产物取回工作区并存入编译缓存
+     *
+     * @return OK-编译成功；FAILED-编译错误（容器可复用）；TAINTED-超时或被取消（容器需驱逐）
+     */
+    private StageResult compileProgram(SandboxContainer container, String language, String compileCommand,
+                                       String cacheKey, Path executionDir, RunningExecution execution,
+                                       ExecuteResponse response) throws IOException, InterruptedException {
+        long compileStart = System.currentTimeMillis();
+        ContainerProcessResult compileResult = runInContainer(container, compileCommand, null, compileTimeout,
+                execution, null);
+        long compileMillis = System.currentTimeMillis() - compileStart;
+        response.setCompileTime(compileMillis);
+        if (execution.isCancelled()) {
+            // 容器已被取消操作杀掉，不能再复用
+            markCancelled(response);
+            return StageResult.TAINTED;
+        }
+        if (!compileResult.isFinished()) {
+            response.setSuccess(false)
+                    .setTimeout(true)
+                    .setError("编译超时（" + compileTimeout / 1000 + "秒）")
+                    .setStatus("COMPILE_TIMEOUT");
+            return StageResult.TAINTED;
+        }
+        if (compileResult.getExitCode() != 0) {
+            response.setSuccess(false)
+                    .setOutput(compileResult.getOutput())
+                    .setError(compileResult.getError())
+                    .setExitCode(compileResult.getExitCode())
+                    .setTimeout(false)
+                    .setStatus("COMPILE_ERROR");
+            return StageResult.FAILED;
+        }
+        cacheCompiledArtifacts(container, cacheKey, language, executionDir, compileMillis);
+        return StageResult.OK;
+    }
+
+    /**
+     * 在容器内运行一次用户程序（由GNU time包裹以采集CPU时间与峰值内存），并将结果写入响应
+     *
+     * @return 容器是否需要驱逐（超时、内存溢出或被取消）
+     */
+    private boolean runProgram(SandboxContainer container, String language, Path inputFile, int timeoutSeconds,
+                               RunningExecution execution, ExecutionOutputListener listener,
+                               ExecuteResponse response) throws IOException, InterruptedException {
+        // 清除上一次运行留下的结果文件，同一容器可连续运行多组输入
+        String command = "rm -f output.txt " + USAGE_FILE + "; "
+                + wrapWithResourceAccounting(getRunCommand(language));
+        long runStart = System.currentTimeMillis();
+        ContainerProcessResult runResult = runInContainer(container, command, inputFile, timeoutSeconds * 1000L,
+                execution, listener);
+        response.setRunTime(System.currentTimeMillis() - runStart);
+        
+        if (execution.isCancelled()) {
+            markCancelled(response)
+                    .setOutput(runResult.getOutput())
+                    .setOutputTruncated(runResult.isTruncated());
+            return true;
+        }
+        if (!runResult.isFinished()) {
+            // 容器内进程仍在运行，该容器不能再复用
+            response.setSuccess(false)
+                    .setTimeout(true)
+                    .setError("执行超时（" + timeoutSeconds + "秒）")
+                    .setStatus("TIMEOUT");
+            return true;
+        }
+        
+        response.setSuccess(runResult.getExitCode() == 0)
+                .setOutput(runResult.getOutput())
+                .setError(runResult.getError())
+                .setExitCode(runResult.getExitCode())
+                .setOutputTruncated(runResult.isTruncated())
+                .setTimeout(false)
+                .setMemoryExceeded(false)
+                .setStatus(runResult.getExitCode() == 0 ? "SUCCESS" : "FAILED");
+        
+        // 读取资源使用数据、OOM计数与执行结果文件（一次docker exec完成）；结果文件在容器内按输出上限截取，
+        // 并与程序输出一样并发读取、按字节数封顶，大文件不会写满管道
+        String postRunCommand = POST_RUN_COMMAND + "head -c " + (maxOutputBytes + 1) + " "
+                + SandboxContainerPool.CONTAINER_WORKSPACE + "/output.txt 2>/dev/null";
+        ContainerProcessResult postResult = runInContainer(container, postRunCommand, null, POST_RUN_TIMEOUT,
+                execution, null);
+        if (!postResult.isFinished()) {
+            log.warn("读取运行结果超时，容器: {}", container.getContainerId());
+        }
+        String[] sections = postResult.getOutput().split(POST_RUN_SECTION, 3);
+        
+        ResourceUsage usage = ResourceUsage.parse(sections[0], sections.length > 1 ? sections[1] : null);
+        applyResourceUsage(response, usage);
+        
+        String fileOutput = sections.length > 2 ? sections[2].trim() : "";
+        if (postResult.isTruncated()) {
+            response.setOutputTruncated(true);
+        }
+        if (!fileOutput.isEmpty()) {
+            if (response.getOutput() == null || response.getOutput().isEmpty()) {
+                response.setOutput(fileOutput);
+            } else {
+                response.setOutput(response.getOutput() + "\n" + fileOutput);
+            }
+        }
+        
+        // OOM后容器状态不可信，且cgroup的OOM计数不会清零，驱逐该容器
+        return usage.isOomKilled();
     }
 
     @Override
     public Boolean isLanguageSupported(String language) {
-        return switch (language.toLowerCase()) {
-            case "java", "python", "javascript", "cpp", "c" -> true;
-            default -> false;
-        };
+        return runtimeRegistry.isSupported(language);
     }
 
     @Override
     public String getSandboxStatus() {
-        return "Docker沙箱运行正常，最大并发执行数: " + maxConcurrentExecutions;
-    }
-
-    private Path createExecutionDirectory(String executionId) throws IOException {
-        Path executionDir = Paths.get(workspacePath, "executions", executionId);
-        Files.createDirectories(executionDir);
-        return executionDir;
+        return "Docker沙箱运行正常；" + executionScheduler.getSchedulerStatus() + "；" + containerPool.getPoolStatus()
+                + "；" + compilationCache.getCacheStatus() + "；" + resultCache.getCacheStatus() + "；" + resultStore.getStoreStatus() + "；" + workspaceManager.getWorkspaceStatus()
+                + "；" + workerPool.getWorkerStatus();
     }
 
     private String getCodeFileName(String language) {
-        return switch (language.toLowerCase()) {
-            case "java" -> "Main.java";
-            case "python" -> "main.py";
-            case "javascript" -> "main.js";
-            case "cpp" -> "main.cpp";
-            case "c" -> "main.c";
-            default -> "code.txt";
-        };
+        return runtimeRegistry.find(language).getFileName();
     }
 
     private void writeCodeFile(Path filePath, String code) throws IOException {
@@ -199,43 +548,131 @@ public class DockerSandboxExecutor implements SandboxExecutor {
         Files.writeString(filePath, inputData);
     }
 
-    private String buildDockerCommand(ExecuteRequest request, String executionId) {
-        String language = request.getLanguage().toLowerCase();
-        String codeFileName = getCodeFileName(language);
-        
-        return switch (language) {
-            case "java" -> String.format("javac /workspace/%s && java -cp /workspace Main", codeFileName);
-            case "python" -> String.format("python /workspace/%s", codeFileName);
-            case "javascript" -> String.format("node /workspace/%s", codeFileName);
-            case "cpp" -> String.format("g++ /workspace/%s -o /workspace/main && /workspace/main", codeFileName);
-            case "c" -> String.format("gcc /workspace/%s -o /workspace/main && /workspace/main", codeFileName);
-            default -> "echo 'Unsupported language'";
-        };
+    /**
+     * 获取编译命令，解释型语言返回null
+     * 编译产物统一输出到工作区的build目录，便于缓存
+     */
+    private String getCompileCommand(String language) {
+        return runtimeRegistry.find(language).renderCompileCommand(BUILD_DIR);
     }
 
-    private String getDockerImageName(String language) {
-        return dockerImagePrefix + "-" + language.toLowerCase();
+    private String getRunCommand(String language) {
+        return runtimeRegistry.find(language).renderRunCommand(BUILD_DIR);
     }
 
-    private String readProcessOutput(Process process) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            StringBuilder output = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-            return output.toString().trim();
+    /**
+     * 用GNU time包裹运行命令，将资源使用数据写入容器的/tmp；镜像中没有GNU time时直接运行。
+     * 运行命令来自运行时配置，作为单个参数传给sh -c时按单引号规则转义
+     */
+    private String wrapWithResourceAccounting(String command) {
+        return "if [ -x /usr/bin/time ]; then /usr/bin/time -f " + shellQuote(ResourceUsage.TIME_FORMAT) + " -o "
+                + USAGE_FILE + " sh -c " + shellQuote(command) + "; else " + command + "; fi";
+    }
+
+    /**
+     * 将字符串转义为单引号包围的shell参数
+     */
+    private static String shellQuote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * 将资源使用数据写入响应
+     */
+    private void applyResourceUsage(ExecuteResponse response, ResourceUsage usage) {
+        if (usage.getWallMillis() != null) {
+            response.setRunTime(usage.getWallMillis());
+        }
+        response.setCpuUserTime(usage.getUserCpuMillis())
+                .setCpuSystemTime(usage.getSystemCpuMillis())
+                .setMemoryUsed(usage.getMaxRssKb());
+        if (usage.isOomKilled()) {
+            response.setSuccess(false)
+                    .setMemoryExceeded(true)
+                    .setStatus("MEMORY_EXCEEDED");
+        }
+    }
+
+    private String getCompilerFlags(String language) {
+        return runtimeRegistry.find(language).getCompileFlags();
+    }
+
+    /**
+     * 将容器内的编译产物取回工作区（容器被驱逐后可直接交付给新容器），并存入编译缓存
+     */
+    private void cacheCompiledArtifacts(SandboxContainer container, String cacheKey, String language,
+                                        Path executionDir, long compileMillis) {
+        try {
+            Path buildDir = Files.createDirectories(executionDir.resolve(BUILD_DIR));
+            dockerCli.copyOut(container.getContainerId(),
+                    SandboxContainerPool.CONTAINER_WORKSPACE + "/" + BUILD_DIR, buildDir);
+            compilationCache.store(cacheKey, language, buildDir, compileMillis);
+        } catch (IOException e) {
+            log.warn("缓存编译产物失败，语言: {}", language, e);
         }
     }
 
-    private String readProcessError(Process process) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-            StringBuilder error = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                error.append(line).append("\n");
+    /**
+     * 在容器工作区内执行命令
+     * 标准输出与标准错误在进程运行期间被并发读取，输出按字节数封顶
+     *
+     * @param container 沙箱容器
+     * @param command shell命令
+     * @param inputFile 标准输入文件，可为null
+     * @param timeoutMs 超时时间（毫秒）
+     * @param execution 执行句柄，取消时据此终止进程
+     * @param listener 输出监听器，可为null
+     * @return 执行结果
+     */
+    private ContainerProcessResult runInContainer(SandboxContainer container, String command, Path inputFile,
+                                                  long timeoutMs, RunningExecution execution,
+                                                  ExecutionOutputListener listener)
+            throws IOException, InterruptedException {
+        ProcessBuilder processBuilder = new ProcessBuilder("docker", "exec", "-i",
+                container.getContainerId(), "sh", "-c", "cd " + SandboxContainerPool.CONTAINER_WORKSPACE + " && " + command);
+        processBuilder.redirectInput(inputFile != null
+                ? ProcessBuilder.Redirect.from(inputFile.toFile())
+                : ProcessBuilder.Redirect.from(new File("/dev/null")));
+        
+        Process process = processBuilder.start();
+        runningExecutions.attachProcess(execution, process, container);
+        try {
+            ProcessOutputCollector collector = ProcessOutputCollector.start(process, maxOutputBytes, listener);
+            
+            // 设置超时
+            boolean finished = process.waitFor(timeoutMs, TimeUnit.MILLISECONDS);
+            if (!finished) {
+                process.destroyForcibly();
+                return new ContainerProcessResult(false, -1, collector.getOutput(), collector.getError(),
+                        collector.isTruncated());
             }
-            return error.toString().trim();
+            
+            // 进程已退出，等待剩余输出读完
+            collector.await(OUTPUT_DRAIN_TIMEOUT);
+            return new ContainerProcessResult(true, process.exitValue(), collector.getOutput(), collector.getError(),
+                    collector.isTruncated());
+        } finally {
+            runningExecutions.detachProcess(execution);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 执行阶段结果
+     */
+    private enum StageResult {
+        OK, FAILED, TAINTED
+    }
+
+    /**
+     * 容器内命令执行结果
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class ContainerProcessResult {
+        private final boolean finished;
+        private final int exitCode;
+        private final String output;
+        private final String error;
+        private final boolean truncated;
+    }
+}
@@ -0,0 +1,510 @@
+package com.algcockpit.service.impl;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.algcockpit.dto.request.BatchExecuteRequest;
+import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
+import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.service.sandbox.ExecutionOutputListener;
+import com.algcockpit.service.sandbox.RunningExecutionRegistry.RunningExecution;
+import com.algcockpit.service.sandbox.injvm.BoundedOutputStream;
+import com.algcockpit.service.sandbox.injvm.BytecodeInspector;
+import com.algcockpit.service.sandbox.injvm.InMemoryJavaCompiler;
+import com.algcockpit.service.sandbox.injvm.InMemoryJavaCompiler.CompilationResult;
+import com.algcockpit.service.sandbox.injvm.SandboxClassLoader;
+import com.algcockpit.service.sandbox.injvm.StdioRouter;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntime;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内Java沙箱执行器
+ * 不经过Docker：源码在进程内编译到内存，运行前检查字节码，每次运行使用新的沙箱类加载器
+ * 和独立线程，由调度线程按线程CPU时间、累计分配字节数与墙钟时间监控并强制终止。
+ * 共享堆中无法单独测量一次运行的常驻内存，内存限制是累计分配预算（包括已被回收的对象），
+ * 超出时报告MEMORY_EXCEEDED；结果中不设置memoryUsed。
+ * 隔离依赖类加载器白名单与字节码检查，而非操作系统级隔离，仅适合不需要文件、网络与线程的算法代码
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Service
+public class InJvmJavaSandboxExecutor extends AbstractSandboxExecutor {
+
+    /**
+     * 调度器中的语言标识，与Docker执行的Java分开限流
+     */
+    private static final String SCHEDULER_LANGUAGE = "java-injvm";
+
+    private static final String MAIN_CLASS = "Main";
+
+    /**
+     * 监控运行线程的轮询间隔（毫秒）
+     */
+    private static final long POLL_INTERVAL = 10;
+
+    /**
+     * 强制终止运行线程的最大尝试次数（用户代码可能捕获ThreadDeath）
+     */
+    private static final int MAX_STOP_ATTEMPTS = 50;
+
+    @Value("${sandbox.injvm.class-cache-size:256}")
+    private int classCacheSize;
+
+    @Value("${sandbox.injvm.allocation-limit-mb:1024}")
+    private long allocationLimitMb;
+
+    @Value("${sandbox.injvm.wall-factor:2}")
+    private int wallFactor;
+
+    @Value("${sandbox.injvm.max-leaked-threads:4}")
+    private int maxLeakedThreads;
+
+    private final InMemoryJavaCompiler compiler = new InMemoryJavaCompiler();
+
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * 编译结果缓存（源码+编译参数哈希 -> 编译与检查结果），LRU淘汰
+     */
+    private final Map<String, CompiledProgram> classCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledProgram> eldest) {
+            return size() > classCacheSize;
+        }
+    };
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder compiles = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder stopped = new LongAdder();
+    private final AtomicLong leakedThreads = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (!compiler.isAvailable()) {
+            log.warn("当前运行环境没有Java编译器，进程内Java执行不可用");
+            return;
+        }
+        if (threadBean.isThreadCpuTimeSupported()) {
+            threadBean.setThreadCpuTimeEnabled(true);
+        }
+        if (threadBean.isThreadAllocatedMemorySupported()) {
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        StdioRouter.install();
+        log.info("进程内Java执行已启用，类缓存容量: {}, 分配上限: {}MB", classCacheSize, allocationLimitMb);
+    }
+
+    /**
+     * 进程内执行是否可用：有编译器，且无法终止的运行线程未超过上限
+     */
+    public boolean isAvailable() {
+        return compiler.isAvailable() && leakedThreads.get() < maxLeakedThreads;
+    }
+
+    /**
+     * 判断代码能否在进程内执行：可用且字节码检查通过（编译错误同样可在进程内直接报告）
+     *
+     * @param code Java源码
+     * @return 是否接受
+     */
+    public boolean accepts(String code) {
+        return isAvailable() && compile(code).violations.isEmpty();
+    }
+
+    @Override
+    protected String getSchedulerLanguage(String language) {
+        return SCHEDULER_LANGUAGE;
+    }
+
+    @Override
+    protected ExecuteResponse doExecute(ExecuteRequest request, RunningExecution execution,
+                                        ExecutionOutputListener listener) {
+        log.info("开始进程内执行算法代码，算法ID: {}", request.getAlgorithmId());
+
+        long startTime = System.currentTimeMillis();
+        ExecuteResponse response = new ExecuteResponse().setStartupTime(0L);
+        try {
+            if (execution.isCancelled()) {
+                return markCancelled(response);
+            }
+            if (!isLanguageSupported(request.getLanguage())) {
+                return response.setSuccess(false)
+                        .setError("不支持的编程语言: " + request.getLanguage())
+                        .setStatus("UNSUPPORTED_LANGUAGE");
+            }
+
+            CompiledProgram program = compileAndCheck(request.getCode(), response);
+            if (program == null) {
+                return response;
+            }
+            runMain(program, request.getInputData(), request.getTimeout(), execution, listener, response);
+        } catch (Exception e) {
+            log.error("进程内执行算法代码时发生异常", e);
+            response.setSuccess(false)
+                    .setError("执行异常: " + e.getMessage())
+                    .setStatus("ERROR");
+        } finally {
+            long executionTime = System.currentTimeMillis() - startTime;
+            response.setExecutionTime(executionTime);
+            log.info("进程内执行完成，耗时: {}ms, 状态: {}", executionTime, response.getStatus());
+        }
+        return response;
+    }
+
+    /**
+     * 批量执行：编译一次，每组输入使用新的类加载器运行，用户类的静态状态不会跨输入残留
+     */
+    @Override
+    protected BatchExecuteResponse doExecuteBatch(BatchExecuteRequest request, RunningExecution execution) {
+        List<String> inputs = request.getInputs();
+        log.info("开始进程内批量执行算法代码，算法ID: {}, 输入数: {}", request.getAlgorithmId(), inputs.size());
+
+        long startTime = System.currentTimeMillis();
+        BatchExecuteResponse response = new BatchExecuteResponse()
+                .setExecutionId(execution.getExecutionId())
+                .setStartupTime(0L);
+        List<ExecuteResponse> results = new ArrayList<>(inputs.size());
+        response.setResults(results);
+
+        try {
+            if (!isLanguageSupported(request.getLanguage())) {
+                return response.setSuccess(false)
+                        .setError("不支持的编程语言: " + request.getLanguage())
+                        .setStatus("UNSUPPORTED_LANGUAGE");
+            }
+
+            ExecuteResponse compileResponse = new ExecuteResponse();
+            CompiledProgram program = compileAndCheck(request.getCode(), compileResponse);
+            response.setCompileTime(compileResponse.getCompileTime())
+                    .setCompileCached(compileResponse.getCompileCached());
+            if (program == null) {
+                return response.setSuccess(false)
+                        .setError(compileResponse.getError())
+                        .setStatus(compileResponse.getStatus());
+            }
+
+            for (String input : inputs) {
+                if (execution.isCancelled()) {
+                    results.add(markCancelled(new ExecuteResponse()));
+                    continue;
+                }
+                long inputStart = System.currentTimeMillis();
+                ExecuteResponse result = new ExecuteResponse();
+                runMain(program, input, request.getTimeout(), execution, null, result);
+                result.setExecutionTime(System.currentTimeMillis() - inputStart);
+                results.add(result);
+            }
+
+            int successCount = (int) results.stream().filter(result -> Boolean.TRUE.equals(result.getSuccess())).count();
+            response.setSuccessCount(successCount)
+                    .setSuccess(successCount == inputs.size())
+                    .setStatus(execution.isCancelled() ? "CANCELLED"
+                            : successCount == inputs.size() ? "SUCCESS" : "PARTIAL_FAILED");
+        } catch (Exception e) {
+            log.error("进程内批量执行算法代码时发生异常", e);
+            response.setSuccess(false)
+                    .setError("执行异常: " + e.getMessage())
+                    .setStatus("ERROR");
+        } finally {
+            long executionTime = System.currentTimeMillis() - startTime;
+            response.setExecutionTime(executionTime);
+            log.info("进程内批量执行完成，耗时: {}ms, 状态: {}, 已执行输入数: {}", executionTime,
+                    response.getStatus(), results.size());
+        }
+        return response;
+    }
+
+    @Override
+    public Boolean isLanguageSupported(String language) {
+        return "java".equalsIgnoreCase(language);
+    }
+
+    @Override
+    public String getSandboxStatus() {
+        int cacheSize;
+        synchronized (classCache) {
+            cacheSize = classCache.size();
+        }
+        return String.format("进程内Java执行(%s): 运行=%d, 编译=%d, 类缓存命中=%d, 类缓存=%d/%d, 强制终止=%d, 无法终止=%d",
+                isAvailable() ? "可用" : "不可用", runs.sum(), compiles.sum(), cacheHits.sum(), cacheSize,
+                classCacheSize, stopped.sum(), leakedThreads.get());
+    }
+
+    /**
+     * 编译并检查字节码，失败时将结果写入响应
+     *
+     * @return 可运行的程序，编译失败或检查不通过时返回null
+     */
+    private CompiledProgram compileAndCheck(String code, ExecuteResponse response) {
+        long compileStart = System.currentTimeMillis();
+        boolean cached;
+        synchronized (classCache) {
+            cached = classCache.containsKey(buildKey(code));
+        }
+        CompiledProgram program = compile(code);
+        response.setCompileTime(System.currentTimeMillis() - compileStart)
+                .setCompileCached(cached);
+
+        if (!program.result.isSuccess()) {
+            response.setSuccess(false)
+                    .setError(program.result.getDiagnostics())
+                    .setExitCode(1)
+                    .setTimeout(false)
+                    .setStatus("COMPILE_ERROR");
+            return null;
+        }
+        if (!program.violations.isEmpty()) {
+            response.setSuccess(false)
+                    .setError("代码包含沙箱禁止的操作: " + String.join("; ", program.violations))
+                    .setTimeout(false)
+                    .setStatus("SECURITY_VIOLATION");
+            return null;
+        }
+        return program;
+    }
+
+    private CompiledProgram compile(String code) {
+        String key = buildKey(code);
+        synchronized (classCache) {
+            CompiledProgram program = classCache.get(key);
+            if (program != null) {
+                cacheHits.increment();
+                return program;
+            }
+        }
+
+        List<String> options = new ArrayList<>(List.of("-proc:none"));
+        String flags = getCompilerFlags();
+        if (!flags.isBlank()) {
+            options.addAll(Arrays.asList(flags.trim().split("\\s+")));
+        }
+        CompilationResult result = compiler.compile(MAIN_CLASS, code, options);
+        compiles.increment();
+        List<String> violations = result.isSuccess() ? BytecodeInspector.inspect(result.getClasses()) : List.of();
+        CompiledProgram program = new CompiledProgram(result, violations);
+        synchronized (classCache) {
+            classCache.put(key, program);
+        }
+        return program;
+    }
+
+    private String buildKey(String code) {
+        return DigestUtil.sha256Hex(getCompilerFlags() + "\n" + code);
+    }
+
+    private String getCompilerFlags() {
+        LanguageRuntime runtime = runtimeRegistry.find("java");
+        return runtime != null ? runtime.getCompileFlags() : "";
+    }
+
+    /**
+     * 在独立线程中运行Main.main，调用线程负责监控资源并在超限或取消时强制终止，结果写入响应
+     */
+    private void runMain(CompiledProgram program, String input, int timeoutSeconds, RunningExecution execution,
+                         ExecutionOutputListener listener, ExecuteResponse response) throws InterruptedException {
+        runs.increment();
+        BoundedOutputStream stdout = new BoundedOutputStream(ExecutionOutputListener.STDOUT, maxOutputBytes, listener);
+        BoundedOutputStream stderr = new BoundedOutputStream(ExecutionOutputListener.STDERR, maxOutputBytes, listener);
+        InputStream stdin = new ByteArrayInputStream(input != null
+                ? input.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+
+        // 每次运行新建类加载器，父加载器为平台类加载器，应用类路径对用户代码不可见
+        SandboxClassLoader classLoader = new SandboxClassLoader(program.result.getClasses(),
+                ClassLoader.getPlatformClassLoader());
+        UserRun userRun = new UserRun(classLoader, stdin, stdout, stderr);
+        Thread thread = new Thread(null, userRun, "sandbox-injvm-" + execution.getExecutionId(), 0, false);
+        thread.setDaemon(true);
+        thread.setContextClassLoader(classLoader);
+
+        long cpuLimitNanos = timeoutSeconds * 1_000_000_000L;
+        long wallLimitMillis = timeoutSeconds * 1000L * wallFactor;
+        long allocationLimitBytes = allocationLimitMb * 1024 * 1024;
+        String exceeded = null;
+
+        long runStart = System.currentTimeMillis();
+        thread.start();
+        runningExecutions.attachCancelHandler(execution, () -> stopThread(thread));
+        try {
+            while (thread.isAlive()) {
+                thread.join(POLL_INTERVAL);
+                if (!thread.isAlive() || execution.isCancelled()) {
+                    break;
+                }
+                long cpuNanos = threadBean.getThreadCpuTime(thread.getId());
+                long allocatedBytes = threadBean.getThreadAllocatedBytes(thread.getId());
+                if (cpuNanos > cpuLimitNanos || System.currentTimeMillis() - runStart > wallLimitMillis) {
+                    exceeded = "TIMEOUT";
+                } else if (allocatedBytes > allocationLimitBytes) {
+                    exceeded = "MEMORY_EXCEEDED";
+                }
+                if (exceeded != null) {
+                    stopThread(thread);
+                    break;
+                }
+            }
+        } finally {
+            runningExecutions.detachProcess(execution);
+        }
+        if (execution.isCancelled()) {
+            stopThread(thread);
+        }
+
+        response.setRunTime(System.currentTimeMillis() - runStart)
+                .setCpuUserTime(userRun.userNanos / 1_000_000)
+                .setCpuSystemTime(Math.max(0, userRun.cpuNanos - userRun.userNanos) / 1_000_000)
+                .setOutput(stdout.getContent())
+                .setError(stderr.getContent())
+                .setOutputTruncated(stdout.isTruncated() || stderr.isTruncated())
+                .setTimeout(false)
+                .setMemoryExceeded(false);
+
+        if (execution.isCancelled()) {
+            markCancelled(response);
+        } else if ("TIMEOUT".equals(exceeded)) {
+            response.setSuccess(false)
+                    .setTimeout(true)
+                    .setError("执行超时（" + timeoutSeconds + "秒）")
+                    .setStatus("TIMEOUT");
+        } else if ("MEMORY_EXCEEDED".equals(exceeded) || userRun.failure instanceof OutOfMemoryError) {
+            response.setSuccess(false)
+                    .setMemoryExceeded(true)
+                    .setError(exceeded != null ? "累计内存分配超过预算" + allocationLimitMb + "MB（进程内执行按分配量限制）"
+                            : "内存溢出")
+                    .setStatus("MEMORY_EXCEEDED");
+        } else {
+            int exitCode = userRun.failure == null ? 0 : 1;
+            response.setSuccess(exitCode == 0)
+                    .setExitCode(exitCode)
+                    .setStatus(exitCode == 0 ? "SUCCESS" : "FAILED");
+        }
+    }
+
+    /**
+     * 强制终止运行线程；用户代码捕获ThreadDeath时反复尝试，仍无法终止则记为泄漏线程，
+     * 泄漏线程数达到上限后停止进程内执行（路由回退到Docker）
+     */
+    @SuppressWarnings("deprecation")
+    private void stopThread(Thread thread) {
+        if (!thread.isAlive()) {
+            return;
+        }
+        stopped.increment();
+        for (int attempt = 0; attempt < MAX_STOP_ATTEMPTS && thread.isAlive(); attempt++) {
+            thread.stop();
+            try {
+                thread.join(POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (thread.isAlive()) {
+            long leaked = leakedThreads.incrementAndGet();
+            log.error("无法终止进程内执行线程: {}，当前泄漏线程数: {}", thread.getName(), leaked);
+        }
+    }
+
+    /**
+     * 编译与字节码检查结果
+     */
+    private static class CompiledProgram {
+        private final CompilationResult result;
+        private final List<String> violations;
+
+        CompiledProgram(CompilationResult result, List<String> violations) {
+            this.result = result;
+            this.violations = violations;
+        }
+    }
+
+    /**
+     * 运行线程执行的任务：绑定标准流后反射调用Main.main，结束时记录本线程的CPU时间
+     */
+    private class UserRun implements Runnable {
+        private final ClassLoader classLoader;
+        private final InputStream stdin;
+        private final BoundedOutputStream stdout;
+        private final BoundedOutputStream stderr;
+
+        private volatile Throwable failure;
+        private volatile long cpuNanos;
+        private volatile long userNanos;
+
+        UserRun(ClassLoader classLoader, InputStream stdin, BoundedOutputStream stdout, BoundedOutputStream stderr) {
+            this.classLoader = classLoader;
+            this.stdin = stdin;
+            this.stdout = stdout;
+            this.stderr = stderr;
+        }
+
+        @Override
+        public void run() {
+            PrintStream out = new PrintStream(stdout, true, StandardCharsets.UTF_8);
+            PrintStream err = new PrintStream(stderr, true, StandardCharsets.UTF_8);
+            StdioRouter.bind(stdin, out, err);
+            try {
+                Class<?> mainClass = classLoader.loadClass(MAIN_CLASS);
+                Method main = mainClass.getMethod("main", String[].class);
+                if (!Modifier.isStatic(main.getModifiers())) {
+                    throw new NoSuchMethodException("Main.main必须是static方法");
+                }
+                main.setAccessible(true);
+                main.invoke(null, (Object) new String[0]);
+            } catch (InvocationTargetException e) {
+                failure = e.getCause();
+                trimStackTrace(failure);
+                err.print("Exception in thread \"main\" ");
+                failure.printStackTrace(err);
+            } catch (ThreadDeath e) {
+                failure = e;
+            } catch (Throwable e) {
+                failure = e;
+                err.println("错误: 无法运行Main类: " + e);
+            } finally {
+                out.flush();
+                err.flush();
+                cpuNanos = threadBean.getCurrentThreadCpuTime();
+                userNanos = threadBean.getCurrentThreadUserTime();
+                StdioRouter.unbind();
+            }
+        }
+
+        /**
+         * 去掉反射调用及执行器自身的栈帧，只保留用户代码部分，与直接运行java命令时的输出一致
+         */
+        private void trimStackTrace(Throwable throwable) {
+            StackTraceElement[] frames = throwable.getStackTrace();
+            int end = frames.length;
+            for (int i = 0; i < frames.length; i++) {
+                String className = frames[i].getClassName();
+                if (className.startsWith("jdk.internal.reflect.") || className.startsWith("java.lang.reflect.")) {
+                    end = i;
+                    break;
+                }
+            }
+            throwable.setStackTrace(Arrays.copyOf(frames, end));
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.algcockpit.service.impl;
+
+import com.alibaba.fastjson.JSON;
+import com.algcockpit.dto.request.BatchExecuteRequest;
+import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
+import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.exception.BusinessException;
+import com.algcockpit.exception.ExecutionRejectedException;
+import com.algcockpit.service.SandboxExecutor;
+import com.algcockpit.service.sandbox.ExecutionOutputListener;
+import com.algcockpit.service.sandbox.ExecutionResultStore;
+import com.algcockpit.service.sandbox.fleet.SandboxJob;
+import com.algcockpit.service.sandbox.fleet.SandboxJobReply;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntimeRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 远程分发沙箱执行器
+ * 将执行任务写入Redis Stream，由独立部署的沙箱执行节点（见 SandboxWorker）按消费组拉取执行，
+ * 结果经本节点专属的回复频道返回；异步执行的状态与结果由执行节点写入共享的Redis结果存储，收到回复后本节点也写入。
+ * 队列长度达到 sandbox.fleet.max-length 时拒绝新任务，不裁剪尚未执行的任务。
+ * 使API节点与执行节点分离部署、各自水平扩展。通过 sandbox.fleet.dispatch=remote 启用
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Service
+public class RemoteSandboxExecutor implements SandboxExecutor {
+
+    private static final String DISPATCH_REMOTE = "remote";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ExecutionResultStore resultStore;
+
+    @Autowired
+    private LanguageRuntimeRegistry runtimeRegistry;
+
+    @Value("${sandbox.fleet.dispatch:local}")
+    private String dispatchMode;
+
+    @Value("${sandbox.result-store.type:memory}")
+    private String resultStoreType;
+
+    @Value("${sandbox.fleet.stream:sandbox:fleet:jobs}")
+    private String streamKey;
+
+    @Value("${sandbox.fleet.max-length:10000}")
+    private long maxStreamLength;
+
+    @Value("${sandbox.fleet.queue-timeout:30000}")
+    private long queueTimeout;
+
+    @Value("${sandbox.compile.timeout:30000}")
+    private long compileTimeout;
+
+    @Value("${sandbox.fleet.cancel-ttl:600}")
+    private long cancelTtlSeconds;
+
+    private final String replyChannel = SandboxJob.REPLY_CHANNEL_PREFIX + UUID.randomUUID();
+
+    /**
+     * 等待回复的任务（按执行ID）
+     */
+    private final ConcurrentMap<String, PendingJob> pendingJobs = new ConcurrentHashMap<>();
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 最近一次读取的在线执行节点心跳
+     */
+    private volatile List<Map<Object, Object>> liveWorkers = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!"redis".equalsIgnoreCase(resultStoreType)) {
+            log.warn("远程分发模式下异步执行结果只保存在发起执行的API节点，多个API节点时应配置 sandbox.result-store.type=redis");
+        }
+        listenerContainer.addMessageListener(this::onReply, new ChannelTopic(replyChannel));
+        refreshWorkers();
+        log.info("执行任务将分发到沙箱执行节点，任务队列: {}", streamKey);
+    }
+
+    /**
+     * 是否启用远程分发
+     */
+    public boolean isEnabled() {
+        return DISPATCH_REMOTE.equalsIgnoreCase(dispatchMode);
+    }
+
+    @Override
+    public ExecuteResponse execute(ExecuteRequest request) {
+        return execute(UUID.randomUUID().toString(), request);
+    }
+
+    @Override
+    public ExecuteResponse execute(String executionId, ExecuteRequest request) {
+        runtimeRegistry.applyDefaults(request);
+        CompletableFuture<String> future = dispatch(SandboxJob.TYPE_EXECUTE, executionId, request,
+                request.getTimeout(), null);
+        try {
+            return JSON.parseObject(future.get(), ExecuteResponse.class);
+        } catch (InterruptedException e) {
+            cancelRemote(executionId);
+            Thread.currentThread().interrupt();
+            return new ExecuteResponse()
+                    .setSuccess(false)
+                    .setError("执行被中断")
+                    .setStatus("ERROR");
+        } catch (ExecutionException e) {
+            return new ExecuteResponse()
+                    .setSuccess(false)
+                    .setError(describeFailure(e.getCause()))
+                    .setStatus("ERROR")
+                    .setExecutionId(executionId);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ExecuteResponse> executeStreaming(String executionId, ExecuteRequest request,
+                                                               ExecutionOutputListener listener) {
+        runtimeRegistry.applyDefaults(request);
+        return dispatch(SandboxJob.TYPE_STREAM, executionId, request, request.getTimeout(), listener)
+                .handle((payload, e) -> e == null ? JSON.parseObject(payload, ExecuteResponse.class)
+                        : new ExecuteResponse()
+                                .setSuccess(false)
+                                .setError(describeFailure(e))
+                                .setStatus("ERROR")
+                                .setExecutionId(executionId));
+    }
+
+    @Override
+    public BatchExecuteResponse executeBatch(BatchExecuteRequest request) {
+        runtimeRegistry.applyDefaults(request);
+        String executionId = UUID.randomUUID().toString();
+        // 批量执行依次运行各组输入，按输入数放宽等待时间
+        int timeout = request.getTimeout() * Math.max(1, request.getInputs().size());
+        CompletableFuture<String> future = dispatch(SandboxJob.TYPE_BATCH, executionId, request, timeout, null);
+        try {
+            return JSON.parseObject(future.get(), BatchExecuteResponse.class);
+        } catch (InterruptedException e) {
+            cancelRemote(executionId);
+            Thread.currentThread().interrupt();
+            return new BatchExecuteResponse()
+                    .setSuccess(false)
+                    .setError("执行被中断")
+                    .setStatus("ERROR");
+        } catch (ExecutionException e) {
+            return new BatchExecuteResponse()
+                    .setSuccess(false)
+                    .setError(describeFailure(e.getCause()))
+                    .setStatus("ERROR")
+                    .setExecutionId(executionId);
+        }
+    }
+
+    @Override
+    public String executeAsync(ExecuteRequest request, Consumer<ExecuteResponse> onComplete) {
+        runtimeRegistry.applyDefaults(request);
+        String executionId = UUID.randomUUID().toString();
+        resultStore.put(executionId, new ExecuteResponse()
+                .setStatus(ExecutionResultStore.PENDING)
+                .setExecutionId(executionId));
+        CompletableFuture<String> future;
+        try {
+            future = dispatch(SandboxJob.TYPE_ASYNC, executionId, request, request.getTimeout(), null);
+        } catch (RuntimeException e) {
+            resultStore.remove(executionId);
+            throw e;
+        }
+        // 执行节点回复后本节点同样写入结果，结果存储不是共享的redis时查询也能看到最终结果
+        future.whenComplete((payload, e) -> {
+            ExecuteResponse result;
+            if (e == null) {
+                result = JSON.parseObject(payload, ExecuteResponse.class);
+            } else {
+                result = new ExecuteResponse()
+                        .setSuccess(false)
+                        .setError(describeFailure(e))
+                        .setStatus("ERROR")
+                        .setExecutionId(executionId);
+            }
+            resultStore.put(executionId, result);
+            notifyComplete(onComplete, result);
+        });
+        return executionId;
+    }
+
+    @Override
+    public ExecuteResponse getAsyncResult(String executionId) {
+        return resultStore.get(executionId);
+    }
+
+    @Override
+    public Boolean cancelAsyncExecution(String executionId) {
+        ExecuteResponse state = resultStore.get(executionId);
+        if (state == null || !(ExecutionResultStore.PENDING.equals(state.getStatus())
+                || ExecutionResultStore.RUNNING.equals(state.getStatus()))) {
+            return false;
+        }
+        cancelRemote(executionId);
+        resultStore.put(executionId, new ExecuteResponse()
+                .setSuccess(false)
+                .setTimeout(false)
+                .setError("执行已取消")
+                .setStatus("CANCELLED")
+                .setExecutionId(executionId));
+        return true;
+    }
+
+    @Override
+    public Boolean cancelExecution(String executionId) {
+        if (!pendingJobs.containsKey(executionId)) {
+            return false;
+        }
+        cancelRemote(executionId);
+        return true;
+    }
+
+    @Override
+    public Boolean isLanguageSupported(String language) {
+        return runtimeRegistry.isSupported(language);
+    }
+
+    @Override
+    public String getSandboxStatus() {
+        List<Map<Object, Object>> workers = liveWorkers;
+        int capacity = 0;
+        int active = 0;
+        StringBuilder nodes = new StringBuilder();
+        for (Map<Object, Object> worker : workers) {
+            capacity += parseInt(worker.get("capacity"));
+            active += parseInt(worker.get("active"));
+            nodes.append(' ').append(worker.get("workerId"))
+                    .append('(').append(worker.get("active")).append('/').append(worker.get("capacity")).append(')');
+        }
+        return String.format("远程沙箱: 执行节点=%d, 执行中=%d/%d, 等待回复=%d, 已分发=%d, 等待超时=%d, 拒绝=%d；节点:%s",
+                workers.size(), active, capacity, pendingJobs.size(), dispatched.sum(), expired.sum(), rejected.sum(),
+                nodes.length() == 0 ? " 无" : nodes.toString());
+    }
+
+    /**
+     * 刷新在线执行节点列表，心跳已过期的节点从集合中移除
+     */
+    @Scheduled(fixedDelayString = "${sandbox.fleet.heartbeat-interval:5000}")
+    public void refreshWorkers() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Set<String> workerIds = stringRedisTemplate.opsForSet().members(SandboxJob.WORKERS_KEY);
+            List<Map<Object, Object>> workers = new ArrayList<>();
+            if (workerIds != null) {
+                for (String workerId : workerIds) {
+                    Map<Object, Object> heartbeat = stringRedisTemplate.opsForHash().entries(SandboxJob.WORKER_KEY_PREFIX + workerId);
+                    if (heartbeat.isEmpty()) {
+                        stringRedisTemplate.opsForSet().remove(SandboxJob.WORKERS_KEY, workerId);
+                    } else {
+                        workers.add(heartbeat);
+                    }
+                }
+            }
+            liveWorkers = workers;
+        } catch (Exception e) {
+            log.warn("读取沙箱执行节点心跳失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 分发任务并等待回复
+     *
+     * @param timeoutSeconds 单次运行超时（秒），与排队等待、编译时间一起决定等待上限
+     * @param listener 输出监听器，可为null
+     * @return 执行结果JSON
+     */
+    private CompletableFuture<String> dispatch(String type, String executionId, Object request, int timeoutSeconds,
+                                               ExecutionOutputListener listener) {
+        long waitMillis = queueTimeout + compileTimeout + TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        PendingJob pendingJob = new PendingJob(listener);
+        pendingJobs.put(executionId, pendingJob);
+        try {
+            enqueue(new SandboxJob()
+                    .setExecutionId(executionId)
+                    .setType(type)
+                    .setReplyTo(replyChannel)
+                    .setDeadline(System.currentTimeMillis() + waitMillis)
+                    .setPayload(JSON.toJSONString(request)));
+        } catch (RuntimeException e) {
+            pendingJobs.remove(executionId);
+            throw e;
+        }
+        return pendingJob.result
+                .orTimeout(waitMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((payload, e) -> {
+                    pendingJobs.remove(executionId, pendingJob);
+                    if (e instanceof TimeoutException) {
+                        expired.increment();
+                        cancelRemote(executionId);
+                    }
+                });
+    }
+
+    private void enqueue(SandboxJob job) {
+        if (liveWorkers.isEmpty()) {
+            rejected.increment();
+            throw new ExecutionRejectedException("没有可用的沙箱执行节点，请稍后重试", 5);
+        }
+        job.setUserKey(getCurrentUserKey()).setAttempts(1);
+        try {
+            // 执行节点完成任务后删除消息，队列长度即排队与运行中的任务数；超出上限时拒绝，不裁剪尚未执行的任务
+            Long queued = stringRedisTemplate.opsForStream().size(streamKey);
+            if (queued != null && queued >= maxStreamLength) {
+                rejected.increment();
+                throw new ExecutionRejectedException("系统繁忙，执行队列已满，请稍后重试", 5);
+            }
+            stringRedisTemplate.opsForStream().add(streamKey, Map.of(SandboxJob.FIELD_JOB, JSON.toJSONString(job)));
+        } catch (ExecutionRejectedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("分发执行任务失败，执行ID: {}", job.getExecutionId(), e);
+            throw new BusinessException(503, "分发执行任务失败");
+        }
+        dispatched.increment();
+    }
+
+    /**
+     * 标记执行已取消并广播给所有执行节点：尚未拉取的任务被跳过，运行中的执行被终止
+     */
+    private void cancelRemote(String executionId) {
+        try {
+            stringRedisTemplate.opsForValue().set(SandboxJob.CANCELLED_KEY_PREFIX + executionId, "1",
+                    cancelTtlSeconds, TimeUnit.SECONDS);
+            stringRedisTemplate.convertAndSend(SandboxJob.CANCEL_CHANNEL, executionId);
+        } catch (Exception e) {
+            log.warn("广播取消执行失败，执行ID: {}, 原因: {}", executionId, e.getMessage());
+        }
+    }
+
+    private void onReply(Message message, byte[] pattern) {
+        SandboxJobReply reply;
+        try {
+            reply = JSON.parseObject(new String(message.getBody(), StandardCharsets.UTF_8), SandboxJobReply.class);
+        } catch (Exception e) {
+            log.warn("无法解析执行节点回复: {}", e.getMessage());
+            return;
+        }
+        PendingJob pendingJob = pendingJobs.get(reply.getExecutionId());
+        if (pendingJob == null) {
+            return;
+        }
+        if (SandboxJobReply.TYPE_OUTPUT.equals(reply.getType())) {
+            if (pendingJob.listener != null) {
+                pendingJob.listener.onOutput(reply.getStream(), reply.getChunk());
+            }
+        } else {
+            pendingJob.result.complete(reply.getPayload());
+        }
+    }
+
+    /**
+     * 回调异步执行的最终结果，回调方出错不影响结果存储
+     */
+    private void notifyComplete(Consumer<ExecuteResponse> onComplete, ExecuteResponse response) {
+        if (onComplete == null) {
+            return;
+        }
+        try {
+            onComplete.accept(response);
+        } catch (Exception e) {
+            log.error("处理异步执行结果失败，执行ID: {}", response.getExecutionId(), e);
+        }
+    }
+
+    private String describeFailure(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e instanceof TimeoutException) {
+            return "等待沙箱执行节点返回结果超时";
+        }
+        if (e instanceof CancellationException) {
+            return "执行已取消";
+        }
+        return "执行异常: " + e.getMessage();
+    }
+
+    private int parseInt(Object value) {
+        try {
+            return value == null ? 0 : Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 获取当前用户标识，执行节点据此按用户公平排队
+     */
+    private String getCurrentUserKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    /**
+     * 等待回复的任务
+     */
+    private static class PendingJob {
+
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final ExecutionOutputListener listener;
+
+        PendingJob(ExecutionOutputListener listener) {
+            this.listener = listener;
+        }
+    }
+}
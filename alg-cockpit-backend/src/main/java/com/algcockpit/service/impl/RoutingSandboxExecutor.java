@@ -0,0 +1,116 @@
+package com.algcockpit.service.impl;
+
+import com.algcockpit.dto.request.BatchExecuteRequest;
+import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
+import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.service.SandboxExecutor;
+import com.algcockpit.service.sandbox.ExecutionOutputListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 按语言策略选择执行器的沙箱执行器
+ * 策略由 sandbox.executor.&lt;语言&gt; 配置：docker（默认）、injvm（进程内执行）或 auto
+ * （进程内执行可用且代码通过字节码检查时进程内执行，否则使用Docker）。
+ * 两种执行器共用执行登记表与结果存储，取消与查询异步结果无需区分执行器
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Primary
+@Service
+public class RoutingSandboxExecutor implements SandboxExecutor {
+
+    private static final String POLICY_DOCKER = "docker";
+    private static final String POLICY_INJVM = "injvm";
+    private static final String POLICY_AUTO = "auto";
+
+    @Autowired
+    private DockerSandboxExecutor dockerExecutor;
+
+    @Autowired
+    private InJvmJavaSandboxExecutor inJvmExecutor;
+
+    @Autowired
+    private Environment environment;
+
+    @Override
+    public ExecuteResponse execute(ExecuteRequest request) {
+        return select(request.getLanguage(), request.getCode()).execute(request);
+    }
+
+    @Override
+    public ExecuteResponse execute(String executionId, ExecuteRequest request) {
+        return select(request.getLanguage(), request.getCode()).execute(executionId, request);
+    }
+
+    @Override
+    public CompletableFuture<ExecuteResponse> executeStreaming(String executionId, ExecuteRequest request,
+                                                               ExecutionOutputListener listener) {
+        return select(request.getLanguage(), request.getCode()).executeStreaming(executionId, request, listener);
+    }
+
+    @Override
+    public BatchExecuteResponse executeBatch(BatchExecuteRequest request) {
+        return select(request.getLanguage(), request.getCode()).executeBatch(request);
+    }
+
+    @Override
+    public String executeAsync(ExecuteRequest request, Consumer<ExecuteResponse> onComplete) {
+        return select(request.getLanguage(), request.getCode()).executeAsync(request, onComplete);
+    }
+
+    @Override
+    public ExecuteResponse getAsyncResult(String executionId) {
+        return dockerExecutor.getAsyncResult(executionId);
+    }
+
+    @Override
+    public Boolean cancelAsyncExecution(String executionId) {
+        return dockerExecutor.cancelAsyncExecution(executionId);
+    }
+
+    @Override
+    public Boolean cancelExecution(String executionId) {
+        return dockerExecutor.cancelExecution(executionId);
+    }
+
+    @Override
+    public Boolean isLanguageSupported(String language) {
+        return dockerExecutor.isLanguageSupported(language);
+    }
+
+    @Override
+    public String getSandboxStatus() {
+        return dockerExecutor.getSandboxStatus() + "；" + inJvmExecutor.getSandboxStatus();
+    }
+
+    /**
+     * 按语言策略选择执行器
+     */
+    private SandboxExecutor select(String language, String code) {
+        if (language == null || !inJvmExecutor.isLanguageSupported(language)) {
+            return dockerExecutor;
+        }
+        String policy = environment.getProperty("sandbox.executor." + language.toLowerCase(), POLICY_DOCKER);
+        switch (policy.toLowerCase()) {
+            case POLICY_INJVM:
+                if (inJvmExecutor.isAvailable()) {
+                    return inJvmExecutor;
+                }
+                log.warn("进程内执行不可用，回退到Docker执行，语言: {}", language);
+                return dockerExecutor;
+            case POLICY_AUTO:
+                return inJvmExecutor.accepts(code) ? inJvmExecutor : dockerExecutor;
+            default:
+                return dockerExecutor;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.algcockpit.service.profiling;
+
+import com.alibaba.fastjson.JSON;
+import com.algcockpit.dto.request.BatchExecuteRequest;
+import com.algcockpit.dto.request.ComplexityProfileRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
+import com.algcockpit.dto.response.ComplexityProfile;
+import com.algcockpit.dto.response.ComplexityProfile.CurveFit;
+import com.algcockpit.dto.response.ComplexityProfile.SamplePoint;
+import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.entity.AlgorithmCode;
+import com.algcockpit.entity.AlgorithmComplexity;
+import com.algcockpit.exception.BusinessException;
+import com.algcockpit.repository.AlgorithmCodeRepository;
+import com.algcockpit.repository.AlgorithmComplexityRepository;
+import com.algcockpit.service.SandboxExecutor;
+import com.algcockpit.service.cache.CatalogCaches;
+import com.algcockpit.service.impl.RemoteSandboxExecutor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 算法复杂度实测器
+ * 按几何级数生成不同规模的输入，在沙箱中运行算法代码（每个规模先预热再多次计量），
+ * 拟合候选增长曲线，并将实测数据与最佳拟合写入AlgorithmComplexity.performanceData
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class ComplexityProfiler {
+
+    /**
+     * 拟合所需的最少数据点
+     */
+    private static final int MIN_POINTS = 3;
+
+    @Autowired
+    private SandboxExecutor sandboxExecutor;
+
+    @Autowired
+    private RemoteSandboxExecutor remoteSandboxExecutor;
+
+    @Autowired
+    private AlgorithmCodeRepository algorithmCodeRepository;
+
+    @Autowired
+    private AlgorithmComplexityRepository algorithmComplexityRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${sandbox.profiler.max-size:2000000}")
+    private long maxInputSize;
+
+    @Value("${sandbox.batch.max-inputs:100}")
+    private int maxBatchInputs;
+
+    /**
+     * 实测任务互相独立且耗时较长，用单线程串行执行，避免挤占交互式执行的沙箱槽位
+     */
+    private final ExecutorService profilerExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "complexity-profiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 正在实测的算法ID
+     */
+    private final Set<Long> profiling = ConcurrentHashMap.newKeySet();
+
+    @PreDestroy
+    public void shutdown() {
+        profilerExecutor.shutdownNow();
+    }
+
+    /**
+     * 提交实测任务
+     *
+     * @param algorithmId 算法ID
+     * @param request 实测参数
+     * @return 是否已提交（同一算法已有实测任务时返回false）
+     */
+    public boolean submit(Long algorithmId, ComplexityProfileRequest request) {
+        AlgorithmCode code = algorithmCodeRepository.selectByAlgorithmIdAndLanguage(algorithmId, request.getLanguage());
+        if (code == null) {
+            throw new BusinessException(404, "算法代码不存在，语言: " + request.getLanguage());
+        }
+        long[] sizes = buildSizes(request);
+        if (sizes[sizes.length - 1] > maxInputSize) {
+            throw new BusinessException(400, "最大输入规模" + sizes[sizes.length - 1] + "超过上限" + maxInputSize);
+        }
+        if (request.getWarmups() + request.getRepetitions() > maxBatchInputs) {
+            throw new BusinessException(400, "每个规模的预热与计量次数之和不能超过" + maxBatchInputs);
+        }
+        if (!profiling.add(algorithmId)) {
+            return false;
+        }
+
+        profilerExecutor.execute(() -> {
+            try {
+                ComplexityProfile profile = profile(code, request, sizes);
+                if (profile != null) {
+                    savePerformanceData(algorithmId, profile);
+                }
+            } catch (Exception e) {
+                log.error("算法复杂度实测失败，算法ID: {}", algorithmId, e);
+            } finally {
+                profiling.remove(algorithmId);
+            }
+        });
+        log.info("已提交算法复杂度实测，算法ID: {}, 语言: {}, 规模: {}", algorithmId, request.getLanguage(),
+                Arrays.toString(sizes));
+        return true;
+    }
+
+    /**
+     * 算法是否正在实测
+     */
+    public boolean isProfiling(Long algorithmId) {
+        return profiling.contains(algorithmId);
+    }
+
+    /**
+     * 逐个规模批量运行（同一份代码只编译一次，后续规模命中编译缓存），某个规模超时即停止
+     *
+     * @return 实测结果，有效数据点不足时返回null
+     */
+    private ComplexityProfile profile(AlgorithmCode code, ComplexityProfileRequest request, long[] sizes) {
+        List<SamplePoint> series = new ArrayList<>();
+        Boolean cpuMetric = null;
+
+        for (long size : sizes) {
+            String input = generateInput(request.getInputType(), size);
+            int runs = request.getWarmups() + request.getRepetitions();
+            BatchExecuteRequest batchRequest = new BatchExecuteRequest()
+                    .setAlgorithmId(code.getAlgorithmId())
+                    .setLanguage(code.getLanguage())
+                    .setCode(code.getCodeContent())
+                    .setInputs(Collections.nCopies(runs, input))
+                    .setTimeout(request.getTimeout())
+                    .setMemoryLimit(request.getMemoryLimit());
+            BatchExecuteResponse batchResponse = (remoteSandboxExecutor.isEnabled() ? remoteSandboxExecutor : sandboxExecutor).executeBatch(batchRequest);
+
+            if (batchResponse.getResults() == null || batchResponse.getResults().size() < runs) {
+                log.warn("复杂度实测中止，算法ID: {}, 规模: {}, 状态: {}, 错误: {}", code.getAlgorithmId(), size,
+                        batchResponse.getStatus(), batchResponse.getError());
+                break;
+            }
+            List<ExecuteResponse> measured = batchResponse.getResults().subList(request.getWarmups(), runs);
+            if (measured.stream().anyMatch(result -> !Boolean.TRUE.equals(result.getSuccess()))) {
+                // 通常为超时或内存溢出，更大的规模只会更慢，保留已有数据点
+                log.warn("复杂度实测在规模{}处停止，算法ID: {}, 状态: {}", size, code.getAlgorithmId(),
+                        measured.get(measured.size() - 1).getStatus());
+                break;
+            }
+
+            if (cpuMetric == null) {
+                cpuMetric = measured.stream().allMatch(result -> result.getCpuUserTime() != null);
+            }
+            SamplePoint point = toSamplePoint(size, measured, cpuMetric);
+            if (point == null) {
+                log.warn("复杂度实测在规模{}处停止，算法ID: {}, 结果缺少{}耗时", size, code.getAlgorithmId(),
+                        cpuMetric ? "CPU" : "运行");
+                break;
+            }
+            series.add(point);
+        }
+
+        if (series.size() < MIN_POINTS) {
+            log.warn("复杂度实测有效数据点不足，算法ID: {}, 数据点: {}", code.getAlgorithmId(), series.size());
+            return null;
+        }
+
+        double[] n = series.stream().mapToDouble(point -> point.getN()).toArray();
+        double[] time = series.stream().mapToDouble(SamplePoint::getTimeMs).toArray();
+        List<CurveFit> fits = GrowthCurveFitter.fitAll(n, time);
+        String bestFit = GrowthCurveFitter.selectBestFit(fits);
+        log.info("算法复杂度实测完成，算法ID: {}, 最佳拟合: {}, 数据点: {}", code.getAlgorithmId(), bestFit, series.size());
+
+        return new ComplexityProfile()
+                .setLanguage(code.getLanguage())
+                .setInputType(request.getInputType())
+                .setTimeMetric(Boolean.TRUE.equals(cpuMetric) ? "cpu" : "wall")
+                .setBestFit(bestFit)
+                .setSeries(series)
+                .setFits(GrowthCurveFitter.sortByRss(fits))
+                .setProfiledAt(LocalDateTime.now());
+    }
+
+    /**
+     * 汇总一个规模的计量结果；计时指标在首个规模确定，缺少该指标的结果不参与统计
+     *
+     * @return 数据点，所有结果都缺少该指标时返回null
+     */
+    private SamplePoint toSamplePoint(long size, List<ExecuteResponse> measured, boolean cpuMetric) {
+        double[] times = measured.stream()
+                .filter(result -> cpuMetric ? result.getCpuUserTime() != null : result.getRunTime() != null)
+                .mapToDouble(result -> cpuMetric
+                        ? result.getCpuUserTime() + (result.getCpuSystemTime() != null ? result.getCpuSystemTime() : 0)
+                        : result.getRunTime())
+                .sorted()
+                .toArray();
+        if (times.length == 0) {
+            return null;
+        }
+        long memoryKb = measured.stream()
+                .filter(result -> result.getMemoryUsed() != null)
+                .mapToLong(ExecuteResponse::getMemoryUsed)
+                .max()
+                .orElse(0);
+        return new SamplePoint()
+                .setN(size)
+                .setTimeMs(median(times))
+                .setMinTimeMs(times[0])
+                .setMaxTimeMs(times[times.length - 1])
+                .setMemoryKb(memoryKb);
+    }
+
+    private void savePerformanceData(Long algorithmId, ComplexityProfile profile) {
+        String performanceData = JSON.toJSONString(profile);
+        AlgorithmComplexity existing = algorithmComplexityRepository.selectByAlgorithmId(algorithmId);
+        if (existing != null) {
+            algorithmComplexityRepository.updateById(new AlgorithmComplexity()
+                    .setId(existing.getId())
+                    .setPerformanceData(performanceData)
+                    .setUpdatedTime(LocalDateTime.now()));
+        } else {
+            algorithmComplexityRepository.insert(new AlgorithmComplexity()
+                    .setAlgorithmId(algorithmId)
+                    .setPerformanceData(performanceData)
+                    .setDeleted(0)
+                    .setCreatedTime(LocalDateTime.now())
+                    .setUpdatedTime(LocalDateTime.now()));
+        }
+        cacheManager.getCache(CatalogCaches.COMPLEXITY_BY_ALGORITHM).evict(algorithmId);
+        log.info("已保存算法性能数据，算法ID: {}, 最佳拟合: {}", algorithmId, profile.getBestFit());
+    }
+
+    private long[] buildSizes(ComplexityProfileRequest request) {
+        long[] sizes = new long[request.getSteps()];
+        double size = request.getMinSize();
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = Math.round(size);
+            size *= request.getGrowthFactor();
+        }
+        return sizes;
+    }
+
+    /**
+     * 生成指定规模的输入；以规模为随机种子，重复实测时输入一致
+     */
+    private String generateInput(String inputType, long size) {
+        Random random = new Random(size);
+        StringBuilder input = new StringBuilder((int) Math.min(size * 8, Integer.MAX_VALUE - 16));
+        if ("string".equals(inputType)) {
+            for (long i = 0; i < size; i++) {
+                input.append((char) ('a' + random.nextInt(26)));
+            }
+            return input.append('\n').toString();
+        }
+
+        input.append(size).append('\n');
+        for (long i = 0; i < size; i++) {
+            if (i > 0) {
+                input.append(' ');
+            }
+            input.append(random.nextInt(1_000_000));
+        }
+        return input.append('\n').toString();
+    }
+
+    private double median(double[] sorted) {
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
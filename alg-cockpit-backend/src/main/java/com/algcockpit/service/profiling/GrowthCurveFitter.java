@@ -0,0 +1,141 @@
+package com.algcockpit.service.profiling;
+
+import com.algcockpit.dto.response.ComplexityProfile.CurveFit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * 增长曲线拟合器
+ * 对每条候选曲线 f(n) 用最小二乘拟合 time = a + b·f(n)，截距a吸收进程启动等固定开销
+ *
+ * @author Algorithm Cockpit Team
+ */
+public final class GrowthCurveFitter {
+
+    /**
+     * 残差在最优值的该比例以内时，优先选择更低阶的曲线，避免高阶曲线过拟合噪声
+     */
+    private static final double SIMPLER_MODEL_TOLERANCE = 0.05;
+
+    /**
+     * 候选曲线（按阶数升序）
+     */
+    private static final List<Model> MODELS = List.of(
+            new Model("O(1)", null),
+            new Model("O(log n)", Math::log),
+            new Model("O(n)", n -> n),
+            new Model("O(n log n)", n -> n * Math.log(n)),
+            new Model("O(n²)", n -> n * n),
+            new Model("O(n³)", n -> n * n * n));
+
+    private GrowthCurveFitter() {
+    }
+
+    /**
+     * 拟合所有候选曲线
+     *
+     * @param sizes 输入规模
+     * @param times 对应耗时
+     * @return 各曲线的拟合结果，按候选曲线阶数升序
+     */
+    public static List<CurveFit> fitAll(double[] sizes, double[] times) {
+        List<CurveFit> fits = new ArrayList<>(MODELS.size());
+        for (Model model : MODELS) {
+            fits.add(fit(model, sizes, times));
+        }
+        return fits;
+    }
+
+    /**
+     * 选出最佳曲线：系数非负且残差最小；若更低阶曲线的残差与之相差不大则取低阶曲线
+     *
+     * @param fits 按阶数升序的拟合结果
+     * @return 最佳曲线名称
+     */
+    public static String selectBestFit(List<CurveFit> fits) {
+        double bestRss = fits.stream()
+                .filter(fit -> fit.getCoefficient() >= 0)
+                .mapToDouble(CurveFit::getRss)
+                .min()
+                .orElse(Double.NaN);
+        for (CurveFit fit : fits) {
+            if (fit.getCoefficient() >= 0 && fit.getRss() <= bestRss * (1 + SIMPLER_MODEL_TOLERANCE) + 1e-9) {
+                return fit.getModel();
+            }
+        }
+        return fits.get(0).getModel();
+    }
+
+    /**
+     * 按残差升序排列拟合结果
+     */
+    public static List<CurveFit> sortByRss(List<CurveFit> fits) {
+        List<CurveFit> sorted = new ArrayList<>(fits);
+        sorted.sort(Comparator.comparingDouble(CurveFit::getRss));
+        return sorted;
+    }
+
+    private static CurveFit fit(Model model, double[] sizes, double[] times) {
+        int count = sizes.length;
+        double meanY = 0;
+        for (double time : times) {
+            meanY += time;
+        }
+        meanY /= count;
+
+        double intercept;
+        double coefficient;
+        if (model.function == null) {
+            intercept = meanY;
+            coefficient = 0;
+        } else {
+            double[] x = new double[count];
+            double meanX = 0;
+            for (int i = 0; i < count; i++) {
+                x[i] = model.function.applyAsDouble(sizes[i]);
+                meanX += x[i];
+            }
+            meanX /= count;
+
+            double covariance = 0;
+            double variance = 0;
+            for (int i = 0; i < count; i++) {
+                covariance += (x[i] - meanX) * (times[i] - meanY);
+                variance += (x[i] - meanX) * (x[i] - meanX);
+            }
+            coefficient = variance == 0 ? 0 : covariance / variance;
+            intercept = meanY - coefficient * meanX;
+        }
+
+        double rss = 0;
+        double tss = 0;
+        for (int i = 0; i < count; i++) {
+            double predicted = intercept + (model.function == null ? 0 : coefficient * model.function.applyAsDouble(sizes[i]));
+            rss += (times[i] - predicted) * (times[i] - predicted);
+            tss += (times[i] - meanY) * (times[i] - meanY);
+        }
+
+        return new CurveFit()
+                .setModel(model.name)
+                .setIntercept(intercept)
+                .setCoefficient(coefficient)
+                .setRss(rss)
+                .setR2(tss == 0 ? 1.0 : 1 - rss / tss);
+    }
+
+    /**
+     * 候选曲线
+     */
+    private static class Model {
+        private final String name;
+        private final DoubleUnaryOperator function;
+
+        Model(String name, DoubleUnaryOperator function) {
+            this.name = name;
+            this.function = function;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.algcockpit.service.sandbox;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.crypto.digest.DigestUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 编译产物缓存
+ * 以“语言 + 源码 + 编译参数”的哈希为键，将编译产物保存在本地磁盘，
+ * 按LRU淘汰并限制总大小，使相同源码的重复执行跳过编译
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class CompilationCache {
+
+    @Value("${sandbox.compile-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sandbox.compile-cache.path:/tmp/alg-cockpit/compile-cache}")
+    private String cachePath;
+
+    @Value("${sandbox.compile-cache.max-size-mb:512}")
+    private long maxSizeMb;
+
+    @Value("${sandbox.compile-cache.max-entries:2000}")
+    private int maxEntries;
+
+    /**
+     * 缓存条目（按访问顺序排列，最久未使用的在前）
+     */
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final ConcurrentMap<String, LanguageStats> statsByLanguage = new ConcurrentHashMap<>();
+
+    private Path cacheRoot;
+    private long totalBytes;
+
+    @PostConstruct
+    public void init() {
+        cacheRoot = Paths.get(cachePath);
+        try {
+            Files.createDirectories(cacheRoot);
+        } catch (IOException e) {
+            log.warn("创建编译缓存目录失败，编译缓存已禁用: {}", cachePath, e);
+            enabled = false;
+            return;
+        }
+
+        // 恢复上次运行留下的缓存条目，按最后修改时间排列以近似LRU顺序
+        File[] dirs = cacheRoot.toFile().listFiles(File::isDirectory);
+        if (dirs == null) {
+            return;
+        }
+        Arrays.sort(dirs, Comparator.comparingLong(File::lastModified));
+        synchronized (this) {
+            for (File dir : dirs) {
+                if (dir.getName().startsWith(".")) {
+                    FileUtil.del(dir);
+                    continue;
+                }
+                long size = FileUtil.size(dir);
+                entries.put(dir.getName(), new CacheEntry(dir.getName(), "unknown", dir.toPath(), size, 0));
+                totalBytes += size;
+            }
+            evictIfNecessary();
+        }
+        log.info("编译缓存初始化完成，条目数: {}, 占用: {}KB", entries.size(), totalBytes / 1024);
+    }
+
+    /**
+     * 计算缓存键
+     *
+     * @param language 编程语言
+     * @param source 源码
+     * @param compilerFlags 编译参数
+     * @return 缓存键
+     */
+    public String buildKey(String language, String source, String compilerFlags) {
+        return DigestUtil.sha256Hex(language.toLowerCase() + '\0' + compilerFlags + '\0' + source);
+    }
+
+    /**
+     * 查找编译产物并拷贝到目标目录
+     *
+     * @param key 缓存键
+     * @param language 编程语言
+     * @param targetDir 目标目录
+     * @return 是否命中
+     */
+    public boolean copyTo(String key, String language, Path targetDir) {
+        if (!enabled) {
+            return false;
+        }
+        LanguageStats stats = getStats(language);
+
+        CacheEntry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null) {
+                entry.pins++;
+            }
+        }
+        if (entry == null) {
+            stats.misses.increment();
+            return false;
+        }
+
+        try {
+            Files.createDirectories(targetDir);
+            FileUtil.copyContent(entry.getPath().toFile(), targetDir.toFile(), true);
+            stats.hits.increment();
+            stats.savedCompileMillis.add(entry.getCompileMillis());
+            return true;
+        } catch (Exception e) {
+            log.warn("读取编译缓存失败，键: {}", key, e);
+            stats.misses.increment();
+            return false;
+        } finally {
+            synchronized (this) {
+                entry.pins--;
+            }
+        }
+    }
+
+    /**
+     * 保存编译产物
+     *
+     * @param key 缓存键
+     * @param language 编程语言
+     * @param artifactDir 编译产物所在目录（内容复制到缓存目录内的临时目录后原子改名，原目录不变）
+     * @param compileMillis 本次编译耗时（毫秒）
+     */
+    public void store(String key, String language, Path artifactDir, long compileMillis) {
+        getStats(language).compileMillis.add(compileMillis);
+        if (!enabled) {
+            return;
+        }
+
+        // 临时目录建在缓存目录内，改名总在同一文件系统中完成
+        Path staging = cacheRoot.resolve("." + UUID.randomUUID());
+        Path target = cacheRoot.resolve(key);
+        try {
+            Files.createDirectory(staging);
+            FileUtil.copyContent(artifactDir.toFile(), staging.toFile(), true);
+            long size = FileUtil.size(staging.toFile());
+            synchronized (this) {
+                if (entries.containsKey(key)) {
+                    FileUtil.del(staging);
+                    return;
+                }
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+                entries.put(key, new CacheEntry(key, language, target, size, compileMillis));
+                totalBytes += size;
+                evictIfNecessary();
+            }
+        } catch (IOException | IORuntimeException e) {
+            log.warn("保存编译缓存失败，键: {}", key, e);
+            FileUtil.del(staging);
+        }
+    }
+
+    /**
+     * 获取编译缓存状态
+     *
+     * @return 编译缓存状态描述
+     */
+    public String getCacheStatus() {
+        StringBuilder status = new StringBuilder();
+        synchronized (this) {
+            status.append(String.format("编译缓存: 条目=%d, 占用=%dKB/%dMB", entries.size(), totalBytes / 1024, maxSizeMb));
+        }
+        statsByLanguage.forEach((language, stats) -> {
+            long hits = stats.hits.sum();
+            long lookups = hits + stats.misses.sum();
+            status.append(String.format(" %s[命中率=%.1f%%, 命中=%d, 节省编译=%dms, 实际编译=%dms]",
+                    language, lookups == 0 ? 0 : hits * 100.0 / lookups, hits,
+                    stats.savedCompileMillis.sum(), stats.compileMillis.sum()));
+        });
+        return status.toString();
+    }
+
+    private LanguageStats getStats(String language) {
+        return statsByLanguage.computeIfAbsent(language.toLowerCase(), key -> new LanguageStats());
+    }
+
+    /**
+     * 淘汰最久未使用且未被占用的条目，直到满足大小与数量限制（调用方需持有锁）
+     */
+    private void evictIfNecessary() {
+        long maxBytes = maxSizeMb * 1024 * 1024;
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while ((totalBytes > maxBytes || entries.size() > maxEntries) && iterator.hasNext()) {
+            CacheEntry entry = iterator.next().getValue();
+            if (entry.pins > 0) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= entry.getSize();
+            FileUtil.del(entry.getPath());
+            log.debug("淘汰编译缓存，键: {}, 大小: {}B", entry.getKey(), entry.getSize());
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class CacheEntry {
+        private final String key;
+        private final String language;
+        private final Path path;
+        private final long size;
+        private final long compileMillis;
+
+        /**
+         * 正在读取该条目的线程数，大于0时不可淘汰
+         */
+        private int pins;
+    }
+
+    /**
+     * 按语言统计
+     */
+    private static class LanguageStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder savedCompileMillis = new LongAdder();
+        private final LongAdder compileMillis = new LongAdder();
+    }
+}
@@ -0,0 +1,140 @@
+package com.algcockpit.service.sandbox;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Docker命令行封装
+ * 负责执行容器管理类的docker命令（创建、检查、重置、删除、文件传输）
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class DockerCli {
+
+    @Value("${sandbox.docker.command-timeout:30000}")
+    private long commandTimeout;
+
+    /**
+     * 执行docker命令（使用默认超时时间）
+     *
+     * @param args docker子命令及参数
+     * @return 命令结果
+     */
+    public CommandResult docker(String... args) throws IOException {
+        return docker(commandTimeout, args);
+    }
+
+    /**
+     * 执行docker命令
+     *
+     * @param timeoutMs 超时时间（毫秒）
+     * @param args docker子命令及参数
+     * @return 命令结果
+     */
+    public CommandResult docker(long timeoutMs, String... args) throws IOException {
+        List<String> command = new ArrayList<>(args.length + 1);
+        command.add("docker");
+        command.addAll(List.of(args));
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .start();
+        try {
+            if (!process.waitFor(timeoutMs, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("docker命令执行超时: " + String.join(" ", args));
+            }
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return new CommandResult(process.exitValue(), output);
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("docker命令被中断: " + String.join(" ", args), e);
+        }
+    }
+
+    /**
+     * 将宿主机目录内容拷贝到容器目录
+     * 通过tar管道传输，兼容只读根文件系统与tmpfs挂载点
+     *
+     * @param containerId 容器ID
+     * @param hostDir 宿主机目录
+     * @param containerDir 容器内目录
+     */
+    public void copyIn(String containerId, Path hostDir, String containerDir) throws IOException {
+        runPipeline(List.of(
+                new ProcessBuilder("tar", "-c", "-C", hostDir.toString(), "."),
+                new ProcessBuilder("docker", "exec", "-i", containerId, "tar", "-x", "-C", containerDir)));
+    }
+
+    /**
+     * 将容器目录内容拷贝到宿主机目录
+     *
+     * @param containerId 容器ID
+     * @param containerDir 容器内目录
+     * @param hostDir 宿主机目录
+     */
+    public void copyOut(String containerId, String containerDir, Path hostDir) throws IOException {
+        runPipeline(List.of(
+                new ProcessBuilder("docker", "exec", containerId, "tar", "-c", "-C", containerDir, "."),
+                new ProcessBuilder("tar", "-x", "-C", hostDir.toString())));
+    }
+
+    private void runPipeline(List<ProcessBuilder> builders) throws IOException {
+        for (ProcessBuilder builder : builders) {
+            builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        }
+        builders.get(builders.size() - 1).redirectOutput(ProcessBuilder.Redirect.DISCARD);
+
+        List<Process> processes = ProcessBuilder.startPipeline(builders);
+        try {
+            for (Process process : processes) {
+                if (!process.waitFor(commandTimeout, TimeUnit.MILLISECONDS)) {
+                    processes.forEach(Process::destroyForcibly);
+                    throw new IOException("容器文件传输超时");
+                }
+                if (process.exitValue() != 0) {
+                    throw new IOException("容器文件传输失败，退出码: " + process.exitValue());
+                }
+            }
+        } catch (InterruptedException e) {
+            processes.forEach(Process::destroyForcibly);
+            Thread.currentThread().interrupt();
+            throw new IOException("容器文件传输被中断", e);
+        }
+    }
+
+    /**
+     * docker命令执行结果
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class CommandResult {
+
+        /**
+         * 退出码
+         */
+        private final int exitCode;
+
+        /**
+         * 标准输出与标准错误合并后的内容
+         */
+        private final String output;
+
+        public boolean isSuccess() {
+            return exitCode == 0;
+        }
+    }
+}
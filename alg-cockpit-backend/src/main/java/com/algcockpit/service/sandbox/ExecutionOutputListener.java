@@ -0,0 +1,29 @@
+package com.algcockpit.service.sandbox;
+
+/**
+ * 执行输出监听器
+ * 沙箱进程产生输出时被增量回调，用于流式推送执行输出
+ *
+ * @author Algorithm Cockpit Team
+ */
+@FunctionalInterface
+public interface ExecutionOutputListener {
+
+    /**
+     * 标准输出流名称
+     */
+    String STDOUT = "stdout";
+
+    /**
+     * 标准错误流名称
+     */
+    String STDERR = "stderr";
+
+    /**
+     * 收到一段输出
+     *
+     * @param stream 输出流名称（stdout/stderr）
+     * @param chunk 输出内容片段
+     */
+    void onOutput(String stream, String chunk);
+}
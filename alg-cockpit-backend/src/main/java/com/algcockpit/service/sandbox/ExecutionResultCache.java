@@ -0,0 +1,177 @@
+package com.algcockpit.service.sandbox;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntime;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntimeRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 执行结果缓存
+ * 对请求方标记为确定性（deterministic）的执行，以“语言 + 源码哈希（统一换行符） + 输入哈希 + 资源限制 + 编译参数”为键，
+ * 将执行结果保存在Redis中并设置TTL，相同的执行直接返回缓存结果而不再占用沙箱。
+ * 只缓存由代码本身决定的结果（成功、运行失败、编译错误），超时、取消与系统错误等受负载影响的结果不缓存；
+ * Redis不可用时按未命中处理
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class ExecutionResultCache {
+
+    private static final String KEY_PREFIX = "sandbox:memo:";
+
+    /**
+     * 可缓存的执行状态
+     */
+    private static final Set<String> CACHEABLE_STATUSES = Set.of("SUCCESS", "FAILED", "COMPILE_ERROR");
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private LanguageRuntimeRegistry runtimeRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sandbox.result-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sandbox.result-cache.ttl:600}")
+    private long ttlSeconds;
+
+    @Value("${sandbox.result-cache.max-bytes:262144}")
+    private int maxBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    @PostConstruct
+    public void bindMetrics() {
+        FunctionCounter.builder("sandbox.result.cache", hits, LongAdder::sum)
+                .description("执行结果缓存查询次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("sandbox.result.cache", misses, LongAdder::sum)
+                .description("执行结果缓存查询次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 请求是否参与结果缓存
+     *
+     * @param request 执行请求（超时与内存限制已补全）
+     * @return 是否可缓存
+     */
+    public boolean isCacheable(ExecuteRequest request) {
+        return enabled && Boolean.TRUE.equals(request.getDeterministic())
+                && runtimeRegistry.isSupported(request.getLanguage());
+    }
+
+    /**
+     * 查找缓存的执行结果
+     *
+     * @param request 执行请求
+     * @return 命中时返回标记为缓存的结果副本，否则返回null
+     */
+    public ExecuteResponse get(ExecuteRequest request) {
+        String json;
+        try {
+            json = stringRedisTemplate.opsForValue().get(buildKey(request));
+        } catch (Exception e) {
+            errors.increment();
+            misses.increment();
+            log.warn("读取执行结果缓存失败，按未命中处理: {}", e.getMessage());
+            return null;
+        }
+        if (json == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return JSON.parseObject(json, ExecuteResponse.class).setCached(true);
+    }
+
+    /**
+     * 保存执行结果，不可缓存的结果（超时、取消、系统错误等）直接忽略
+     *
+     * @param request 执行请求
+     * @param response 执行结果
+     */
+    public void put(ExecuteRequest request, ExecuteResponse response) {
+        if (response == null || !CACHEABLE_STATUSES.contains(response.getStatus())) {
+            return;
+        }
+        // 执行ID与本次执行相关，不写入缓存
+        JSONObject cached = (JSONObject) JSON.toJSON(response);
+        cached.remove("executionId");
+        cached.remove("cached");
+        String json = cached.toJSONString();
+        if (json.length() > maxBytes) {
+            log.debug("执行结果过大，不写入结果缓存，大小: {}", json.length());
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(buildKey(request), json, ttlSeconds, TimeUnit.SECONDS);
+            stores.increment();
+        } catch (Exception e) {
+            errors.increment();
+            log.warn("写入执行结果缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取缓存状态
+     *
+     * @return 缓存状态描述
+     */
+    public String getCacheStatus() {
+        if (!enabled) {
+            return "结果缓存: 已禁用";
+        }
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        double hitRate = lookups == 0 ? 0 : hitCount * 100.0 / lookups;
+        return String.format("结果缓存: 命中=%d, 未命中=%d, 命中率=%.1f%%, 写入=%d, 错误=%d, TTL=%ds",
+                hitCount, lookups - hitCount, hitRate, stores.sum(), errors.sum(), ttlSeconds);
+    }
+
+    /**
+     * 计算缓存键：源码只统一换行符后哈希（缩进、行尾空白可能改变程序含义，如Python缩进与多行字符串），
+     * 输入按原样哈希，资源限制与编译参数参与键计算
+     */
+    private String buildKey(ExecuteRequest request) {
+        String language = request.getLanguage().toLowerCase();
+        LanguageRuntime runtime = runtimeRegistry.find(language);
+        String input = request.getInputData() == null ? "" : request.getInputData();
+        String material = language
+                + '\0' + DigestUtil.sha256Hex(normalizeSource(request.getCode()))
+                + '\0' + DigestUtil.sha256Hex(input)
+                + '\0' + request.getTimeout()
+                + '\0' + request.getMemoryLimit()
+                + '\0' + runtime.getCompileFlags();
+        return KEY_PREFIX + DigestUtil.sha256Hex(material);
+    }
+
+    private String normalizeSource(String code) {
+        return code.replace("\r\n", "\n").replace('\r', '\n');
+    }
+}
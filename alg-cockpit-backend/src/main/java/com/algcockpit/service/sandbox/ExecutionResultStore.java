@@ -0,0 +1,52 @@
+package com.algcockpit.service.sandbox;
+
+import com.algcockpit.dto.response.ExecuteResponse;
+
+/**
+ * 异步执行结果存储
+ * 保存异步执行从排队到完成的各阶段状态，条目按TTL过期
+ *
+ * @author Algorithm Cockpit Team
+ */
+public interface ExecutionResultStore {
+
+    /**
+     * 排队中
+     */
+    String PENDING = "PENDING";
+
+    /**
+     * 运行中
+     */
+    String RUNNING = "RUNNING";
+
+    /**
+     * 保存执行状态或结果（覆盖已有条目并重置TTL）
+     *
+     * @param executionId 执行ID
+     * @param response 执行响应
+     */
+    void put(String executionId, ExecuteResponse response);
+
+    /**
+     * 获取执行状态或结果
+     *
+     * @param executionId 执行ID
+     * @return 执行响应，不存在或已过期时返回null
+     */
+    ExecuteResponse get(String executionId);
+
+    /**
+     * 删除执行结果
+     *
+     * @param executionId 执行ID
+     */
+    void remove(String executionId);
+
+    /**
+     * 获取存储状态
+     *
+     * @return 存储状态描述
+     */
+    String getStoreStatus();
+}
@@ -0,0 +1,362 @@
+package com.algcockpit.service.sandbox;
+
+import com.algcockpit.exception.ExecutionRejectedException;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntime;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntimeRegistry;
+import com.algcockpit.service.statistics.ExecutionStageMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 沙箱执行调度器
+ * 有界队列 + 准入控制：队列满时拒绝并给出重试建议；
+ * 按用户轮转出队保证公平，按语言限制并发数，并统计队列深度与等待时间
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class ExecutionScheduler {
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private LanguageRuntimeRegistry runtimeRegistry;
+
+    @Autowired
+    private ExecutionStageMetrics stageMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sandbox.max.concurrent.executions:10}")
+    private int maxConcurrentExecutions;
+
+    @Value("${sandbox.scheduler.queue-capacity:100}")
+    private int queueCapacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition jobAvailable = lock.newCondition();
+
+    /**
+     * 每个用户的待执行队列（按提交顺序）
+     */
+    private final Map<String, ArrayDeque<Job<?>>> userQueues = new HashMap<>();
+
+    /**
+     * 有待执行任务的用户轮转环
+     */
+    private final ArrayDeque<String> userRing = new ArrayDeque<>();
+
+    /**
+     * 各语言当前运行中的任务数
+     */
+    private final Map<String, Integer> runningByLanguage = new HashMap<>();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private int queuedCount;
+    private int runningCount;
+    private volatile boolean shutdown;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final LongAdder serviceNanos = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        int workerCount = Math.max(1, maxConcurrentExecutions);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::workLoop, "sandbox-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("沙箱执行调度器启动，工作线程数: {}, 队列容量: {}", workerCount, queueCapacity);
+        bindMetrics(workerCount);
+    }
+
+    /**
+     * 注册排队数、运行数、容量与提交/拒绝计数指标
+     */
+    private void bindMetrics(int workerCount) {
+        Gauge.builder("sandbox.scheduler.queue.depth", this, ExecutionScheduler::getQueueDepth)
+                .description("沙箱调度器排队任务数")
+                .register(meterRegistry);
+        Gauge.builder("sandbox.scheduler.running", this, ExecutionScheduler::getRunningCount)
+                .description("沙箱调度器运行中任务数")
+                .register(meterRegistry);
+        Gauge.builder("sandbox.scheduler.capacity", () -> workerCount)
+                .description("沙箱调度器工作线程数")
+                .register(meterRegistry);
+        FunctionCounter.builder("sandbox.scheduler.submitted", submitted, LongAdder::sum)
+                .description("提交到沙箱调度器的任务数")
+                .register(meterRegistry);
+        FunctionCounter.builder("sandbox.scheduler.rejected", rejected, LongAdder::sum)
+                .description("沙箱调度器拒绝的任务数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        shutdown = true;
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * 提交执行任务
+     *
+     * @param userKey 用户标识（用于公平调度）
+     * @param language 编程语言（用于语言并发限制）
+     * @param task 执行任务
+     * @return 任务结果
+     * @throws ExecutionRejectedException 队列已满
+     */
+    public <T> CompletableFuture<T> submit(String userKey, String language, Callable<T> task) {
+        Job<T> job = new Job<>(userKey, language.toLowerCase(), task);
+
+        lock.lock();
+        try {
+            if (queuedCount >= queueCapacity) {
+                rejected.increment();
+                long retryAfter = estimateRetryAfterSeconds();
+                log.warn("执行队列已满，拒绝执行请求，用户: {}, 语言: {}, 建议{}秒后重试", userKey, language, retryAfter);
+                throw new ExecutionRejectedException("系统繁忙，执行队列已满，请稍后重试", retryAfter);
+            }
+            userQueues.computeIfAbsent(job.userKey, key -> {
+                userRing.addLast(key);
+                return new ArrayDeque<>();
+            }).addLast(job);
+            queuedCount++;
+            submitted.increment();
+            jobAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        // 排队中被取消的任务立即出队，不再占用队列容量
+        job.future.whenComplete((result, e) -> {
+            if (job.future.isCancelled()) {
+                dequeue(job);
+            }
+        });
+        return job.future;
+    }
+
+    /**
+     * 获取当前排队任务数
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queuedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取当前运行中任务数
+     */
+    public int getRunningCount() {
+        lock.lock();
+        try {
+            return runningCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取调度器状态
+     *
+     * @return 调度器状态描述
+     */
+    public String getSchedulerStatus() {
+        int queued;
+        int running;
+        lock.lock();
+        try {
+            queued = queuedCount;
+            running = runningCount;
+        } finally {
+            lock.unlock();
+        }
+        long started = completed.sum() + running;
+        double avgWaitMs = started == 0 ? 0 : queueWaitNanos.sum() / 1_000_000.0 / started;
+        return String.format("调度器: 运行中=%d/%d, 排队=%d/%d, 已提交=%d, 已拒绝=%d, 平均排队=%.2fms, 最大排队=%.2fms",
+                running, workers.size(), queued, queueCapacity, submitted.sum(), rejected.sum(),
+                avgWaitMs, maxQueueWaitNanos.get() / 1_000_000.0);
+    }
+
+    private void workLoop() {
+        while (!shutdown) {
+            Job<?> job;
+            try {
+                job = takeNext();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            long startNanos = System.nanoTime();
+            long waitNanos = startNanos - job.enqueuedAt;
+            queueWaitNanos.add(waitNanos);
+            maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            stageMetrics.record(ExecutionStageMetrics.QUEUE, job.language, waitNanos);
+            try {
+                job.run();
+            } finally {
+                serviceNanos.add(System.nanoTime() - startNanos);
+                completed.increment();
+                finish(job);
+            }
+        }
+    }
+
+    /**
+     * 按用户轮转取出下一个可执行任务，跳过已取消任务与已达语言并发上限的任务
+     */
+    private Job<?> takeNext() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                int users = userRing.size();
+                for (int i = 0; i < users; i++) {
+                    String userKey = userRing.pollFirst();
+                    ArrayDeque<Job<?>> queue = userQueues.get(userKey);
+
+                    Job<?> head = queue.peekFirst();
+                    while (head != null && head.future.isDone()) {
+                        queue.pollFirst();
+                        queuedCount--;
+                        head = queue.peekFirst();
+                    }
+                    if (head == null) {
+                        userQueues.remove(userKey);
+                        continue;
+                    }
+
+                    if (runningByLanguage.getOrDefault(head.language, 0) < getLanguageLimit(head.language)) {
+                        queue.pollFirst();
+                        queuedCount--;
+                        runningCount++;
+                        runningByLanguage.merge(head.language, 1, Integer::sum);
+                        if (queue.isEmpty()) {
+                            userQueues.remove(userKey);
+                        } else {
+                            userRing.addLast(userKey);
+                        }
+                        return head;
+                    }
+                    userRing.addLast(userKey);
+                }
+                jobAvailable.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将尚未开始执行的任务移出队列
+     */
+    private void dequeue(Job<?> job) {
+        lock.lock();
+        try {
+            ArrayDeque<Job<?>> queue = userQueues.get(job.userKey);
+            if (queue != null && queue.remove(job)) {
+                queuedCount--;
+                if (queue.isEmpty()) {
+                    userQueues.remove(job.userKey);
+                    userRing.remove(job.userKey);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(Job<?> job) {
+        lock.lock();
+        try {
+            runningCount--;
+            runningByLanguage.merge(job.language, -1, Integer::sum);
+            jobAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int getLanguageLimit(String language) {
+        LanguageRuntime runtime = runtimeRegistry.find(language);
+        if (runtime != null && runtime.getMaxConcurrent() != null) {
+            return runtime.getMaxConcurrent();
+        }
+        return environment.getProperty("sandbox.scheduler." + language + ".max-concurrent",
+                Integer.class, maxConcurrentExecutions);
+    }
+
+    /**
+     * 根据平均服务时间与当前排队深度估算建议的重试等待时间
+     */
+    private long estimateRetryAfterSeconds() {
+        long done = completed.sum();
+        long avgServiceNanos = done == 0 ? TimeUnit.SECONDS.toNanos(1) : serviceNanos.sum() / done;
+        long drainNanos = avgServiceNanos * queuedCount / Math.max(1, workers.size());
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(drainNanos));
+    }
+
+    /**
+     * 调度任务
+     */
+    private static class Job<T> {
+
+        private final String userKey;
+        private final String language;
+        private final Callable<T> task;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+
+        Job(String userKey, String language, Callable<T> task) {
+            this.userKey = userKey;
+            this.language = language;
+            this.task = task;
+        }
+
+        void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
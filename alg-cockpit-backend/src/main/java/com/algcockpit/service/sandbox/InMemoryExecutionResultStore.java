@@ -0,0 +1,121 @@
+package com.algcockpit.service.sandbox;
+
+import com.algcockpit.dto.response.ExecuteResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地内存结果存储
+ * 按写入顺序保存，超过容量时淘汰最早写入的条目，过期条目在读取时与定时任务中清除；
+ * 仅本节点可见，多节点部署请使用Redis实现
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sandbox.result-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryExecutionResultStore implements ExecutionResultStore {
+
+    @Value("${sandbox.result-store.ttl:3600}")
+    private long ttlSeconds;
+
+    @Value("${sandbox.result-store.max-entries:10000}")
+    private int maxEntries;
+
+    private final LinkedHashMap<String, StoredResult> results = new LinkedHashMap<>();
+
+    private final LongAdder evictions = new LongAdder();
+
+    @Override
+    public void put(String executionId, ExecuteResponse response) {
+        long expireAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+        synchronized (results) {
+            // 先删除再写入，使更新后的条目移到队尾
+            results.remove(executionId);
+            results.put(executionId, new StoredResult(response, expireAt));
+            Iterator<StoredResult> iterator = results.values().iterator();
+            while (results.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public ExecuteResponse get(String executionId) {
+        synchronized (results) {
+            StoredResult result = results.get(executionId);
+            if (result == null) {
+                return null;
+            }
+            if (result.isExpired(System.nanoTime())) {
+                results.remove(executionId);
+                return null;
+            }
+            return result.response;
+        }
+    }
+
+    @Override
+    public void remove(String executionId) {
+        synchronized (results) {
+            results.remove(executionId);
+        }
+    }
+
+    @Override
+    public String getStoreStatus() {
+        synchronized (results) {
+            return String.format("结果存储(内存): 条目=%d/%d, TTL=%ds, 容量淘汰=%d",
+                    results.size(), maxEntries, ttlSeconds, evictions.sum());
+        }
+    }
+
+    /**
+     * 定期清除过期条目
+     */
+    @Scheduled(fixedDelayString = "${sandbox.result-store.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        int purged = 0;
+        synchronized (results) {
+            Iterator<Map.Entry<String, StoredResult>> iterator = results.entrySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getValue().isExpired(now)) {
+                    iterator.remove();
+                    purged++;
+                }
+            }
+        }
+        if (purged > 0) {
+            log.debug("清除过期执行结果: {}条", purged);
+        }
+    }
+
+    /**
+     * 存储条目
+     */
+    private static class StoredResult {
+        private final ExecuteResponse response;
+        private final long expireAt;
+
+        StoredResult(ExecuteResponse response, long expireAt) {
+            this.response = response;
+            this.expireAt = expireAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expireAt > 0;
+        }
+    }
+}
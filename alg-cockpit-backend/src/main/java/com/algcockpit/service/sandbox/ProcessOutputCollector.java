@@ -0,0 +1,160 @@
+package com.algcockpit.service.sandbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程输出收集器
+ * 用两个线程并发读取标准输出与标准错误，避免管道缓冲区写满导致子进程阻塞；
+ * 每个流按字节数封顶，超出部分继续读取但丢弃，并追加截断标记
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+public class ProcessOutputCollector {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private final StreamDrainer stdout;
+    private final StreamDrainer stderr;
+    private final CountDownLatch finished = new CountDownLatch(2);
+
+    /**
+     * 开始收集进程输出
+     *
+     * @param process 进程
+     * @param maxBytes 每个流保留的最大字节数
+     * @param listener 输出监听器，可为null
+     * @return 收集器
+     */
+    public static ProcessOutputCollector start(Process process, int maxBytes, ExecutionOutputListener listener) {
+        return new ProcessOutputCollector(process, maxBytes, listener);
+    }
+
+    private ProcessOutputCollector(Process process, int maxBytes, ExecutionOutputListener listener) {
+        this.stdout = new StreamDrainer(ExecutionOutputListener.STDOUT, process.getInputStream(), maxBytes, listener);
+        this.stderr = new StreamDrainer(ExecutionOutputListener.STDERR, process.getErrorStream(), maxBytes, listener);
+        startThread(stdout);
+        startThread(stderr);
+    }
+
+    /**
+     * 等待两个流读取完毕
+     *
+     * @param timeoutMs 超时时间（毫秒）
+     * @return 是否已读取完毕
+     */
+    public boolean await(long timeoutMs) throws InterruptedException {
+        return finished.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public String getOutput() {
+        return stdout.getContent();
+    }
+
+    public String getError() {
+        return stderr.getContent();
+    }
+
+    public boolean isTruncated() {
+        return stdout.truncated || stderr.truncated;
+    }
+
+    private void startThread(StreamDrainer drainer) {
+        Thread thread = new Thread(() -> {
+            try {
+                drainer.drain();
+            } finally {
+                finished.countDown();
+            }
+        }, "sandbox-output-" + drainer.stream);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 单个输出流的读取器
+     */
+    private static class StreamDrainer {
+
+        private final String stream;
+        private final InputStream inputStream;
+        private final int maxBytes;
+        private ExecutionOutputListener listener;
+
+        private final StringBuilder buffer = new StringBuilder();
+        private int bytes;
+        private volatile boolean truncated;
+
+        StreamDrainer(String stream, InputStream inputStream, int maxBytes, ExecutionOutputListener listener) {
+            this.stream = stream;
+            this.inputStream = inputStream;
+            this.maxBytes = maxBytes;
+            this.listener = listener;
+        }
+
+        void drain() {
+            char[] chunk = new char[CHUNK_SIZE];
+            try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                int read;
+                while ((read = reader.read(chunk)) != -1) {
+                    if (truncated) {
+                        continue;
+                    }
+                    String text = new String(chunk, 0, read);
+                    int textBytes = text.getBytes(StandardCharsets.UTF_8).length;
+                    if (bytes + textBytes > maxBytes) {
+                        text = truncateToBytes(text, maxBytes - bytes);
+                        truncated = true;
+                    }
+                    bytes += text.getBytes(StandardCharsets.UTF_8).length;
+                    append(text);
+                    if (truncated) {
+                        append("\n...[输出超过" + maxBytes + "字节，已截断]");
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("读取进程{}结束: {}", stream, e.getMessage());
+            }
+        }
+
+        synchronized String getContent() {
+            return buffer.toString().trim();
+        }
+
+        private synchronized void append(String text) {
+            buffer.append(text);
+            if (listener != null && !text.isEmpty()) {
+                try {
+                    listener.onOutput(stream, text);
+                } catch (Exception e) {
+                    // 监听方（如已断开的客户端）出错时停止推送，但继续读取以免阻塞子进程
+                    log.debug("推送执行输出失败，停止推送: {}", e.getMessage());
+                    listener = null;
+                }
+            }
+        }
+
+        private static String truncateToBytes(String text, int limit) {
+            int end = 0;
+            int used = 0;
+            while (end < text.length()) {
+                int codePoint = text.codePointAt(end);
+                int size = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+                if (used + size > limit) {
+                    break;
+                }
+                used += size;
+                end += Character.charCount(codePoint);
+            }
+            return text.substring(0, end);
+        }
+    }
+}
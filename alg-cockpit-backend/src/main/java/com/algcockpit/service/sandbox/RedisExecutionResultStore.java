@@ -0,0 +1,83 @@
+package com.algcockpit.service.sandbox;
+
+import com.alibaba.fastjson.JSON;
+import com.algcockpit.dto.response.ExecuteResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis结果存储
+ * 结果以JSON保存并设置TTL，负载均衡后的任意节点都能查询异步执行结果；
+ * 容量由TTL与Redis自身的内存淘汰策略约束
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sandbox.result-store.type", havingValue = "redis")
+public class RedisExecutionResultStore implements ExecutionResultStore {
+
+    private static final String KEY_PREFIX = "sandbox:result:";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${sandbox.result-store.ttl:3600}")
+    private long ttlSeconds;
+
+    @Value("${sandbox.result-store.max-bytes:1048576}")
+    private int maxBytes;
+
+    @Override
+    public void put(String executionId, ExecuteResponse response) {
+        String json = JSON.toJSONString(response);
+        if (json.length() > maxBytes) {
+            // 超大输出不写入Redis，保留状态与错误信息
+            log.warn("执行结果过大，输出未写入Redis，执行ID: {}, 大小: {}", executionId, json.length());
+            json = JSON.toJSONString(new ExecuteResponse()
+                    .setSuccess(response.getSuccess())
+                    .setStatus(response.getStatus())
+                    .setExitCode(response.getExitCode())
+                    .setExecutionTime(response.getExecutionTime())
+                    .setExecutionId(response.getExecutionId())
+                    .setOutputTruncated(true)
+                    .setError("执行结果超过存储上限，输出已丢弃"));
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(KEY_PREFIX + executionId, json, ttlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("写入执行结果失败，执行ID: {}", executionId, e);
+        }
+    }
+
+    @Override
+    public ExecuteResponse get(String executionId) {
+        try {
+            String json = stringRedisTemplate.opsForValue().get(KEY_PREFIX + executionId);
+            return json == null ? null : JSON.parseObject(json, ExecuteResponse.class);
+        } catch (Exception e) {
+            log.error("读取执行结果失败，执行ID: {}", executionId, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void remove(String executionId) {
+        try {
+            stringRedisTemplate.delete(KEY_PREFIX + executionId);
+        } catch (Exception e) {
+            log.error("删除执行结果失败，执行ID: {}", executionId, e);
+        }
+    }
+
+    @Override
+    public String getStoreStatus() {
+        return String.format("结果存储(Redis): TTL=%ds", ttlSeconds);
+    }
+}
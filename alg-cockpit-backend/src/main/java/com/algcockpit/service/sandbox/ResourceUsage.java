@@ -0,0 +1,92 @@
+package com.algcockpit.service.sandbox;
+
+import lombok.Getter;
+
+/**
+ * 单次运行的资源使用情况
+ * 由沙箱内GNU time的输出（墙钟时间、用户态/内核态CPU时间、峰值RSS）
+ * 与容器cgroup的OOM计数解析得到
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Getter
+public class ResourceUsage {
+
+    /**
+     * 沙箱内GNU time的输出格式：墙钟秒 用户态CPU秒 内核态CPU秒 峰值RSS(KB)
+     */
+    public static final String TIME_FORMAT = "%e %U %S %M";
+
+    /**
+     * 用户代码墙钟时间（毫秒），未采集到时为null
+     */
+    private Long wallMillis;
+
+    /**
+     * 用户态CPU时间（毫秒）
+     */
+    private Long userCpuMillis;
+
+    /**
+     * 内核态CPU时间（毫秒）
+     */
+    private Long systemCpuMillis;
+
+    /**
+     * 峰值常驻内存（KB）
+     */
+    private Long maxRssKb;
+
+    /**
+     * 是否被OOM Killer终止
+     */
+    private boolean oomKilled;
+
+    /**
+     * 解析资源使用数据
+     *
+     * @param timeOutput GNU time写出的内容（非零退出时首行为状态说明，最后一行为统计数据）
+     * @param oomOutput cgroup中包含oom_kill计数的行
+     * @return 资源使用情况
+     */
+    public static ResourceUsage parse(String timeOutput, String oomOutput) {
+        ResourceUsage usage = new ResourceUsage();
+
+        if (timeOutput != null && !timeOutput.isBlank()) {
+            String[] lines = timeOutput.trim().split("\n");
+            String[] fields = lines[lines.length - 1].trim().split("\\s+");
+            if (fields.length == 4) {
+                try {
+                    usage.wallMillis = secondsToMillis(fields[0]);
+                    usage.userCpuMillis = secondsToMillis(fields[1]);
+                    usage.systemCpuMillis = secondsToMillis(fields[2]);
+                    usage.maxRssKb = Long.parseLong(fields[3]);
+                } catch (NumberFormatException e) {
+                    usage.wallMillis = null;
+                    usage.userCpuMillis = null;
+                    usage.systemCpuMillis = null;
+                    usage.maxRssKb = null;
+                }
+            }
+        }
+
+        if (oomOutput != null) {
+            for (String line : oomOutput.split("\n")) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length == 2 && fields[0].endsWith("oom_kill")) {
+                    try {
+                        usage.oomKilled |= Long.parseLong(fields[1]) > 0;
+                    } catch (NumberFormatException ignored) {
+                        // 非预期格式，忽略
+                    }
+                }
+            }
+        }
+
+        return usage;
+    }
+
+    private static long secondsToMillis(String seconds) {
+        return Math.round(Double.parseDouble(seconds) * 1000);
+    }
+}
@@ -0,0 +1,177 @@
+package com.algcockpit.service.sandbox;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 运行中执行登记表
+ * 按执行ID跟踪调度任务、当前沙箱进程与容器，用于真正取消正在排队或运行的执行
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class RunningExecutionRegistry {
+
+    @Autowired
+    private DockerCli dockerCli;
+
+    private final ConcurrentMap<String, RunningExecution> executions = new ConcurrentHashMap<>();
+
+    /**
+     * 登记执行
+     *
+     * @param executionId 执行ID
+     * @return 执行句柄，执行过程中据此关联进程并检查取消状态
+     */
+    public RunningExecution register(String executionId) {
+        RunningExecution execution = new RunningExecution(executionId);
+        executions.put(executionId, execution);
+        return execution;
+    }
+
+    /**
+     * 关联调度任务，任务结束（含排队中被取消）时自动注销
+     *
+     * @param execution 执行句柄
+     * @param future 调度任务
+     */
+    public void attachFuture(RunningExecution execution, CompletableFuture<?> future) {
+        execution.future = future;
+        if (execution.cancelled) {
+            future.cancel(false);
+        }
+        future.whenComplete((result, e) -> executions.remove(execution.executionId, execution));
+    }
+
+    /**
+     * 关联当前正在运行的沙箱进程及其容器，执行已被取消时立即终止
+     *
+     * @param execution 执行句柄
+     * @param process docker exec进程
+     * @param container 容器
+     */
+    public void attachProcess(RunningExecution execution, Process process, SandboxContainer container) {
+        synchronized (execution) {
+            execution.process = process;
+            execution.container = container;
+            if (execution.cancelled) {
+                kill(execution);
+            }
+        }
+    }
+
+    /**
+     * 关联取消处理器（用于不经过外部进程的执行，如进程内执行的线程），执行已被取消时立即调用
+     *
+     * @param execution 执行句柄
+     * @param cancelHandler 取消处理器
+     */
+    public void attachCancelHandler(RunningExecution execution, Runnable cancelHandler) {
+        synchronized (execution) {
+            execution.cancelHandler = cancelHandler;
+            if (execution.cancelled) {
+                kill(execution);
+            }
+        }
+    }
+
+    /**
+     * 解除进程及取消处理器的关联
+     *
+     * @param execution 执行句柄
+     */
+    public void detachProcess(RunningExecution execution) {
+        synchronized (execution) {
+            execution.process = null;
+            execution.container = null;
+            execution.cancelHandler = null;
+        }
+    }
+
+    /**
+     * 取消执行：排队中的任务直接出队；运行中的任务终止docker exec进程并杀掉容器，
+     * 执行线程随即返回，调度槽位立即释放
+     *
+     * @param executionId 执行ID
+     * @return 是否找到并取消了执行
+     */
+    public boolean cancel(String executionId) {
+        RunningExecution execution = executions.remove(executionId);
+        if (execution == null) {
+            return false;
+        }
+        synchronized (execution) {
+            execution.cancelled = true;
+            if (execution.future != null) {
+                execution.future.cancel(false);
+            }
+            kill(execution);
+        }
+        log.info("已取消执行，执行ID: {}", executionId);
+        return true;
+    }
+
+    /**
+     * 注销执行（用于提交失败等未进入调度的情况）
+     *
+     * @param executionId 执行ID
+     */
+    public void unregister(String executionId) {
+        executions.remove(executionId);
+    }
+
+    /**
+     * 获取排队或运行中的执行数
+     */
+    public int getActiveCount() {
+        return executions.size();
+    }
+
+    private void kill(RunningExecution execution) {
+        if (execution.cancelHandler != null) {
+            execution.cancelHandler.run();
+        }
+        if (execution.process != null) {
+            execution.process.destroyForcibly();
+        }
+        if (execution.container != null) {
+            // 终止docker exec客户端并不会终止容器内的进程，需直接杀掉容器
+            try {
+                dockerCli.docker("kill", execution.container.getContainerId());
+            } catch (IOException e) {
+                log.warn("终止沙箱容器失败，容器ID: {}", execution.container.getContainerId(), e);
+            }
+        }
+    }
+
+    /**
+     * 运行中的执行
+     */
+    public static class RunningExecution {
+
+        @Getter
+        private final String executionId;
+
+        private volatile boolean cancelled;
+        private volatile CompletableFuture<?> future;
+        private Process process;
+        private SandboxContainer container;
+        private Runnable cancelHandler;
+
+        RunningExecution(String executionId) {
+            this.executionId = executionId;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
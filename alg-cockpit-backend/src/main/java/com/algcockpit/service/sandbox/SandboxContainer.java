@@ -0,0 +1,64 @@
+package com.algcockpit.service.sandbox;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 沙箱容器
+ * 描述容器池中一个预启动的沙箱容器
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Getter
+public class SandboxContainer {
+
+    /**
+     * 容器ID
+     */
+    private final String containerId;
+
+    /**
+     * 所属编程语言
+     */
+    private final String language;
+
+    /**
+     * 镜像名称
+     */
+    private final String image;
+
+    /**
+     * 创建时间（毫秒时间戳）
+     */
+    private final long createdAt;
+
+    /**
+     * 当前内存限制（MB）
+     */
+    @Setter
+    private int memoryLimit;
+
+    /**
+     * 累计租用次数
+     */
+    private int leaseCount;
+
+    /**
+     * 最后一次归还时间（毫秒时间戳）
+     */
+    @Setter
+    private long lastReleasedAt;
+
+    public SandboxContainer(String containerId, String language, String image, int memoryLimit) {
+        this.containerId = containerId;
+        this.language = language;
+        this.image = image;
+        this.memoryLimit = memoryLimit;
+        this.createdAt = System.currentTimeMillis();
+        this.lastReleasedAt = this.createdAt;
+    }
+
+    void markLeased() {
+        leaseCount++;
+    }
+}
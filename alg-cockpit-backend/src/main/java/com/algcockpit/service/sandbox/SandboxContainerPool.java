@@ -0,0 +1,562 @@
+package com.algcockpit.service.sandbox;
+
+import com.algcockpit.service.sandbox.runtime.LanguageRuntime;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntimeRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 沙箱容器池
+ * 按编程语言（镜像）维护预启动的沙箱容器，执行时租用、交付工作区、重置后归还，
+ * 避免每次执行都承担docker run的冷启动开销
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class SandboxContainerPool {
+
+    /**
+     * 容器内工作区目录
+     */
+    public static final String CONTAINER_WORKSPACE = "/workspace";
+
+    private static final String POOL_LABEL = "alg-cockpit.sandbox-pool";
+
+    private static final String RESET_COMMAND =
+            "kill -9 -1 2>/dev/null; rm -rf /workspace/* /workspace/.[!.]* /tmp/* /tmp/.[!.]* "
+                    + "/dev/shm/* /dev/shm/.[!.]* 2>/dev/null; true";
+
+    @Autowired
+    private DockerCli dockerCli;
+
+    @Autowired
+    private LanguageRuntimeRegistry runtimeRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sandbox.docker.image.prefix:alg-cockpit}")
+    private String dockerImagePrefix;
+
+    @Value("${sandbox.pool.enabled:true}")
+    private boolean poolEnabled;
+
+    @Value("${sandbox.pool.min-size:1}")
+    private int defaultMinSize;
+
+    @Value("${sandbox.pool.max-size:4}")
+    private int defaultMaxSize;
+
+    @Value("${sandbox.pool.lease-timeout:5000}")
+    private long leaseTimeout;
+
+    @Value("${sandbox.pool.max-reuse:200}")
+    private int maxReuse;
+
+    @Value("${sandbox.pool.max-idle-time:600000}")
+    private long maxIdleTime;
+
+    @Value("${sandbox.pool.memory:256}")
+    private int defaultMemory;
+
+    private final ConcurrentMap<String, LanguagePool> pools = new ConcurrentHashMap<>();
+
+    private final ExecutorService evictor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "sandbox-pool-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean orphansRemoved;
+
+    /**
+     * 获取编程语言对应的沙箱镜像名称
+     *
+     * @param language 编程语言
+     * @return 镜像名称
+     */
+    public String getImageName(String language) {
+        LanguageRuntime runtime = runtimeRegistry.find(language);
+        if (runtime != null && runtime.getImage() != null && !runtime.getImage().isBlank()) {
+            return runtime.getImage();
+        }
+        return dockerImagePrefix + "-" + language.toLowerCase();
+    }
+
+    /**
+     * 租用一个沙箱容器
+     * 优先复用空闲容器；池未满时新建；池已满时等待其他执行归还，直到租用超时
+     *
+     * @param language 编程语言
+     * @return 沙箱容器
+     */
+    public SandboxContainer lease(String language) throws IOException, InterruptedException, TimeoutException {
+        return getPool(language).lease();
+    }
+
+    /**
+     * 将执行工作区交付给容器，并按需调整容器内存限制
+     *
+     * @param container 沙箱容器
+     * @param workspace 宿主机上的执行目录
+     * @param memoryLimit 内存限制（MB）
+     */
+    public void prepareWorkspace(SandboxContainer container, Path workspace, int memoryLimit) throws IOException {
+        applyMemoryLimit(container, memoryLimit);
+        dockerCli.copyIn(container.getContainerId(), workspace, CONTAINER_WORKSPACE);
+    }
+
+    /**
+     * 按需调整容器内存限制
+     *
+     * @param container 沙箱容器
+     * @param memoryLimit 内存限制（MB）
+     */
+    public void applyMemoryLimit(SandboxContainer container, int memoryLimit) throws IOException {
+        if (container.getMemoryLimit() != memoryLimit) {
+            DockerCli.CommandResult result = dockerCli.docker("update",
+                    "--memory=" + memoryLimit + "m", "--memory-swap=" + memoryLimit + "m",
+                    container.getContainerId());
+            if (!result.isSuccess()) {
+                throw new IOException("调整沙箱容器内存限制失败: " + result.getOutput());
+            }
+            container.setMemoryLimit(memoryLimit);
+        }
+    }
+
+    /**
+     * 归还沙箱容器
+     * 正常归还的容器会被重置后放回空闲队列；被污染（超时、重置失败、复用次数过多）的容器会被驱逐
+     *
+     * @param container 沙箱容器
+     * @param tainted 是否已被污染
+     */
+    public void release(SandboxContainer container, boolean tainted) {
+        LanguagePool pool = getPool(container.getLanguage());
+
+        if (!tainted && poolEnabled && container.getLeaseCount() < maxReuse) {
+            try {
+                DockerCli.CommandResult result = dockerCli.docker("exec", container.getContainerId(),
+                        "sh", "-c", RESET_COMMAND);
+                if (result.isSuccess()) {
+                    pool.returnIdle(container);
+                    return;
+                }
+                log.warn("重置沙箱容器失败，容器ID: {}, 输出: {}", container.getContainerId(), result.getOutput());
+            } catch (IOException e) {
+                log.warn("重置沙箱容器异常，容器ID: {}", container.getContainerId(), e);
+            }
+        }
+
+        pool.evict(container);
+    }
+
+    /**
+     * 容器池维护任务：清理上次运行遗留的容器、健康检查、驱逐长期空闲容器、补足最小容量
+     */
+    @Scheduled(initialDelayString = "${sandbox.pool.health-check-initial-delay:0}",
+            fixedDelayString = "${sandbox.pool.health-check-interval:30000}")
+    public void maintain() {
+        if (!orphansRemoved) {
+            removeOrphanContainers();
+        }
+        if (poolEnabled) {
+            for (String language : runtimeRegistry.getLanguages()) {
+                if (runtimeRegistry.find(language).getPool().isEnabled()) {
+                    getPool(language);
+                }
+            }
+        }
+        for (LanguagePool pool : pools.values()) {
+            try {
+                pool.checkHealth();
+                pool.fillToMinSize();
+            } catch (Exception e) {
+                log.warn("沙箱容器池维护失败，语言: {}, 原因: {}", pool.language, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 获取容器池状态
+     *
+     * @return 容器池状态描述
+     */
+    public String getPoolStatus() {
+        if (pools.isEmpty()) {
+            return "容器池: 未初始化";
+        }
+        StringBuilder status = new StringBuilder("容器池:");
+        pools.values().forEach(pool -> status.append(' ').append(pool.describe()));
+        return status.toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdown();
+        for (LanguagePool pool : pools.values()) {
+            for (SandboxContainer container : pool.drainIdle()) {
+                removeContainer(container.getContainerId());
+            }
+        }
+    }
+
+    private LanguagePool getPool(String language) {
+        String key = language.toLowerCase();
+        return pools.computeIfAbsent(key, LanguagePool::new);
+    }
+
+    private int getMinSize(String language) {
+        LanguageRuntime runtime = runtimeRegistry.find(language);
+        if (runtime == null || !runtime.getPool().isEnabled()) {
+            return 0;
+        }
+        return runtime.getPool().getMinSize() != null ? runtime.getPool().getMinSize() : defaultMinSize;
+    }
+
+    private int getMaxSize(String language) {
+        LanguageRuntime runtime = runtimeRegistry.find(language);
+        if (runtime == null || runtime.getPool().getMaxSize() == null) {
+            return defaultMaxSize;
+        }
+        return runtime.getPool().getMaxSize();
+    }
+
+    private SandboxContainer startContainer(String language, String image, int memoryLimit) throws IOException {
+        String name = "alg-sandbox-" + language + "-" + UUID.randomUUID().toString().substring(0, 8);
+        DockerCli.CommandResult result = dockerCli.docker("run", "-d",
+                "--name", name,
+                "--label", POOL_LABEL + "=" + dockerImagePrefix,
+                "--memory=" + memoryLimit + "m",
+                "--memory-swap=" + memoryLimit + "m",
+                "--cpus=1",
+                "--pids-limit=128",
+                "--network=none",
+                "--read-only",
+                "--tmpfs=/tmp:rw,noexec,nosuid,size=64m",
+                "--tmpfs=" + CONTAINER_WORKSPACE + ":rw,exec,nosuid,size=64m",
+                "--shm-size=16m",
+                "-w", CONTAINER_WORKSPACE,
+                image, "sleep", "infinity");
+        if (!result.isSuccess()) {
+            throw new IOException("启动沙箱容器失败: " + result.getOutput());
+        }
+        String[] lines = result.getOutput().split("\n");
+        String containerId = lines[lines.length - 1].trim();
+        log.info("启动沙箱容器成功，语言: {}, 容器ID: {}", language, containerId);
+        return new SandboxContainer(containerId, language, image, memoryLimit);
+    }
+
+    private void removeContainer(String containerId) {
+        try {
+            dockerCli.docker("rm", "-f", containerId);
+        } catch (IOException e) {
+            log.warn("删除沙箱容器失败，容器ID: {}", containerId, e);
+        }
+    }
+
+    private void removeOrphanContainers() {
+        try {
+            DockerCli.CommandResult result = dockerCli.docker("ps", "-aq",
+                    "--filter", "label=" + POOL_LABEL + "=" + dockerImagePrefix);
+            if (result.isSuccess() && !result.getOutput().isEmpty()) {
+                for (String containerId : result.getOutput().split("\\s+")) {
+                    removeContainer(containerId);
+                }
+                log.info("清理遗留沙箱容器完成");
+            }
+            orphansRemoved = true;
+        } catch (IOException e) {
+            log.warn("清理遗留沙箱容器失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 单一语言的容器池
+     */
+    private class LanguagePool {
+
+        private final String language;
+        private final String image;
+        private final int minSize;
+        private final int maxSize;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final ArrayDeque<SandboxContainer> idle = new ArrayDeque<>();
+
+        /**
+         * 池内容器总数（空闲 + 租用中 + 启动中）
+         */
+        private int total;
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder leaseWaitNanos = new LongAdder();
+        private final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+
+        LanguagePool(String language) {
+            this.language = language;
+            this.image = getImageName(language);
+            this.minSize = poolEnabled ? getMinSize(language) : 0;
+            this.maxSize = Math.max(1, getMaxSize(language));
+            bindMetrics();
+        }
+
+        /**
+         * 注册容器数、利用率（租用中 / 上限）与租用命中指标
+         */
+        private void bindMetrics() {
+            Gauge.builder("sandbox.pool.containers", this, pool -> pool.countIdle())
+                    .description("沙箱容器池容器数")
+                    .tag("language", language).tag("state", "idle")
+                    .register(meterRegistry);
+            Gauge.builder("sandbox.pool.containers", this, pool -> pool.currentTotal())
+                    .description("沙箱容器池容器数")
+                    .tag("language", language).tag("state", "total")
+                    .register(meterRegistry);
+            Gauge.builder("sandbox.pool.utilization", this,
+                            pool -> (double) (pool.currentTotal() - pool.countIdle()) / pool.maxSize)
+                    .description("沙箱容器池利用率（租用中 / 上限）")
+                    .tag("language", language)
+                    .register(meterRegistry);
+            FunctionCounter.builder("sandbox.pool.leases", hits, LongAdder::sum)
+                    .description("沙箱容器租用次数")
+                    .tag("language", language).tag("result", "hit")
+                    .register(meterRegistry);
+            FunctionCounter.builder("sandbox.pool.leases", misses, LongAdder::sum)
+                    .description("沙箱容器租用次数")
+                    .tag("language", language).tag("result", "miss")
+                    .register(meterRegistry);
+            FunctionCounter.builder("sandbox.pool.evictions", evictions, LongAdder::sum)
+                    .description("沙箱容器驱逐次数")
+                    .tag("language", language)
+                    .register(meterRegistry);
+        }
+
+        SandboxContainer lease() throws IOException, InterruptedException, TimeoutException {
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(leaseTimeout);
+            SandboxContainer container = null;
+
+            lock.lock();
+            try {
+                while (true) {
+                    container = idle.pollLast();
+                    if (container != null) {
+                        break;
+                    }
+                    if (total < maxSize) {
+                        total++;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        recordLeaseWait(System.nanoTime() - start);
+                        throw new TimeoutException("沙箱容器池已满，等待租用超时，语言: " + language);
+                    }
+                    available.awaitNanos(remaining);
+                }
+            } finally {
+                lock.unlock();
+            }
+            recordLeaseWait(System.nanoTime() - start);
+
+            if (container != null) {
+                hits.increment();
+                container.markLeased();
+                return container;
+            }
+
+            misses.increment();
+            try {
+                container = startContainer(language, image, defaultMemory);
+            } catch (IOException e) {
+                decrementTotal();
+                throw e;
+            }
+            container.markLeased();
+            return container;
+        }
+
+        void returnIdle(SandboxContainer container) {
+            container.setLastReleasedAt(System.currentTimeMillis());
+            lock.lock();
+            try {
+                idle.addLast(container);
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void evict(SandboxContainer container) {
+            evictions.increment();
+            decrementTotal();
+            evictor.execute(() -> removeContainer(container.getContainerId()));
+        }
+
+        void checkHealth() {
+            List<SandboxContainer> snapshot;
+            lock.lock();
+            try {
+                snapshot = new ArrayList<>(idle);
+            } finally {
+                lock.unlock();
+            }
+
+            long now = System.currentTimeMillis();
+            for (SandboxContainer container : snapshot) {
+                if (!takeIdle(container)) {
+                    continue;
+                }
+                boolean expired = now - container.getLastReleasedAt() > maxIdleTime && currentTotal() > minSize;
+                if (expired || !isRunning(container)) {
+                    log.info("驱逐沙箱容器，语言: {}, 容器ID: {}, 原因: {}",
+                            language, container.getContainerId(), expired ? "空闲超时" : "健康检查失败");
+                    evict(container);
+                } else {
+                    lock.lock();
+                    try {
+                        idle.addFirst(container);
+                        available.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        }
+
+        void fillToMinSize() throws IOException {
+            while (true) {
+                lock.lock();
+                try {
+                    if (total >= minSize) {
+                        return;
+                    }
+                    total++;
+                } finally {
+                    lock.unlock();
+                }
+                SandboxContainer container;
+                try {
+                    container = startContainer(language, image, defaultMemory);
+                } catch (IOException e) {
+                    decrementTotal();
+                    throw e;
+                }
+                returnIdle(container);
+            }
+        }
+
+        List<SandboxContainer> drainIdle() {
+            lock.lock();
+            try {
+                List<SandboxContainer> drained = new ArrayList<>(idle);
+                total -= idle.size();
+                idle.clear();
+                return drained;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        String describe() {
+            int idleCount;
+            int totalCount;
+            lock.lock();
+            try {
+                idleCount = idle.size();
+                totalCount = total;
+            } finally {
+                lock.unlock();
+            }
+            long hitCount = hits.sum();
+            long missCount = misses.sum();
+            long leases = hitCount + missCount;
+            double hitRatio = leases == 0 ? 0 : hitCount * 100.0 / leases;
+            double avgWaitMs = leases == 0 ? 0 : leaseWaitNanos.sum() / 1_000_000.0 / leases;
+            return String.format("%s[空闲=%d, 总数=%d, 命中=%d, 未命中=%d, 命中率=%.1f%%, 驱逐=%d, 平均等待=%.2fms, 最大等待=%.2fms]",
+                    language, idleCount, totalCount, hitCount, missCount, hitRatio, evictions.sum(),
+                    avgWaitMs, maxLeaseWaitNanos.get() / 1_000_000.0);
+        }
+
+        private boolean takeIdle(SandboxContainer container) {
+            lock.lock();
+            try {
+                return idle.remove(container);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int countIdle() {
+            lock.lock();
+            try {
+                return idle.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int currentTotal() {
+            lock.lock();
+            try {
+                return total;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void decrementTotal() {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isRunning(SandboxContainer container) {
+            try {
+                DockerCli.CommandResult result = dockerCli.docker("inspect", "-f", "{{.State.Running}}",
+                        container.getContainerId());
+                return result.isSuccess() && "true".equals(result.getOutput());
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private void recordLeaseWait(long waitNanos) {
+            leaseWaitNanos.add(waitNanos);
+            maxLeaseWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+}
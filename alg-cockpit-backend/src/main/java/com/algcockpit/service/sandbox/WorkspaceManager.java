@@ -0,0 +1,222 @@
+package com.algcockpit.service.sandbox;
+
+import cn.hutool.core.io.FileUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 执行工作区管理器
+ * 工作区优先分配在tmpfs（/dev/shm）上，避免源码、输入与编译产物落盘；
+ * 执行结束即清空并回收目录供后续执行复用，后台清理任务删除异常遗留的目录
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class WorkspaceManager {
+
+    private static final String WORKSPACE_PREFIX = "ws-";
+
+    @Value("${sandbox.workspace:/tmp/alg-cockpit}")
+    private String workspacePath;
+
+    @Value("${sandbox.workspaces.prefer-tmpfs:true}")
+    private boolean preferTmpfs;
+
+    @Value("${sandbox.workspaces.tmpfs-root:/dev/shm/alg-cockpit}")
+    private String tmpfsRoot;
+
+    @Value("${sandbox.workspaces.max-idle:32}")
+    private int maxIdle;
+
+    @Value("${sandbox.workspaces.orphan-ttl:3600000}")
+    private long orphanTtl;
+
+    private Path root;
+    private boolean tmpfs;
+
+    /**
+     * 已清空、可复用的工作区
+     */
+    private final ArrayDeque<Path> idle = new ArrayDeque<>();
+
+    /**
+     * 使用中的工作区及其分配时间
+     */
+    private final Map<Path, Long> active = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder recycled = new LongAdder();
+    private final LongAdder orphansRemoved = new LongAdder();
+    private volatile long lastMeasuredBytes;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path tmpfsPath = Paths.get(tmpfsRoot);
+        if (preferTmpfs && Files.isDirectory(tmpfsPath.getParent()) && Files.isWritable(tmpfsPath.getParent())) {
+            root = tmpfsPath;
+            tmpfs = true;
+        } else {
+            root = Paths.get(workspacePath, "executions");
+        }
+        Files.createDirectories(root);
+
+        // 上次运行遗留的工作区都已无人使用，直接删除
+        File[] leftovers = root.toFile().listFiles();
+        if (leftovers != null) {
+            for (File leftover : leftovers) {
+                FileUtil.del(leftover);
+            }
+        }
+        log.info("执行工作区根目录: {}（{}）", root, tmpfs ? "tmpfs" : "磁盘");
+    }
+
+    /**
+     * 分配空的工作区
+     *
+     * @return 工作区，使用完毕后须关闭以回收
+     */
+    public Workspace allocate() throws IOException {
+        Path path;
+        synchronized (idle) {
+            path = idle.pollFirst();
+        }
+        if (path == null || !Files.isDirectory(path)) {
+            path = Files.createDirectories(root.resolve(WORKSPACE_PREFIX + sequence.incrementAndGet()));
+        } else {
+            recycled.increment();
+        }
+        active.put(path, System.currentTimeMillis());
+        allocated.increment();
+        return new Workspace(path);
+    }
+
+    /**
+     * 获取工作区状态
+     *
+     * @return 工作区状态描述
+     */
+    public String getWorkspaceStatus() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        return String.format("工作区(%s): 使用中=%d, 空闲=%d/%d, 占用=%dKB, 已分配=%d, 复用=%d, 清理遗留=%d",
+                tmpfs ? "tmpfs" : "磁盘", active.size(), idleCount, maxIdle, lastMeasuredBytes / 1024,
+                allocated.sum(), recycled.sum(), orphansRemoved.sum());
+    }
+
+    /**
+     * 获取使用中的工作区数
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     * 获取最近一次统计的工作区总字节数
+     */
+    public long getTotalBytes() {
+        return lastMeasuredBytes;
+    }
+
+    /**
+     * 清理遗留工作区：既不在使用中也不在空闲队列里的目录，以及使用时间超过上限的目录；
+     * 同时统计工作区总占用
+     */
+    @Scheduled(fixedDelayString = "${sandbox.workspaces.sweep-interval:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        active.forEach((path, allocatedAt) -> {
+            if (now - allocatedAt > orphanTtl) {
+                log.warn("工作区使用时间超过{}ms，视为遗留并删除: {}", orphanTtl, path);
+                active.remove(path);
+                FileUtil.del(path);
+                orphansRemoved.increment();
+            }
+        });
+
+        File[] dirs = root.toFile().listFiles();
+        if (dirs == null) {
+            return;
+        }
+        long totalBytes = 0;
+        for (File dir : dirs) {
+            Path path = dir.toPath();
+            boolean known;
+            synchronized (idle) {
+                known = active.containsKey(path) || idle.contains(path);
+            }
+            // 刚创建尚未登记的目录按修改时间放过
+            if (!known && now - dir.lastModified() > orphanTtl) {
+                log.warn("删除遗留工作区: {}", path);
+                FileUtil.del(dir);
+                orphansRemoved.increment();
+                continue;
+            }
+            totalBytes += FileUtil.size(dir);
+        }
+        lastMeasuredBytes = totalBytes;
+    }
+
+    private void release(Path path) {
+        active.remove(path);
+        try {
+            FileUtil.clean(path.toFile());
+        } catch (Exception e) {
+            log.warn("清空工作区失败，直接删除: {}", path, e);
+            FileUtil.del(path);
+            return;
+        }
+        synchronized (idle) {
+            if (idle.size() < maxIdle) {
+                idle.addLast(path);
+                return;
+            }
+        }
+        FileUtil.del(path);
+    }
+
+    /**
+     * 执行工作区
+     */
+    public class Workspace implements AutoCloseable {
+
+        private final Path path;
+        private boolean closed;
+
+        private Workspace(Path path) {
+            this.path = path;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * 清空并回收工作区
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(path);
+            }
+        }
+    }
+}
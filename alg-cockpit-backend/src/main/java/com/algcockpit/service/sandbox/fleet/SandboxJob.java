@@ -0,0 +1,100 @@
+package com.algcockpit.service.sandbox.fleet;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 沙箱执行任务
+ * 由分发节点写入Redis Stream，沙箱执行节点按消费组拉取执行
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Data
+@Accessors(chain = true)
+public class SandboxJob {
+
+    /**
+     * 单次执行，结果回复给分发节点
+     */
+    public static final String TYPE_EXECUTE = "EXECUTE";
+
+    /**
+     * 流式执行，输出片段与结果依次回复给分发节点
+     */
+    public static final String TYPE_STREAM = "STREAM";
+
+    /**
+     * 批量执行，结果回复给分发节点
+     */
+    public static final String TYPE_BATCH = "BATCH";
+
+    /**
+     * 异步执行，状态与结果直接写入共享的结果存储
+     */
+    public static final String TYPE_ASYNC = "ASYNC";
+
+    /**
+     * Stream消息中保存任务JSON的字段名
+     */
+    public static final String FIELD_JOB = "job";
+
+    /**
+     * 在线执行节点ID集合
+     */
+    public static final String WORKERS_KEY = "sandbox:fleet:workers";
+
+    /**
+     * 执行节点心跳（Hash，按心跳TTL过期）键前缀
+     */
+    public static final String WORKER_KEY_PREFIX = "sandbox:fleet:worker:";
+
+    /**
+     * 分发节点回复频道前缀
+     */
+    public static final String REPLY_CHANNEL_PREFIX = "sandbox:fleet:reply:";
+
+    /**
+     * 取消执行的广播频道
+     */
+    public static final String CANCEL_CHANNEL = "sandbox:fleet:cancel";
+
+    /**
+     * 已取消执行标记键前缀（任务尚未被拉取时，执行节点据此跳过）
+     */
+    public static final String CANCELLED_KEY_PREFIX = "sandbox:fleet:cancelled:";
+
+    /**
+     * 执行ID
+     */
+    private String executionId;
+
+    /**
+     * 任务类型
+     */
+    private String type;
+
+    /**
+     * 提交用户标识（执行节点据此按用户公平排队）
+     */
+    private String userKey;
+
+    /**
+     * 回复频道，异步执行为空
+     */
+    private String replyTo;
+
+    /**
+     * 截止时间（毫秒时间戳），超过后分发节点已放弃等待，执行节点直接丢弃
+     */
+    private Long deadline;
+
+    /**
+     * 投递次数（执行节点失联后重新投递时递增）
+     */
+    private Integer attempts;
+
+    /**
+     * 执行请求JSON（ExecuteRequest或BatchExecuteRequest）
+     */
+    private String payload;
+}
@@ -0,0 +1,55 @@
+package com.algcockpit.service.sandbox.fleet;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 沙箱执行任务回复
+ * 由执行节点发布到任务的回复频道：流式执行先发布若干输出片段，最后发布执行结果
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Data
+@Accessors(chain = true)
+public class SandboxJobReply {
+
+    /**
+     * 输出片段
+     */
+    public static final String TYPE_OUTPUT = "OUTPUT";
+
+    /**
+     * 执行结果
+     */
+    public static final String TYPE_RESULT = "RESULT";
+
+    /**
+     * 执行ID
+     */
+    private String executionId;
+
+    /**
+     * 回复类型
+     */
+    private String type;
+
+    /**
+     * 输出流名称（stdout/stderr），仅输出片段
+     */
+    private String stream;
+
+    /**
+     * 输出内容片段，仅输出片段
+     */
+    private String chunk;
+
+    /**
+     * 执行结果JSON（ExecuteResponse或BatchExecuteResponse），仅执行结果
+     */
+    private String payload;
+
+    /**
+     * 执行节点ID
+     */
+    private String workerId;
+}
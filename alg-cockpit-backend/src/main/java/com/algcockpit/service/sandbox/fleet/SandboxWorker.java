@@ -0,0 +1,467 @@
+package com.algcockpit.service.sandbox.fleet;
+
+import com.alibaba.fastjson.JSON;
+import com.algcockpit.dto.request.BatchExecuteRequest;
+import com.algcockpit.dto.request.ExecuteRequest;
+import com.algcockpit.dto.response.BatchExecuteResponse;
+import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.service.SandboxExecutor;
+import com.algcockpit.service.sandbox.ExecutionResultStore;
+import com.algcockpit.service.sandbox.RunningExecutionRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 沙箱执行节点
+ * 以消费组方式从Redis Stream拉取执行任务，只在有空闲容量时拉取，交给本节点的沙箱执行器执行后回复结果并确认；
+ * 定期上报心跳与容量，并接管心跳已过期节点未确认的任务（未超过投递次数时重新投递，否则回复失败）。
+ * 通过 sandbox.fleet.worker-enabled=true 启用
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sandbox.fleet.worker-enabled", havingValue = "true")
+public class SandboxWorker {
+
+    @Autowired
+    private SandboxExecutor sandboxExecutor;
+
+    @Autowired
+    private RunningExecutionRegistry runningExecutions;
+
+    @Autowired
+    private ExecutionResultStore resultStore;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Value("${sandbox.fleet.stream:sandbox:fleet:jobs}")
+    private String streamKey;
+
+    @Value("${sandbox.fleet.group:sandbox-workers}")
+    private String group;
+
+    @Value("${sandbox.fleet.worker-capacity:${sandbox.max.concurrent.executions:10}}")
+    private int capacity;
+
+    @Value("${sandbox.fleet.heartbeat-ttl:15000}")
+    private long heartbeatTtl;
+
+    @Value("${sandbox.fleet.max-attempts:2}")
+    private int maxAttempts;
+
+    private final String workerId = resolveHostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final long startedAt = System.currentTimeMillis();
+
+    private Semaphore permits;
+    private ExecutorService jobExecutor;
+    private Thread reader;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        capacity = Math.max(1, capacity);
+        permits = new Semaphore(capacity);
+        AtomicInteger threadIndex = new AtomicInteger();
+        jobExecutor = Executors.newFixedThreadPool(capacity, r -> {
+            Thread thread = new Thread(r, "sandbox-fleet-job-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            stringRedisTemplate.opsForStream().createGroup(streamKey, ReadOffset.from("0"), group);
+        } catch (Exception e) {
+            // 消费组已存在
+            log.debug("创建消费组跳过: {}", e.getMessage());
+        }
+        listenerContainer.addMessageListener(this::onCancel, new ChannelTopic(SandboxJob.CANCEL_CHANNEL));
+        heartbeat();
+
+        running = true;
+        reader = new Thread(this::readLoop, "sandbox-fleet-reader");
+        reader.setDaemon(true);
+        reader.start();
+        log.info("沙箱执行节点已启动，节点ID: {}, 容量: {}", workerId, capacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (reader != null) {
+            reader.interrupt();
+        }
+        jobExecutor.shutdown();
+        try {
+            // 未完成的任务保留在待确认列表中，由其他节点在心跳过期后接管
+            jobExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            stringRedisTemplate.delete(SandboxJob.WORKER_KEY_PREFIX + workerId);
+            stringRedisTemplate.opsForSet().remove(SandboxJob.WORKERS_KEY, workerId);
+        } catch (Exception e) {
+            log.warn("注销沙箱执行节点失败，节点ID: {}", workerId, e);
+        }
+    }
+
+    /**
+     * 上报心跳与容量
+     */
+    @Scheduled(fixedDelayString = "${sandbox.fleet.heartbeat-interval:5000}")
+    public void heartbeat() {
+        Map<String, String> status = new HashMap<>();
+        status.put("workerId", workerId);
+        status.put("capacity", String.valueOf(capacity));
+        status.put("active", String.valueOf(active.get()));
+        status.put("processed", String.valueOf(processed.sum()));
+        status.put("failed", String.valueOf(failed.sum()));
+        status.put("startedAt", String.valueOf(startedAt));
+        status.put("heartbeatAt", String.valueOf(System.currentTimeMillis()));
+        String key = SandboxJob.WORKER_KEY_PREFIX + workerId;
+        try {
+            stringRedisTemplate.opsForHash().putAll(key, status);
+            stringRedisTemplate.expire(key, heartbeatTtl, TimeUnit.MILLISECONDS);
+            stringRedisTemplate.opsForSet().add(SandboxJob.WORKERS_KEY, workerId);
+        } catch (Exception e) {
+            log.warn("上报沙箱执行节点心跳失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 接管失联节点的任务：心跳已过期的消费者的待确认任务在投递次数内重新投递，超过则回复失败，随后删除该消费者
+     */
+    @Scheduled(initialDelayString = "${sandbox.fleet.reclaim-interval:30000}",
+            fixedDelayString = "${sandbox.fleet.reclaim-interval:30000}")
+    public void reclaim() {
+        StreamInfo.XInfoConsumers consumers;
+        try {
+            consumers = stringRedisTemplate.opsForStream().consumers(streamKey, group);
+        } catch (Exception e) {
+            log.warn("读取消费组信息失败: {}", e.getMessage());
+            return;
+        }
+        consumers.forEach(consumer -> {
+            String name = consumer.consumerName();
+            if (workerId.equals(name) || Boolean.TRUE.equals(stringRedisTemplate.hasKey(SandboxJob.WORKER_KEY_PREFIX + name))) {
+                return;
+            }
+            try {
+                reclaimFrom(name);
+            } catch (Exception e) {
+                log.warn("接管失联节点任务失败，节点ID: {}, 原因: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    private void reclaimFrom(String deadWorkerId) {
+        Consumer deadConsumer = Consumer.from(group, deadWorkerId);
+        PendingMessages pending = stringRedisTemplate.opsForStream().pending(streamKey, deadConsumer, Range.unbounded(), 100);
+        int claimedCount = 0;
+        if (!pending.isEmpty()) {
+            // 最小空闲时间避免多个节点同时接管同一任务
+            RecordId[] ids = pending.stream().map(PendingMessage::getId).toArray(RecordId[]::new);
+            List<MapRecord<String, Object, Object>> claimed = stringRedisTemplate.opsForStream()
+                    .claim(streamKey, group, workerId, Duration.ofMillis(heartbeatTtl), ids);
+            claimedCount = claimed.size();
+            for (MapRecord<String, Object, Object> record : claimed) {
+                SandboxJob job = JSON.parseObject((String) record.getValue().get(SandboxJob.FIELD_JOB), SandboxJob.class);
+                int attempts = job.getAttempts() == null ? 1 : job.getAttempts();
+                if (attempts < maxAttempts && !isExpired(job)) {
+                    stringRedisTemplate.opsForStream().add(streamKey,
+                            Map.of(SandboxJob.FIELD_JOB, JSON.toJSONString(job.setAttempts(attempts + 1))));
+                    log.warn("执行节点失联，任务已重新投递，执行ID: {}, 原节点: {}", job.getExecutionId(), deadWorkerId);
+                } else {
+                    reply(job, failureResponse(job, "沙箱执行节点失联，执行失败"));
+                    log.warn("执行节点失联，任务已放弃，执行ID: {}, 原节点: {}", job.getExecutionId(), deadWorkerId);
+                }
+                complete(record.getId());
+            }
+        }
+        if (claimedCount == pending.size() && pending.size() < 100) {
+            stringRedisTemplate.opsForStream().deleteConsumer(streamKey, deadConsumer);
+            log.info("已移除失联的沙箱执行节点: {}", deadWorkerId);
+        }
+    }
+
+    /**
+     * 获取执行节点ID
+     */
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 获取执行节点状态
+     *
+     * @return 执行节点状态描述
+     */
+    public String getWorkerStatus() {
+        return String.format("执行节点(%s): 执行中=%d/%d, 已完成=%d, 失败=%d, 过期丢弃=%d",
+                workerId, active.get(), capacity, processed.sum(), failed.sum(), dropped.sum());
+    }
+
+    private void readLoop() {
+        Consumer consumer = Consumer.from(group, workerId);
+        while (running) {
+            try {
+                // 只在有空闲容量时拉取，未拉取的任务留在Stream中由其他节点消费
+                permits.acquire();
+                int free = 1 + permits.drainPermits();
+                List<StringRecord> records;
+                try {
+                    records = readRecords(consumer, free);
+                } catch (RuntimeException e) {
+                    permits.release(free);
+                    throw e;
+                }
+                int taken = records == null ? 0 : records.size();
+                permits.release(free - taken);
+                for (int i = 0; i < taken; i++) {
+                    StringRecord record = records.get(i);
+                    jobExecutor.execute(() -> {
+                        try {
+                            handle(record);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("拉取执行任务失败: {}", e.getMessage());
+                sleepQuietly(1000);
+            }
+        }
+    }
+
+    /**
+     * 按消费组读取新任务，最多等待2秒
+     *
+     * @param consumer 本节点的消费者
+     * @param count 最多读取的条数
+     * @return 读取到的任务消息，可能为null
+     */
+    private List<StringRecord> readRecords(Consumer consumer, int count) {
+        // 单个读取位置的重载避免泛型可变参数数组；StringRedisTemplate的回调连接即字符串连接
+        return stringRedisTemplate.execute((RedisCallback<List<StringRecord>>) connection ->
+                ((StringRedisConnection) connection).xReadGroupAsString(consumer,
+                        StreamReadOptions.empty().count(count).block(Duration.ofSeconds(2)),
+                        StreamOffset.create(streamKey, ReadOffset.lastConsumed())));
+    }
+
+    private void handle(StringRecord record) {
+        SandboxJob job;
+        try {
+            job = JSON.parseObject(record.getValue().get(SandboxJob.FIELD_JOB), SandboxJob.class);
+        } catch (Exception e) {
+            log.error("无法解析执行任务，已丢弃，消息ID: {}", record.getId(), e);
+            complete(record.getId());
+            return;
+        }
+        if (isExpired(job)) {
+            // 分发节点已放弃等待
+            dropped.increment();
+            complete(record.getId());
+            return;
+        }
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(SandboxJob.CANCELLED_KEY_PREFIX + job.getExecutionId()))) {
+            reply(job, cancelledResponse(job));
+            complete(record.getId());
+            return;
+        }
+
+        active.incrementAndGet();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(job.getUserKey(), null, Collections.emptyList()));
+        try {
+            reply(job, run(job));
+            processed.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.error("执行任务失败，执行ID: {}", job.getExecutionId(), e);
+            reply(job, failureResponse(job, "执行异常: " + e.getMessage()));
+        } finally {
+            SecurityContextHolder.clearContext();
+            active.decrementAndGet();
+            complete(record.getId());
+        }
+    }
+
+    private String run(SandboxJob job) {
+        switch (job.getType()) {
+            case SandboxJob.TYPE_BATCH:
+                BatchExecuteRequest batchRequest = JSON.parseObject(job.getPayload(), BatchExecuteRequest.class);
+                BatchExecuteResponse batchResponse = sandboxExecutor.executeBatch(batchRequest);
+                return JSON.toJSONString(batchResponse.setExecutionId(job.getExecutionId()));
+            case SandboxJob.TYPE_STREAM:
+                ExecuteRequest streamRequest = JSON.parseObject(job.getPayload(), ExecuteRequest.class);
+                ExecuteResponse streamResponse = sandboxExecutor.executeStreaming(job.getExecutionId(),
+                        streamRequest, (stream, chunk) -> publish(job.getReplyTo(), new SandboxJobReply()
+                                .setExecutionId(job.getExecutionId())
+                                .setType(SandboxJobReply.TYPE_OUTPUT)
+                                .setStream(stream)
+                                .setChunk(chunk)
+                                .setWorkerId(workerId))).join();
+                return JSON.toJSONString(streamResponse.setExecutionId(job.getExecutionId()));
+            case SandboxJob.TYPE_ASYNC:
+                resultStore.put(job.getExecutionId(), new ExecuteResponse()
+                        .setStatus(ExecutionResultStore.RUNNING)
+                        .setExecutionId(job.getExecutionId()));
+                // 异步执行的ID即分发节点返回给用户的ID，取消广播据此终止本节点上的执行
+                ExecuteRequest asyncRequest = JSON.parseObject(job.getPayload(), ExecuteRequest.class);
+                return JSON.toJSONString(sandboxExecutor.execute(job.getExecutionId(), asyncRequest)
+                        .setExecutionId(job.getExecutionId()));
+            default:
+                ExecuteRequest request = JSON.parseObject(job.getPayload(), ExecuteRequest.class);
+                return JSON.toJSONString(sandboxExecutor.execute(job.getExecutionId(), request)
+                        .setExecutionId(job.getExecutionId()));
+        }
+    }
+
+    /**
+     * 回复执行结果：发布到分发节点的回复频道，异步执行同时写入共享的结果存储（分发节点可能已不在线）
+     */
+    private void reply(SandboxJob job, String payload) {
+        if (SandboxJob.TYPE_ASYNC.equals(job.getType())) {
+            resultStore.put(job.getExecutionId(), JSON.parseObject(payload, ExecuteResponse.class));
+        }
+        publish(job.getReplyTo(), new SandboxJobReply()
+                .setExecutionId(job.getExecutionId())
+                .setType(SandboxJobReply.TYPE_RESULT)
+                .setPayload(payload)
+                .setWorkerId(workerId));
+    }
+
+    private void publish(String channel, SandboxJobReply reply) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(channel, JSON.toJSONString(reply));
+        } catch (Exception e) {
+            log.warn("回复执行结果失败，执行ID: {}, 原因: {}", reply.getExecutionId(), e.getMessage());
+        }
+    }
+
+    private void complete(RecordId recordId) {
+        try {
+            stringRedisTemplate.opsForStream().acknowledge(streamKey, group, recordId);
+            stringRedisTemplate.opsForStream().delete(streamKey, recordId);
+        } catch (Exception e) {
+            log.warn("确认执行任务失败，消息ID: {}, 原因: {}", recordId, e.getMessage());
+        }
+    }
+
+    private void onCancel(Message message, byte[] pattern) {
+        String executionId = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (runningExecutions.cancel(executionId)) {
+            log.info("已按取消广播终止执行，执行ID: {}", executionId);
+        }
+    }
+
+    private boolean isExpired(SandboxJob job) {
+        return job.getDeadline() != null && System.currentTimeMillis() > job.getDeadline();
+    }
+
+    private String failureResponse(SandboxJob job, String error) {
+        if (SandboxJob.TYPE_BATCH.equals(job.getType())) {
+            return JSON.toJSONString(new BatchExecuteResponse()
+                    .setSuccess(false)
+                    .setError(error)
+                    .setStatus("ERROR")
+                    .setExecutionId(job.getExecutionId()));
+        }
+        return JSON.toJSONString(new ExecuteResponse()
+                .setSuccess(false)
+                .setError(error)
+                .setStatus("ERROR")
+                .setExecutionId(job.getExecutionId()));
+    }
+
+    private String cancelledResponse(SandboxJob job) {
+        if (SandboxJob.TYPE_BATCH.equals(job.getType())) {
+            return JSON.toJSONString(new BatchExecuteResponse()
+                    .setSuccess(false)
+                    .setError("执行已取消")
+                    .setStatus("CANCELLED")
+                    .setExecutionId(job.getExecutionId()));
+        }
+        return JSON.toJSONString(new ExecuteResponse()
+                .setSuccess(false)
+                .setTimeout(false)
+                .setError("执行已取消")
+                .setStatus("CANCELLED")
+                .setExecutionId(job.getExecutionId()));
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "worker";
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.algcockpit.service.sandbox.injvm;
+
+import com.algcockpit.service.sandbox.ExecutionOutputListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按字节数封顶的输出缓冲
+ * 与ProcessOutputCollector的行为一致：超出上限的部分丢弃并追加截断标记，写入时同步推送给监听器
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+public class BoundedOutputStream extends OutputStream {
+
+    private final String stream;
+    private final int maxBytes;
+    private ExecutionOutputListener listener;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private volatile boolean truncated;
+
+    /**
+     * @param stream 流名称（stdout/stderr）
+     * @param maxBytes 保留的最大字节数
+     * @param listener 输出监听器，可为null
+     */
+    public BoundedOutputStream(String stream, int maxBytes, ExecutionOutputListener listener) {
+        this.stream = stream;
+        this.maxBytes = maxBytes;
+        this.listener = listener;
+    }
+
+    @Override
+    public void write(int b) {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        if (truncated || len == 0) {
+            return;
+        }
+        int remaining = maxBytes - buffer.size();
+        if (len > remaining) {
+            // 不在多字节字符中间截断
+            len = remaining;
+            while (len > 0 && (b[off + len] & 0xC0) == 0x80) {
+                len--;
+            }
+            truncated = true;
+        }
+        buffer.write(b, off, len);
+        if (listener != null && len > 0) {
+            try {
+                listener.onOutput(stream, new String(b, off, len, StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                log.debug("推送执行输出失败，停止推送: {}", e.getMessage());
+                listener = null;
+            }
+        }
+    }
+
+    /**
+     * 读取已保留的内容，截断时带截断标记
+     */
+    public synchronized String getContent() {
+        String content = buffer.toString(StandardCharsets.UTF_8);
+        if (truncated) {
+            content += "\n...[输出超过" + maxBytes + "字节，已截断]";
+        }
+        return content.trim();
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,199 @@
+package com.algcockpit.service.sandbox.injvm;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 字节码检查器
+ * 解析class文件常量池，找出白名单之外的类、System与Class中不允许的方法、按文件名打开文件的构造方法、
+ * 在公共ForkJoinPool线程上运行用户代码的并行方法、修改JVM全局状态的方法，
+ * 以及对java.lang.invoke的直接访问（只允许lambda、字符串拼接等编译器生成的引导方法）；
+ * 类级别的限制由SandboxClassLoader在加载时兜底，这里在运行前给出明确的拒绝原因
+ *
+ * @author Algorithm Cockpit Team
+ */
+public final class BytecodeInspector {
+
+    private static final int CLASS_MAGIC = 0xCAFEBABE;
+
+    /**
+     * 只允许调用部分方法的类：类内部名 -> 允许的方法名
+     */
+    private static final Map<String, Set<String>> ALLOWED_METHODS = Map.of(
+            "java/lang/System", Set.of("currentTimeMillis", "nanoTime", "arraycopy", "identityHashCode",
+                    "lineSeparator", "gc"),
+            "java/lang/Class", Set.of("getName", "getSimpleName", "getTypeName", "getCanonicalName",
+                    "isInstance", "isAssignableFrom", "cast", "isArray", "isPrimitive", "isEnum", "isRecord",
+                    "isInterface", "getComponentType", "componentType", "arrayType", "getSuperclass",
+                    "getEnumConstants", "desiredAssertionStatus", "hashCode", "equals", "toString"));
+
+    /**
+     * 禁用方法：类内部名 -> 方法名
+     */
+    private static final Map<String, Set<String>> DENIED_METHODS = Map.of(
+            "java/lang/Integer", Set.of("getInteger"),
+            "java/lang/Long", Set.of("getLong"),
+            "java/lang/Boolean", Set.of("getBoolean"),
+            "java/util/Arrays", Set.of("parallelSort", "parallelSetAll", "parallelPrefix"),
+            "java/util/Locale", Set.of("setDefault"),
+            "java/util/stream/StreamSupport", Set.of("stream", "intStream", "longStream", "doubleStream"));
+
+    /**
+     * 任何类上都禁用的方法名：并行流在运行线程之外的公共ForkJoinPool线程上执行用户代码，
+     * 这些线程不受CPU时间监控、无法被终止，输出也不经过标准流路由。
+     * 调用方可能是集合或流的任意子类型（包括用户类），因此只按方法名判断
+     */
+    private static final Set<String> DENIED_METHOD_NAMES = Set.of("parallel", "parallelStream");
+
+    /**
+     * 按文件名打开文件的构造方法：类内部名 -> 描述符前缀
+     */
+    private static final Map<String, String> DENIED_CONSTRUCTORS = Map.of(
+            "java/io/PrintStream", "(Ljava/lang/String;",
+            "java/io/PrintWriter", "(Ljava/lang/String;");
+
+    /**
+     * 只能作为invokedynamic引导方法出现的包，其中的方法与字段不允许直接访问
+     */
+    private static final List<String> BOOTSTRAP_PACKAGES = List.of("java/lang/invoke/", "java/lang/runtime/");
+
+    /**
+     * 允许的引导方法（lambda与方法引用、字符串拼接、record的equals/hashCode/toString）
+     */
+    private static final Set<String> BOOTSTRAP_METHODS = Set.of(
+            "java/lang/invoke/LambdaMetafactory.metafactory",
+            "java/lang/invoke/LambdaMetafactory.altMetafactory",
+            "java/lang/invoke/StringConcatFactory.makeConcat",
+            "java/lang/invoke/StringConcatFactory.makeConcatWithConstants",
+            "java/lang/runtime/ObjectMethods.bootstrap");
+
+    private BytecodeInspector() {
+    }
+
+    /**
+     * 检查用户提交的全部类
+     *
+     * @param classes 类名 -> class文件字节
+     * @return 违规描述，为空表示通过
+     */
+    public static List<String> inspect(Map<String, byte[]> classes) {
+        Set<String> violations = new LinkedHashSet<>();
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            try {
+                inspectClass(entry.getValue(), classes, violations);
+            } catch (IOException e) {
+                violations.add("无法解析class文件: " + entry.getKey());
+            }
+        }
+        return new ArrayList<>(violations);
+    }
+
+    private static void inspectClass(byte[] bytes, Map<String, byte[]> userClasses, Set<String> violations)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != CLASS_MAGIC) {
+            throw new IOException("bad magic");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        int count = in.readUnsignedShort();
+        int[] tags = new int[count];
+        String[] utf8 = new String[count];
+        int[] first = new int[count];
+        int[] second = new int[count];
+
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            tags[i] = tag;
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF();
+                case 3, 4 -> in.readInt();
+                case 5, 6 -> {
+                    in.readLong();
+                    i++;
+                }
+                case 7, 8, 16, 19, 20 -> first[i] = in.readUnsignedShort();
+                case 9, 10, 11, 12, 17, 18 -> {
+                    first[i] = in.readUnsignedShort();
+                    second[i] = in.readUnsignedShort();
+                }
+                case 15 -> {
+                    in.readUnsignedByte();
+                    first[i] = in.readUnsignedShort();
+                }
+                default -> throw new IOException("unknown constant tag " + tag);
+            }
+        }
+
+        // 被方法句柄常量引用的成员（引导方法及lambda、方法引用的目标）
+        Set<Integer> handleTargets = new HashSet<>();
+        for (int i = 1; i < count; i++) {
+            if (tags[i] == 15) {
+                handleTargets.add(first[i]);
+            }
+        }
+
+        for (int i = 1; i < count; i++) {
+            if (tags[i] == 7) {
+                String className = toBinaryName(utf8[first[i]]);
+                // java.lang.invoke等包的类出现在lambda的InnerClasses属性中，对其成员的访问在下面单独检查
+                if (className != null && !userClasses.containsKey(className) && !isBootstrapPackage(className)
+                        && !SandboxClassLoader.isAllowed(className)) {
+                    violations.add("禁止使用类 " + className);
+                }
+            } else if (tags[i] == 9 || tags[i] == 10 || tags[i] == 11) {
+                String owner = utf8[first[first[i]]];
+                String member = utf8[first[second[i]]];
+                String descriptor = utf8[second[second[i]]];
+                String qualified = owner.replace('/', '.') + "." + member;
+                if (isBootstrapPackage(owner)) {
+                    if (!handleTargets.contains(i) || !BOOTSTRAP_METHODS.contains(owner + "." + member)) {
+                        violations.add("禁止调用 " + qualified);
+                    }
+                    continue;
+                }
+                if (tags[i] == 9) {
+                    continue;
+                }
+                Set<String> allowed = ALLOWED_METHODS.get(owner);
+                Set<String> denied = DENIED_METHODS.get(owner);
+                String deniedConstructor = DENIED_CONSTRUCTORS.get(owner);
+                if (DENIED_METHOD_NAMES.contains(member)
+                        || (allowed != null && !allowed.contains(member))
+                        || (denied != null && denied.contains(member))
+                        || ("<init>".equals(member) && deniedConstructor != null
+                        && descriptor.startsWith(deniedConstructor))) {
+                    violations.add("禁止调用 " + qualified);
+                }
+            }
+        }
+    }
+
+    private static boolean isBootstrapPackage(String className) {
+        String internalName = className.replace('.', '/');
+        return BOOTSTRAP_PACKAGES.stream().anyMatch(internalName::startsWith);
+    }
+
+    /**
+     * 将常量池中的类名（可能是数组描述符）转换为元素类型的二进制名，基本类型数组返回null
+     */
+    private static String toBinaryName(String internalName) {
+        String name = internalName;
+        if (name.startsWith("[")) {
+            int start = name.lastIndexOf('[') + 1;
+            if (name.charAt(start) != 'L') {
+                return null;
+            }
+            name = name.substring(start + 1, name.length() - 1);
+        }
+        return name.replace('/', '.');
+    }
+}
@@ -0,0 +1,148 @@
+package com.algcockpit.service.sandbox.injvm;
+
+import lombok.Getter;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 内存Java编译器
+ * 用javax.tools.JavaCompiler在进程内编译源码，class文件只保存在内存中，不落盘
+ *
+ * @author Algorithm Cockpit Team
+ */
+public class InMemoryJavaCompiler {
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    /**
+     * 当前运行环境是否提供编译器（仅有JRE时不可用）
+     */
+    public boolean isAvailable() {
+        return compiler != null;
+    }
+
+    /**
+     * 编译单个源文件
+     *
+     * @param className 公共类名（决定源文件名）
+     * @param source 源码
+     * @param options 编译参数
+     * @return 编译结果
+     */
+    public CompilationResult compile(String className, String source, List<String> options) {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, byte[]> classes = new HashMap<>();
+        StandardJavaFileManager standardManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT,
+                StandardCharsets.UTF_8);
+
+        try (MemoryFileManager fileManager = new MemoryFileManager(standardManager, classes)) {
+            Boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    List.of(new SourceFile(className, source))).call();
+
+            StringBuilder messages = new StringBuilder();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR || diagnostic.getKind() == Diagnostic.Kind.WARNING) {
+                    messages.append(className).append(".java:").append(diagnostic.getLineNumber()).append(": ")
+                            .append(diagnostic.getKind() == Diagnostic.Kind.ERROR ? "error: " : "warning: ")
+                            .append(diagnostic.getMessage(Locale.ROOT)).append('\n');
+                }
+            }
+            return new CompilationResult(Boolean.TRUE.equals(success), classes, messages.toString().trim());
+        } catch (IOException e) {
+            return new CompilationResult(false, classes, "编译器异常: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 编译结果
+     */
+    @Getter
+    public static class CompilationResult {
+        private final boolean success;
+        private final Map<String, byte[]> classes;
+        private final String diagnostics;
+
+        CompilationResult(boolean success, Map<String, byte[]> classes, String diagnostics) {
+            this.success = success;
+            this.classes = classes;
+            this.diagnostics = diagnostics;
+        }
+    }
+
+    /**
+     * 内存中的源文件
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    /**
+     * 内存中的class文件
+     */
+    private static class ClassFile extends SimpleJavaFileObject {
+        private final String className;
+        private final Map<String, byte[]> classes;
+
+        ClassFile(String className, Map<String, byte[]> classes) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.className = className;
+            this.classes = classes;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    classes.put(className, toByteArray());
+                }
+            };
+        }
+    }
+
+    /**
+     * 将编译输出重定向到内存的文件管理器
+     */
+    private static class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private final Map<String, byte[]> classes;
+
+        MemoryFileManager(JavaFileManager fileManager, Map<String, byte[]> classes) {
+            super(fileManager);
+            this.classes = classes;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            return new ClassFile(className, classes);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.algcockpit.service.sandbox.injvm;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 沙箱类加载器
+ * 只定义用户提交的类，每次运行新建一个，运行结束即丢弃（用户类的静态状态不会跨运行残留）；
+ * 用户类解析到的所有外部类都经过本加载器，只放行白名单中的类：集合、数学、字符串、标准输入输出、
+ * 函数式接口与流等算法常用的类。反射、java.lang.invoke、java.beans以及文件、网络、进程、线程、
+ * 类加载等可以按名称调用方法或访问系统资源的类都不在白名单中，本应用和第三方库的类也一律不可见；
+ * ConcurrentHashMap的批量方法会在公共ForkJoinPool线程上运行用户代码，该类不在白名单中，
+ * 白名单类中的并行方法与修改全局状态的方法由BytecodeInspector拒绝
+ *
+ * @author Algorithm Cockpit Team
+ */
+public class SandboxClassLoader extends ClassLoader {
+
+    /**
+     * 允许访问的包（以“.”结尾，不含子包）
+     */
+    private static final List<String> ALLOWED_PACKAGES = List.of(
+            "java.util.function.",
+            "java.util.stream.");
+
+    /**
+     * 允许访问的类（含其内部类）
+     */
+    private static final Set<String> ALLOWED_CLASSES = Set.of(
+            // java.lang
+            "java.lang.Object", "java.lang.String", "java.lang.StringBuilder", "java.lang.StringBuffer",
+            "java.lang.CharSequence", "java.lang.Comparable", "java.lang.Iterable", "java.lang.AutoCloseable",
+            "java.lang.Cloneable", "java.lang.Appendable", "java.lang.Readable", "java.lang.Runnable",
+            "java.lang.Math", "java.lang.StrictMath", "java.lang.Number", "java.lang.Integer", "java.lang.Long",
+            "java.lang.Short", "java.lang.Byte", "java.lang.Character", "java.lang.Boolean", "java.lang.Double",
+            "java.lang.Float", "java.lang.Void", "java.lang.Enum", "java.lang.Record", "java.lang.Class",
+            "java.lang.System", "java.lang.Override", "java.lang.FunctionalInterface", "java.lang.SafeVarargs",
+            "java.lang.SuppressWarnings", "java.lang.Deprecated", "java.lang.StackTraceElement",
+            "java.lang.Throwable", "java.lang.Exception", "java.lang.RuntimeException", "java.lang.Error",
+            "java.lang.ArithmeticException", "java.lang.ArrayIndexOutOfBoundsException",
+            "java.lang.ArrayStoreException", "java.lang.ClassCastException", "java.lang.CloneNotSupportedException",
+            "java.lang.IllegalArgumentException", "java.lang.IllegalStateException",
+            "java.lang.IndexOutOfBoundsException", "java.lang.InterruptedException",
+            "java.lang.NegativeArraySizeException", "java.lang.NoSuchFieldError", "java.lang.NullPointerException",
+            "java.lang.NumberFormatException", "java.lang.StringIndexOutOfBoundsException",
+            "java.lang.UnsupportedOperationException", "java.lang.AssertionError", "java.lang.OutOfMemoryError",
+            "java.lang.StackOverflowError",
+            // java.util
+            "java.util.Collection", "java.util.List", "java.util.Set", "java.util.Map", "java.util.Queue",
+            "java.util.Deque", "java.util.SortedMap", "java.util.SortedSet", "java.util.NavigableMap",
+            "java.util.NavigableSet", "java.util.Iterator", "java.util.ListIterator", "java.util.RandomAccess",
+            "java.util.Comparator", "java.util.AbstractCollection", "java.util.AbstractList",
+            "java.util.AbstractSequentialList", "java.util.AbstractSet", "java.util.AbstractMap",
+            "java.util.AbstractQueue", "java.util.ArrayList", "java.util.LinkedList", "java.util.ArrayDeque",
+            "java.util.PriorityQueue", "java.util.Stack", "java.util.Vector", "java.util.HashMap",
+            "java.util.LinkedHashMap", "java.util.TreeMap", "java.util.HashSet", "java.util.LinkedHashSet",
+            "java.util.TreeSet", "java.util.EnumMap", "java.util.EnumSet", "java.util.IdentityHashMap",
+            "java.util.BitSet", "java.util.Arrays", "java.util.Collections", "java.util.Objects",
+            "java.util.Optional", "java.util.OptionalInt", "java.util.OptionalLong", "java.util.OptionalDouble",
+            "java.util.StringJoiner", "java.util.StringTokenizer", "java.util.Scanner", "java.util.Random",
+            "java.util.SplittableRandom", "java.util.Locale", "java.util.Spliterator", "java.util.Spliterators",
+            "java.util.PrimitiveIterator", "java.util.IntSummaryStatistics", "java.util.LongSummaryStatistics",
+            "java.util.DoubleSummaryStatistics", "java.util.NoSuchElementException",
+            "java.util.InputMismatchException", "java.util.ConcurrentModificationException",
+            "java.util.concurrent.ConcurrentLinkedQueue",
+            "java.util.concurrent.ConcurrentLinkedDeque", "java.util.concurrent.ConcurrentSkipListMap",
+            "java.util.concurrent.ConcurrentSkipListSet", "java.util.concurrent.CopyOnWriteArrayList",
+            "java.util.concurrent.ThreadLocalRandom", "java.util.concurrent.atomic.AtomicBoolean",
+            "java.util.concurrent.atomic.AtomicInteger", "java.util.concurrent.atomic.AtomicLong",
+            "java.util.concurrent.atomic.AtomicReference", "java.util.concurrent.atomic.AtomicIntegerArray",
+            "java.util.concurrent.atomic.AtomicLongArray", "java.util.concurrent.atomic.LongAdder",
+            "java.util.regex.Pattern", "java.util.regex.Matcher", "java.util.regex.MatchResult",
+            "java.util.regex.PatternSyntaxException",
+            // java.math、java.text
+            "java.math.BigInteger", "java.math.BigDecimal", "java.math.MathContext", "java.math.RoundingMode",
+            "java.text.NumberFormat", "java.text.DecimalFormat",
+            // 标准输入输出（按文件名打开的构造方法由BytecodeInspector拒绝）
+            "java.io.InputStream", "java.io.OutputStream", "java.io.Reader", "java.io.Writer",
+            "java.io.PrintStream", "java.io.PrintWriter", "java.io.BufferedReader", "java.io.BufferedWriter",
+            "java.io.BufferedInputStream", "java.io.BufferedOutputStream", "java.io.InputStreamReader",
+            "java.io.OutputStreamWriter", "java.io.DataInputStream", "java.io.DataOutputStream",
+            "java.io.ByteArrayInputStream", "java.io.ByteArrayOutputStream", "java.io.StringReader",
+            "java.io.StringWriter", "java.io.StreamTokenizer", "java.io.Closeable", "java.io.Flushable",
+            "java.io.Serializable", "java.io.IOException", "java.io.EOFException", "java.io.UncheckedIOException",
+            "java.nio.charset.Charset", "java.nio.charset.StandardCharsets");
+
+    /**
+     * invokedynamic引导方法（lambda、字符串拼接、record方法）解析时需要加载的类；
+     * 用户代码对这些类的方法调用由BytecodeInspector拒绝，只允许作为引导方法出现
+     */
+    private static final Set<String> BOOTSTRAP_CLASSES = Set.of(
+            "java.lang.invoke.LambdaMetafactory",
+            "java.lang.invoke.StringConcatFactory",
+            "java.lang.invoke.MethodHandles$Lookup",
+            "java.lang.invoke.MethodHandle",
+            "java.lang.invoke.MethodType",
+            "java.lang.invoke.CallSite",
+            "java.lang.invoke.TypeDescriptor",
+            "java.lang.runtime.ObjectMethods");
+
+    private final Map<String, byte[]> classes;
+
+    public SandboxClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+        super("alg-sandbox", parent);
+        this.classes = classes;
+    }
+
+    /**
+     * 判断外部类是否允许用户代码访问
+     *
+     * @param className 类的二进制名（如 java.lang.String 或 java.util.Map$Entry）
+     * @return 是否允许
+     */
+    public static boolean isAllowed(String className) {
+        int inner = className.indexOf('$');
+        String outer = inner >= 0 ? className.substring(0, inner) : className;
+        if (ALLOWED_CLASSES.contains(outer)) {
+            return true;
+        }
+        int lastDot = className.lastIndexOf('.');
+        return lastDot >= 0 && ALLOWED_PACKAGES.contains(className.substring(0, lastDot + 1));
+    }
+
+    /**
+     * 判断类是否可以由本加载器委托给父加载器：白名单中的类与引导方法所需的类
+     *
+     * @param className 类的二进制名
+     * @return 是否可以加载
+     */
+    static boolean isLoadable(String className) {
+        return isAllowed(className) || BOOTSTRAP_CLASSES.contains(className);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                if (classes.containsKey(name)) {
+                    loaded = findClass(name);
+                } else if (isLoadable(name)) {
+                    loaded = getParent().loadClass(name);
+                } else {
+                    throw new ClassNotFoundException("沙箱禁止访问: " + name);
+                }
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classes.get(name);
+        if (bytes == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,278 @@
+package com.algcockpit.service.sandbox.injvm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * 标准输入输出路由
+ * 进程内执行时用户代码直接使用System.in/out/err，这里把三者一次性替换为按线程分发的流：
+ * 绑定了沙箱流的线程读写本次运行自己的流，其余线程（包括应用日志）仍使用原始的标准流。
+ * 每次运行使用独立的PrintStream，运行线程被强制终止时残留的缓冲不会混入其他输出
+ *
+ * @author Algorithm Cockpit Team
+ */
+public final class StdioRouter {
+
+    private static final ThreadLocal<InputStream> IN = new ThreadLocal<>();
+    private static final ThreadLocal<PrintStream> OUT = new ThreadLocal<>();
+    private static final ThreadLocal<PrintStream> ERR = new ThreadLocal<>();
+
+    private static boolean installed;
+
+    private StdioRouter() {
+    }
+
+    /**
+     * 替换System.in/out/err，重复调用无副作用
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        System.setIn(new RoutingInputStream(System.in));
+        System.setOut(new RoutingPrintStream(OUT, System.out));
+        System.setErr(new RoutingPrintStream(ERR, System.err));
+        installed = true;
+    }
+
+    /**
+     * 将当前线程的标准流绑定到本次运行的流
+     */
+    public static void bind(InputStream in, PrintStream out, PrintStream err) {
+        IN.set(in);
+        OUT.set(out);
+        ERR.set(err);
+    }
+
+    /**
+     * 解除当前线程的绑定
+     */
+    public static void unbind() {
+        IN.remove();
+        OUT.remove();
+        ERR.remove();
+    }
+
+    /**
+     * 按线程分发的PrintStream，所有公开方法都转发给当前线程绑定的流
+     */
+    private static class RoutingPrintStream extends PrintStream {
+
+        private final ThreadLocal<PrintStream> target;
+        private final PrintStream original;
+
+        RoutingPrintStream(ThreadLocal<PrintStream> target, PrintStream original) {
+            super(OutputStream.nullOutputStream());
+            this.target = target;
+            this.original = original;
+        }
+
+        private PrintStream current() {
+            PrintStream stream = target.get();
+            return stream != null ? stream : original;
+        }
+
+        @Override
+        public void write(int b) {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) {
+            current().write(buf, off, len);
+        }
+
+        @Override
+        public void write(byte[] buf) throws IOException {
+            current().write(buf);
+        }
+
+        @Override
+        public void writeBytes(byte[] buf) {
+            current().writeBytes(buf);
+        }
+
+        @Override
+        public void flush() {
+            current().flush();
+        }
+
+        @Override
+        public void close() {
+            // 原始标准流不允许关闭
+            if (target.get() != null) {
+                target.get().close();
+            }
+        }
+
+        @Override
+        public boolean checkError() {
+            return current().checkError();
+        }
+
+        @Override
+        public void print(boolean b) {
+            current().print(b);
+        }
+
+        @Override
+        public void print(char c) {
+            current().print(c);
+        }
+
+        @Override
+        public void print(int i) {
+            current().print(i);
+        }
+
+        @Override
+        public void print(long l) {
+            current().print(l);
+        }
+
+        @Override
+        public void print(float f) {
+            current().print(f);
+        }
+
+        @Override
+        public void print(double d) {
+            current().print(d);
+        }
+
+        @Override
+        public void print(char[] s) {
+            current().print(s);
+        }
+
+        @Override
+        public void print(String s) {
+            current().print(s);
+        }
+
+        @Override
+        public void print(Object obj) {
+            current().print(obj);
+        }
+
+        @Override
+        public void println() {
+            current().println();
+        }
+
+        @Override
+        public void println(boolean x) {
+            current().println(x);
+        }
+
+        @Override
+        public void println(char x) {
+            current().println(x);
+        }
+
+        @Override
+        public void println(int x) {
+            current().println(x);
+        }
+
+        @Override
+        public void println(long x) {
+            current().println(x);
+        }
+
+        @Override
+        public void println(float x) {
+            current().println(x);
+        }
+
+        @Override
+        public void println(double x) {
+            current().println(x);
+        }
+
+        @Override
+        public void println(char[] x) {
+            current().println(x);
+        }
+
+        @Override
+        public void println(String x) {
+            current().println(x);
+        }
+
+        @Override
+        public void println(Object x) {
+            current().println(x);
+        }
+
+        @Override
+        public PrintStream printf(String format, Object... args) {
+            return current().printf(format, args);
+        }
+
+        @Override
+        public PrintStream printf(Locale l, String format, Object... args) {
+            return current().printf(l, format, args);
+        }
+
+        @Override
+        public PrintStream format(String format, Object... args) {
+            return current().format(format, args);
+        }
+
+        @Override
+        public PrintStream format(Locale l, String format, Object... args) {
+            return current().format(l, format, args);
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq) {
+            return current().append(csq);
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq, int start, int end) {
+            return current().append(csq, start, end);
+        }
+
+        @Override
+        public PrintStream append(char c) {
+            return current().append(c);
+        }
+    }
+
+    /**
+     * 按线程分发的输入流
+     */
+    private static class RoutingInputStream extends InputStream {
+
+        private final InputStream original;
+
+        RoutingInputStream(InputStream original) {
+            this.original = original;
+        }
+
+        private InputStream current() {
+            InputStream stream = IN.get();
+            return stream != null ? stream : original;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return current().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return current().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return current().available();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.algcockpit.service.sandbox.runtime;
+
+import lombok.Data;
+
+/**
+ * 语言运行时定义
+ * 描述一种编程语言在沙箱中的源文件名、编译与运行命令、镜像、资源默认值、预热容器池与安全检查规则，
+ * 由 sandbox.runtimes.&lt;语言&gt; 配置
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Data
+public class LanguageRuntime {
+
+    /**
+     * 编译产物目录占位符
+     */
+    public static final String BUILD_PLACEHOLDER = "{build}";
+
+    /**
+     * 源文件名占位符
+     */
+    public static final String FILE_PLACEHOLDER = "{file}";
+
+    /**
+     * 编译参数占位符
+     */
+    public static final String FLAGS_PLACEHOLDER = "{flags}";
+
+    /**
+     * 语言标识（配置键，小写）
+     */
+    private String name;
+
+    /**
+     * 源文件名
+     */
+    private String fileName;
+
+    /**
+     * 编译命令模板，解释型语言为空
+     */
+    private String compileCommand;
+
+    /**
+     * 运行命令模板
+     */
+    private String runCommand;
+
+    /**
+     * 沙箱镜像，为空时使用“镜像前缀-语言”
+     */
+    private String image;
+
+    /**
+     * 编译参数（参与编译缓存键）
+     */
+    private String compileFlags = "";
+
+    /**
+     * 默认超时时间（秒）
+     */
+    private int timeout = 10;
+
+    /**
+     * 默认内存限制（MB）
+     */
+    private int memory = 128;
+
+    /**
+     * 允许请求的最大超时时间（秒）
+     */
+    private int maxTimeout = 60;
+
+    /**
+     * 允许请求的最大内存限制（MB）
+     */
+    private int maxMemory = 1024;
+
+    /**
+     * 同时运行的最大执行数，为空时不单独限制
+     */
+    private Integer maxConcurrent;
+
+    /**
+     * 安全检查规则：java、python、javascript、cpp 或 generic
+     */
+    private String validator = "generic";
+
+    /**
+     * 预热容器池设置
+     */
+    private PoolSettings pool = new PoolSettings();
+
+    /**
+     * 是否需要编译
+     */
+    public boolean isCompiled() {
+        return compileCommand != null && !compileCommand.isBlank();
+    }
+
+    /**
+     * 生成编译命令
+     *
+     * @param buildDir 编译产物目录
+     * @return 编译命令，解释型语言返回null
+     */
+    public String renderCompileCommand(String buildDir) {
+        return isCompiled() ? render(compileCommand, buildDir) : null;
+    }
+
+    /**
+     * 生成运行命令
+     *
+     * @param buildDir 编译产物目录
+     * @return 运行命令
+     */
+    public String renderRunCommand(String buildDir) {
+        return render(runCommand, buildDir);
+    }
+
+    private String render(String template, String buildDir) {
+        return template.replace(BUILD_PLACEHOLDER, buildDir)
+                .replace(FILE_PLACEHOLDER, fileName)
+                .replace(FLAGS_PLACEHOLDER, compileFlags == null ? "" : compileFlags)
+                .replaceAll(" {2,}", " ")
+                .trim();
+    }
+
+    /**
+     * 预热容器池设置，为空的项使用 sandbox.pool 下的全局默认值
+     */
+    @Data
+    public static class PoolSettings {
+
+        /**
+         * 是否预热该语言的容器
+         */
+        private boolean enabled = true;
+
+        private Integer minSize;
+
+        private Integer maxSize;
+    }
+}
@@ -0,0 +1,112 @@
+package com.algcockpit.service.sandbox.runtime;
+
+import com.algcockpit.dto.request.BatchExecuteRequest;
+import com.algcockpit.dto.request.ExecuteRequest;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 语言运行时注册表
+ * 从 sandbox.runtimes 加载全部语言运行时，新增语言（如Go、Rust、Kotlin）只需增加配置与镜像
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+@ConfigurationProperties(prefix = "sandbox")
+public class LanguageRuntimeRegistry {
+
+    /**
+     * 语言 -> 运行时（由配置绑定）
+     */
+    @Getter
+    @Setter
+    private Map<String, LanguageRuntime> runtimes = new LinkedHashMap<>();
+
+    private Map<String, LanguageRuntime> byLanguage = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        Map<String, LanguageRuntime> loaded = new LinkedHashMap<>();
+        runtimes.forEach((language, runtime) -> {
+            String name = language.toLowerCase();
+            if (runtime.getFileName() == null || runtime.getFileName().isBlank()) {
+                throw new IllegalStateException("语言运行时缺少file-name配置: " + name);
+            }
+            if (runtime.getRunCommand() == null || runtime.getRunCommand().isBlank()) {
+                throw new IllegalStateException("语言运行时缺少run-command配置: " + name);
+            }
+            runtime.setName(name);
+            loaded.put(name, runtime);
+        });
+        if (loaded.isEmpty()) {
+            log.warn("未配置任何语言运行时（sandbox.runtimes），沙箱将拒绝所有执行");
+        }
+        byLanguage = Collections.unmodifiableMap(loaded);
+        log.info("已加载语言运行时: {}", byLanguage.keySet());
+    }
+
+    /**
+     * 查找语言运行时
+     *
+     * @param language 编程语言（不区分大小写）
+     * @return 运行时，未配置时返回null
+     */
+    public LanguageRuntime find(String language) {
+        return language == null ? null : byLanguage.get(language.toLowerCase());
+    }
+
+    /**
+     * 是否支持该语言
+     */
+    public boolean isSupported(String language) {
+        return find(language) != null;
+    }
+
+    /**
+     * 获取全部已配置的语言
+     */
+    public Set<String> getLanguages() {
+        return byLanguage.keySet();
+    }
+
+    /**
+     * 补全请求中未指定的超时时间与内存限制，并限制在运行时允许的范围内
+     *
+     * @param request 执行请求
+     */
+    public void applyDefaults(ExecuteRequest request) {
+        LanguageRuntime runtime = find(request.getLanguage());
+        if (runtime != null) {
+            request.setTimeout(clamp(request.getTimeout(), runtime.getTimeout(), runtime.getMaxTimeout()))
+                    .setMemoryLimit(clamp(request.getMemoryLimit(), runtime.getMemory(), runtime.getMaxMemory()));
+        }
+    }
+
+    /**
+     * 补全批量执行请求中未指定的超时时间与内存限制，并限制在运行时允许的范围内
+     *
+     * @param request 批量执行请求
+     */
+    public void applyDefaults(BatchExecuteRequest request) {
+        LanguageRuntime runtime = find(request.getLanguage());
+        if (runtime != null) {
+            request.setTimeout(clamp(request.getTimeout(), runtime.getTimeout(), runtime.getMaxTimeout()))
+                    .setMemoryLimit(clamp(request.getMemoryLimit(), runtime.getMemory(), runtime.getMaxMemory()));
+        }
+    }
+
+    private static int clamp(Integer requested, int defaultValue, int max) {
+        int value = requested == null || requested <= 0 ? defaultValue : requested;
+        return Math.min(value, max);
+    }
+}
@@ -0,0 +1,179 @@
+package com.algcockpit.service.sandbox.worker;
+
+import com.alibaba.fastjson.JSON;
+import com.algcockpit.service.sandbox.SandboxContainer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 常驻执行进程
+ * 在租用的沙箱容器内通过docker exec -i启动的解释器进程，宿主按行写入JSON任务、按行读取JSON结果；
+ * 同一时刻只执行一个任务
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+public class InterpreterWorker {
+
+    /**
+     * 进程输出结束的标记
+     */
+    private static final String EOF = "\u0000EOF";
+
+    /**
+     * 保留的进程错误输出长度（用于判断异常退出原因）
+     */
+    private static final int ERROR_TAIL_CHARS = 4096;
+
+    @Getter
+    private final String language;
+
+    @Getter
+    private final SandboxContainer container;
+
+    @Getter
+    private final Process process;
+
+    private final BufferedWriter writer;
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private final StringBuilder errorTail = new StringBuilder();
+
+    @Getter
+    private int jobCount;
+
+    @Getter
+    private long lastUsedAt = System.currentTimeMillis();
+
+    private InterpreterWorker(String language, SandboxContainer container, Process process) {
+        this.language = language;
+        this.container = container;
+        this.process = process;
+        this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        startReader("sandbox-worker-out-" + container.getContainerId(), () -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            } catch (IOException e) {
+                log.debug("读取执行进程输出结束: {}", e.getMessage());
+            } finally {
+                lines.add(EOF);
+            }
+        });
+        startReader("sandbox-worker-err-" + container.getContainerId(), () -> {
+            char[] chunk = new char[1024];
+            try (Reader reader = new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8)) {
+                int read;
+                while ((read = reader.read(chunk)) != -1) {
+                    synchronized (errorTail) {
+                        errorTail.append(chunk, 0, read);
+                        if (errorTail.length() > ERROR_TAIL_CHARS) {
+                            errorTail.delete(0, errorTail.length() - ERROR_TAIL_CHARS);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("读取执行进程错误输出结束: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 在容器内启动执行进程并等待其就绪
+     *
+     * @param language 编程语言
+     * @param container 已租用的沙箱容器
+     * @param command 容器内的启动命令
+     * @param startTimeoutMs 等待就绪的超时时间（毫秒）
+     * @return 就绪的执行进程
+     */
+    public static InterpreterWorker start(String language, SandboxContainer container, List<String> command,
+                                          long startTimeoutMs) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).start();
+        InterpreterWorker worker = new InterpreterWorker(language, container, process);
+        String ready = worker.lines.poll(startTimeoutMs, TimeUnit.MILLISECONDS);
+        if (ready == null || EOF.equals(ready)) {
+            process.destroyForcibly();
+            throw new IOException("执行进程启动失败: " + (ready == null ? "等待就绪超时" : worker.getErrorTail()));
+        }
+        return worker;
+    }
+
+    /**
+     * 执行一个任务
+     *
+     * @param job 任务内容
+     * @param timeoutMs 等待结果的超时时间（毫秒）
+     * @return 任务结果；超时未返回时为null
+     * @throws IOException 进程已退出或通信失败
+     */
+    public WorkerJobResult execute(Map<String, Object> job, long timeoutMs) throws IOException, InterruptedException {
+        jobCount++;
+        lastUsedAt = System.currentTimeMillis();
+        writer.write(JSON.toJSONString(job));
+        writer.newLine();
+        writer.flush();
+
+        String line = lines.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        lastUsedAt = System.currentTimeMillis();
+        if (line == null) {
+            return null;
+        }
+        if (EOF.equals(line)) {
+            throw new IOException("执行进程异常退出");
+        }
+        return JSON.parseObject(line, WorkerJobResult.class);
+    }
+
+    /**
+     * 进程退出码，进程仍在运行时等待片刻，仍未退出返回null
+     */
+    public Integer awaitExitCode(long timeoutMs) throws InterruptedException {
+        return process.waitFor(timeoutMs, TimeUnit.MILLISECONDS) ? process.exitValue() : null;
+    }
+
+    public String getErrorTail() {
+        synchronized (errorTail) {
+            return errorTail.toString().trim();
+        }
+    }
+
+    /**
+     * 关闭输入通道，执行进程读到结尾后自行退出
+     *
+     * @return 进程是否已在超时内退出
+     */
+    public boolean shutdown(long timeoutMs) throws InterruptedException {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.debug("关闭执行进程输入失败: {}", e.getMessage());
+        }
+        if (process.waitFor(timeoutMs, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        process.destroyForcibly();
+        return false;
+    }
+
+    private static void startReader(String name, Runnable reader) {
+        Thread thread = new Thread(reader, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,391 @@
+package com.algcockpit.service.sandbox.worker;
+
+import com.algcockpit.service.sandbox.RunningExecutionRegistry;
+import com.algcockpit.service.sandbox.RunningExecutionRegistry.RunningExecution;
+import com.algcockpit.service.sandbox.SandboxContainer;
+import com.algcockpit.service.sandbox.SandboxContainerPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 解释型语言常驻执行进程池
+ * Python与JavaScript每次运行都要启动解释器并导入标准库，耗时数百毫秒；这里在沙箱容器内保持常驻的
+ * 解释器进程，通过管道按行收发JSON任务。执行进程在不同用户之间共享：Python为每个任务从预加载的进程fork子进程，
+ * 任务对解释器的改动随子进程消失；JavaScript在全新vm上下文中执行，任务后检查从共享对象可达的全部对象。
+ * 执行进程在完成max-jobs个任务、超时、异常退出、内存占用过高或报告状态异常后回收，其容器一并驱逐
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class InterpreterWorkerPool {
+
+    private static final String SCRIPT_LOCATION = "sandbox/workers/";
+
+    /**
+     * JavaScript执行进程脚本的文件名（出现在栈帧中，执行进程据此过滤自身栈帧）
+     */
+    private static final String WORKER_FILENAME = "alg-worker.js";
+
+    /**
+     * 等待执行进程正常退出的时间（毫秒）
+     */
+    private static final long SHUTDOWN_TIMEOUT = 1000;
+
+    @Autowired
+    private SandboxContainerPool containerPool;
+
+    @Autowired
+    private RunningExecutionRegistry runningExecutions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sandbox.workers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sandbox.workers.languages:python,javascript}")
+    private String languages;
+
+    @Value("${sandbox.workers.max-jobs:100}")
+    private int maxJobs;
+
+    @Value("${sandbox.workers.max-idle:2}")
+    private int maxIdle;
+
+    @Value("${sandbox.workers.max-idle-time:300000}")
+    private long maxIdleTime;
+
+    @Value("${sandbox.workers.start-timeout:10000}")
+    private long startTimeout;
+
+    @Value("${sandbox.workers.grace:1000}")
+    private long grace;
+
+    private Set<String> workerLanguages = Set.of();
+
+    /**
+     * 各语言执行进程的启动脚本
+     */
+    private final Map<String, String> scripts = new HashMap<>();
+
+    /**
+     * 各语言空闲的执行进程
+     */
+    private final Map<String, ArrayDeque<InterpreterWorker>> idle = new ConcurrentHashMap<>();
+
+    private final LongAdder jobs = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final Map<String, LongAdder> recycled = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        workerLanguages = Arrays.stream(languages.split(","))
+                .map(String::trim)
+                .map(String::toLowerCase)
+                .filter(language -> !language.isEmpty())
+                .collect(Collectors.toSet());
+        for (String language : workerLanguages) {
+            ClassPathResource resource = new ClassPathResource(SCRIPT_LOCATION + language + "_worker."
+                    + ("python".equals(language) ? "py" : "js"));
+            if (!resource.exists()) {
+                throw new IllegalStateException("缺少执行进程脚本: " + resource.getPath());
+            }
+            try (InputStream inputStream = resource.getInputStream()) {
+                scripts.put(language, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        log.info("常驻执行进程已启用，语言: {}, 单进程最大任务数: {}", workerLanguages, maxJobs);
+        bindMetrics();
+    }
+
+    /**
+     * 注册各语言空闲进程数与任务、启动、复用计数指标
+     */
+    private void bindMetrics() {
+        for (String language : workerLanguages) {
+            Gauge.builder("sandbox.workers.idle", idle, workers -> {
+                        ArrayDeque<InterpreterWorker> queue = workers.get(language);
+                        if (queue == null) {
+                            return 0;
+                        }
+                        synchronized (queue) {
+                            return queue.size();
+                        }
+                    })
+                    .description("空闲的常驻执行进程数")
+                    .tag("language", language)
+                    .register(meterRegistry);
+        }
+        FunctionCounter.builder("sandbox.workers.jobs", jobs, LongAdder::sum)
+                .description("常驻执行进程处理的任务数")
+                .register(meterRegistry);
+        FunctionCounter.builder("sandbox.workers.started", started, LongAdder::sum)
+                .description("启动的常驻执行进程数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ArrayDeque<InterpreterWorker> workers : idle.values()) {
+            List<InterpreterWorker> drained;
+            synchronized (workers) {
+                drained = new ArrayList<>(workers);
+                workers.clear();
+            }
+            drained.forEach(worker -> retire(worker, null));
+        }
+    }
+
+    /**
+     * 该语言是否使用常驻执行进程
+     */
+    public boolean supports(String language) {
+        return language != null && workerLanguages.contains(language.toLowerCase());
+    }
+
+    /**
+     * 在常驻执行进程中运行一次用户代码
+     *
+     * @param language 编程语言
+     * @param code 源码
+     * @param input 标准输入，可为null
+     * @param timeoutSeconds 超时时间（秒）
+     * @param memoryLimit 内存限制（MB）
+     * @param maxOutputBytes 每个输出流保留的最大字节数
+     * @param execution 执行句柄，取消时据此终止执行进程
+     * @return 任务结果
+     */
+    public WorkerJobResult run(String language, String code, String input, int timeoutSeconds, int memoryLimit,
+                               int maxOutputBytes, RunningExecution execution)
+            throws IOException, InterruptedException, TimeoutException {
+        long startupStart = System.currentTimeMillis();
+        InterpreterWorker worker = borrow(language.toLowerCase(), memoryLimit);
+        long startupMillis = System.currentTimeMillis() - startupStart;
+
+        Map<String, Object> job = new LinkedHashMap<>();
+        job.put("id", UUID.randomUUID().toString());
+        job.put("code", code);
+        job.put("input", input);
+        job.put("timeoutMs", timeoutSeconds * 1000L);
+        job.put("maxOutputBytes", maxOutputBytes);
+
+        WorkerJobResult result;
+        String recycleReason = null;
+        runningExecutions.attachProcess(execution, worker.getProcess(), worker.getContainer());
+        try {
+            jobs.increment();
+            result = worker.execute(job, timeoutSeconds * 1000L + grace);
+            if (result == null) {
+                // CPU计时之外的阻塞（如sleep）由宿主按墙钟时间兜底
+                result = new WorkerJobResult();
+                result.setStatus("TIMEOUT");
+                recycleReason = "timeout";
+            } else if (result.getAnomalies() != null && !result.getAnomalies().isEmpty()) {
+                log.debug("执行进程报告异常，回收进程: {}", result.getAnomalies());
+                recycleReason = "anomaly";
+            } else if (result.getMaxRssKb() != null && result.getMaxRssKb() > memoryLimit * 1024L / 2) {
+                recycleReason = "memory";
+            } else if (worker.getJobCount() >= maxJobs) {
+                recycleReason = "max-jobs";
+            }
+        } catch (IOException e) {
+            result = describeCrash(worker);
+            recycleReason = "crash";
+        } finally {
+            runningExecutions.detachProcess(execution);
+        }
+
+        if (execution.isCancelled()) {
+            recycleReason = "cancelled";
+        }
+        if (recycleReason != null) {
+            retire(worker, recycleReason);
+        } else {
+            giveBack(worker);
+        }
+        result.setStartupMillis(startupMillis);
+        return result;
+    }
+
+    /**
+     * 回收长期空闲的执行进程，释放其占用的容器
+     */
+    @Scheduled(fixedDelayString = "${sandbox.workers.maintain-interval:30000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (ArrayDeque<InterpreterWorker> workers : idle.values()) {
+            List<InterpreterWorker> expired = new ArrayList<>();
+            synchronized (workers) {
+                Iterator<InterpreterWorker> iterator = workers.iterator();
+                while (iterator.hasNext()) {
+                    InterpreterWorker worker = iterator.next();
+                    if (now - worker.getLastUsedAt() > maxIdleTime || !worker.getProcess().isAlive()) {
+                        iterator.remove();
+                        expired.add(worker);
+                    }
+                }
+            }
+            expired.forEach(worker -> retire(worker, "idle"));
+        }
+    }
+
+    /**
+     * 获取执行进程池状态
+     *
+     * @return 状态描述
+     */
+    public String getWorkerStatus() {
+        if (!enabled) {
+            return "常驻执行进程: 未启用";
+        }
+        String idleCounts = idle.entrySet().stream()
+                .map(entry -> {
+                    synchronized (entry.getValue()) {
+                        return entry.getKey() + "=" + entry.getValue().size();
+                    }
+                })
+                .collect(Collectors.joining(", "));
+        String recycleCounts = recycled.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue().sum())
+                .collect(Collectors.joining(", "));
+        return String.format("常驻执行进程: 任务=%d, 启动=%d, 复用=%d, 空闲[%s], 回收[%s]",
+                jobs.sum(), started.sum(), reused.sum(), idleCounts, recycleCounts);
+    }
+
+    private InterpreterWorker borrow(String language, int memoryLimit)
+            throws IOException, InterruptedException, TimeoutException {
+        ArrayDeque<InterpreterWorker> workers = idle.computeIfAbsent(language, key -> new ArrayDeque<>());
+        while (true) {
+            InterpreterWorker worker;
+            synchronized (workers) {
+                worker = workers.pollFirst();
+            }
+            if (worker == null) {
+                break;
+            }
+            if (worker.getProcess().isAlive()) {
+                containerPool.applyMemoryLimit(worker.getContainer(), memoryLimit);
+                reused.increment();
+                return worker;
+            }
+            retire(worker, "crash");
+        }
+
+        SandboxContainer container = containerPool.lease(language);
+        try {
+            containerPool.applyMemoryLimit(container, memoryLimit);
+            InterpreterWorker worker = InterpreterWorker.start(language, container,
+                    buildCommand(language, container), startTimeout);
+            started.increment();
+            return worker;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            containerPool.release(container, true);
+            throw e;
+        }
+    }
+
+    private void giveBack(InterpreterWorker worker) {
+        ArrayDeque<InterpreterWorker> workers = idle.computeIfAbsent(worker.getLanguage(), key -> new ArrayDeque<>());
+        synchronized (workers) {
+            if (workers.size() < maxIdle) {
+                workers.addFirst(worker);
+                return;
+            }
+        }
+        retire(worker, "surplus");
+    }
+
+    /**
+     * 回收执行进程：正常退出的进程所在容器重置后可复用，其余情况驱逐容器
+     *
+     * @param reason 回收原因，用于统计；关闭时为null
+     */
+    private void retire(InterpreterWorker worker, String reason) {
+        if (reason != null) {
+            recycled.computeIfAbsent(reason, key -> new LongAdder()).increment();
+        }
+        boolean clean = false;
+        if (worker.getProcess().isAlive() && ("max-jobs".equals(reason) || "idle".equals(reason)
+                || "surplus".equals(reason))) {
+            try {
+                clean = worker.shutdown(SHUTDOWN_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            worker.getProcess().destroyForcibly();
+        }
+        containerPool.release(worker.getContainer(), !clean);
+    }
+
+    /**
+     * 执行进程异常退出时，按退出码与错误输出判断原因
+     */
+    private WorkerJobResult describeCrash(InterpreterWorker worker) throws InterruptedException {
+        Integer exitCode = worker.awaitExitCode(SHUTDOWN_TIMEOUT);
+        String errorTail = worker.getErrorTail();
+        WorkerJobResult result = new WorkerJobResult();
+        result.setExitCode(exitCode != null ? exitCode : -1);
+        // 137为被SIGKILL终止（cgroup OOM），或V8堆内存耗尽
+        if ((exitCode != null && exitCode == 137) || errorTail.contains("heap out of memory")
+                || errorTail.contains("MemoryError")) {
+            result.setStatus("MEMORY_EXCEEDED");
+        }
+        result.setStderr(errorTail.isEmpty() ? "执行进程异常退出" : errorTail);
+        return result;
+    }
+
+    /**
+     * 构造容器内的启动命令；脚本以Base64传入，不受宿主机命令行参数编码影响
+     */
+    private List<String> buildCommand(String language, SandboxContainer container) {
+        String encoded = Base64.getEncoder().encodeToString(scripts.get(language).getBytes(StandardCharsets.UTF_8));
+        List<String> command = new ArrayList<>(List.of("docker", "exec", "-i",
+                "-w", SandboxContainerPool.CONTAINER_WORKSPACE, container.getContainerId()));
+        if ("python".equals(language)) {
+            // -I：隔离模式，忽略环境变量与用户site-packages，当前目录不在模块搜索路径中
+            command.addAll(List.of("python", "-I", "-u", "-c",
+                    "import base64; exec(base64.b64decode('" + encoded + "').decode('utf-8'))"));
+        } else {
+            // 禁止eval/new Function，阻断通过宿主对象的构造函数逃逸vm上下文
+            command.addAll(List.of("node", "--disallow-code-generation-from-strings", "-e",
+                    "require('vm').runInThisContext('(function (require) {' + Buffer.from('" + encoded
+                            + "', 'base64').toString('utf8') + '\\n})', { filename: '" + WORKER_FILENAME
+                            + "' })(require)"));
+        }
+        return command;
+    }
+}
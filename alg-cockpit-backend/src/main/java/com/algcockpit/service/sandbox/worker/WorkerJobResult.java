@@ -0,0 +1,58 @@
+package com.algcockpit.service.sandbox.worker;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 常驻执行进程返回的单个任务结果
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Data
+public class WorkerJobResult {
+
+    /**
+     * 任务ID
+     */
+    private String id;
+
+    /**
+     * 异常状态：TIMEOUT、MEMORY_EXCEEDED，正常结束时为null
+     */
+    private String status;
+
+    /**
+     * 退出码（sys.exit/process.exit的参数，未捕获异常为1）
+     */
+    private Integer exitCode;
+
+    private String stdout;
+
+    private String stderr;
+
+    private Boolean stdoutTruncated;
+
+    private Boolean stderrTruncated;
+
+    private Long cpuUserMs;
+
+    private Long cpuSystemMs;
+
+    private Long wallMs;
+
+    /**
+     * 执行进程的峰值常驻内存（KB，进程生命周期内的峰值）
+     */
+    private Long maxRssKb;
+
+    /**
+     * 执行后检测到的可能影响后续任务的异常，非空时回收执行进程
+     */
+    private List<String> anomalies;
+
+    /**
+     * 取得执行进程所花的时间（毫秒，复用空闲进程时接近0），由宿主填写
+     */
+    private Long startupMillis;
+}
@@ -0,0 +1,284 @@
+package com.algcockpit.service.security;
+
+import java.util.Set;
+
+/**
+ * 源码预处理
+ * 按语言的词法规则把注释和字符串字面量替换为一个空格，使安全规则只匹配真正的代码，
+ * 不再因注释、提示文字中出现关键字而误判。
+ * 遇到无法可靠切分的写法（字面量中可嵌入代码、可能被提前结束、正则字面量有歧义、注释或字符串未闭合）时放弃处理，
+ * 按原始源码检查，宁可误判也不漏判
+ *
+ * @author Algorithm Cockpit Team
+ */
+public final class CodeSanitizer {
+
+    /**
+     * JavaScript中其后的 / 开始正则字面量的关键字
+     */
+    private static final Set<String> REGEX_PRECEDING_KEYWORDS = Set.of(
+            "return", "typeof", "instanceof", "in", "of", "new", "delete", "void", "throw", "case", "do", "else",
+            "yield", "await");
+
+    private CodeSanitizer() {
+    }
+
+    /**
+     * 去除注释和字符串字面量
+     *
+     * @param code 源码
+     * @param validator 校验器（java、javascript、cpp、python），其他校验器原样返回
+     * @return 处理后的源码，无法可靠处理时返回原始源码
+     */
+    public static String strip(String code, String validator) {
+        String stripped;
+        switch (validator) {
+            case "java":
+                // Java在词法分析前处理\\u转义，\\u0022可以提前结束字符串
+                stripped = code.contains("\\u") ? null : stripCStyle(code, false, false);
+                break;
+            case "javascript":
+                // 模板字符串中的${}是代码
+                stripped = code.indexOf('`') >= 0 ? null : stripCStyle(code, true, false);
+                break;
+            case "cpp":
+                // 原始字符串R"(...)"中的引号不结束字符串
+                stripped = code.contains("R\"") ? null : stripCStyle(code, false, true);
+                break;
+            case "python":
+                stripped = stripPython(code);
+                break;
+            default:
+                stripped = code;
+        }
+        return stripped != null ? stripped : code;
+    }
+
+    /**
+     * C风格语言：行注释、块注释，单双引号字符串（支持反斜杠转义）
+     *
+     * @param javascript 是否识别JavaScript正则字面量
+     * @param digitSeparators 是否识别C++14数字分隔符
+     * @return 处理后的源码，无法可靠处理时返回null
+     */
+    private static String stripCStyle(String code, boolean javascript, boolean digitSeparators) {
+        StringBuilder out = new StringBuilder(code.length());
+        int length = code.length();
+        int i = 0;
+        while (i < length) {
+            char c = code.charAt(i);
+            char next = i + 1 < length ? code.charAt(i + 1) : 0;
+            int end;
+            if (c == '/' && next == '/') {
+                end = code.indexOf('\n', i);
+                end = end < 0 ? length : end;
+            } else if (c == '/' && next == '*') {
+                end = code.indexOf("*/", i + 2);
+                if (end < 0) {
+                    return null;
+                }
+                end += 2;
+            } else if (c == '/' && javascript) {
+                Boolean regex = startsRegex(out);
+                if (regex == null) {
+                    return null;
+                }
+                if (!regex) {
+                    out.append(c);
+                    i++;
+                    continue;
+                }
+                // 正则字面量按代码保留
+                end = skipRegex(code, i);
+                if (end < 0) {
+                    return null;
+                }
+                out.append(code, i, end);
+                i = end;
+                continue;
+            } else if (c == '\'' && digitSeparators && isDigitSeparator(code, i)) {
+                // C++14数字分隔符（1'000、0xFF'FF），不是字符字面量
+                out.append(c);
+                i++;
+                continue;
+            } else if (c == '"' || c == '\'') {
+                end = skipQuoted(code, i, c);
+                if (end < 0) {
+                    return null;
+                }
+            } else {
+                out.append(c);
+                i++;
+                continue;
+            }
+            out.append(' ');
+            i = end;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Python：# 注释，单/双引号与三引号字符串（含r、b、u前缀）
+     *
+     * @return 处理后的源码，含f-string（花括号中是代码）或无法可靠处理时返回null
+     */
+    private static String stripPython(String code) {
+        StringBuilder out = new StringBuilder(code.length());
+        int length = code.length();
+        int i = 0;
+        while (i < length) {
+            char c = code.charAt(i);
+            int end;
+            if (c == '#') {
+                end = code.indexOf('\n', i);
+                end = end < 0 ? length : end;
+            } else if (c == '"' || c == '\'') {
+                if (isFormatString(code, i)) {
+                    return null;
+                }
+                String triple = String.valueOf(c).repeat(3);
+                if (code.startsWith(triple, i)) {
+                    end = indexOfUnescaped(code, triple, i + 3);
+                    end = end < 0 ? -1 : end + 3;
+                } else {
+                    end = skipQuoted(code, i, c);
+                }
+                if (end < 0) {
+                    return null;
+                }
+            } else {
+                out.append(c);
+                i++;
+                continue;
+            }
+            out.append(' ');
+            i = end;
+        }
+        return out.toString();
+    }
+
+    /**
+     * 跳过单行引号字符串
+     *
+     * @return 结束引号之后的位置，遇到换行或到达末尾仍未闭合时返回-1
+     */
+    private static int skipQuoted(String code, int start, char quote) {
+        for (int i = start + 1; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i + 1;
+            } else if (c == '\n') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 单引号是否是C++14数字分隔符：位于以数字开头的数值记号（pp-number）中，且后面是字母或数字
+     */
+    private static boolean isDigitSeparator(String code, int quote) {
+        if (quote + 1 >= code.length() || !Character.isLetterOrDigit(code.charAt(quote + 1))) {
+            return false;
+        }
+        int start = quote;
+        while (start > 0 && isNumberPart(code.charAt(start - 1))) {
+            start--;
+        }
+        if (start == quote) {
+            return false;
+        }
+        char first = code.charAt(start);
+        return isDigit(first) || (first == '.' && start + 1 < quote && isDigit(code.charAt(start + 1)));
+    }
+
+    private static boolean isNumberPart(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '.' || c == '\'';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int indexOfUnescaped(String code, String target, int from) {
+        for (int i = from; i < code.length(); i++) {
+            if (code.charAt(i) == '\\') {
+                i++;
+            } else if (code.startsWith(target, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 引号前的字符串前缀中是否含f（如 f"..."、rf'...'）
+     */
+    private static boolean isFormatString(String code, int quote) {
+        for (int i = quote - 1; i >= 0 && i >= quote - 2 && Character.isLetter(code.charAt(i)); i--) {
+            if (code.charAt(i) == 'f' || code.charAt(i) == 'F') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 根据前一个有效字符判断 / 是否开始正则字面量
+     *
+     * @param out 已输出的源码
+     * @return true 正则，false 除号，null 有歧义（右括号、右花括号之后）
+     */
+    private static Boolean startsRegex(StringBuilder out) {
+        int i = out.length() - 1;
+        while (i >= 0 && Character.isWhitespace(out.charAt(i))) {
+            i--;
+        }
+        if (i < 0) {
+            return true;
+        }
+        char previous = out.charAt(i);
+        if (previous == ')' || previous == '}') {
+            return null;
+        }
+        if (Character.isLetterOrDigit(previous) || previous == '_' || previous == '$') {
+            int start = i;
+            while (start > 0 && (Character.isLetterOrDigit(out.charAt(start - 1)) || out.charAt(start - 1) == '_'
+                    || out.charAt(start - 1) == '$')) {
+                start--;
+            }
+            return REGEX_PRECEDING_KEYWORDS.contains(out.substring(start, i + 1));
+        }
+        return previous != ']';
+    }
+
+    /**
+     * 跳过正则字面量（含字符类中的 /）及其标志
+     *
+     * @return 正则字面量之后的位置，未闭合时返回-1
+     */
+    private static int skipRegex(String code, int start) {
+        boolean inClass = false;
+        for (int i = start + 1; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '\n') {
+                return -1;
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                int end = i + 1;
+                while (end < code.length() && Character.isLetter(code.charAt(end))) {
+                    end++;
+                }
+                return end;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,136 +1,136 @@
 package com.algcockpit.service.security;
 
+import cn.hutool.crypto.digest.DigestUtil;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntime;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntimeRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 代码安全验证器
- * 负责验证各种编程语言代码的安全性
- * 
+ * 负责验证各种编程语言代码的安全性；规则由 sandbox.security.rules.&lt;校验器&gt; 配置，
+ * 启动时每个校验器的全部规则编译为一个多关键字扫描器，校验时单遍扫描去除注释和字符串字面量后的源码。
+ * 校验结论按（校验器+源码哈希）缓存，相同源码只分析一次；保存算法代码时预先校验，执行参考实现时直接命中
+ *
  * @author Algorithm Cockpit Team
  */
 @Slf4j
 @Component
+@ConfigurationProperties(prefix = "sandbox.security")
 public class CodeSecurityValidator {
 
-    // 通用危险操作的正则表达式模式
-    private static final Pattern DANGEROUS_PATTERNS = Pattern.compile(
-        "(?i)(system\\.|runtime\\.|processbuilder|exec\\s*\\(|eval\\s*\\(|scriptengine|reflection|unsafe|jni|native)"
-    );
+    private static final String GENERIC_VALIDATOR = "generic";
+
+    @Autowired
+    private LanguageRuntimeRegistry runtimeRegistry;
 
     /**
-     * 验证代码安全性
-     * 
-     * @param code 代码内容
-     * @param language 编程语言
-     * @return 是否安全
+     * 代码长度上限（字符）
      */
-    public Boolean validateCodeSecurity(String code, String language) {
-        if (code == null || code.trim().isEmpty()) {
-            log.warn("代码为空或null");
-            return false;
-        }
-
-        // 检查代码长度限制
-        if (code.length() > 10000) {
-            log.warn("代码长度超过限制: {} 字符", code.length());
-            return false;
-        }
-
-        // 语言特定的安全检查
-        switch (language.toLowerCase()) {
-            case "java":
-                return validateJavaCodeSecurity(code);
-            case "python":
-                return validatePythonCodeSecurity(code);
-            case "javascript":
-                return validateJavaScriptCodeSecurity(code);
-            case "cpp":
-            case "c":
-                return validateCppCodeSecurity(code);
-            default:
-                return validateGenericCodeSecurity(code);
-        }
-    }
+    @Getter
+    @Setter
+    private int maxCodeLength = 10000;
 
     /**
-     * 验证Java代码安全性
+     * 校验器 -> 规则（由配置绑定）
      */
-    private Boolean validateJavaCodeSecurity(String code) {
-        // 检查危险的系统调用
-        if (DANGEROUS_PATTERNS.matcher(code).find()) {
-            log.warn("Java代码包含危险操作");
-            return false;
-        }
+    @Getter
+    @Setter
+    private Map<String, List<SecurityRule>> rules = new LinkedHashMap<>();
 
-        // 检查文件操作
-        if (Pattern.compile("(?i)(fileinputstream|fileoutputstream|filewriter|filereader)").matcher(code).find()) {
-            log.warn("Java代码包含文件操作");
-            return false;
-        }
+    /**
+     * 校验结论缓存容量（条）
+     */
+    @Getter
+    @Setter
+    private int verdictCacheSize = 10000;
 
-        // 检查网络操作
-        if (Pattern.compile("(?i)(socket|urlconnection|httpclient)").matcher(code).find()) {
-            log.warn("Java代码包含网络操作");
-            return false;
-        }
+    private Map<String, KeywordScanner> scanners = Collections.emptyMap();
 
-        return true;
-    }
+    /**
+     * 校验结论缓存（校验器:源码SHA-256 -> 结论），LRU淘汰
+     */
+    private final Map<String, Verdict> verdicts = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Verdict> eldest) {
+                    return size() > verdictCacheSize;
+                }
+            });
 
     /**
-     * 验证Python代码安全性
+     * 校验结论，不安全时保留命中的规则以便缓存命中时仍能记录原因
      */
-    private Boolean validatePythonCodeSecurity(String code) {
-        // 检查危险模块导入
-        if (Pattern.compile("(?i)(import\\s+(os|sys|subprocess|shutil|importlib|ctypes|socket|urllib|requests|pickle|marshal|eval|exec|compile|__import__))").matcher(code).find()) {
-            log.warn("Python代码包含危险模块导入");
-            return false;
+    private static class Verdict {
+
+        private static final Verdict SAFE = new Verdict(null);
+
+        private final String reason;
+
+        Verdict(String reason) {
+            this.reason = reason;
         }
 
-        // 检查危险函数调用
-        if (Pattern.compile("(?i)(\\b(exec|eval|compile|input|open|file|__import__|getattr|setattr|delattr|globals|locals|vars|dir|type|isinstance|issubclass|super|__subclasses__|__bases__|__mro__|__class__|__dict__)\\s*\\(").matcher(code).find()) {
-            log.warn("Python代码包含危险函数调用");
-            return false;
+        boolean isSafe() {
+            return reason == null;
         }
+    }
 
-        return true;
+    @PostConstruct
+    public void init() {
+        Map<String, KeywordScanner> compiled = new HashMap<>();
+        rules.forEach((validator, validatorRules) ->
+                compiled.put(validator.toLowerCase(), new KeywordScanner(validatorRules)));
+        if (!compiled.containsKey(GENERIC_VALIDATOR)) {
+            log.warn("未配置通用安全规则（sandbox.security.rules.generic），未配置规则的语言将不做关键字检查");
+            compiled.put(GENERIC_VALIDATOR, new KeywordScanner(new ArrayList<>()));
+        }
+        scanners = compiled;
+        log.info("已加载代码安全规则: {}", scanners.keySet());
     }
 
     /**
-     * 验证JavaScript代码安全性
+     * 验证代码安全性
+     *
+     * @param code 代码内容
+     * @param language 编程语言
+     * @return 是否安全
      */
-    private Boolean validateJavaScriptCodeSecurity(String code) {
-        // 检查危险函数调用
-        if (Pattern.compile("(?i)(\\b(eval|Function|setTimeout|setInterval|exec|import|require)\\s*\\(").matcher(code).find()) {
-            log.warn("JavaScript代码包含危险函数调用");
+    public Boolean validateCodeSecurity(String code, String language) {
+        if (code == null || code.trim().isEmpty()) {
+            log.warn("代码为空或null");
             return false;
         }
 
-        // 检查全局对象访问
-        if (Pattern.compile("(?i)(window\\.|document\\.|location\\.|history\\.|navigator\\.)").matcher(code).find()) {
-            log.warn("JavaScript代码包含全局对象访问");
+        // 检查代码长度限制
+        if (code.length() > maxCodeLength) {
+            log.warn("代码长度超过限制: {} 字符", code.length());
             return false;
         }
 
-        return true;
-    }
-
-    /**
-     * 验证C/C++代码安全性
-     */
-    private Boolean validateCppCodeSecurity(String code) {
-        // 检查系统调用
-        if (Pattern.compile("(?i)(system|exec|fork|popen|fopen|fwrite|socket|connect|bind)").matcher(code).find()) {
-            log.warn("C/C++代码包含危险系统调用");
-            return false;
+        // 语言特定的安全检查，由语言运行时配置的校验器决定，未配置规则的校验器使用通用规则
+        LanguageRuntime runtime = runtimeRegistry.find(language);
+        String validator = runtime != null ? runtime.getValidator().toLowerCase() : GENERIC_VALIDATOR;
+        String key = validator + ":" + DigestUtil.sha256Hex(code);
+        Verdict verdict = verdicts.get(key);
+        if (verdict == null) {
+            verdict = analyze(code, validator);
+            verdicts.put(key, verdict);
         }
-
-        // 检查指针操作
-        if (Pattern.compile("(?i)(malloc|calloc|realloc|free|new|delete)").matcher(code).find()) {
-            log.warn("C/C++代码包含动态内存操作");
+        if (!verdict.isSafe()) {
+            log.warn("{}代码{}", language, verdict.reason);
             return false;
         }
 
@@ -138,15 +138,14 @@ public class CodeSecurityValidator {
     }
 
     /**
-     * 通用代码安全检查
+     * 分析源码：去除注释和字符串字面量后按校验器的规则扫描
      */
-    private Boolean validateGenericCodeSecurity(String code) {
-        // 检查常见的危险模式
-        if (DANGEROUS_PATTERNS.matcher(code).find()) {
-            log.warn("代码包含通用危险操作");
-            return false;
+    private Verdict analyze(String code, String validator) {
+        KeywordScanner scanner = scanners.getOrDefault(validator, scanners.get(GENERIC_VALIDATOR));
+        KeywordScanner.Match match = scanner.scan(CodeSanitizer.strip(code, validator));
+        if (match == null) {
+            return Verdict.SAFE;
         }
-
-        return true;
+        return new Verdict(match.getRule().getDescription() + ": " + match.getKeyword());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,276 @@
+package com.algcockpit.service.security;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 多关键字扫描器
+ * 将一组安全规则的全部关键字编译为Aho-Corasick自动机（展开为确定状态转移表），
+ * 单遍扫描源码即可找出第一处命中；扫描时按ASCII忽略大小写，连续空白视为一个空格。
+ * 编译后只读，可被多个线程共享
+ *
+ * @author Algorithm Cockpit Team
+ */
+public class KeywordScanner {
+
+    /**
+     * 命中结果
+     */
+    public static class Match {
+
+        private final SecurityRule rule;
+        private final String keyword;
+
+        Match(SecurityRule rule, String keyword) {
+            this.rule = rule;
+            this.keyword = keyword;
+        }
+
+        public SecurityRule getRule() {
+            return rule;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+    }
+
+    private static final int[] NO_OUTPUT = new int[0];
+
+    /**
+     * 字符 -> 字母表下标，0表示不出现在任何关键字中的字符
+     */
+    private final int[] charClass = new int[128];
+
+    private final int alphabetSize;
+
+    /**
+     * 状态转移表：状态 * 字母表大小 + 字符类 -> 下一状态
+     */
+    private final int[] transitions;
+
+    /**
+     * 状态 -> 在该状态结束的关键字下标（含失配链上的）
+     */
+    private final int[][] outputs;
+
+    private final SecurityRule[] keywordRules;
+    private final String[] keywords;
+    private final int[] keywordLengths;
+
+    /**
+     * 回看缓冲区大小（2的幂，大于最长关键字），用于检查关键字前一个字符
+     */
+    private final int historyMask;
+
+    public KeywordScanner(List<SecurityRule> rules) {
+        List<SecurityRule> owners = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        int maxLength = 1;
+        for (SecurityRule rule : rules) {
+            for (String keyword : rule.getKeywords()) {
+                String word = normalize(keyword);
+                if (word.isEmpty()) {
+                    continue;
+                }
+                owners.add(rule);
+                words.add(word);
+                maxLength = Math.max(maxLength, word.length());
+            }
+        }
+        keywordRules = owners.toArray(new SecurityRule[0]);
+        keywords = words.toArray(new String[0]);
+        keywordLengths = words.stream().mapToInt(String::length).toArray();
+        historyMask = Integer.highestOneBit(maxLength) * 2 - 1;
+
+        int classes = 1;
+        for (String word : keywords) {
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (charClass[c] == 0) {
+                    charClass[c] = classes++;
+                }
+            }
+        }
+        alphabetSize = classes;
+
+        // 构建字典树
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(newNode());
+        ends.add(new ArrayList<>());
+        for (int k = 0; k < keywords.length; k++) {
+            int state = 0;
+            for (int i = 0; i < keywords[k].length(); i++) {
+                int symbol = charClass[keywords[k].charAt(i)];
+                if (trie.get(state)[symbol] < 0) {
+                    trie.get(state)[symbol] = trie.size();
+                    trie.add(newNode());
+                    ends.add(new ArrayList<>());
+                }
+                state = trie.get(state)[symbol];
+            }
+            ends.get(state).add(k);
+        }
+
+        // 按层计算失配链，同时把转移补全为确定自动机
+        int states = trie.size();
+        int[] fail = new int[states];
+        transitions = new int[states * alphabetSize];
+        outputs = new int[states][];
+        outputs[0] = toArray(ends.get(0));
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int next = trie.get(0)[symbol];
+            if (next > 0 && symbol != 0) {
+                fail[next] = 0;
+                transitions[symbol] = next;
+                queue.add(next);
+            } else {
+                transitions[symbol] = 0;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = merge(ends.get(state), outputs[fail[state]]);
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int next = trie.get(state)[symbol];
+                int fallback = transitions[fail[state] * alphabetSize + symbol];
+                if (next > 0 && symbol != 0) {
+                    fail[next] = fallback;
+                    transitions[state * alphabetSize + symbol] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * alphabetSize + symbol] = fallback;
+                }
+            }
+        }
+    }
+
+    /**
+     * 扫描源码
+     *
+     * @param code 源码
+     * @return 第一处命中，未命中时返回null
+     */
+    public Match scan(String code) {
+        if (keywords.length == 0) {
+            return null;
+        }
+        char[] history = new char[historyMask + 1];
+        int position = 0;
+        int state = 0;
+        boolean inWhitespace = false;
+        int length = code.length();
+        for (int i = 0; i < length; i++) {
+            char c = code.charAt(i);
+            if (isWhitespace(c)) {
+                if (inWhitespace) {
+                    continue;
+                }
+                inWhitespace = true;
+                c = ' ';
+            } else {
+                inWhitespace = false;
+                if (c >= 'A' && c <= 'Z') {
+                    c = (char) (c + ('a' - 'A'));
+                }
+            }
+            history[position & historyMask] = c;
+            position++;
+            state = transitions[state * alphabetSize + (c < 128 ? charClass[c] : 0)];
+            int[] matched = outputs[state];
+            for (int k : matched) {
+                if (accepts(k, code, i, history, position)) {
+                    return new Match(keywordRules[k], keywords[k]);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 检查关键字附加条件：单词开头、函数调用
+     *
+     * @param end 关键字最后一个字符在源码中的下标
+     * @param position 已扫描的（空白折叠后）字符数
+     */
+    private boolean accepts(int keyword, String code, int end, char[] history, int position) {
+        SecurityRule rule = keywordRules[keyword];
+        if (rule.isWordStart()) {
+            int before = position - keywordLengths[keyword] - 1;
+            if (before >= 0 && isIdentifierChar(history[before & historyMask])) {
+                return false;
+            }
+        }
+        if (rule.isCall()) {
+            int i = end + 1;
+            while (i < code.length() && isWhitespace(code.charAt(i))) {
+                i++;
+            }
+            return i < code.length() && code.charAt(i) == '(';
+        }
+        return true;
+    }
+
+    /**
+     * 关键字规范化：转小写、连续空白折叠为一个空格；只接受ASCII
+     */
+    private static String normalize(String keyword) {
+        StringBuilder normalized = new StringBuilder();
+        boolean inWhitespace = false;
+        for (char c : keyword.trim().toCharArray()) {
+            if (c >= 128) {
+                throw new IllegalArgumentException("安全规则关键字只能包含ASCII字符: " + keyword);
+            }
+            if (isWhitespace(c)) {
+                if (!inWhitespace) {
+                    normalized.append(' ');
+                }
+                inWhitespace = true;
+            } else {
+                normalized.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+                inWhitespace = false;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * 与正则表达式 \s 相同的空白字符
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
+    /**
+     * 与正则表达式 \b 的判断一致：ASCII字母数字、下划线及非ASCII的字母数字
+     */
+    private static boolean isIdentifierChar(char c) {
+        if (c < 128) {
+            return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_';
+        }
+        return Character.isLetterOrDigit(c);
+    }
+
+    private int[] newNode() {
+        int[] node = new int[alphabetSize];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.isEmpty() ? NO_OUTPUT : values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] merge(List<Integer> own, int[] inherited) {
+        if (own.isEmpty()) {
+            return inherited;
+        }
+        int[] merged = Arrays.copyOf(toArray(own), own.size() + inherited.length);
+        System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+        return merged;
+    }
+}
@@ -0,0 +1,51 @@
+package com.algcockpit.service.security;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 代码安全规则
+ * 一组关键字及其匹配方式，由 sandbox.security.rules.&lt;校验器&gt; 配置；
+ * 关键字不区分大小写，关键字中的空格匹配任意长度的空白
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Data
+public class SecurityRule {
+
+    /**
+     * 任意位置出现即命中
+     */
+    public static final String MATCH_CONTAINS = "contains";
+
+    /**
+     * 关键字后（可隔空白）紧跟左括号才命中，即函数调用
+     */
+    public static final String MATCH_CALL = "call";
+
+    /**
+     * 规则说明，命中时记录到日志
+     */
+    private String description;
+
+    /**
+     * 匹配方式：contains 或 call
+     */
+    private String match = MATCH_CONTAINS;
+
+    /**
+     * 是否要求关键字前不是标识符字符（即从单词开头匹配）
+     */
+    private boolean wordStart;
+
+    /**
+     * 关键字（仅限ASCII）
+     */
+    private List<String> keywords = new ArrayList<>();
+
+    public boolean isCall() {
+        return MATCH_CALL.equalsIgnoreCase(match);
+    }
+}
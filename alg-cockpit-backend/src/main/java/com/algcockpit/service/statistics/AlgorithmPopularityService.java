@@ -0,0 +1,226 @@
+package com.algcockpit.service.statistics;
+
+import com.algcockpit.entity.Algorithm;
+import com.algcockpit.repository.AlgorithmRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 算法热度服务
+ * 浏览算法详情时只在内存计数器上累加（无锁），定时把增量批量写入MySQL，
+ * 同时累加到Redis有序集合；热门算法排行直接从有序集合读取，不再按popularity排序扫表。
+ * 有序集合不存在时（首次启动、Redis数据丢失）从MySQL的热度重建
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Service
+public class AlgorithmPopularityService {
+
+    private static final String RANKING_KEY = "alg:popularity";
+
+    @Autowired
+    private AlgorithmRepository algorithmRepository;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${alg.cockpit.popularity.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    /**
+     * 算法ID -> 未写入的热度增量
+     */
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        try {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(RANKING_KEY))) {
+                rebuildRanking();
+            }
+        } catch (Exception e) {
+            log.warn("初始化算法热度排行失败，热门算法将按数据库排序: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 热度加一
+     *
+     * @param algorithmId 算法ID
+     */
+    public void increment(Long algorithmId) {
+        if (algorithmId == null || algorithmId <= 0) {
+            return;
+        }
+        pending.computeIfAbsent(algorithmId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * 把热度增量批量写入MySQL并累加到排行；写库失败的增量放回计数器，下次继续写入
+     */
+    @Scheduled(initialDelayString = "${alg.cockpit.popularity.flush-interval:10000}",
+            fixedDelayString = "${alg.cockpit.popularity.flush-interval:10000}")
+    public void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        pending.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                deltas.put(id, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> written = new HashMap<>();
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        for (int from = 0; from < ids.size(); from += flushBatchSize) {
+            Map<Long, Long> batch = new HashMap<>();
+            for (Long id : ids.subList(from, Math.min(from + flushBatchSize, ids.size()))) {
+                batch.put(id, deltas.get(id));
+            }
+            try {
+                algorithmRepository.addPopularity(batch);
+                written.putAll(batch);
+            } catch (Exception e) {
+                log.warn("写入算法热度失败，算法数: {}, 原因: {}", batch.size(), e.getMessage());
+                batch.forEach((id, delta) -> pending.computeIfAbsent(id, key -> new LongAdder()).add(delta));
+            }
+        }
+        if (written.isEmpty()) {
+            return;
+        }
+
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] key = bytes(RANKING_KEY);
+                written.forEach((id, delta) -> connection.zSetCommands().zIncrBy(key, delta, bytes(id.toString())));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("更新算法热度排行失败，算法数: {}, 原因: {}", written.size(), e.getMessage());
+        }
+        log.debug("写入算法热度完成，算法数: {}", written.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 获取热度排行的一页
+     *
+     * @param offset 起始位置
+     * @param count 数量
+     * @return 算法ID -> 热度（按热度降序），排行不可用时返回null
+     */
+    public LinkedHashMap<Long, Integer> getRanking(long offset, long count) {
+        try {
+            Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+                    .reverseRangeWithScores(RANKING_KEY, offset, offset + count - 1);
+            if ((tuples == null || tuples.isEmpty()) && getRankingSize() == 0) {
+                if (!rebuildRanking()) {
+                    return null;
+                }
+                tuples = stringRedisTemplate.opsForZSet().reverseRangeWithScores(RANKING_KEY, offset, offset + count - 1);
+            }
+            LinkedHashMap<Long, Integer> ranking = new LinkedHashMap<>();
+            if (tuples != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                    ranking.put(Long.parseLong(tuple.getValue()),
+                            tuple.getScore() == null ? 0 : tuple.getScore().intValue());
+                }
+            }
+            return ranking;
+        } catch (Exception e) {
+            log.warn("读取算法热度排行失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 排行中的算法数
+     */
+    public long getRankingSize() {
+        Long size = stringRedisTemplate.opsForZSet().zCard(RANKING_KEY);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * 算法创建后加入排行
+     *
+     * @param algorithmId 算法ID
+     */
+    public void onCreated(Long algorithmId) {
+        try {
+            stringRedisTemplate.opsForZSet().addIfAbsent(RANKING_KEY, algorithmId.toString(), 0);
+        } catch (Exception e) {
+            log.warn("算法加入热度排行失败，算法ID: {}, 原因: {}", algorithmId, e.getMessage());
+        }
+    }
+
+    /**
+     * 算法删除后移出排行并丢弃未写入的增量
+     *
+     * @param algorithmId 算法ID
+     */
+    public void onDeleted(Long algorithmId) {
+        pending.remove(algorithmId);
+        try {
+            stringRedisTemplate.opsForZSet().remove(RANKING_KEY, algorithmId.toString());
+        } catch (Exception e) {
+            log.warn("算法移出热度排行失败，算法ID: {}, 原因: {}", algorithmId, e.getMessage());
+        }
+    }
+
+    /**
+     * 从MySQL重建排行；只添加排行中不存在的算法，不覆盖其他节点已累加的热度
+     *
+     * @return 是否成功
+     */
+    private boolean rebuildRanking() {
+        try {
+            List<Algorithm> algorithms = algorithmRepository.selectPopularities();
+            if (algorithms.isEmpty()) {
+                return true;
+            }
+            Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+            for (Algorithm algorithm : algorithms) {
+                int popularity = algorithm.getPopularity() == null ? 0 : algorithm.getPopularity();
+                tuples.add(new DefaultTypedTuple<>(algorithm.getId().toString(), (double) popularity));
+            }
+            stringRedisTemplate.opsForZSet().addIfAbsent(RANKING_KEY, tuples);
+            log.info("从数据库重建算法热度排行，算法数: {}", tuples.size());
+            return true;
+        } catch (Exception e) {
+            log.warn("重建算法热度排行失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
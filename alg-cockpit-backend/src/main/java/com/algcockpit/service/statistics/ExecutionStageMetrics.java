@@ -0,0 +1,163 @@
+package com.algcockpit.service.statistics;
+
+import com.algcockpit.dto.response.StageLatency;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 执行阶段耗时统计
+ * 按"阶段+语言"维护微秒级对数直方图，记录只有几次原子递增，可在执行路径上常开；
+ * 统计自本节点启动以来累计，用于找出负载下最慢的阶段；同时计入sandbox.stage指标
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Component
+public class ExecutionStageMetrics {
+
+    public static final String EXISTS_CHECK = "exists-check";
+    public static final String SECURITY_CHECK = "security-check";
+    public static final String QUEUE = "queue";
+    public static final String WORKSPACE = "workspace";
+    public static final String STARTUP = "startup";
+    public static final String COMPILE = "compile";
+    public static final String RUN = "run";
+    public static final String LOG = "log";
+    public static final String TOTAL = "total";
+
+    /**
+     * 阶段在执行流程中的顺序，用于输出排序
+     */
+    private static final List<String> STAGE_ORDER = List.of(
+            EXISTS_CHECK, SECURITY_CHECK, QUEUE, WORKSPACE, STARTUP, COMPILE, RUN, LOG, TOTAL);
+
+    private static final String ALL_LANGUAGES = "all";
+
+    private static final String UNKNOWN_LANGUAGE = "unknown";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 阶段 -> 语言 -> 耗时统计
+     */
+    private final Map<String, Map<String, StageTimer>> timers = new ConcurrentHashMap<>();
+
+    /**
+     * 记录阶段耗时
+     *
+     * @param stage 阶段
+     * @param language 编程语言
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(String stage, String language, long nanos) {
+        String lang = language == null || language.isBlank() ? UNKNOWN_LANGUAGE : language.toLowerCase();
+        timers.computeIfAbsent(stage, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(lang, key -> new StageTimer(Timer.builder("sandbox.stage")
+                        .description("执行流程各阶段耗时")
+                        .tag("stage", stage)
+                        .tag("language", key)
+                        .register(meterRegistry)))
+                .record(TimeUnit.NANOSECONDS.toMicros(Math.max(0, nanos)));
+    }
+
+    /**
+     * 记录以毫秒计的阶段耗时（执行器在响应中已测得的耗时），为null时忽略
+     *
+     * @param stage 阶段
+     * @param language 编程语言
+     * @param millis 耗时（毫秒）
+     */
+    public void recordMillis(String stage, String language, Long millis) {
+        if (millis != null) {
+            record(stage, language, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    /**
+     * 获取各阶段耗时统计，每个阶段包含各语言及所有语言合并的一行
+     *
+     * @return 按阶段顺序、语言排序的统计
+     */
+    public List<StageLatency> getStageLatencies() {
+        List<StageLatency> latencies = new ArrayList<>();
+        List<String> stages = new ArrayList<>(timers.keySet());
+        stages.sort(Comparator.comparingInt(stage -> STAGE_ORDER.indexOf(stage) < 0
+                ? STAGE_ORDER.size() : STAGE_ORDER.indexOf(stage)));
+        for (String stage : stages) {
+            long[] merged = new long[LogHistogram.BUCKET_COUNT];
+            long mergedSum = 0;
+            long mergedMax = 0;
+            for (Map.Entry<String, StageTimer> entry : new TreeMap<>(timers.get(stage)).entrySet()) {
+                StageTimer timer = entry.getValue();
+                long[] buckets = timer.histogram.snapshot();
+                long sum = timer.sumMicros.sum();
+                long max = timer.maxMicros.get();
+                latencies.add(toLatency(stage, entry.getKey(), buckets, sum, max));
+                for (int i = 0; i < buckets.length; i++) {
+                    merged[i] += buckets[i];
+                }
+                mergedSum += sum;
+                mergedMax = Math.max(mergedMax, max);
+            }
+            latencies.add(toLatency(stage, ALL_LANGUAGES, merged, mergedSum, mergedMax));
+        }
+        return latencies;
+    }
+
+    private static StageLatency toLatency(String stage, String language, long[] buckets, long sumMicros, long maxMicros) {
+        long count = 0;
+        for (long bucket : buckets) {
+            count += bucket;
+        }
+        return new StageLatency()
+                .setStage(stage)
+                .setLanguage(language)
+                .setCount(count)
+                .setMeanMs(count == 0 ? 0 : toMillis(sumMicros / count))
+                .setP50Ms(toMillis(Math.min(maxMicros, LogHistogram.percentile(buckets, 50))))
+                .setP95Ms(toMillis(Math.min(maxMicros, LogHistogram.percentile(buckets, 95))))
+                .setP99Ms(toMillis(Math.min(maxMicros, LogHistogram.percentile(buckets, 99))))
+                .setMaxMs(toMillis(maxMicros));
+    }
+
+    private static double toMillis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    /**
+     * 单个"阶段+语言"的耗时统计（微秒）
+     */
+    private static class StageTimer {
+
+        private final Timer timer;
+
+        private final LogHistogram histogram = new LogHistogram();
+
+        private final LongAdder sumMicros = new LongAdder();
+
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+        StageTimer(Timer timer) {
+            this.timer = timer;
+        }
+
+        void record(long micros) {
+            timer.record(micros, TimeUnit.MICROSECONDS);
+            histogram.record(micros);
+            sumMicros.add(micros);
+            maxMicros.accumulate(micros);
+        }
+    }
+}
@@ -1,62 +1,444 @@
 package com.algcockpit.service.statistics;
 
+import com.algcockpit.dto.response.ExecuteResponse;
+import com.algcockpit.entity.Algorithm;
+import com.algcockpit.entity.AlgorithmCategory;
+import com.algcockpit.repository.AlgorithmCategoryRepository;
+import com.algcockpit.repository.AlgorithmRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * 执行统计服务
- * 负责收集和提供算法执行的统计信息
- * 
+ * 按"算法+语言"和"系统+语言"两级维度在内存中增量维护计数器与对数直方图（无锁），
+ * 定时把各节点的增量合并到Redis Hash，并读回全局汇总；查询时以全局汇总加上本节点未合并的增量作答，
+ * 不扫描alg_execution；执行结果同时按语言、算法分类、结果计入sandbox.executions指标
+ *
  * @author Algorithm Cockpit Team
  */
 @Slf4j
 @Service
 public class ExecutionStatisticsService {
 
+    private static final String KEY_PREFIX = "stats:exec:";
+
     /**
-     * 获取算法执行统计信息
-     * 
+     * 所有统计维度的索引
+     */
+    private static final String SCOPES_KEY = KEY_PREFIX + "scopes";
+
+    private static final String ALGORITHM_SCOPE = "alg:";
+    private static final String SYSTEM_SCOPE = "sys:";
+
+    private static final String UNKNOWN = "unknown";
+
+    /**
+     * 执行结果在指标中的标签值（下标与StatisticsSnapshot的计数器对应）
+     */
+    private static final String[] OUTCOME_TAGS = {
+            null, "success", "failed", "timeout", "memory_exceeded", "cancelled"
+    };
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private AlgorithmRepository algorithmRepository;
+
+    @Autowired
+    private AlgorithmCategoryRepository algorithmCategoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sandbox.statistics.rollup-enabled:true}")
+    private boolean rollupEnabled;
+
+    /**
+     * 统计维度 -> 统计单元
+     */
+    private final Map<String, Cell> cells = new ConcurrentHashMap<>();
+
+    /**
+     * 算法ID -> 有执行记录的语言
+     */
+    private final Map<Long, Set<String>> languagesByAlgorithm = new ConcurrentHashMap<>();
+
+    private final Set<String> systemLanguages = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 算法ID -> 分类名称（指标标签）
+     */
+    private final Map<Long, String> categoryByAlgorithm = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!rollupEnabled) {
+            return;
+        }
+        try {
+            Set<String> scopes = stringRedisTemplate.opsForSet().members(SCOPES_KEY);
+            if (scopes != null && !scopes.isEmpty()) {
+                Map<String, StatisticsSnapshot> globals = loadGlobals(scopes);
+                globals.forEach((scope, global) -> cell(scope).base = new Base(global, new StatisticsSnapshot()));
+                log.info("从Redis加载执行统计汇总，维度数: {}", globals.size());
+            }
+        } catch (Exception e) {
+            log.warn("加载执行统计汇总失败，仅统计本节点执行: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 记录一次执行
+     *
      * @param algorithmId 算法ID
-     * @return 统计信息字符串
+     * @param language 编程语言
+     * @param response 执行响应
      */
-    public String getExecutionStatistics(Long algorithmId) {
-        // 这里可以连接数据库获取执行统计信息
-        // 暂时返回模拟数据
-        return String.format("""
-                算法执行统计（算法ID: %d）
-                - 总执行次数: 100
-                - 平均执行时间: 250ms
-                - 成功率: 95%%
-                - 平均内存使用: 45MB
-                """, algorithmId);
+    public void recordExecution(Long algorithmId, String language, ExecuteResponse response) {
+        if (response == null) {
+            return;
+        }
+        int outcome;
+        if (Boolean.TRUE.equals(response.getSuccess())) {
+            outcome = StatisticsSnapshot.SUCCESS;
+        } else if (Boolean.TRUE.equals(response.getTimeout())) {
+            outcome = StatisticsSnapshot.TIMEOUT;
+        } else if (Boolean.TRUE.equals(response.getMemoryExceeded())) {
+            outcome = StatisticsSnapshot.MEMORY_EXCEEDED;
+        } else if ("CANCELLED".equals(response.getStatus())) {
+            outcome = StatisticsSnapshot.CANCELLED;
+        } else {
+            outcome = StatisticsSnapshot.FAILED;
+        }
+        Long latency = response.getExecutionTime() != null ? response.getExecutionTime() : response.getRunTime();
+        for (Cell cell : cellsOf(algorithmId, language)) {
+            cell.record(outcome, Boolean.TRUE.equals(response.getCached()), latency, response.getMemoryUsed());
+        }
+        countOutcome(algorithmId, language, outcome);
+    }
+
+    /**
+     * 记录一次取消（执行未产生结果）
+     *
+     * @param algorithmId 算法ID
+     * @param language 编程语言
+     */
+    public void recordCancelled(Long algorithmId, String language) {
+        for (Cell cell : cellsOf(algorithmId, language)) {
+            cell.record(StatisticsSnapshot.CANCELLED, false, null, null);
+        }
+        countOutcome(algorithmId, language, StatisticsSnapshot.CANCELLED);
     }
 
     /**
-     * 记录执行统计
-     * 
+     * 获取算法执行统计信息
+     *
      * @param algorithmId 算法ID
-     * @param executionTime 执行时间
-     * @param success 是否成功
+     * @return 统计信息字符串
      */
-    public void recordExecution(Long algorithmId, Long executionTime, Boolean success) {
-        log.debug("记录执行统计 - 算法ID: {}, 执行时间: {}ms, 成功: {}", 
-                 algorithmId, executionTime, success);
-        
-        // 这里可以实际记录到数据库或统计系统
+    public String getExecutionStatistics(Long algorithmId) {
+        Map<String, StatisticsSnapshot> byLanguage = new HashMap<>();
+        for (String language : languagesByAlgorithm.getOrDefault(algorithmId, Set.of())) {
+            Cell cell = cells.get(algorithmScope(algorithmId, language));
+            if (cell != null) {
+                byLanguage.put(language, cell.view());
+            }
+        }
+        StringBuilder text = new StringBuilder(String.format("算法执行统计（算法ID: %d）%n", algorithmId));
+        appendSummary(text, byLanguage);
+        return text.toString();
     }
 
     /**
      * 获取系统整体统计
-     * 
+     *
      * @return 系统统计信息
      */
     public String getSystemStatistics() {
-        return """
-                系统执行统计
-                - 总算法数量: 50
-                - 今日执行次数: 1,200
-                - 系统平均响应时间: 180ms
-                - 系统可用性: 99.8%
-                """;
-    }
-}
\ No newline at end of file
+        Map<String, StatisticsSnapshot> byLanguage = new HashMap<>();
+        for (String language : systemLanguages) {
+            Cell cell = cells.get(SYSTEM_SCOPE + language);
+            if (cell != null) {
+                byLanguage.put(language, cell.view());
+            }
+        }
+        StringBuilder text = new StringBuilder(String.format("系统执行统计%n- 有执行记录的算法数量: %d%n",
+                languagesByAlgorithm.size()));
+        appendSummary(text, byLanguage);
+        return text.toString();
+    }
+
+    /**
+     * 把各统计单元自上次合并以来的增量合并到Redis，并读回全局汇总；
+     * 合并失败时增量保留在内存中，下次继续合并
+     */
+    @Scheduled(initialDelayString = "${sandbox.statistics.rollup-interval:60000}",
+            fixedDelayString = "${sandbox.statistics.rollup-interval:60000}")
+    public void rollup() {
+        if (!rollupEnabled) {
+            return;
+        }
+        Map<String, StatisticsSnapshot> currents = new HashMap<>();
+        Map<String, StatisticsSnapshot> deltas = new HashMap<>();
+        cells.forEach((scope, cell) -> {
+            StatisticsSnapshot current = cell.snapshot();
+            StatisticsSnapshot delta = current.minus(cell.base.flushed);
+            currents.put(scope, current);
+            if (!delta.isEmpty()) {
+                deltas.put(scope, delta);
+            }
+        });
+        if (!deltas.isEmpty()) {
+            try {
+                flush(deltas);
+            } catch (Exception e) {
+                log.warn("合并执行统计到Redis失败，维度数: {}, 原因: {}", deltas.size(), e.getMessage());
+                return;
+            }
+        }
+
+        Map<String, StatisticsSnapshot> globals;
+        try {
+            Set<String> scopes = stringRedisTemplate.opsForSet().members(SCOPES_KEY);
+            globals = scopes == null || scopes.isEmpty() ? Map.of() : loadGlobals(scopes);
+        } catch (Exception e) {
+            // 增量已经合并，读回失败时在原全局汇总上累加增量，避免下次重复合并
+            log.warn("读取执行统计汇总失败: {}", e.getMessage());
+            globals = null;
+        }
+        for (Map.Entry<String, StatisticsSnapshot> entry : currents.entrySet()) {
+            Cell cell = cells.get(entry.getKey());
+            StatisticsSnapshot delta = deltas.get(entry.getKey());
+            StatisticsSnapshot global = globals != null && globals.containsKey(entry.getKey())
+                    ? globals.get(entry.getKey())
+                    : delta == null ? cell.base.global : cell.base.global.copy().add(delta);
+            cell.base = new Base(global, entry.getValue());
+        }
+        if (globals != null) {
+            globals.forEach((scope, global) -> {
+                if (!currents.containsKey(scope)) {
+                    cell(scope).base = new Base(global, new StatisticsSnapshot());
+                }
+            });
+        }
+    }
+
+    private void flush(Map<String, StatisticsSnapshot> deltas) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            deltas.forEach((scope, delta) -> {
+                byte[] key = bytes(KEY_PREFIX + scope);
+                delta.toFields().forEach((field, value) -> connection.hashCommands().hIncrBy(key, bytes(field), value));
+                connection.setCommands().sAdd(bytes(SCOPES_KEY), bytes(scope));
+            });
+            return null;
+        });
+    }
+
+    private Map<String, StatisticsSnapshot> loadGlobals(Collection<String> scopes) {
+        List<String> ordered = new ArrayList<>(scopes);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String scope : ordered) {
+                connection.hashCommands().hGetAll(bytes(KEY_PREFIX + scope));
+            }
+            return null;
+        });
+        Map<String, StatisticsSnapshot> globals = new HashMap<>();
+        for (int i = 0; i < ordered.size() && i < results.size(); i++) {
+            if (results.get(i) instanceof Map<?, ?> fields && !fields.isEmpty()) {
+                globals.put(ordered.get(i), StatisticsSnapshot.fromFields(fields));
+            }
+        }
+        return globals;
+    }
+
+    private void countOutcome(Long algorithmId, String language, int outcome) {
+        meterRegistry.counter("sandbox.executions",
+                "language", normalize(language),
+                "category", getCategory(algorithmId),
+                "outcome", OUTCOME_TAGS[outcome]).increment();
+    }
+
+    /**
+     * 获取算法所属分类名称，查询结果缓存（查询失败时不缓存）
+     */
+    private String getCategory(Long algorithmId) {
+        if (algorithmId == null) {
+            return UNKNOWN;
+        }
+        String category = categoryByAlgorithm.get(algorithmId);
+        if (category != null) {
+            return category;
+        }
+        try {
+            Algorithm algorithm = algorithmRepository.selectById(algorithmId);
+            AlgorithmCategory algorithmCategory = algorithm == null || algorithm.getCategoryId() == null
+                    ? null : algorithmCategoryRepository.selectById(algorithm.getCategoryId());
+            category = algorithmCategory == null ? UNKNOWN : algorithmCategory.getName();
+        } catch (Exception e) {
+            log.debug("查询算法分类失败，算法ID: {}, 原因: {}", algorithmId, e.getMessage());
+            return UNKNOWN;
+        }
+        categoryByAlgorithm.put(algorithmId, category);
+        return category;
+    }
+
+    private static String normalize(String language) {
+        return language == null || language.isBlank() ? UNKNOWN : language.toLowerCase();
+    }
+
+    private List<Cell> cellsOf(Long algorithmId, String language) {
+        String lang = normalize(language);
+        List<Cell> touched = new ArrayList<>(2);
+        touched.add(cell(SYSTEM_SCOPE + lang));
+        if (algorithmId != null) {
+            touched.add(cell(algorithmScope(algorithmId, lang)));
+        }
+        return touched;
+    }
+
+    /**
+     * 获取（或创建）统计单元，同时登记维度中的算法和语言
+     */
+    private Cell cell(String scope) {
+        Cell existing = cells.get(scope);
+        if (existing != null) {
+            return existing;
+        }
+        return cells.computeIfAbsent(scope, key -> {
+            if (key.startsWith(SYSTEM_SCOPE)) {
+                systemLanguages.add(key.substring(SYSTEM_SCOPE.length()));
+            } else if (key.startsWith(ALGORITHM_SCOPE)) {
+                String[] parts = key.split(":", 3);
+                try {
+                    languagesByAlgorithm.computeIfAbsent(Long.parseLong(parts[1]), id -> ConcurrentHashMap.newKeySet())
+                            .add(parts[2]);
+                } catch (RuntimeException e) {
+                    log.debug("忽略无法识别的统计维度: {}", key);
+                }
+            }
+            return new Cell();
+        });
+    }
+
+    private static String algorithmScope(Long algorithmId, String language) {
+        return ALGORITHM_SCOPE + algorithmId + ":" + language;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendSummary(StringBuilder text, Map<String, StatisticsSnapshot> byLanguage) {
+        StatisticsSnapshot total = new StatisticsSnapshot();
+        byLanguage.values().forEach(total::add);
+        text.append(String.format("- 总执行次数: %d%n", total.get(StatisticsSnapshot.TOTAL)));
+        if (total.get(StatisticsSnapshot.TOTAL) == 0) {
+            return;
+        }
+        text.append(String.format("- 成功率: %.1f%%%n", total.successRate()));
+        text.append(String.format("- 失败/超时/内存超限/取消: %d/%d/%d/%d%n",
+                total.get(StatisticsSnapshot.FAILED), total.get(StatisticsSnapshot.TIMEOUT),
+                total.get(StatisticsSnapshot.MEMORY_EXCEEDED), total.get(StatisticsSnapshot.CANCELLED)));
+        text.append(String.format("- 结果缓存命中: %d%n", total.get(StatisticsSnapshot.CACHED)));
+        text.append(String.format("- 执行时间: 平均 %dms, P50 %dms, P90 %dms, P99 %dms%n",
+                total.averageLatency(), total.latencyPercentile(50), total.latencyPercentile(90),
+                total.latencyPercentile(99)));
+        text.append(String.format("- 内存使用: P50 %.1fMB, P90 %.1fMB, P99 %.1fMB%n",
+                total.memoryPercentile(50) / 1024.0, total.memoryPercentile(90) / 1024.0,
+                total.memoryPercentile(99) / 1024.0));
+        text.append("- 按语言:\n");
+        for (String language : new TreeSet<>(byLanguage.keySet())) {
+            StatisticsSnapshot snapshot = byLanguage.get(language);
+            text.append(String.format("  - %s: 执行 %d 次, 成功率 %.1f%%, 执行时间 P50 %dms / P99 %dms, 内存 P50 %.1fMB%n",
+                    language, snapshot.get(StatisticsSnapshot.TOTAL), snapshot.successRate(),
+                    snapshot.latencyPercentile(50), snapshot.latencyPercentile(99),
+                    snapshot.memoryPercentile(50) / 1024.0));
+        }
+    }
+
+    /**
+     * 全局汇总与合并时的本地快照，作为一个整体替换，保证查询时两者一致
+     */
+    private static class Base {
+
+        final StatisticsSnapshot global;
+
+        final StatisticsSnapshot flushed;
+
+        Base(StatisticsSnapshot global, StatisticsSnapshot flushed) {
+            this.global = global;
+            this.flushed = flushed;
+        }
+    }
+
+    /**
+     * 统计单元：本节点自启动以来的累计计数（只增不减）
+     */
+    private static class Cell {
+
+        private final LongAdder[] counters = new LongAdder[StatisticsSnapshot.MEMORY_SUM + 1];
+
+        private final LogHistogram latency = new LogHistogram();
+
+        private final LogHistogram memory = new LogHistogram();
+
+        private volatile Base base = new Base(new StatisticsSnapshot(), new StatisticsSnapshot());
+
+        Cell() {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = new LongAdder();
+            }
+        }
+
+        void record(int outcome, boolean cached, Long latencyMs, Long memoryKb) {
+            counters[StatisticsSnapshot.TOTAL].increment();
+            counters[outcome].increment();
+            if (cached) {
+                counters[StatisticsSnapshot.CACHED].increment();
+            }
+            if (latencyMs != null) {
+                counters[StatisticsSnapshot.LATENCY_SUM].add(latencyMs);
+                latency.record(latencyMs);
+            }
+            if (memoryKb != null) {
+                counters[StatisticsSnapshot.MEMORY_SUM].add(memoryKb);
+                memory.record(memoryKb);
+            }
+        }
+
+        StatisticsSnapshot snapshot() {
+            long[] values = new long[counters.length];
+            for (int i = 0; i < counters.length; i++) {
+                values[i] = counters[i].sum();
+            }
+            return new StatisticsSnapshot(values, latency.snapshot(), memory.snapshot());
+        }
+
+        /**
+         * 全局汇总 + 本节点尚未合并的增量
+         */
+        StatisticsSnapshot view() {
+            Base current = base;
+            return current.global.copy().add(snapshot().minus(current.flushed));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.algcockpit.service.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 对数分桶直方图
+ * 按2的幂划分区间，每个区间再均分为8个子桶，0~7精确计数，其余桶宽不超过下界的1/8（相对误差约6%），
+ * 共312个桶覆盖0~2^41。桶计数为无锁原子计数，快照是普通数组，不同节点、不同时间段的快照逐桶相加即可合并
+ *
+ * @author Algorithm Cockpit Team
+ */
+public class LogHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_EXPONENT = 40;
+
+    /**
+     * 桶数量
+     */
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * 记录一个取值，负数按0记录，超出范围的计入最后一个桶
+     *
+     * @param value 取值
+     */
+    public void record(long value) {
+        counts.incrementAndGet(bucketOf(value));
+    }
+
+    /**
+     * 获取各桶计数的快照
+     *
+     * @return 桶计数数组
+     */
+    public long[] snapshot() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 计算取值所在的桶
+     *
+     * @param value 取值
+     * @return 桶下标
+     */
+    public static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        int index = (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * 桶的代表值（区间中点）
+     *
+     * @param index 桶下标
+     * @return 代表值
+     */
+    public static long valueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+
+    /**
+     * 从桶计数中计算百分位数
+     *
+     * @param counts 桶计数
+     * @param percentile 百分位（0~100）
+     * @return 百分位数的近似值，无数据时返回0
+     */
+    public static long percentile(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(counts.length - 1);
+    }
+}
@@ -0,0 +1,195 @@
+package com.algcockpit.service.statistics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 执行统计快照
+ * 计数器与延迟、内存直方图的普通数组副本，可逐项相加（合并节点或语言）与相减（计算增量），
+ * 并与Redis Hash字段互相转换
+ *
+ * @author Algorithm Cockpit Team
+ */
+public class StatisticsSnapshot {
+
+    public static final int TOTAL = 0;
+    public static final int SUCCESS = 1;
+    public static final int FAILED = 2;
+    public static final int TIMEOUT = 3;
+    public static final int MEMORY_EXCEEDED = 4;
+    public static final int CANCELLED = 5;
+    public static final int CACHED = 6;
+    public static final int LATENCY_SUM = 7;
+    public static final int MEMORY_SUM = 8;
+
+    /**
+     * 计数器字段名（下标与上面的常量对应）
+     */
+    private static final String[] COUNTER_FIELDS = {
+            "total", "success", "failed", "timeout", "memoryExceeded", "cancelled", "cached", "latencySum", "memorySum"
+    };
+
+    private static final String LATENCY_PREFIX = "l";
+    private static final String MEMORY_PREFIX = "m";
+
+    final long[] counters;
+    final long[] latency;
+    final long[] memory;
+
+    public StatisticsSnapshot() {
+        this(new long[COUNTER_FIELDS.length], new long[LogHistogram.BUCKET_COUNT], new long[LogHistogram.BUCKET_COUNT]);
+    }
+
+    StatisticsSnapshot(long[] counters, long[] latency, long[] memory) {
+        this.counters = counters;
+        this.latency = latency;
+        this.memory = memory;
+    }
+
+    /**
+     * 计数器取值
+     *
+     * @param counter 计数器下标
+     */
+    public long get(int counter) {
+        return counters[counter];
+    }
+
+    /**
+     * 延迟百分位数（毫秒）
+     */
+    public long latencyPercentile(double percentile) {
+        return LogHistogram.percentile(latency, percentile);
+    }
+
+    /**
+     * 内存百分位数（KB）
+     */
+    public long memoryPercentile(double percentile) {
+        return LogHistogram.percentile(memory, percentile);
+    }
+
+    /**
+     * 平均延迟（毫秒），只计入有执行时间的执行
+     */
+    public long averageLatency() {
+        long measured = 0;
+        for (long count : latency) {
+            measured += count;
+        }
+        return measured == 0 ? 0 : counters[LATENCY_SUM] / measured;
+    }
+
+    /**
+     * 成功率（百分比），已取消的执行不计入
+     */
+    public double successRate() {
+        long finished = counters[TOTAL] - counters[CANCELLED];
+        return finished <= 0 ? 0 : counters[SUCCESS] * 100.0 / finished;
+    }
+
+    /**
+     * 累加另一个快照
+     *
+     * @return 当前快照
+     */
+    public StatisticsSnapshot add(StatisticsSnapshot other) {
+        addInto(counters, other.counters, 1);
+        addInto(latency, other.latency, 1);
+        addInto(memory, other.memory, 1);
+        return this;
+    }
+
+    /**
+     * 计算相对于较早快照的增量
+     *
+     * @param earlier 较早的快照
+     * @return 新的增量快照
+     */
+    public StatisticsSnapshot minus(StatisticsSnapshot earlier) {
+        StatisticsSnapshot delta = copy();
+        addInto(delta.counters, earlier.counters, -1);
+        addInto(delta.latency, earlier.latency, -1);
+        addInto(delta.memory, earlier.memory, -1);
+        return delta;
+    }
+
+    /**
+     * 是否没有任何计数
+     */
+    public boolean isEmpty() {
+        for (long counter : counters) {
+            if (counter != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public StatisticsSnapshot copy() {
+        return new StatisticsSnapshot(counters.clone(), latency.clone(), memory.clone());
+    }
+
+    /**
+     * 转换为Redis Hash字段（只包含非零项），用于HINCRBY合并增量
+     */
+    public Map<String, Long> toFields() {
+        Map<String, Long> fields = new HashMap<>();
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i] != 0) {
+                fields.put(COUNTER_FIELDS[i], counters[i]);
+            }
+        }
+        for (int i = 0; i < LogHistogram.BUCKET_COUNT; i++) {
+            if (latency[i] != 0) {
+                fields.put(LATENCY_PREFIX + i, latency[i]);
+            }
+            if (memory[i] != 0) {
+                fields.put(MEMORY_PREFIX + i, memory[i]);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * 从Redis Hash字段还原快照，无法识别的字段忽略
+     */
+    public static StatisticsSnapshot fromFields(Map<?, ?> fields) {
+        StatisticsSnapshot snapshot = new StatisticsSnapshot();
+        fields.forEach((key, value) -> {
+            String field = String.valueOf(key);
+            long count;
+            try {
+                count = Long.parseLong(String.valueOf(value));
+            } catch (NumberFormatException e) {
+                return;
+            }
+            for (int i = 0; i < COUNTER_FIELDS.length; i++) {
+                if (COUNTER_FIELDS[i].equals(field)) {
+                    snapshot.counters[i] = count;
+                    return;
+                }
+            }
+            long[] histogram = field.startsWith(LATENCY_PREFIX) ? snapshot.latency
+                    : field.startsWith(MEMORY_PREFIX) ? snapshot.memory : null;
+            if (histogram == null) {
+                return;
+            }
+            try {
+                int bucket = Integer.parseInt(field.substring(1));
+                if (bucket >= 0 && bucket < histogram.length) {
+                    histogram[bucket] = count;
+                }
+            } catch (NumberFormatException e) {
+                // 忽略无法识别的字段
+            }
+        });
+        return snapshot;
+    }
+
+    private static void addInto(long[] target, long[] source, int sign) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += sign * source[i];
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.algcockpit.service.validation;
+
+import com.algcockpit.repository.AlgorithmRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 算法存在性索引
+ * 以位图在内存中维护未删除算法的ID，执行前的存在性检查不再访问数据库。
+ * 本节点创建、删除算法时同步更新；其他节点的变更由定时全量刷新同步。
+ * 位图未命中时按主键查询数据库，存在则补入索引，不必等待刷新（其他节点新建或恢复的算法）；
+ * 确认不存在的ID短时间缓存，避免反复查询不存在的ID时每次访问数据库。
+ * 读取无锁（写时复制），写入和刷新串行
+ *
+ * @author Algorithm Cockpit Team
+ */
+@Slf4j
+@Component
+public class AlgorithmExistenceIndex {
+
+    @Autowired
+    private AlgorithmRepository algorithmRepository;
+
+    /**
+     * 未删除算法的ID（不可变快照，修改时整体替换）
+     */
+    private volatile BitSet liveIds = new BitSet();
+
+    @Value("${alg.cockpit.existence-index.miss-ttl:5000}")
+    private long missTtl;
+
+    @Value("${alg.cockpit.existence-index.miss-max-size:10000}")
+    private long missMaxSize;
+
+    /**
+     * 已确认不存在的算法ID，过期后重新查询数据库
+     */
+    private Cache<Long, Boolean> confirmedMisses;
+
+    /**
+     * 是否已从数据库加载，未加载时直接查询数据库
+     */
+    private volatile boolean loaded;
+
+    /**
+     * 修改次数，刷新期间有修改时放弃本次刷新结果
+     */
+    private long modifications;
+
+    @PostConstruct
+    public void init() {
+        confirmedMisses = Caffeine.newBuilder()
+                .maximumSize(missMaxSize)
+                .expireAfterWrite(Duration.ofMillis(missTtl))
+                .build();
+        refresh();
+    }
+
+    /**
+     * 从数据库全量刷新索引
+     */
+    @Scheduled(initialDelayString = "${alg.cockpit.existence-index.refresh-interval:60000}",
+            fixedDelayString = "${alg.cockpit.existence-index.refresh-interval:60000}")
+    public void refresh() {
+        long version;
+        synchronized (this) {
+            version = modifications;
+        }
+        List<Long> ids;
+        try {
+            ids = algorithmRepository.selectLiveIds();
+        } catch (Exception e) {
+            log.warn("加载算法存在性索引失败，{}: {}", loaded ? "继续使用现有索引" : "存在性检查将直接查询数据库",
+                    e.getMessage());
+            return;
+        }
+        BitSet refreshed = new BitSet();
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                continue;
+            }
+            if (id > Integer.MAX_VALUE - 1) {
+                log.warn("算法ID超出索引范围，存在性检查将直接查询数据库，ID: {}", id);
+                loaded = false;
+                return;
+            }
+            refreshed.set(id.intValue());
+        }
+        synchronized (this) {
+            if (version != modifications) {
+                log.debug("刷新期间算法有变更，放弃本次刷新结果");
+                return;
+            }
+            liveIds = refreshed;
+            loaded = true;
+        }
+        log.debug("刷新算法存在性索引完成，算法数: {}", ids.size());
+    }
+
+    /**
+     * 判断算法是否存在（未删除）
+     *
+     * @param algorithmId 算法ID
+     * @return 是否存在
+     */
+    public boolean contains(Long algorithmId) {
+        if (algorithmId == null || algorithmId <= 0) {
+            return false;
+        }
+        if (!loaded || algorithmId > Integer.MAX_VALUE - 1) {
+            return Boolean.TRUE.equals(existsInDatabase(algorithmId));
+        }
+        if (liveIds.get(algorithmId.intValue())) {
+            return true;
+        }
+        if (confirmedMisses.getIfPresent(algorithmId) != null) {
+            return false;
+        }
+        // 其他节点新建或变更的算法，刷新前位图中没有
+        Boolean exists = existsInDatabase(algorithmId);
+        if (exists == null) {
+            return false;
+        }
+        if (exists) {
+            add(algorithmId);
+        } else {
+            confirmedMisses.put(algorithmId, Boolean.TRUE);
+        }
+        return exists;
+    }
+
+    /**
+     * 按主键查询算法是否存在
+     *
+     * @return 是否存在，查询失败时返回null
+     */
+    private Boolean existsInDatabase(Long algorithmId) {
+        try {
+            return algorithmRepository.countLiveById(algorithmId) > 0;
+        } catch (Exception e) {
+            log.error("检查算法是否存在失败，算法ID: {}", algorithmId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 算法创建后加入索引
+     *
+     * @param algorithmId 算法ID
+     */
+    public synchronized void add(Long algorithmId) {
+        if (algorithmId == null || algorithmId <= 0 || algorithmId > Integer.MAX_VALUE - 1) {
+            return;
+        }
+        BitSet updated = (BitSet) liveIds.clone();
+        updated.set(algorithmId.intValue());
+        liveIds = updated;
+        confirmedMisses.invalidate(algorithmId);
+        modifications++;
+    }
+
+    /**
+     * 算法删除后移出索引
+     *
+     * @param algorithmId 算法ID
+     */
+    public synchronized void remove(Long algorithmId) {
+        if (algorithmId == null || algorithmId <= 0 || algorithmId > Integer.MAX_VALUE - 1) {
+            return;
+        }
+        BitSet updated = (BitSet) liveIds.clone();
+        updated.clear(algorithmId.intValue());
+        liveIds = updated;
+        modifications++;
+    }
+}
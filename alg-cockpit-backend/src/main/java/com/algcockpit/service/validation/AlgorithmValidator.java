@@ -1,6 +1,6 @@
 package com.algcockpit.service.validation;
 
-import com.algcockpit.service.AlgorithmService;
+import com.algcockpit.service.sandbox.runtime.LanguageRuntimeRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -16,10 +16,13 @@ import org.springframework.stereotype.Component;
 public class AlgorithmValidator {
 
     @Autowired
-    private AlgorithmService algorithmService;
+    private AlgorithmExistenceIndex algorithmExistenceIndex;
+
+    @Autowired
+    private LanguageRuntimeRegistry runtimeRegistry;
 
     /**
-     * 验证算法存在性
+     * 验证算法存在性（查内存索引，不访问数据库）
      * 
      * @param algorithmId 算法ID
      * @return 是否存在
@@ -30,7 +33,7 @@ public class AlgorithmValidator {
             return false;
         }
 
-        Boolean exists = algorithmService.existsById(algorithmId);
+        boolean exists = algorithmExistenceIndex.contains(algorithmId);
         if (!exists) {
             log.warn("算法不存在，ID: {}", algorithmId);
         }
@@ -50,13 +53,9 @@ public class AlgorithmValidator {
             return false;
         }
 
-        // 支持的编程语言列表
-        String[] supportedLanguages = {"java", "python", "javascript", "cpp", "c"};
-        
-        for (String supported : supportedLanguages) {
-            if (supported.equalsIgnoreCase(language)) {
-                return true;
-            }
+        // 支持的编程语言由语言运行时注册表决定
+        if (runtimeRegistry.isSupported(language)) {
+            return true;
         }
 
         log.warn("不支持的编程语言: {}", language);
@@ -0,0 +1,349 @@
+// 算法驾驶舱 JavaScript 常驻执行进程
+// 按行从标准输入读取JSON任务，在全新的vm上下文中执行用户代码，按行向标准输出返回JSON结果。
+// 用户代码只能看到模拟的process、console与受限的require，拿不到本进程的标准流；
+// 每个任务结束后检查从共享对象可达的全部对象（原型、模块、类及其静态属性）是否被修改，发现异常时在结果中报告，
+// 由宿主回收本进程。
+'use strict';
+
+const vm = require('vm');
+const readline = require('readline');
+const { Console } = require('console');
+const { Readable, Writable } = require('stream');
+
+const ALLOWED_MODULES = ['assert', 'buffer', 'events', 'readline', 'string_decoder', 'util'];
+const modules = {};
+for (const name of ALLOWED_MODULES) {
+  modules[name] = require(name);
+}
+
+// 用户代码可以直接触及的宿主对象；任务前后沿属性与原型链遍历从这些对象可达的全部对象，比较其属性判断是否被篡改
+const SHARED_ROOTS = [Object.prototype, Array.prototype, Function.prototype, String.prototype, Number.prototype,
+  Promise.prototype, Buffer, TextEncoder, TextDecoder, URL, Readable, Writable, readline.Interface, Console,
+  ...ALLOWED_MODULES.map((name) => modules[name])];
+
+class ExitSignal {
+  constructor(code) {
+    this.code = code;
+  }
+}
+
+function isReference(value) {
+  return (typeof value === 'object' && value !== null) || typeof value === 'function';
+}
+
+function snapshot() {
+  const objects = new Map();
+  const pending = [...SHARED_ROOTS];
+  while (pending.length > 0) {
+    const target = pending.pop();
+    if (objects.has(target)) {
+      continue;
+    }
+    const entries = new Map();
+    objects.set(target, entries);
+    const prototype = Object.getPrototypeOf(target);
+    entries.set('[[Prototype]]', prototype);
+    entries.set('[[Extensible]]', Object.isExtensible(target));
+    pending.push(...[prototype].filter(isReference));
+    for (const key of Reflect.ownKeys(target)) {
+      const descriptor = Object.getOwnPropertyDescriptor(target, key);
+      const values = 'value' in descriptor ? [descriptor.value] : [descriptor.get, descriptor.set];
+      entries.set(key, values);
+      pending.push(...values.filter(isReference));
+    }
+  }
+  return objects;
+}
+
+function sameSnapshot(before, after) {
+  if (before.size !== after.size) {
+    return false;
+  }
+  for (const [target, entries] of before) {
+    const other = after.get(target);
+    if (other === undefined || other.size !== entries.size) {
+      return false;
+    }
+    for (const [key, value] of entries) {
+      const current = other.get(key);
+      if (Array.isArray(value) ? !Array.isArray(current) || value.length !== current.length
+        || value.some((item, i) => !Object.is(item, current[i])) : !Object.is(value, current)) {
+        return false;
+      }
+    }
+  }
+  return true;
+}
+
+class CappedBuffer {
+  constructor(limit) {
+    this.limit = limit;
+    this.chunks = [];
+    this.size = 0;
+    this.truncated = false;
+  }
+
+  write(data) {
+    const buffer = Buffer.isBuffer(data) ? data : Buffer.from(String(data));
+    const room = this.limit - this.size;
+    if (buffer.length > room) {
+      this.truncated = true;
+    }
+    if (room > 0) {
+      const part = buffer.subarray(0, room);
+      this.chunks.push(part);
+      this.size += part.length;
+    }
+  }
+
+  text() {
+    return new TextDecoder('utf-8', { fatal: false }).decode(Buffer.concat(this.chunks)).replace(/\uFFFD$/, '');
+  }
+
+  stream() {
+    return new Writable({
+      write: (chunk, encoding, callback) => {
+        this.write(chunk);
+        callback();
+      },
+    });
+  }
+}
+
+let currentJob = null;
+
+// 去掉执行进程自身与包装函数的栈帧
+function formatError(error, code) {
+  const wrapperFrame = 'main.js:' + (code.split('\n').length + 1) + ':';
+  const text = error && error.stack ? error.stack : String(error);
+  return text.split('\n')
+    .filter((line) => !/^\s+at /.test(line) || !(line.includes('node:') || line.includes('alg-worker.js')
+      || line.includes(wrapperFrame)))
+    .join('\n') + '\n';
+}
+
+function recordUncaught(error) {
+  if (currentJob === null) {
+    return;
+  }
+  if (error instanceof ExitSignal) {
+    currentJob.exit(error.code);
+    return;
+  }
+  currentJob.stderr.write(formatError(error, currentJob.code));
+  currentJob.exit(1);
+}
+
+process.on('uncaughtException', recordUncaught);
+process.on('unhandledRejection', recordUncaught);
+
+function createJob(job) {
+  const input = job.input || '';
+  const stdout = new CappedBuffer(job.maxOutputBytes || 65536);
+  const stderr = new CappedBuffer(job.maxOutputBytes || 65536);
+  const timers = new Set();
+  let fileOutput = '';
+  let exitCode = null;
+
+  const state = {
+    code: job.code || '',
+    stdout,
+    stderr,
+    exit(code) {
+      if (exitCode === null) {
+        exitCode = code === undefined ? 0 : Number(code) || 0;
+      }
+    },
+    exited: () => exitCode !== null,
+    exitCode: () => exitCode,
+    fileOutput: () => fileOutput,
+    timers,
+  };
+
+  const guard = (fn) => function (...args) {
+    if (exitCode !== null) {
+      return undefined;
+    }
+    try {
+      return fn.apply(this, args);
+    } catch (error) {
+      recordUncaught(error);
+      return undefined;
+    }
+  };
+
+  const track = (schedule, clear) => (fn, ...args) => {
+    const handle = schedule(guard(function (...callbackArgs) {
+      if (schedule !== setInterval) {
+        timers.delete(handle);
+      }
+      return fn.apply(this, callbackArgs);
+    }), ...args);
+    timers.add(handle);
+    return handle;
+  };
+
+  const stdin = Readable.from(input.length > 0 ? [Buffer.from(input)] : []);
+  const fakeProcess = {
+    argv: ['node', 'main.js'],
+    env: {},
+    platform: process.platform,
+    version: process.version,
+    versions: process.versions,
+    stdin,
+    stdout: { write: (data) => { stdout.write(data); return true; } },
+    stderr: { write: (data) => { stderr.write(data); return true; } },
+    exit: (code) => { throw new ExitSignal(code === undefined ? fakeProcess.exitCode : code); },
+    exitCode: undefined,
+    hrtime: process.hrtime,
+    memoryUsage: () => process.memoryUsage(),
+    nextTick: (fn, ...args) => process.nextTick(guard(fn), ...args),
+    on: () => fakeProcess,
+    once: () => fakeProcess,
+  };
+
+  const fs = {
+    readFileSync(path, options) {
+      if (path === 0 || path === '/dev/stdin') {
+        return options ? input : Buffer.from(input);
+      }
+      throw new Error('沙箱禁止读取文件: ' + path);
+    },
+    writeFileSync(path, data) {
+      if (path !== 'output.txt' && path !== './output.txt') {
+        throw new Error('沙箱禁止写入文件: ' + path);
+      }
+      fileOutput = String(data);
+    },
+  };
+
+  const userRequire = (name) => {
+    const bare = String(name).replace(/^node:/, '');
+    if (bare === 'fs') {
+      return fs;
+    }
+    if (ALLOWED_MODULES.includes(bare)) {
+      return modules[bare];
+    }
+    throw new Error("Cannot find module '" + name + "'");
+  };
+
+  const module = { exports: {} };
+  const sandbox = {
+    console: new Console({ stdout: stdout.stream(), stderr: stderr.stream() }),
+    process: fakeProcess,
+    require: userRequire,
+    module,
+    exports: module.exports,
+    Buffer,
+    TextEncoder,
+    TextDecoder,
+    URL,
+    setTimeout: track(setTimeout),
+    setInterval: track(setInterval),
+    setImmediate: track(setImmediate),
+    clearTimeout: (handle) => { timers.delete(handle); clearTimeout(handle); },
+    clearInterval: (handle) => { timers.delete(handle); clearInterval(handle); },
+    clearImmediate: (handle) => { timers.delete(handle); clearImmediate(handle); },
+    queueMicrotask: (fn) => queueMicrotask(guard(fn)),
+  };
+  sandbox.globalThis = sandbox;
+  state.context = vm.createContext(sandbox, { codeGeneration: { strings: false, wasm: false } });
+  state.stdin = stdin;
+  state.fakeProcess = fakeProcess;
+  return state;
+}
+
+function stdinIdle(stdin) {
+  return stdin.readableEnded || ['data', 'readable', 'end'].every((event) => stdin.listenerCount(event) === 0);
+}
+
+const nextTurn = () => new Promise((resolve) => setImmediate(resolve));
+
+async function runJob(job, baseline) {
+  const timeoutMs = job.timeoutMs || 10000;
+  const anomalies = [];
+  const state = createJob(job);
+  currentJob = state;
+  let status = null;
+
+  const cpuStart = process.cpuUsage();
+  const wallStart = process.hrtime.bigint();
+  try {
+    const script = new vm.Script(
+      '(function (exports, require, module, __filename, __dirname) {\n' + state.code + '\n})'
+      + '.call(module.exports, module.exports, require, module, "main.js", ".");',
+      { filename: 'main.js', lineOffset: -1 });
+    script.runInContext(state.context, { timeout: timeoutMs });
+  } catch (error) {
+    if (error instanceof ExitSignal) {
+      state.exit(error.code);
+    } else if (error && error.code === 'ERR_SCRIPT_EXECUTION_TIMEOUT') {
+      status = 'TIMEOUT';
+      anomalies.push('timeout');
+    } else {
+      state.stderr.write(formatError(error, state.code));
+      state.exit(1);
+    }
+  }
+
+  // 等待异步回调（定时器、标准输入事件）执行完毕；连续两轮空闲视为结束
+  let idleTurns = 0;
+  while (status === null && !state.exited() && idleTurns < 2) {
+    await nextTurn();
+    idleTurns = state.timers.size === 0 && stdinIdle(state.stdin) ? idleTurns + 1 : 0;
+    const cpu = process.cpuUsage(cpuStart);
+    if ((cpu.user + cpu.system) / 1000 > timeoutMs) {
+      status = 'TIMEOUT';
+      anomalies.push('timeout');
+    }
+  }
+  for (const handle of state.timers) {
+    clearTimeout(handle);
+    clearInterval(handle);
+    clearImmediate(handle);
+  }
+  if (state.timers.size > 0 && !state.exited()) {
+    anomalies.push('timers left pending');
+  }
+  currentJob = null;
+
+  const cpu = process.cpuUsage(cpuStart);
+  let output = state.stdout.text();
+  const fileOutput = state.fileOutput().trim();
+  if (fileOutput) {
+    output = output.trim() ? output + '\n' + fileOutput : fileOutput;
+  }
+  if (!sameSnapshot(baseline, snapshot())) {
+    anomalies.push('shared objects modified');
+  }
+  const exitCode = state.exited() ? state.exitCode() : Number(state.fakeProcess.exitCode) || 0;
+  return {
+    id: job.id,
+    status,
+    exitCode,
+    stdout: output,
+    stderr: state.stderr.text(),
+    stdoutTruncated: state.stdout.truncated,
+    stderrTruncated: state.stderr.truncated,
+    cpuUserMs: Math.round(cpu.user / 1000),
+    cpuSystemMs: Math.round(cpu.system / 1000),
+    wallMs: Number((process.hrtime.bigint() - wallStart) / 1000000n),
+    maxRssKb: process.resourceUsage().maxRSS,
+    anomalies,
+  };
+}
+
+async function main() {
+  const baseline = snapshot();
+  const reply = (result) => process.stdout.write(JSON.stringify(result) + '\n');
+  reply({ ready: true });
+  const lines = readline.createInterface({ input: process.stdin, terminal: false });
+  for await (const line of lines) {
+    if (line.trim()) {
+      reply(await runJob(JSON.parse(line), baseline));
+    }
+  }
+}
+
+main();
@@ -0,0 +1,238 @@
+# 算法驾驶舱 Python 常驻执行进程
+# 按行从协议通道读取JSON任务，按行返回JSON结果。本进程只负责预加载标准库和收发任务，从不执行用户代码：
+# 每个任务在从本进程fork出的子进程中执行，子进程自成进程组，结束后连同其后代进程一起终止，
+# 用户代码对解释器状态的任何改动（模块属性、类属性、审计钩子、trace/profile钩子等）都随子进程消失，
+# 不会被后续任务看到。子进程关闭协议通道，0/1/2号描述符指向/dev/null，用户代码无法篡改协议；
+# 工作目录残留文件、遗留后代进程等子进程退出后仍会留下的痕迹在结果中报告异常，由宿主回收本进程；
+# 脱离进程组（setsid）的后代进程不受进程组终止影响，每个任务结束后扫描/proc，容器内除本进程与1号进程外
+# 仍有存活进程即报告异常，宿主随即驱逐容器。
+import builtins
+import io
+import json
+import os
+import random
+import resource
+import select
+import signal
+import sys
+import time
+import traceback
+
+PRELOADED = ['array', 'bisect', 'collections', 'copy', 'dataclasses', 'decimal', 'enum', 'fractions', 'functools',
+             'heapq', 'itertools', 'json', 'math', 'operator', 're', 'statistics', 'string', 'typing']
+for _name in PRELOADED:
+    __import__(_name)
+
+OUTPUT_FILE = 'output.txt'
+
+
+class JobTimeout(BaseException):
+    pass
+
+
+class CappedBytes(io.RawIOBase):
+    """按字节数封顶的输出缓冲，超出部分丢弃"""
+
+    def __init__(self, limit):
+        self.limit = limit
+        self.data = bytearray()
+        self.truncated = False
+
+    def writable(self):
+        return True
+
+    def write(self, b):
+        room = self.limit - len(self.data)
+        if len(b) > room:
+            self.truncated = True
+        if room > 0:
+            self.data += bytes(b[:room])
+        return len(b)
+
+    def text(self):
+        return self.data.decode('utf-8', errors='ignore')
+
+
+def on_timeout(signum, frame):
+    raise JobTimeout()
+
+
+def open_protocol():
+    proto_in = os.fdopen(os.dup(0), 'r', encoding='utf-8')
+    proto_out = os.fdopen(os.dup(1), 'w', encoding='utf-8')
+    devnull = os.open(os.devnull, os.O_RDWR)
+    for fd in (0, 1, 2):
+        os.dup2(devnull, fd)
+    return proto_in, proto_out
+
+
+def run_job(job):
+    limit = int(job.get('maxOutputBytes', 65536))
+    out_raw, err_raw = CappedBytes(limit), CappedBytes(limit)
+    stdout = io.TextIOWrapper(io.BufferedWriter(out_raw), encoding='utf-8', write_through=True)
+    stderr = io.TextIOWrapper(io.BufferedWriter(err_raw), encoding='utf-8', write_through=True)
+    stdin = io.TextIOWrapper(io.BytesIO((job.get('input') or '').encode('utf-8')), encoding='utf-8')
+
+    namespace = {'__name__': '__main__', '__builtins__': builtins, '__file__': 'main.py'}
+    random.seed()
+    status, exit_code, anomalies = None, 0, []
+
+    sys.stdin, sys.stdout, sys.stderr = stdin, stdout, stderr
+    cpu_start, wall_start = os.times(), time.monotonic()
+    signal.setitimer(signal.ITIMER_PROF, max(0.001, float(job.get('timeoutMs', 10000)) / 1000))
+    try:
+        exec(compile(job.get('code', ''), 'main.py', 'exec'), namespace)
+    except SystemExit as e:
+        if e.code is None or isinstance(e.code, int):
+            exit_code = e.code or 0
+        else:
+            print(e.code, file=sys.stderr)
+            exit_code = 1
+    except JobTimeout:
+        status = 'TIMEOUT'
+        anomalies.append('timeout')
+    except MemoryError:
+        status = 'MEMORY_EXCEEDED'
+        anomalies.append('memory error')
+    except BaseException as e:
+        # 去掉本执行进程自身的栈帧
+        traceback.print_exception(type(e), e, e.__traceback__.tb_next if e.__traceback__ else None)
+        exit_code = 1
+    finally:
+        signal.setitimer(signal.ITIMER_PROF, 0)
+        try:
+            stdout.flush()
+            stderr.flush()
+        except BaseException:
+            pass
+        sys.stdin, sys.stdout, sys.stderr = sys.__stdin__, sys.__stdout__, sys.__stderr__
+    cpu_end, wall_end = os.times(), time.monotonic()
+
+    output = out_raw.text()
+    if os.path.isfile(OUTPUT_FILE):
+        with open(OUTPUT_FILE, encoding='utf-8', errors='ignore') as f:
+            file_output = f.read().strip()
+        os.remove(OUTPUT_FILE)
+        if file_output:
+            output = file_output if not output.strip() else output + '\n' + file_output
+
+    if os.listdir('.'):
+        anomalies.append('files left in workspace')
+
+    return {
+        'id': job.get('id'),
+        'status': status,
+        'exitCode': exit_code,
+        'stdout': output,
+        'stderr': err_raw.text(),
+        'stdoutTruncated': out_raw.truncated,
+        'stderrTruncated': err_raw.truncated,
+        'cpuUserMs': round((cpu_end.user - cpu_start.user) * 1000),
+        'cpuSystemMs': round((cpu_end.system - cpu_start.system) * 1000),
+        'wallMs': round((wall_end - wall_start) * 1000),
+        'maxRssKb': resource.getrusage(resource.RUSAGE_SELF).ru_maxrss,
+        'anomalies': anomalies,
+    }
+
+
+def stray_processes():
+    """容器内除本进程与1号进程外仍存活（非僵尸）的进程ID"""
+    strays = []
+    for entry in os.listdir('/proc'):
+        if not entry.isdigit() or int(entry) in (1, os.getpid()):
+            continue
+        try:
+            with open('/proc/%s/stat' % entry) as f:
+                state = f.read().rsplit(')', 1)[1].split()[0]
+        except (OSError, IndexError):
+            continue
+        if state != 'Z':
+            strays.append(int(entry))
+    return strays
+
+
+def run_isolated(job, proto_in, proto_out):
+    """在fork出的子进程中执行任务，经管道取回结果"""
+    read_fd, write_fd = os.pipe()
+    pid = os.fork()
+    if pid == 0:
+        try:
+            os.setpgid(0, 0)
+            os.close(read_fd)
+            os.close(proto_in.fileno())
+            os.close(proto_out.fileno())
+            data = json.dumps(run_job(job)).encode('utf-8')
+            while data:
+                data = data[os.write(write_fd, data):]
+        finally:
+            os._exit(0)
+
+    os.close(write_fd)
+    chunks, status, anomalies = [], None, []
+    while True:
+        readable, _, _ = select.select([read_fd], [], [], 0.05)
+        if readable:
+            chunk = os.read(read_fd, 65536)
+            if not chunk:
+                break
+            chunks.append(chunk)
+        elif status is None:
+            waited, status = os.waitpid(pid, os.WNOHANG)
+            if waited == 0:
+                status = None
+        else:
+            # 子进程已退出而管道仍未关闭：写端被遗留的后代进程持有
+            anomalies.append('pipe held by leftover process')
+            break
+    os.close(read_fd)
+    if status is None:
+        _, status = os.waitpid(pid, 0)
+
+    try:
+        os.killpg(pid, signal.SIGKILL)
+    except OSError:
+        pass
+    strays = stray_processes()
+    if strays:
+        for stray in strays:
+            try:
+                os.kill(stray, signal.SIGKILL)
+            except OSError:
+                pass
+        anomalies.append('processes left running')
+
+    try:
+        result = json.loads(b''.join(chunks).decode('utf-8'))
+        if not isinstance(result, dict):
+            raise ValueError('unexpected result')
+    except ValueError:
+        killed = os.WIFSIGNALED(status) and os.WTERMSIG(status) == signal.SIGKILL
+        result = {
+            'status': 'MEMORY_EXCEEDED' if killed else None,
+            'exitCode': 137 if killed else 1,
+            'stdout': '',
+            'stderr': '执行进程异常退出',
+            'anomalies': ['job process exited abnormally'],
+        }
+    result['id'] = job.get('id')
+    result['anomalies'] = list(result.get('anomalies') or []) + anomalies
+    return result
+
+
+def main():
+    resource.setrlimit(resource.RLIMIT_CORE, (0, 0))
+    resource.setrlimit(resource.RLIMIT_FSIZE, (16 * 1024 * 1024, 16 * 1024 * 1024))
+    signal.signal(signal.SIGPROF, on_timeout)
+    proto_in, proto_out = open_protocol()
+
+    proto_out.write(json.dumps({'ready': True}) + '\n')
+    proto_out.flush()
+    for line in proto_in:
+        if not line.strip():
+            continue
+        result = run_isolated(json.loads(line), proto_in, proto_out)
+        proto_out.write(json.dumps(result) + '\n')
+        proto_out.flush()
+
+
+main()
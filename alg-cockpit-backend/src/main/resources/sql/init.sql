@@ -151,6 +151,41 @@ CREATE TABLE IF NOT EXISTS `collection` (
     CONSTRAINT `fk_collection_algorithm` FOREIGN KEY (`algorithm_id`) REFERENCES `algorithm` (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='收藏表';
 
+-- 算法执行记录表
+CREATE TABLE IF NOT EXISTS `alg_execution` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '执行记录ID',
+    `execution_no` VARCHAR(64) COMMENT '沙箱执行编号',
+    `algorithm_id` BIGINT NOT NULL COMMENT '算法ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `input_params` TEXT COMMENT '输入参数',
+    `output_result` TEXT COMMENT '输出结果',
+    `status` TINYINT DEFAULT 0 COMMENT '执行状态：0-执行中，1-成功，2-失败，3-超时，4-已取消',
+    `execution_time` BIGINT DEFAULT 0 COMMENT '执行时间（毫秒）',
+    `memory_usage` BIGINT DEFAULT 0 COMMENT '内存使用（MB）',
+    `error_message` TEXT COMMENT '错误信息',
+    `environment_info` TEXT COMMENT '执行环境信息',
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    `deleted` TINYINT DEFAULT 0 COMMENT '逻辑删除：0-未删除，1-已删除',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_execution_no` (`execution_no`),
+    KEY `idx_algorithm_id` (`algorithm_id`),
+    KEY `idx_user_id` (`user_id`),
+    KEY `idx_status` (`status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='算法执行记录表';
+
+-- 已有的算法执行记录表补充沙箱执行编号列及唯一索引（列已存在时跳过）
+SET @add_execution_no = (
+    SELECT IF(COUNT(*) = 0,
+              'ALTER TABLE `alg_execution` ADD COLUMN `execution_no` VARCHAR(64) COMMENT ''沙箱执行编号'' AFTER `id`, ADD UNIQUE KEY `uk_execution_no` (`execution_no`)',
+              'DO 0')
+    FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'alg_execution' AND COLUMN_NAME = 'execution_no'
+);
+PREPARE add_execution_no_stmt FROM @add_execution_no;
+EXECUTE add_execution_no_stmt;
+DEALLOCATE PREPARE add_execution_no_stmt;
+
 -- 插入初始数据
 -- 算法分类数据
 INSERT INTO `algorithm_category` (`name`, `description`, `icon`, `sort_order`) VALUES
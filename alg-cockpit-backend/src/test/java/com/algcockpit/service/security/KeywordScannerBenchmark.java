@@ -0,0 +1,124 @@
+package com.algcockpit.service.security;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 关键字扫描吞吐量基准
+ * 按 application.yml 中 sandbox.security.rules 的配置构建 {@link KeywordScanner}，
+ * 对约10KB、不含任何关键字的源码（需扫描全文，即最坏情况）反复扫描，
+ * 并与改用扫描器之前 CodeSecurityValidator 每次调用现编译正则的做法对比。
+ * <p>
+ * 普通 main 程序，不参与单元测试，运行方式：
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *      com.algcockpit.service.security.KeywordScannerBenchmark [源码字节数] [迭代次数]
+ * </pre>
+ *
+ * @author Algorithm Cockpit Team
+ */
+public class KeywordScannerBenchmark {
+
+    private static final int DEFAULT_SOURCE_BYTES = 10 * 1024;
+
+    private static final int DEFAULT_ITERATIONS = 20000;
+
+    /**
+     * 各语言的干净源码行，重复拼接到目标长度
+     */
+    private static final Map<String, String> SOURCE_LINES = new LinkedHashMap<>();
+
+    /**
+     * 改用扫描器之前的正则校验（原实现中两处缺失的右括号已补齐，否则无法编译），返回true表示通过
+     */
+    private static final Map<String, Predicate<String>> LEGACY_VALIDATORS = new LinkedHashMap<>();
+
+    static {
+        SOURCE_LINES.put("java",
+                "        for (int i = 1; i <= n; i++) { dp[i] = max(dp[i - 1], values[i] + best); total += dp[i]; } // keep going\n");
+        SOURCE_LINES.put("python",
+                "    for i in range(1, n + 1):  dp[i] = max(dp[i - 1], values[i] + best); total += dp[i]  # keep going\n");
+        SOURCE_LINES.put("cpp",
+                "    for (int i = 1; i <= n; ++i) { dp[i] = std::max(dp[i - 1], values[i] + best); total += dp[i]; } // keep going\n");
+
+        LEGACY_VALIDATORS.put("java", code -> !(
+                Pattern.compile("(?i)(system\\.|runtime\\.|processbuilder|exec\\s*\\(|eval\\s*\\(|scriptengine|reflection|unsafe|jni|native)").matcher(code).find()
+                        || Pattern.compile("(?i)(fileinputstream|fileoutputstream|filewriter|filereader)").matcher(code).find()
+                        || Pattern.compile("(?i)(socket|urlconnection|httpclient)").matcher(code).find()));
+        LEGACY_VALIDATORS.put("python", code -> !(
+                Pattern.compile("(?i)(import\\s+(os|sys|subprocess|shutil|importlib|ctypes|socket|urllib|requests|pickle|marshal|eval|exec|compile|__import__))").matcher(code).find()
+                        || Pattern.compile("(?i)(\\b(exec|eval|compile|input|open|file|__import__|getattr|setattr|delattr|globals|locals|vars|dir|type|isinstance|issubclass|super|__subclasses__|__bases__|__mro__|__class__|__dict__)\\s*\\()").matcher(code).find()));
+        LEGACY_VALIDATORS.put("cpp", code -> !(
+                Pattern.compile("(?i)(system|exec|fork|popen|fopen|fwrite|socket|connect|bind)").matcher(code).find()
+                        || Pattern.compile("(?i)(malloc|calloc|realloc|free|new|delete)").matcher(code).find()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sourceBytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SOURCE_BYTES;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        Map<String, List<SecurityRule>> rules = loadRules();
+
+        for (Map.Entry<String, String> entry : SOURCE_LINES.entrySet()) {
+            String language = entry.getKey();
+            String code = buildSource(entry.getValue(), sourceBytes);
+            KeywordScanner scanner = new KeywordScanner(rules.get(language));
+            Predicate<String> legacy = LEGACY_VALIDATORS.get(language);
+            if (scanner.scan(code) != null || !legacy.test(code)) {
+                throw new IllegalStateException(language + " 基准源码命中了安全规则");
+            }
+
+            // 预热
+            for (int i = 0; i < iterations / 4; i++) {
+                scanner.scan(code);
+                legacy.test(code);
+            }
+            double scannerNanos = measure(() -> scanner.scan(code), iterations);
+            double legacyNanos = measure(() -> legacy.test(code), iterations);
+            System.out.printf("%-6s %d字节: 扫描器 %.1f us/次 (%.0f MB/s)，原正则 %.1f us/次 (%.0f MB/s)%n",
+                    language, code.length(),
+                    scannerNanos / 1000, code.length() / scannerNanos * 1000,
+                    legacyNanos / 1000, code.length() / legacyNanos * 1000);
+        }
+    }
+
+    /**
+     * 以与 CodeSecurityValidator 相同的绑定方式读取 sandbox.security.rules
+     */
+    private static Map<String, List<SecurityRule>> loadRules() throws Exception {
+        Binder binder = new Binder(ConfigurationPropertySources.from(
+                new YamlPropertySourceLoader().load("application", new ClassPathResource("application.yml"))));
+        Bindable<Map<String, List<SecurityRule>>> type = Bindable.of(ResolvableType.forClassWithGenerics(Map.class,
+                ResolvableType.forClass(String.class), ResolvableType.forClassWithGenerics(List.class, SecurityRule.class)));
+        return binder.bind("sandbox.security.rules", type).get();
+    }
+
+    private static String buildSource(String line, int sourceBytes) {
+        StringBuilder source = new StringBuilder(sourceBytes + line.length());
+        while (source.length() < sourceBytes) {
+            source.append(line);
+        }
+        return source.toString();
+    }
+
+    /**
+     * @return 每次调用的平均耗时（纳秒）
+     */
+    private static double measure(Runnable task, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+}